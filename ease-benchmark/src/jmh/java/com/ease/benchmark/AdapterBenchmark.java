@@ -0,0 +1,198 @@
+package com.ease.benchmark;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.ease.adapter.BaseAdapter;
+import com.ease.benchmark.model.Repo;
+import com.ease.data.DataController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * adapter benchmark
+ * BaseAdapter 按位置解析 view type 和 item id 的开销: 2 个 Header, 每 10 条数据一个 Random, 1 个 Footer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdapterBenchmark {
+
+    private static final int HEADER_COUNT = 2;
+    private static final int RANDOM_INTERVAL = 10;
+    private static final int FOOTER_COUNT = 1;
+
+    @Param({"100", "1000", "10000"})
+    public int items;
+
+    private RepoAdapter mAdapter;
+
+    @Setup
+    public void setUp() {
+        ImmediateSchedulers.install();
+        mAdapter = new RepoAdapter(items);
+        mAdapter.setHeaderDelegate(new Headers());
+        mAdapter.setRandomDelegate(new Randoms(items / RANDOM_INTERVAL));
+        mAdapter.setFooterDelegate(new Footers());
+        mAdapter.onAttachedToRecyclerView(null);
+    }
+
+    /**
+     * 遍历所有位置, RecyclerView 绑定时对每个位置都会调用
+     */
+    @Benchmark
+    public void resolveAll(Blackhole blackhole) {
+        for (int position = 0, count = mAdapter.getItemCount(); position < count; position++) {
+            blackhole.consume(mAdapter.getItemViewType(position));
+            blackhole.consume(mAdapter.getItemId(position));
+        }
+    }
+
+    /**
+     * delegate 变化后重建分段表
+     */
+    @Benchmark
+    public int rebuildSegments() {
+        mAdapter.notifySegmentsChanged();
+        return mAdapter.getItemCount();
+    }
+
+    private static final class RepoAdapter extends BaseAdapter<Repo> {
+
+        private final int mItems;
+
+        RepoAdapter(int items) {
+            super(null);
+            mItems = items;
+        }
+
+        @Override
+        public DataController<Repo> createDataController() {
+            FixedDataController<Repo> controller = new FixedDataController<>(Fixtures.repos(0, mItems));
+            controller.setLimit(mItems);
+            return controller;
+        }
+
+        @Override
+        public int getCommonType(int position) {
+            return DEFAULT_COMMON_TYPE;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateCommon(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindCommon(RecyclerView.ViewHolder holder, Repo item) {
+        }
+    }
+
+    private static final class Headers implements BaseAdapter.HeaderDelegate {
+
+        @Override
+        public RecyclerView.ViewHolder onCreateHeader(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindHeader(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return HEADER_COUNT;
+        }
+
+        @Override
+        public int getHeaderType(int position) {
+            return 1000 + position;
+        }
+
+        @Override
+        public boolean isHeaderType(int viewType) {
+            return viewType >= 1000 && viewType < 1000 + HEADER_COUNT;
+        }
+    }
+
+    private static final class Randoms implements BaseAdapter.RandomDelegate {
+
+        private final int mCount;
+
+        Randoms(int count) {
+            mCount = count;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateRandom(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindRandom(RecyclerView.ViewHolder holder, int index) {
+        }
+
+        @Override
+        public int getRandomCount() {
+            return mCount;
+        }
+
+        @Override
+        public int getRandomPosition(int index) {
+            return (index + 1) * RANDOM_INTERVAL;
+        }
+
+        @Override
+        public int getRandomType(int index) {
+            return BaseAdapter.DEFAULT_RANDOM_TYPE;
+        }
+
+        @Override
+        public boolean isRandomType(int viewType) {
+            return viewType == BaseAdapter.DEFAULT_RANDOM_TYPE;
+        }
+    }
+
+    private static final class Footers implements BaseAdapter.FooterDelegate {
+
+        @Override
+        public int getFooterCount() {
+            return FOOTER_COUNT;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateFooter(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindFooter(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public boolean isFooterType(int viewType) {
+            return viewType == 2000;
+        }
+
+        @Override
+        public int getFooterType(int position) {
+            return 2000 + position;
+        }
+    }
+}
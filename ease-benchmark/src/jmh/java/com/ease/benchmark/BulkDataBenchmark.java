@@ -0,0 +1,122 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.DataChange;
+import com.ease.data.DataController;
+import com.ease.data.DataSubscriber;
+import com.ease.data.ManualFrameScheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bulk data benchmark
+ * bulkAppendData / bulkInsertData 在大列表上的开销, 以及批量修改合并后的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkDataBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Repo> mItems;
+    private List<Repo> mPage;
+    private FixedDataController<Repo> mFilled;
+    private int mChanges;
+
+    private final DataSubscriber.DataChangeListener<Repo> mListener = new DataSubscriber.DataChangeListener<Repo>() {
+        @Override
+        public void onDataChange(DataChange change) {
+            mChanges += change.getCount();
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        mItems = Fixtures.repos(0, size);
+        mPage = Fixtures.repos(size, PAGE_SIZE);
+        mFilled = newController();
+        mFilled.bulkAppendData(mItems);
+    }
+
+    /**
+     * 插入后的条目直接从末尾删掉, 列表保持 size 个, 删除末尾不需要移动元素
+     */
+    @Setup(Level.Invocation)
+    public void trim() {
+        List<Repo> data = mFilled.getData();
+        if (data.size() > size) {
+            data.subList(size, data.size()).clear();
+        }
+    }
+
+    /**
+     * 逐页追加到 size 个
+     */
+    @Benchmark
+    public int appendPages() {
+        DataController<Repo> controller = newController();
+        for (int i = 0; i < size; i += PAGE_SIZE) {
+            controller.bulkAppendData(mItems.subList(i, Math.min(size, i + PAGE_SIZE)));
+        }
+        return controller.getData().size();
+    }
+
+    /**
+     * 同样逐页追加, 但在一次批量修改中完成, 只分发一次合并后的变化
+     */
+    @Benchmark
+    public int appendPagesBatched() {
+        ManualFrameScheduler frames = new ManualFrameScheduler();
+        DataController<Repo> controller = newController();
+        controller.setFrameScheduler(frames);
+        controller.beginBatch();
+        for (int i = 0; i < size; i += PAGE_SIZE) {
+            controller.bulkAppendData(mItems.subList(i, Math.min(size, i + PAGE_SIZE)));
+        }
+        controller.commitBatch();
+        frames.doFrame();
+        return controller.getData().size();
+    }
+
+    /**
+     * 在 size 个条目的头部插入一页, 所有元素后移
+     */
+    @Benchmark
+    public int insertPageAtHead() {
+        mFilled.bulkInsertData(0, mPage);
+        return mChanges;
+    }
+
+    @Benchmark
+    public int appendPageToFilled() {
+        mFilled.bulkAppendData(mPage);
+        return mChanges;
+    }
+
+    private FixedDataController<Repo> newController() {
+        FixedDataController<Repo> controller = new FixedDataController<>(mPage);
+        controller.getSubscriberManager().addDataChangeListener(mListener);
+        return controller;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Event;
+import com.ease.benchmark.model.Repo;
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.Codecs;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * codec benchmark
+ * 一页 100 个 model 的编码和解码: 生成的二进制 codec, java.io.Serializable, 以及 Gson
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"repos", "events"})
+    public String payload;
+
+    private List<Object> mModels;
+    private BinaryCodec<Object> mCodec;
+    private Type mListType;
+    private Gson mGson;
+
+    private byte[] mCodecBytes;
+    private byte[] mSerializedBytes;
+    private String mJson;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Class<?> type;
+        if ("repos".equals(payload)) {
+            mModels = new ArrayList<Object>(Fixtures.parseRepos(PAGE_SIZE));
+            type = Repo.class;
+            mListType = Fixtures.REPO_LIST;
+        } else {
+            mModels = new ArrayList<Object>(Fixtures.parseEvents(PAGE_SIZE));
+            type = Event.class;
+            mListType = Fixtures.EVENT_LIST;
+        }
+        mCodec = (BinaryCodec<Object>) Codecs.get(type);
+        mGson = Fixtures.generatedGson();
+        mCodecBytes = encodeCodec();
+        mSerializedBytes = encodeSerializable();
+        mJson = encodeGson();
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() throws IOException {
+        return Codecs.encodeList(mModels, mCodec);
+    }
+
+    @Benchmark
+    public List<Object> decodeCodec() throws IOException {
+        return Codecs.decodeList(mCodecBytes, mCodec);
+    }
+
+    @Benchmark
+    public byte[] encodeSerializable() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(mModels);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decodeSerializable() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(mSerializedBytes));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    @Benchmark
+    public String encodeGson() {
+        return mGson.toJson(mModels, mListType);
+    }
+
+    @Benchmark
+    public Object decodeGson() {
+        return mGson.fromJson(mJson, mListType);
+    }
+}
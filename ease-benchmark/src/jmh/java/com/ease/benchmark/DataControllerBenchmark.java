@@ -0,0 +1,91 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.DataChange;
+import com.ease.data.DataSubscriber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * data controller benchmark
+ * takeAction 的完整流程: 发起请求, 重试和处理步骤的包装, 差异计算, 应用到列表并分发变化.
+ * 所有 Scheduler 都是 immediate, 一次调用同步完成
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataControllerBenchmark {
+
+    private static final int LOAD_MORE_PAGES = 4;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean diff;
+
+    private FixedDataController<Repo> mController;
+    private List<Repo> mPageA;
+    private List<Repo> mPageB;
+    private boolean mFlip;
+    private int mChanges;
+
+    @Setup
+    public void setUp() {
+        ImmediateSchedulers.install();
+        mPageA = Fixtures.repos(0, pageSize);
+        // 与 A 相比: 每 10 个更新一个, 第一个被删除, 末尾新增一个
+        mPageB = new ArrayList<>(pageSize);
+        for (int i = 1; i < pageSize; i++) {
+            Repo repo = mPageA.get(i);
+            mPageB.add(i % 10 == 0 ? repo.starred() : repo);
+        }
+        mPageB.addAll(Fixtures.repos(pageSize, 1));
+
+        mController = new FixedDataController<>(mPageA);
+        mController.setLimit(pageSize);
+        mController.setDiffWhenRefresh(diff);
+        mController.setNextPage(Fixtures.repos(pageSize + 1, pageSize));
+        mController.getSubscriberManager().addDataChangeListener(new DataSubscriber.DataChangeListener<Repo>() {
+            @Override
+            public void onDataChange(DataChange change) {
+                mChanges++;
+            }
+        });
+        mController.initialize();
+    }
+
+    @Benchmark
+    public int refresh() {
+        mFlip = !mFlip;
+        mController.setFirstPage(mFlip ? mPageB : mPageA);
+        mController.refresh();
+        return mChanges;
+    }
+
+    @Benchmark
+    public int refreshThenLoadMore() {
+        mController.refresh();
+        for (int i = 0; i < LOAD_MORE_PAGES; i++) {
+            mController.loadMore();
+        }
+        return mController.getData().size();
+    }
+}
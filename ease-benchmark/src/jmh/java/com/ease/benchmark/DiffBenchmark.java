@@ -0,0 +1,102 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.DataChange;
+import com.ease.data.DataSubscriber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * diff benchmark
+ * 刷新时计算差异只应用变化的部分, 与清空后整体插入对比. 新旧列表之间有 1% 的条目更新, 0.5% 删除, 0.5% 新增;
+ * 两者都包括应用到列表和分发变化, 差异计算在 immediate Scheduler 上同步执行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiffBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int size;
+
+    private FixedDataController<Repo> mDiffController;
+    private FixedDataController<Repo> mReplaceController;
+    private List<Repo> mOld;
+    private List<Repo> mNew;
+    private boolean mFlip;
+    private long mRowsNotified;
+
+    @Setup
+    public void setUp() {
+        ImmediateSchedulers.install();
+        mOld = Fixtures.repos(0, size);
+        mNew = new ArrayList<>(size);
+        Random random = new Random(7);
+        long nextId = size;
+        for (Repo repo : mOld) {
+            int roll = random.nextInt(200);
+            if (roll < 2) {
+                mNew.add(repo.starred());
+            } else if (roll == 2) {
+                // 删除
+                continue;
+            } else {
+                mNew.add(repo);
+            }
+            if (roll == 3) {
+                mNew.addAll(Fixtures.repos(nextId++, 1));
+            }
+        }
+        mDiffController = newController(true);
+        mReplaceController = newController(false);
+    }
+
+    @Benchmark
+    public long diff() {
+        return refresh(mDiffController);
+    }
+
+    @Benchmark
+    public long replace() {
+        return refresh(mReplaceController);
+    }
+
+    private long refresh(FixedDataController<Repo> controller) {
+        mFlip = !mFlip;
+        controller.setFirstPage(mFlip ? mNew : mOld);
+        controller.refresh();
+        return mRowsNotified;
+    }
+
+    private FixedDataController<Repo> newController(boolean diff) {
+        FixedDataController<Repo> controller = new FixedDataController<>(mOld);
+        controller.setLimit(size);
+        controller.setDiffWhenRefresh(diff);
+        controller.initialize();
+        controller.getSubscriberManager().addDataChangeListener(new DataSubscriber.DataChangeListener<Repo>() {
+            @Override
+            public void onDataChange(DataChange change) {
+                mRowsNotified += change.getCount();
+            }
+        });
+        return controller;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.DataChange;
+import com.ease.data.DataController;
+import com.ease.data.DataSubscriber;
+import com.ease.data.SimpleDataSubscriber;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * dispatch benchmark
+ * SubscriberManager 向 1 到 32 个订阅者分发事件的开销; 配合 gc 分析器, gc.alloc.rate.norm 应为 0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+    private static final DataChange CHANGE = DataChange.changed(0, 1);
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int listeners;
+
+    private DataController<Repo>.SubscriberManager mManager;
+    private int mEvents;
+
+    @Setup
+    public void setUp() {
+        mManager = new FixedDataController<>(Collections.<Repo>emptyList()).getSubscriberManager();
+        for (int i = 0; i < listeners; i++) {
+            mManager.addDataChangeListener(new DataSubscriber.DataChangeListener<Repo>() {
+                @Override
+                public void onDataChange(DataChange change) {
+                    mEvents++;
+                }
+            });
+            mManager.addDataActionListener(new SimpleDataSubscriber<Repo>() {
+                @Override
+                public void onEnd() {
+                    mEvents++;
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public int dispatchDataChange() {
+        mManager.dispatchDataChangeMessage(CHANGE);
+        return mEvents;
+    }
+
+    @Benchmark
+    public int dispatchEnd() {
+        mManager.dispatchEndMessage();
+        return mEvents;
+    }
+}
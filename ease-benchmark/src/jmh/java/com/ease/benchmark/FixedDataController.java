@@ -0,0 +1,47 @@
+package com.ease.benchmark;
+
+import com.ease.data.DataController;
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * fixed data controller
+ * 每次请求立即返回设置好的一页, 不经过网络
+ */
+public class FixedDataController<M extends BaseModel> extends DataController<M> {
+
+    private List<M> mFirstPage;
+    private List<M> mNextPage;
+
+    public FixedDataController(List<M> firstPage) {
+        mFirstPage = firstPage;
+        mNextPage = firstPage;
+        setRetryPolicy(null);
+    }
+
+    public void setFirstPage(List<M> firstPage) {
+        mFirstPage = firstPage;
+    }
+
+    public void setNextPage(List<M> nextPage) {
+        mNextPage = nextPage;
+    }
+
+    @Override
+    public Observable<List<M>> doInitialize() {
+        return Observable.just(mFirstPage);
+    }
+
+    @Override
+    public Observable<List<M>> doRefresh() {
+        return Observable.just(mFirstPage);
+    }
+
+    @Override
+    public Observable<List<M>> doLoadMore() {
+        return Observable.just(mNextPage);
+    }
+}
@@ -0,0 +1,261 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Event;
+import com.ease.benchmark.model.Repo;
+import com.ease.benchmark.model.User;
+import com.ease.http.ModelTypeAdapterFactory;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * fixtures
+ * 基准使用的数据. JSON 按 GitHub API v3 的返回结构生成, 包括 model 不使用的字段 (各种 *_url, payload),
+ * 解析时跳过这些字段的开销与真实响应一致; 固定随机种子, 每次运行的数据相同
+ */
+public final class Fixtures {
+
+    public static final FieldNamingPolicy NAMING = FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES;
+
+    public static final Type REPO_LIST = new TypeToken<List<Repo>>() {
+    }.getType();
+    public static final Type EVENT_LIST = new TypeToken<List<Event>>() {
+    }.getType();
+
+    private static final String[] LANGUAGES = {"Java", "Kotlin", "C", "JavaScript", "Go", "Python", null};
+    private static final String[] EVENT_TYPES = {"PushEvent", "WatchEvent", "CreateEvent", "IssuesEvent"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * 使用生成的 TypeAdapter 的 Gson, 与 ApiClient.createGson() 相同, 只是命名规则按 GitHub 的下划线风格
+     */
+    public static Gson generatedGson() {
+        return new GsonBuilder()
+                .setFieldNamingPolicy(NAMING)
+                .registerTypeAdapterFactory(new ModelTypeAdapterFactory(NAMING))
+                .create();
+    }
+
+    public static Gson reflectiveGson() {
+        return new GsonBuilder().setFieldNamingPolicy(NAMING).create();
+    }
+
+    public static List<Repo> parseRepos(int count) {
+        return generatedGson().fromJson(reposJson(count), REPO_LIST);
+    }
+
+    public static List<Event> parseEvents(int count) {
+        return generatedGson().fromJson(eventsJson(count), EVENT_LIST);
+    }
+
+    /**
+     * 不经过 JSON 直接创建的轻量 model, 用于大列表; id 从 firstId 开始连续
+     */
+    public static List<Repo> repos(long firstId, int count) {
+        List<Repo> repos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = firstId + i;
+            repos.add(new Repo(id, new User(id % 97, "user" + id % 97), "repo" + id));
+        }
+        return repos;
+    }
+
+    public static String reposJson(int count) {
+        Random random = new Random(42);
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginArray();
+            for (int i = 0; i < count; i++) {
+                writeRepo(writer, random, 1000000 + i);
+            }
+            writer.endArray();
+            writer.close();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+
+    public static String eventsJson(int count) {
+        Random random = new Random(42);
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter writer = new JsonWriter(out);
+            writer.beginArray();
+            for (int i = 0; i < count; i++) {
+                writeEvent(writer, random, 3000000000L + i);
+            }
+            writer.endArray();
+            writer.close();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+
+    private static void writeRepo(JsonWriter writer, Random random, long id) throws IOException {
+        long ownerId = 1000 + random.nextInt(500);
+        String login = "user" + ownerId;
+        String name = "project-" + Long.toString(id, 36);
+        String fullName = login + "/" + name;
+        String api = "https://api.github.com/repos/" + fullName;
+        writer.beginObject();
+        writer.name("id").value(id);
+        writer.name("name").value(name);
+        writer.name("full_name").value(fullName);
+        writer.name("owner");
+        writeUser(writer, ownerId, login);
+        writer.name("private").value(false);
+        writer.name("html_url").value("https://github.com/" + fullName);
+        writer.name("description").value(random.nextInt(5) == 0 ? null
+                : "A sample project #" + id + " for benchmarking list rendering and parsing");
+        writer.name("fork").value(random.nextInt(4) == 0);
+        writer.name("url").value(api);
+        for (String path : new String[]{"forks", "keys", "collaborators", "teams", "hooks", "issue_events", "events",
+                "assignees", "branches", "tags", "blobs", "git_tags", "git_refs", "trees", "statuses", "languages",
+                "stargazers", "contributors", "subscribers", "subscription", "commits", "git_commits", "comments",
+                "issue_comment", "contents", "compare", "merges", "archive", "downloads", "issues", "pulls",
+                "milestones", "notifications", "labels", "releases"}) {
+            writer.name(path + "_url").value(api + "/" + path);
+        }
+        writer.name("created_at").value(date(random));
+        writer.name("updated_at").value(date(random));
+        writer.name("pushed_at").value(date(random));
+        writer.name("git_url").value("git://github.com/" + fullName + ".git");
+        writer.name("ssh_url").value("git@github.com:" + fullName + ".git");
+        writer.name("clone_url").value("https://github.com/" + fullName + ".git");
+        writer.name("svn_url").value("https://github.com/" + fullName);
+        writer.name("homepage").nullValue();
+        writer.name("size").value(random.nextInt(100000));
+        int stars = random.nextInt(5000);
+        int forks = random.nextInt(500);
+        int issues = random.nextInt(100);
+        writer.name("stargazers_count").value(stars);
+        writer.name("watchers_count").value(stars);
+        writer.name("language").value(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+        writer.name("has_issues").value(true);
+        writer.name("has_downloads").value(true);
+        writer.name("has_wiki").value(random.nextBoolean());
+        writer.name("has_pages").value(false);
+        writer.name("forks_count").value(forks);
+        writer.name("mirror_url").nullValue();
+        writer.name("open_issues_count").value(issues);
+        writer.name("forks").value(forks);
+        writer.name("open_issues").value(issues);
+        writer.name("watchers").value(stars);
+        writer.name("default_branch").value("master");
+        writer.endObject();
+    }
+
+    private static void writeEvent(JsonWriter writer, Random random, long id) throws IOException {
+        long actorId = 1000 + random.nextInt(500);
+        String login = "user" + actorId;
+        String repoName = "user" + (1000 + random.nextInt(500)) + "/project-" + Integer.toString(random.nextInt(1 << 20), 36);
+        String type = EVENT_TYPES[random.nextInt(EVENT_TYPES.length)];
+        writer.beginObject();
+        writer.name("id").value(Long.toString(id));
+        writer.name("type").value(type);
+        writer.name("actor").beginObject();
+        writer.name("id").value(actorId);
+        writer.name("login").value(login);
+        writer.name("gravatar_id").value("");
+        writer.name("url").value("https://api.github.com/users/" + login);
+        writer.name("avatar_url").value("https://avatars.githubusercontent.com/u/" + actorId + "?");
+        writer.endObject();
+        writer.name("repo").beginObject();
+        writer.name("id").value(random.nextInt(50000000));
+        writer.name("name").value(repoName);
+        writer.name("url").value("https://api.github.com/repos/" + repoName);
+        writer.endObject();
+        writer.name("payload").beginObject();
+        if ("PushEvent".equals(type)) {
+            int size = 1 + random.nextInt(3);
+            writer.name("push_id").value(random.nextInt(Integer.MAX_VALUE));
+            writer.name("size").value(size);
+            writer.name("distinct_size").value(size);
+            writer.name("ref").value("refs/heads/master");
+            writer.name("head").value(sha(random));
+            writer.name("before").value(sha(random));
+            writer.name("commits").beginArray();
+            for (int i = 0; i < size; i++) {
+                String sha = sha(random);
+                writer.beginObject();
+                writer.name("sha").value(sha);
+                writer.name("author").beginObject();
+                writer.name("email").value(login + "@users.noreply.github.com");
+                writer.name("name").value(login);
+                writer.endObject();
+                writer.name("message").value("Fix issue #" + random.nextInt(1000) + " in the list adapter");
+                writer.name("distinct").value(true);
+                writer.name("url").value("https://api.github.com/repos/" + repoName + "/commits/" + sha);
+                writer.endObject();
+            }
+            writer.endArray();
+        } else if ("CreateEvent".equals(type)) {
+            writer.name("ref").value("feature-" + random.nextInt(100));
+            writer.name("ref_type").value("branch");
+            writer.name("master_branch").value("master");
+            writer.name("description").nullValue();
+            writer.name("pusher_type").value("user");
+        } else if ("IssuesEvent".equals(type)) {
+            writer.name("action").value("opened");
+            writer.name("issue").beginObject();
+            writer.name("number").value(random.nextInt(1000));
+            writer.name("title").value("Crash when scrolling back to a dropped page");
+            writer.name("state").value("open");
+            writer.name("comments").value(random.nextInt(20));
+            writer.name("body").value("Steps to reproduce: scroll to the end, then fling back to the top.");
+            writer.endObject();
+        } else {
+            writer.name("action").value("started");
+        }
+        writer.endObject();
+        writer.name("public").value(true);
+        writer.name("created_at").value(date(random));
+        writer.endObject();
+    }
+
+    private static void writeUser(JsonWriter writer, long id, String login) throws IOException {
+        String api = "https://api.github.com/users/" + login;
+        writer.beginObject();
+        writer.name("login").value(login);
+        writer.name("id").value(id);
+        writer.name("avatar_url").value("https://avatars.githubusercontent.com/u/" + id + "?v=3");
+        writer.name("gravatar_id").value("");
+        writer.name("url").value(api);
+        writer.name("html_url").value("https://github.com/" + login);
+        for (String path : new String[]{"followers", "following", "gists", "starred", "subscriptions",
+                "organizations", "repos", "events", "received_events"}) {
+            writer.name(path + "_url").value(api + "/" + path);
+        }
+        writer.name("type").value("User");
+        writer.name("site_admin").value(false);
+        writer.endObject();
+    }
+
+    private static String date(Random random) {
+        return String.format(Locale.US, "2015-%02d-%02dT%02d:%02d:%02dZ", 1 + random.nextInt(12),
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+
+    private static String sha(Random random) {
+        StringBuilder sha = new StringBuilder(40);
+        for (int i = 0; i < 40; i++) {
+            sha.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sha.toString();
+    }
+}
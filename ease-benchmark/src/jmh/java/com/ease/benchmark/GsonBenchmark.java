@@ -0,0 +1,74 @@
+package com.ease.benchmark;
+
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gson benchmark
+ * 解析一页 100 个 GitHub 仓库或事件: 编译时生成的 TypeAdapter 与 Gson 的反射实现对比.
+ * parse 为预热后的稳定耗时; firstParse 每次新建 Gson, 包括创建 TypeAdapter 的开销, 对应冷启动后的第一次请求
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GsonBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"repos", "events"})
+    public String payload;
+
+    @Param({"generated", "reflective"})
+    public String adapter;
+
+    private String mJson;
+    private Type mType;
+    private Gson mGson;
+
+    @Setup
+    public void setUp() {
+        if ("repos".equals(payload)) {
+            mJson = Fixtures.reposJson(PAGE_SIZE);
+            mType = Fixtures.REPO_LIST;
+        } else {
+            mJson = Fixtures.eventsJson(PAGE_SIZE);
+            mType = Fixtures.EVENT_LIST;
+        }
+        mGson = newGson();
+    }
+
+    @Benchmark
+    public Object parse() {
+        return mGson.fromJson(mJson, mType);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(10)
+    public Object firstParse() {
+        return newGson().fromJson(mJson, mType);
+    }
+
+    private Gson newGson() {
+        return "generated".equals(adapter) ? Fixtures.generatedGson() : Fixtures.reflectiveGson();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * heap footprint
+ * 常驻内存不适合用 JMH 测量: 加载到不同条目数后 full GC, 记录 DataController 仍然持有的堆大小,
+ * ArrayList 随条目数线性增长, PagedList 应该基本不变. 结果以 JSON 写入第一个参数指定的文件
+ */
+public final class HeapFootprint {
+
+    private static final int[] SIZES = {10000, 50000, 100000};
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ImmediateSchedulers.install();
+        // 预热, 使类加载和 JIT 的内存不计入第一组结果
+        PagedListBenchmark.scrollToEnd(SIZES[0], true);
+        PagedListBenchmark.scrollToEnd(SIZES[0], false);
+
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.setIndent("  ");
+        writer.beginArray();
+        for (String store : new String[]{"arrayList", "pagedList"}) {
+            for (int items : SIZES) {
+                long retained = measure(items, "pagedList".equals(store));
+                writer.beginObject();
+                writer.name("store").value(store);
+                writer.name("items").value(items);
+                writer.name("retainedBytes").value(retained);
+                writer.endObject();
+                System.out.println(store + " items=" + items + " retained=" + retained / 1024 + "KB");
+            }
+        }
+        writer.endArray();
+        writer.close();
+
+        if (args.length > 0) {
+            File file = new File(args[0]);
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create " + parent);
+            }
+            FileWriter out = new FileWriter(file);
+            try {
+                out.write(json.toString());
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private static long measure(int items, boolean paged) {
+        long before = usedHeap();
+        FixedDataController<Repo> controller = PagedListBenchmark.scrollToEnd(items, paged);
+        long after = usedHeap();
+        if (controller.getData().size() < items) {
+            throw new AssertionError("Loaded " + controller.getData().size() + " of " + items);
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ease.benchmark;
+
+import rx.Scheduler;
+import rx.plugins.RxJavaPlugins;
+import rx.plugins.RxJavaSchedulersHook;
+import rx.schedulers.Schedulers;
+
+/**
+ * immediate schedulers
+ * 把 io / computation / newThread 都替换为 immediate, DataController 的请求在调用线程上同步完成,
+ * 基准测到的是 ease 自身的开销而不是线程切换. 必须在 Schedulers 第一次被使用之前安装
+ */
+public final class ImmediateSchedulers {
+
+    private static boolean sInstalled;
+
+    private ImmediateSchedulers() {
+    }
+
+    public static synchronized void install() {
+        if (!sInstalled) {
+            RxJavaPlugins.getInstance().registerSchedulersHook(new RxJavaSchedulersHook() {
+                @Override
+                public Scheduler getComputationScheduler() {
+                    return Schedulers.immediate();
+                }
+
+                @Override
+                public Scheduler getIOScheduler() {
+                    return Schedulers.immediate();
+                }
+
+                @Override
+                public Scheduler getNewThreadScheduler() {
+                    return Schedulers.immediate();
+                }
+            });
+            sInstalled = true;
+        }
+        if (Schedulers.io() != Schedulers.immediate()) {
+            throw new IllegalStateException("Schedulers were used before the hook was installed.");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.ByteBufferSink;
+import com.ease.codec.ByteBufferSource;
+import com.ease.codec.Codecs;
+import com.ease.data.PageCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * page cache benchmark
+ * 一页数据写入 PageCache 和从 PageCache 读出的开销, 包括磁盘读写. binary 与 CachedDataController 的格式相同
+ * (BinaryCodec 逐个写入), serializable 为 ObjectOutputStream 写出整个列表
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PageCacheBenchmark {
+
+    private static final String KEY = "repos";
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private File mDirectory;
+    private PageCache mCache;
+    private BinaryCodec<Repo> mCodec;
+    private List<Repo> mPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("page-cache", "");
+        if (!mDirectory.delete() || !mDirectory.mkdirs()) {
+            throw new IOException("Unable to create " + mDirectory);
+        }
+        mCache = new PageCache(mDirectory, 16 * 1024 * 1024);
+        mCodec = Codecs.get(Repo.class);
+        mPage = Fixtures.parseRepos(pageSize);
+        writeBinary();
+        writeSerializable();
+    }
+
+    @TearDown
+    public void tearDown() {
+        mCache.clear();
+        mDirectory.delete();
+    }
+
+    @Benchmark
+    public void writeBinary() throws IOException {
+        ByteBufferSink out = new ByteBufferSink();
+        out.writeInt(mPage.size());
+        for (Repo repo : mPage) {
+            mCodec.write(out, repo);
+        }
+        mCache.put(KEY, 0, pageSize, out.toByteArray());
+    }
+
+    @Benchmark
+    public List<Repo> readBinary() throws IOException {
+        ByteBufferSource in = new ByteBufferSource(mCache.get(KEY, 0, pageSize));
+        int count = in.readInt();
+        List<Repo> page = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            page.add(mCodec.read(in));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public void writeSerializable() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(new ArrayList<>(mPage));
+        out.close();
+        mCache.put(KEY, 1, pageSize, bytes.toByteArray());
+    }
+
+    @Benchmark
+    public Object readSerializable() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(mCache.get(KEY, 1, pageSize)));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.PageLoader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+
+/**
+ * paged list benchmark
+ * 一直加载更多直到 items 个条目, 每页都是新创建的 model (相当于网络返回), 并且显示最后一个条目.
+ * arrayList 保留所有条目, pagedList 只保留窗口内的页; 常驻内存的对比见 HeapFootprint
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class PagedListBenchmark {
+
+    static final int PAGE_SIZE = 20;
+    static final int WINDOW_RADIUS = 2;
+
+    @Param({"100000"})
+    public int items;
+
+    @Param({"arrayList", "pagedList"})
+    public String store;
+
+    @Setup
+    public void setUp() {
+        ImmediateSchedulers.install();
+    }
+
+    @Benchmark
+    public FixedDataController<Repo> scrollToEnd() {
+        return scrollToEnd(items, "pagedList".equals(store));
+    }
+
+    static FixedDataController<Repo> scrollToEnd(int items, boolean paged) {
+        FixedDataController<Repo> controller = new FixedDataController<>(Fixtures.repos(0, PAGE_SIZE));
+        controller.setLimit(PAGE_SIZE);
+        if (paged) {
+            controller.setPagedWindow(new PageLoader<Repo>() {
+                @Override
+                public Observable<List<Repo>> loadPage(int page, int limit) {
+                    return Observable.empty();
+                }
+            }, WINDOW_RADIUS);
+        }
+        controller.initialize();
+        while (controller.getOffset() < items) {
+            controller.setNextPage(Fixtures.repos(controller.getOffset(), PAGE_SIZE));
+            controller.loadMore();
+            controller.onItemBound(controller.getOffset() - 1);
+        }
+        return controller;
+    }
+}
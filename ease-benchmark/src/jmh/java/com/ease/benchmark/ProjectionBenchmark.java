@@ -0,0 +1,128 @@
+package com.ease.benchmark;
+
+import com.ease.benchmark.model.Repo;
+import com.ease.data.ManualFrameScheduler;
+import com.ease.data.ProjectionDataController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * projection benchmark
+ * 排序过滤后的投影: 整体建立与复制后排序的对比, 以及 parent 追加一页后增量更新的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProjectionBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final ProjectionDataController.Filter<Repo> NO_FORKS = new ProjectionDataController.Filter<Repo>() {
+        @Override
+        public boolean accept(Repo model) {
+            return !model.isFork();
+        }
+    };
+
+    private static final Comparator<Repo> BY_STARS = new Comparator<Repo>() {
+        @Override
+        public int compare(Repo lhs, Repo rhs) {
+            return rhs.getStargazersCount() - lhs.getStargazersCount();
+        }
+    };
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private List<Repo> mItems;
+    private List<Repo> mPage;
+    private FixedDataController<Repo> mParent;
+    private ManualFrameScheduler mFrames;
+    private ProjectionDataController<Repo> mView;
+
+    @Setup
+    public void setUp() {
+        List<Repo> repos = Fixtures.parseRepos(size + PAGE_SIZE);
+        mItems = new ArrayList<>(repos.subList(0, size));
+        mPage = new ArrayList<>(repos.subList(size, size + PAGE_SIZE));
+        mParent = new FixedDataController<>(mPage);
+        mParent.bulkAppendData(mItems);
+        mFrames = new ManualFrameScheduler();
+        mView = newView();
+    }
+
+    /**
+     * 去掉上次追加的一页, 投影同步删除, 不计入耗时
+     */
+    @Setup(Level.Invocation)
+    public void trim() {
+        int extra = mParent.getData().size() - size;
+        if (extra > 0) {
+            mParent.bulkRemoveData(size, extra);
+        }
+    }
+
+    /**
+     * 从 parent 的全部条目建立投影
+     */
+    @Benchmark
+    public int project() {
+        ProjectionDataController<Repo> view = newView();
+        view.detach();
+        return view.getData().size();
+    }
+
+    /**
+     * 对比: 过滤后复制一份再排序
+     */
+    @Benchmark
+    public int copyAndSort() {
+        List<Repo> copy = new ArrayList<>();
+        List<Repo> data = mParent.getData();
+        for (int i = 0, count = data.size(); i < count; i++) {
+            Repo repo = data.get(i);
+            if (NO_FORKS.accept(repo)) {
+                copy.add(repo);
+            }
+        }
+        Collections.sort(copy, BY_STARS);
+        return copy.size();
+    }
+
+    /**
+     * parent 追加一页后投影的增量更新: 逐个二分插入
+     */
+    @Benchmark
+    public int appendPage() {
+        mParent.bulkAppendData(mPage);
+        mFrames.doFrame();
+        return mView.getData().size();
+    }
+
+    private ProjectionDataController<Repo> newView() {
+        ProjectionDataController<Repo> view = new ProjectionDataController<>(mParent, NO_FORKS, BY_STARS);
+        view.setFrameScheduler(mFrames);
+        view.attach();
+        return view;
+    }
+}
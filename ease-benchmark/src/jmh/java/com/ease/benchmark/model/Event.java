@@ -0,0 +1,42 @@
+package com.ease.benchmark.model;
+
+import com.ease.codec.Codec;
+import com.ease.codec.JsonCodec;
+import com.ease.model.BaseModel;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.Serializable;
+
+/**
+ * event
+ * /users/:user/received_events 返回的事件, payload 的结构随类型变化, 不解析
+ */
+@Codec
+@JsonCodec
+public class Event extends BaseModel implements Serializable {
+
+    String id;
+    String type;
+    User actor;
+    RepoRef repo;
+    @SerializedName("public")
+    boolean isPublic;
+    String createdAt;
+
+    public Event() {
+    }
+
+    public Event(String id, String type, User actor, RepoRef repo, String createdAt) {
+        this.id = id;
+        this.type = type;
+        this.actor = actor;
+        this.repo = repo;
+        this.isPublic = true;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public long getStableId() {
+        return Long.parseLong(id);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ease.benchmark.model;
+
+import com.ease.codec.Codec;
+import com.ease.codec.JsonCodec;
+import com.ease.model.BaseModel;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.Serializable;
+
+/**
+ * repo
+ * /users/:user/repos 返回的仓库
+ */
+@Codec
+@JsonCodec
+public class Repo extends BaseModel implements Serializable {
+
+    long id;
+    String name;
+    String fullName;
+    User owner;
+    @SerializedName("private")
+    boolean isPrivate;
+    String htmlUrl;
+    String description;
+    boolean fork;
+    String language;
+    int stargazersCount;
+    int watchersCount;
+    int forksCount;
+    int openIssuesCount;
+    String defaultBranch;
+    String createdAt;
+    String updatedAt;
+    String pushedAt;
+
+    public Repo() {
+    }
+
+    public Repo(long id, User owner, String name) {
+        this.id = id;
+        this.owner = owner;
+        this.name = name;
+        this.fullName = owner.login + "/" + name;
+        this.htmlUrl = "https://github.com/" + fullName;
+        this.defaultBranch = "master";
+    }
+
+    /**
+     * 返回内容变化后的副本, 模拟刷新时服务端更新了这个仓库
+     */
+    public Repo starred() {
+        Repo repo = new Repo(id, owner, name);
+        repo.description = description;
+        repo.language = language;
+        repo.stargazersCount = stargazersCount + 1;
+        repo.watchersCount = watchersCount + 1;
+        repo.forksCount = forksCount;
+        repo.openIssuesCount = openIssuesCount;
+        repo.createdAt = createdAt;
+        repo.updatedAt = updatedAt;
+        repo.pushedAt = pushedAt;
+        return repo;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public int getStargazersCount() {
+        return stargazersCount;
+    }
+
+    public boolean isFork() {
+        return fork;
+    }
+
+    @Override
+    public long getStableId() {
+        return id;
+    }
+
+    @Override
+    public boolean isSameContent(BaseModel other) {
+        if (!(other instanceof Repo)) {
+            return false;
+        }
+        Repo repo = (Repo) other;
+        return stargazersCount == repo.stargazersCount && forksCount == repo.forksCount
+                && openIssuesCount == repo.openIssuesCount && equal(pushedAt, repo.pushedAt)
+                && equal(description, repo.description);
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
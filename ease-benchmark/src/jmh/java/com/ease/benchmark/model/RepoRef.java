@@ -0,0 +1,29 @@
+package com.ease.benchmark.model;
+
+import com.ease.codec.Codec;
+import com.ease.codec.JsonCodec;
+import com.ease.model.BaseModel;
+
+import java.io.Serializable;
+
+/**
+ * repo ref
+ * 事件中引用的仓库
+ */
+@Codec
+@JsonCodec
+public class RepoRef extends BaseModel implements Serializable {
+
+    long id;
+    String name;
+    String url;
+
+    public RepoRef() {
+    }
+
+    public RepoRef(long id, String name) {
+        this.id = id;
+        this.name = name;
+        this.url = "https://api.github.com/repos/" + name;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ease.benchmark.model;
+
+import com.ease.codec.Codec;
+import com.ease.codec.JsonCodec;
+import com.ease.model.BaseModel;
+
+import java.io.Serializable;
+
+/**
+ * user
+ * GitHub 返回的 owner / actor, 只保留列表显示用到的字段
+ */
+@Codec
+@JsonCodec
+public class User extends BaseModel implements Serializable {
+
+    long id;
+    String login;
+    String avatarUrl;
+    String type;
+    boolean siteAdmin;
+
+    public User() {
+    }
+
+    public User(long id, String login) {
+        this.id = id;
+        this.login = login;
+        this.avatarUrl = "https://avatars.githubusercontent.com/u/" + id + "?v=3";
+        this.type = "User";
+    }
+
+    @Override
+    public long getStableId() {
+        return id;
+    }
+
+    public String getLogin() {
+        return login;
+    }
+}
@@ -0,0 +1,15 @@
+package android.support.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.*;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 与 support-annotations 同名的桩, 只用于在 JVM 上编译
+ */
+@Retention(CLASS)
+@Target({METHOD})
+public @interface CallSuper {
+}
@@ -0,0 +1,18 @@
+package rx.android.schedulers;
+
+import rx.Scheduler;
+import rx.schedulers.Schedulers;
+
+/**
+ * android schedulers
+ * 与 rxandroid 同名的桩: JVM 上没有主线程 Looper, 主线程即调用线程
+ */
+public final class AndroidSchedulers {
+
+    private AndroidSchedulers() {
+    }
+
+    public static Scheduler mainThread() {
+        return Schedulers.immediate();
+    }
+}
@@ -0,0 +1,334 @@
+package com.ease.codec.processor;
+
+import com.ease.codec.Codec;
+import com.ease.codec.Codecs;
+import com.ease.codec.processor.ModelProperties.Property;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * codec processor
+ * 为 {@link Codec} 标记的类生成 BinaryCodec 实现. 支持的字段类型: 基本类型及其包装类, String, 枚举,
+ * java.util.Date, 其他 {@link Codec} 类型, 以及元素为以上类型的 List / ArrayList
+ */
+public class CodecProcessor extends AbstractProcessor {
+
+    private static final String LIST = "java.util.List";
+    private static final String ARRAY_LIST = "java.util.ArrayList";
+    private static final String DATE = "java.util.Date";
+    private static final String STRING = "java.lang.String";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Codec.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Codec.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@Codec can only be applied to classes.");
+                continue;
+            }
+            try {
+                new Generator((TypeElement) element).generate();
+            } catch (InvalidElementException e) {
+                error(e.element, e.getMessage());
+            } catch (IOException e) {
+                error(element, "Unable to write codec: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private final class Generator {
+
+        private final TypeElement mType;
+        private final ModelProperties mProperties;
+        private final String mPackageName;
+        private final String mClassName;
+        private final String mTypeName;
+        private final Map<String, String> mEnumConstants = new LinkedHashMap<>();
+        private int mVariableIndex;
+
+        Generator(TypeElement type) {
+            mType = type;
+            mProperties = new ModelProperties(processingEnv, type, "@Codec");
+            mPackageName = mProperties.getPackageName();
+            String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            mClassName = (mPackageName.isEmpty() ? binaryName : binaryName.substring(mPackageName.length() + 1))
+                    + Codecs.SUFFIX;
+            mTypeName = type.getQualifiedName().toString();
+        }
+
+        void generate() throws InvalidElementException, IOException {
+            mProperties.checkType();
+            List<Property> properties = mProperties.collect();
+
+            StringBuilder write = new StringBuilder();
+            StringBuilder read = new StringBuilder();
+            for (Property property : properties) {
+                TypeMirror type = property.field.asType();
+                appendWrite(write, property.field, type, "value." + property.getter, "        ");
+                String variable = appendRead(read, property.field, type, "        ");
+                read.append("        result.").append(String.format(property.setter, variable)).append(";\n");
+            }
+
+            StringBuilder source = new StringBuilder();
+            source.append("// Generated code from ease-codec. Do not modify!\n");
+            if (!mPackageName.isEmpty()) {
+                source.append("package ").append(mPackageName).append(";\n\n");
+            }
+            source.append("import com.ease.codec.BinaryCodec;\n")
+                    .append("import com.ease.codec.Sink;\n")
+                    .append("import com.ease.codec.Source;\n\n")
+                    .append("import java.io.IOException;\n\n")
+                    .append("public final class ").append(mClassName)
+                    .append(" implements BinaryCodec<").append(mTypeName).append("> {\n\n")
+                    .append("    public static final ").append(mClassName).append(" INSTANCE = new ")
+                    .append(mClassName).append("();\n\n");
+            for (Map.Entry<String, String> entry : mEnumConstants.entrySet()) {
+                source.append("    private static final ").append(entry.getKey()).append("[] ")
+                        .append(entry.getValue()).append(" = ").append(entry.getKey()).append(".values();\n\n");
+            }
+            source.append("    @Override\n")
+                    .append("    public void write(Sink sink, ").append(mTypeName).append(" value) throws IOException {\n")
+                    .append(write)
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public ").append(mTypeName).append(" read(Source source) throws IOException {\n")
+                    .append("        ").append(mTypeName).append(" result = new ").append(mTypeName).append("();\n")
+                    .append(read)
+                    .append("        return result;\n")
+                    .append("    }\n")
+                    .append("}\n");
+
+            String qualifiedName = mPackageName.isEmpty() ? mClassName : mPackageName + "." + mClassName;
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, mType);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        }
+
+        private String nextVariable(String prefix) {
+            return prefix + (mVariableIndex++);
+        }
+
+        private void appendWrite(StringBuilder sb, Element field, TypeMirror type, String expression, String indent)
+                throws InvalidElementException {
+            if (type.getKind().isPrimitive()) {
+                sb.append(indent).append(writePrimitive(type.getKind(), expression)).append(";\n");
+                return;
+            }
+            if (type.getKind() != TypeKind.DECLARED) {
+                throw unsupported(field, type);
+            }
+
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            String name = element.getQualifiedName().toString();
+            if (name.equals(STRING)) {
+                sb.append(indent).append("sink.writeString(").append(expression).append(");\n");
+                return;
+            }
+
+            String variable = nextVariable("v");
+            sb.append(indent).append(type).append(' ').append(variable).append(" = ").append(expression).append(";\n");
+            if (element.getKind() == ElementKind.ENUM) {
+                sb.append(indent).append("sink.writeInt(").append(variable).append(" == null ? -1 : ")
+                        .append(variable).append(".ordinal());\n");
+                return;
+            }
+            if (name.equals(LIST) || name.equals(ARRAY_LIST)) {
+                TypeMirror itemType = listItemType(field, (DeclaredType) type);
+                String size = nextVariable("size");
+                String index = nextVariable("i");
+                sb.append(indent).append("if (").append(variable).append(" == null) {\n")
+                        .append(indent).append("    sink.writeInt(-1);\n")
+                        .append(indent).append("} else {\n")
+                        .append(indent).append("    int ").append(size).append(" = ").append(variable).append(".size();\n")
+                        .append(indent).append("    sink.writeInt(").append(size).append(");\n")
+                        .append(indent).append("    for (int ").append(index).append(" = 0; ").append(index)
+                        .append(" < ").append(size).append("; ").append(index).append("++) {\n");
+                appendWrite(sb, field, itemType, variable + ".get(" + index + ")", indent + "        ");
+                sb.append(indent).append("    }\n")
+                        .append(indent).append("}\n");
+                return;
+            }
+
+            sb.append(indent).append("sink.writeBoolean(").append(variable).append(" != null);\n")
+                    .append(indent).append("if (").append(variable).append(" != null) {\n");
+            TypeKind unboxed = unboxedKind(type);
+            if (unboxed != null) {
+                sb.append(indent).append("    ").append(writePrimitive(unboxed, variable)).append(";\n");
+            } else if (name.equals(DATE)) {
+                sb.append(indent).append("    sink.writeLong(").append(variable).append(".getTime());\n");
+            } else if (element.getAnnotation(Codec.class) != null) {
+                sb.append(indent).append("    ").append(codecOf(element)).append(".INSTANCE.write(sink, ")
+                        .append(variable).append(");\n");
+            } else {
+                throw unsupported(field, type);
+            }
+            sb.append(indent).append("}\n");
+        }
+
+        /**
+         * 生成读取语句, 返回保存结果的变量名
+         */
+        private String appendRead(StringBuilder sb, Element field, TypeMirror type, String indent)
+                throws InvalidElementException {
+            String variable = nextVariable("v");
+            if (type.getKind().isPrimitive()) {
+                sb.append(indent).append(type).append(' ').append(variable).append(" = ")
+                        .append(readPrimitive(type.getKind())).append(";\n");
+                return variable;
+            }
+            if (type.getKind() != TypeKind.DECLARED) {
+                throw unsupported(field, type);
+            }
+
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            String name = element.getQualifiedName().toString();
+            if (name.equals(STRING)) {
+                sb.append(indent).append("String ").append(variable).append(" = source.readString();\n");
+                return variable;
+            }
+            if (element.getKind() == ElementKind.ENUM) {
+                String constant = mEnumConstants.get(name);
+                if (constant == null) {
+                    constant = "ENUM_VALUES_" + mEnumConstants.size();
+                    mEnumConstants.put(name, constant);
+                }
+                String ordinal = nextVariable("ordinal");
+                sb.append(indent).append("int ").append(ordinal).append(" = source.readInt();\n")
+                        .append(indent).append("if (").append(ordinal).append(" >= ").append(constant).append(".length) {\n")
+                        .append(indent).append("    throw new IOException(\"Unknown ").append(name)
+                        .append(" ordinal \" + ").append(ordinal).append(");\n")
+                        .append(indent).append("}\n")
+                        .append(indent).append(type).append(' ').append(variable).append(" = ").append(ordinal)
+                        .append(" < 0 ? null : ").append(constant).append('[').append(ordinal).append("];\n");
+                return variable;
+            }
+            if (name.equals(LIST) || name.equals(ARRAY_LIST)) {
+                TypeMirror itemType = listItemType(field, (DeclaredType) type);
+                String size = nextVariable("size");
+                String index = nextVariable("i");
+                sb.append(indent).append("int ").append(size).append(" = source.readInt();\n")
+                        .append(indent).append(type).append(' ').append(variable).append(" = null;\n")
+                        .append(indent).append("if (").append(size).append(" >= 0) {\n")
+                        .append(indent).append("    ").append(variable).append(" = new java.util.ArrayList<")
+                        .append(itemType).append(">(Math.min(").append(size).append(", 1024));\n")
+                        .append(indent).append("    for (int ").append(index).append(" = 0; ").append(index)
+                        .append(" < ").append(size).append("; ").append(index).append("++) {\n");
+                String item = appendRead(sb, field, itemType, indent + "        ");
+                sb.append(indent).append("        ").append(variable).append(".add(").append(item).append(");\n")
+                        .append(indent).append("    }\n")
+                        .append(indent).append("}\n");
+                return variable;
+            }
+
+            String value;
+            TypeKind unboxed = unboxedKind(type);
+            if (unboxed != null) {
+                value = readPrimitive(unboxed);
+            } else if (name.equals(DATE)) {
+                value = "new java.util.Date(source.readLong())";
+            } else if (element.getAnnotation(Codec.class) != null) {
+                value = codecOf(element) + ".INSTANCE.read(source)";
+            } else {
+                throw unsupported(field, type);
+            }
+            sb.append(indent).append(type).append(' ').append(variable).append(" = source.readBoolean() ? ")
+                    .append(value).append(" : null;\n");
+            return variable;
+        }
+
+        private TypeMirror listItemType(Element field, DeclaredType type) throws InvalidElementException {
+            if (type.getTypeArguments().size() != 1 || type.getTypeArguments().get(0).getKind() != TypeKind.DECLARED) {
+                throw new InvalidElementException(field, "@Codec list fields need a concrete element type.");
+            }
+            return type.getTypeArguments().get(0);
+        }
+
+        private TypeKind unboxedKind(TypeMirror type) {
+            try {
+                return processingEnv.getTypeUtils().unboxedType(type).getKind();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private String writePrimitive(TypeKind kind, String expression) {
+            switch (kind) {
+                case BOOLEAN:
+                    return "sink.writeBoolean(" + expression + ")";
+                case LONG:
+                    return "sink.writeLong(" + expression + ")";
+                case FLOAT:
+                    return "sink.writeFloat(" + expression + ")";
+                case DOUBLE:
+                    return "sink.writeDouble(" + expression + ")";
+                default:
+                    return "sink.writeInt(" + expression + ")";
+            }
+        }
+
+        private String readPrimitive(TypeKind kind) {
+            switch (kind) {
+                case BOOLEAN:
+                    return "source.readBoolean()";
+                case LONG:
+                    return "source.readLong()";
+                case FLOAT:
+                    return "source.readFloat()";
+                case DOUBLE:
+                    return "source.readDouble()";
+                case BYTE:
+                    return "(byte) source.readInt()";
+                case SHORT:
+                    return "(short) source.readInt()";
+                case CHAR:
+                    return "(char) source.readInt()";
+                default:
+                    return "source.readInt()";
+            }
+        }
+
+        private String codecOf(TypeElement element) {
+            return processingEnv.getElementUtils().getBinaryName(element) + Codecs.SUFFIX;
+        }
+
+        private InvalidElementException unsupported(Element field, TypeMirror type) {
+            return new InvalidElementException(field, "@Codec does not support field type " + type + ".");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.ease.codec.processor;
+
+import javax.lang.model.element.Element;
+
+/**
+ * invalid element exception
+ * 无法为元素生成代码, 错误信息指向出错的元素
+ */
+final class InvalidElementException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    final Element element;
+
+    InvalidElementException(Element element, String message) {
+        super(message);
+        this.element = element;
+    }
+}
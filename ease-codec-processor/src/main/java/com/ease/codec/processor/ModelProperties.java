@@ -0,0 +1,174 @@
+package com.ease.codec.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * model properties
+ * 收集 model 需要读写的字段及访问方式, 生成的代码与 model 位于同一个包,
+ * 不可访问或 final 的字段通过 getter/setter 读写
+ */
+final class ModelProperties {
+
+    /**
+     * 一个需要读写的字段, getter 为读取的表达式, setter 为以 %s 表示值的赋值语句
+     */
+    static final class Property {
+        final VariableElement field;
+        final String getter;
+        final String setter;
+
+        Property(VariableElement field, String getter, String setter) {
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private final ProcessingEnvironment mEnv;
+    private final TypeElement mType;
+    private final String mPackageName;
+    private final String mLabel;
+
+    /**
+     * @param label 错误信息中的前缀, 例如 "@Codec"
+     */
+    ModelProperties(ProcessingEnvironment env, TypeElement type, String label) {
+        mEnv = env;
+        mType = type;
+        mPackageName = packageOf(type).getQualifiedName().toString();
+        mLabel = label;
+    }
+
+    String getPackageName() {
+        return mPackageName;
+    }
+
+    /**
+     * 非抽象, 非泛型, 嵌套时为 static, 并且有可访问的无参构造函数
+     */
+    void checkType() throws InvalidElementException {
+        if (mType.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new InvalidElementException(mType, mLabel + " class must not be abstract.");
+        }
+        if (!mType.getTypeParameters().isEmpty()) {
+            throw new InvalidElementException(mType, mLabel + " class must not be generic.");
+        }
+        if (mType.getNestingKind().isNested() && !mType.getModifiers().contains(Modifier.STATIC)) {
+            throw new InvalidElementException(mType, mLabel + " nested class must be static.");
+        }
+        Element enclosing = mType;
+        while (enclosing.getKind() != ElementKind.PACKAGE) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new InvalidElementException(mType, mLabel + " class must not be private.");
+            }
+            enclosing = enclosing.getEnclosingElement();
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(mType.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor)) {
+                return;
+            }
+        }
+        throw new InvalidElementException(mType, mLabel + " class needs an accessible no-arg constructor.");
+    }
+
+    /**
+     * 从最顶层的父类开始收集非 static, 非 transient 的字段, 保证父类字段的顺序稳定
+     */
+    List<Property> collect() throws InvalidElementException {
+        List<Property> properties = new ArrayList<>();
+        for (TypeElement element : hierarchy()) {
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                properties.add(createProperty(field));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * 从最顶层的父类到本类, 不包括 Object
+     */
+    List<TypeElement> hierarchy() {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = mType;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            hierarchy.add(0, current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return hierarchy;
+    }
+
+    private Property createProperty(VariableElement field) throws InvalidElementException {
+        String name = field.getSimpleName().toString();
+        if (isAccessible(field) && !field.getModifiers().contains(Modifier.FINAL)) {
+            return new Property(field, name, name + " = %s");
+        }
+
+        String beanName = name;
+        if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+            beanName = name.substring(1);
+        }
+        beanName = Character.toUpperCase(beanName.charAt(0)) + beanName.substring(1);
+
+        String getter = null;
+        String setter = null;
+        List<ExecutableElement> methods = ElementFilter.methodsIn(mEnv.getElementUtils().getAllMembers(mType));
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.STATIC) || !isAccessible(method)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()
+                    && (methodName.equals("get" + beanName) || methodName.equals("is" + beanName))
+                    && mEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+                getter = methodName + "()";
+            } else if (method.getParameters().size() == 1 && methodName.equals("set" + beanName)
+                    && mEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), field.asType())) {
+                setter = methodName + "(%s)";
+            }
+        }
+        if (getter == null || setter == null) {
+            throw new InvalidElementException(field, mLabel + " field " + name
+                    + " is not accessible, make it non-private or add get" + beanName + "/set" + beanName + ".");
+        }
+        return new Property(field, getter, setter);
+    }
+
+    boolean isAccessible(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return packageOf(element).getQualifiedName().contentEquals(mPackageName);
+    }
+
+    static PackageElement packageOf(Element element) {
+        while (element.getKind() != ElementKind.PACKAGE) {
+            element = element.getEnclosingElement();
+        }
+        return (PackageElement) element;
+    }
+}
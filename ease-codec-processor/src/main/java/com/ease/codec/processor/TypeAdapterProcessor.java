@@ -0,0 +1,494 @@
+package com.ease.codec.processor;
+
+import com.ease.codec.JsonCodec;
+import com.ease.codec.processor.ModelProperties.Property;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * type adapter processor
+ * 为标记了 @JsonCodec 的 BaseModel 子类生成 Gson 的 TypeAdapter, 运行时由 ModelTypeAdapterFactory 加载, 不再通过反射读写字段.
+ * 字段规则与 Gson 默认配置相同: 包括父类的非 static, 非 transient 字段, 支持 @SerializedName.
+ * 基本类型, 包装类和 String 直接读写, 其它类型交给 Gson 中对应的 TypeAdapter.
+ * 使用了 @JsonAdapter, @Expose, @Since, @Until 的类保持反射, 不满足生成条件的类给出警告后保持反射
+ */
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+    /**
+     * 与 com.ease.http.ModelTypeAdapterFactory.SUFFIX 一致
+     */
+    private static final String SUFFIX = "$$TypeAdapter";
+
+    private static final String BASE_MODEL = "com.ease.model.BaseModel";
+    private static final String STRING = "java.lang.String";
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    private static final Set<String> REFLECTIVE_ANNOTATIONS = new HashSet<>();
+
+    static {
+        REFLECTIVE_ANNOTATIONS.add("com.google.gson.annotations.JsonAdapter");
+        REFLECTIVE_ANNOTATIONS.add("com.google.gson.annotations.Expose");
+        REFLECTIVE_ANNOTATIONS.add("com.google.gson.annotations.Since");
+        REFLECTIVE_ANNOTATIONS.add("com.google.gson.annotations.Until");
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(JsonCodec.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement baseModel = processingEnv.getElementUtils().getTypeElement(BASE_MODEL);
+        for (Element element : roundEnv.getElementsAnnotatedWith(JsonCodec.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@JsonCodec can only be applied to classes.");
+                continue;
+            }
+            process((TypeElement) element, baseModel);
+        }
+        return true;
+    }
+
+    private void process(TypeElement type, TypeElement baseModel) {
+        String name = type.getQualifiedName().toString();
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type.asType());
+        if (baseModel == null || !processingEnv.getTypeUtils().isSubtype(erasure, baseModel.asType())) {
+            error(type, "@JsonCodec can only be applied to subclasses of " + BASE_MODEL + ".");
+            return;
+        }
+        // 抽象类和泛型类只作为父类或带类型参数使用, Gson 不会为它们单独查找 TypeAdapter
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+            error(type, "@JsonCodec can not be applied to abstract or generic classes.");
+            return;
+        }
+        try {
+            new Generator(type).generate();
+        } catch (InvalidElementException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    e.getMessage() + " Gson falls back to reflection for " + name + ".", e.element);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write type adapter: " + e.getMessage(), type);
+        }
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private final class Generator {
+
+        private final TypeElement mType;
+        private final ModelProperties mProperties;
+        private final String mPackageName;
+        private final String mClassName;
+        private final String mTypeName;
+
+        /**
+         * 委托给 Gson 的类型到 TypeAdapter 字段序号的映射
+         */
+        private final Map<String, Integer> mDelegates = new LinkedHashMap<>();
+
+        Generator(TypeElement type) {
+            mType = type;
+            mProperties = new ModelProperties(processingEnv, type, "Gson adapter");
+            mPackageName = mProperties.getPackageName();
+            String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            mClassName = (mPackageName.isEmpty() ? binaryName : binaryName.substring(mPackageName.length() + 1))
+                    + SUFFIX;
+            mTypeName = type.getQualifiedName().toString();
+        }
+
+        void generate() throws InvalidElementException, IOException {
+            for (TypeElement element : mProperties.hierarchy()) {
+                if (hasReflectiveAnnotation(element)) {
+                    return;
+                }
+            }
+            mProperties.checkType();
+            List<Property> properties = gsonOrder(mProperties.collect());
+            for (Property property : properties) {
+                if (hasReflectiveAnnotation(property.field)) {
+                    return;
+                }
+            }
+
+            StringBuilder names = new StringBuilder();
+            StringBuilder alternates = new StringBuilder();
+            StringBuilder write = new StringBuilder();
+            StringBuilder read = new StringBuilder();
+            Set<String> fixedNames = new HashSet<>();
+            boolean hasAlternates = false;
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                TypeMirror type = processingEnv.getTypeUtils()
+                        .asMemberOf((DeclaredType) mType.asType(), property.field);
+                AnnotationMirror serializedName = findAnnotation(property.field, SERIALIZED_NAME);
+                if (serializedName != null) {
+                    String name = (String) annotationValue(serializedName, "value");
+                    if (!fixedNames.add(name)) {
+                        throw new InvalidElementException(property.field, "Multiple fields are named " + name + ".");
+                    }
+                    names.append("                ").append(quote(name)).append(",\n");
+                    String alternate = alternatesOf(serializedName);
+                    hasAlternates |= alternate != null;
+                    alternates.append(alternate).append(", ");
+                } else {
+                    names.append("                ModelTypeAdapterFactory.translateName(namingPolicy, ")
+                            .append(quote(property.field.getSimpleName().toString())).append("),\n");
+                    alternates.append("null, ");
+                }
+                appendWrite(write, property, type, i);
+                appendRead(read, property, type, i);
+            }
+
+            StringBuilder source = new StringBuilder();
+            source.append("// Generated code from ease-codec. Do not modify!\n");
+            if (!mPackageName.isEmpty()) {
+                source.append("package ").append(mPackageName).append(";\n\n");
+            }
+            source.append("import com.ease.http.ModelTypeAdapterFactory;\n")
+                    .append("import com.google.gson.FieldNamingPolicy;\n")
+                    .append("import com.google.gson.Gson;\n")
+                    .append("import com.google.gson.TypeAdapter;\n")
+                    .append("import com.google.gson.stream.JsonReader;\n")
+                    .append("import com.google.gson.stream.JsonToken;\n")
+                    .append("import com.google.gson.stream.JsonWriter;\n\n")
+                    .append("import java.io.IOException;\n")
+                    .append("import java.util.Map;\n\n")
+                    .append("public final class ").append(mClassName)
+                    .append(" extends TypeAdapter<").append(mTypeName).append("> {\n\n")
+                    .append("    private static final String[][] ALTERNATES = ");
+            if (hasAlternates) {
+                source.append('{').append(alternates, 0, alternates.length() - 2).append("};\n\n");
+            } else {
+                source.append("new String[").append(properties.size()).append("][];\n\n");
+            }
+            source.append("    private final Gson mGson;\n")
+                    .append("    private final String[] mNames;\n")
+                    .append("    private final Map<String, Integer> mIndex;\n");
+            for (Map.Entry<String, Integer> entry : mDelegates.entrySet()) {
+                source.append("    private TypeAdapter<").append(entry.getKey()).append("> mAdapter")
+                        .append(entry.getValue()).append(";\n");
+            }
+            source.append("\n    public ").append(mClassName).append("(Gson gson, FieldNamingPolicy namingPolicy) {\n")
+                    .append("        mGson = gson;\n")
+                    .append("        mNames = new String[] {\n")
+                    .append(names)
+                    .append("        };\n")
+                    .append("        mIndex = ModelTypeAdapterFactory.indexNames(mNames, ALTERNATES);\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public void write(JsonWriter out, ").append(mTypeName).append(" value) throws IOException {\n")
+                    .append("        if (value == null) {\n")
+                    .append("            out.nullValue();\n")
+                    .append("            return;\n")
+                    .append("        }\n")
+                    .append("        out.beginObject();\n")
+                    .append(write)
+                    .append("        out.endObject();\n")
+                    .append("    }\n\n")
+                    .append("    @Override\n")
+                    .append("    public ").append(mTypeName).append(" read(JsonReader in) throws IOException {\n")
+                    .append("        if (in.peek() == JsonToken.NULL) {\n")
+                    .append("            in.nextNull();\n")
+                    .append("            return null;\n")
+                    .append("        }\n")
+                    .append("        ").append(mTypeName).append(" result = new ").append(mTypeName).append("();\n")
+                    .append("        in.beginObject();\n")
+                    .append("        while (in.hasNext()) {\n")
+                    .append("            Integer field = mIndex.get(in.nextName());\n")
+                    .append("            switch (field == null ? -1 : field) {\n")
+                    .append(read)
+                    .append("                default:\n")
+                    .append("                    in.skipValue();\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        in.endObject();\n")
+                    .append("        return result;\n")
+                    .append("    }\n");
+            for (Map.Entry<String, Integer> entry : mDelegates.entrySet()) {
+                int index = entry.getValue();
+                source.append("\n    private TypeAdapter<").append(entry.getKey()).append("> adapter").append(index)
+                        .append("() {\n")
+                        .append("        if (mAdapter").append(index).append(" == null) {\n")
+                        .append("            mAdapter").append(index).append(" = mGson.getAdapter(")
+                        .append(typeToken(entry.getKey())).append(");\n")
+                        .append("        }\n")
+                        .append("        return mAdapter").append(index).append(";\n")
+                        .append("    }\n");
+            }
+            source.append("}\n");
+
+            String qualifiedName = mPackageName.isEmpty() ? mClassName : mPackageName + "." + mClassName;
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, mType);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        }
+
+        /**
+         * Gson 先写本类的字段, 再依次写父类的字段
+         */
+        private List<Property> gsonOrder(List<Property> properties) {
+            List<TypeElement> hierarchy = mProperties.hierarchy();
+            List<Property> ordered = new ArrayList<>(properties.size());
+            for (int i = hierarchy.size() - 1; i >= 0; i--) {
+                for (Property property : properties) {
+                    if (property.field.getEnclosingElement().equals(hierarchy.get(i))) {
+                        ordered.add(property);
+                    }
+                }
+            }
+            return ordered;
+        }
+
+        private void appendWrite(StringBuilder sb, Property property, TypeMirror type, int index)
+                throws InvalidElementException {
+            String indent = "        ";
+            String value = "value." + property.getter;
+            sb.append(indent).append("out.name(mNames[").append(index).append("]);\n");
+            if (type.getKind().isPrimitive()) {
+                sb.append(indent).append("out.value(").append(writePrimitive(type.getKind(), value)).append(");\n");
+                return;
+            }
+            if (isString(type)) {
+                sb.append(indent).append("out.value(").append(value).append(");\n");
+                return;
+            }
+
+            String variable = "v" + index;
+            sb.append(indent).append(type).append(' ').append(variable).append(" = ").append(value).append(";\n")
+                    .append(indent).append("if (").append(variable).append(" == null) {\n")
+                    .append(indent).append("    out.nullValue();\n")
+                    .append(indent).append("} else {\n");
+            TypeKind unboxed = unboxedKind(type);
+            if (unboxed != null) {
+                sb.append(indent).append("    out.value(").append(writePrimitive(unboxed, variable)).append(");\n");
+            } else {
+                sb.append(indent).append("    ").append(delegate(property, type)).append(".write(out, ")
+                        .append(variable).append(");\n");
+            }
+            sb.append(indent).append("}\n");
+        }
+
+        private void appendRead(StringBuilder sb, Property property, TypeMirror type, int index)
+                throws InvalidElementException {
+            String indent = "                    ";
+            sb.append("                case ").append(index).append(":\n");
+            if (type.getKind().isPrimitive()) {
+                // 与 Gson 相同, null 保留默认值
+                sb.append(indent).append("if (in.peek() == JsonToken.NULL) {\n")
+                        .append(indent).append("    in.nextNull();\n")
+                        .append(indent).append("} else {\n")
+                        .append(indent).append("    result.")
+                        .append(String.format(property.setter, readPrimitive(type.getKind()))).append(";\n")
+                        .append(indent).append("}\n");
+            } else if (isString(type) || unboxedKind(type) != null) {
+                sb.append(indent).append("if (in.peek() == JsonToken.NULL) {\n")
+                        .append(indent).append("    in.nextNull();\n")
+                        .append(indent).append("    result.").append(String.format(property.setter, "null"))
+                        .append(";\n");
+                if (isString(type)) {
+                    sb.append(indent).append("} else if (in.peek() == JsonToken.BOOLEAN) {\n")
+                            .append(indent).append("    result.")
+                            .append(String.format(property.setter, "Boolean.toString(in.nextBoolean())")).append(";\n")
+                            .append(indent).append("} else {\n")
+                            .append(indent).append("    result.")
+                            .append(String.format(property.setter, "in.nextString()")).append(";\n");
+                } else {
+                    sb.append(indent).append("} else {\n")
+                            .append(indent).append("    result.")
+                            .append(String.format(property.setter, readPrimitive(unboxedKind(type)))).append(";\n");
+                }
+                sb.append(indent).append("}\n");
+            } else {
+                sb.append(indent).append("result.")
+                        .append(String.format(property.setter, delegate(property, type) + ".read(in)")).append(";\n");
+            }
+            sb.append(indent).append("break;\n");
+        }
+
+        /**
+         * 返回获取委托 TypeAdapter 的表达式
+         */
+        private String delegate(Property property, TypeMirror type) throws InvalidElementException {
+            if (!isConcrete(type)) {
+                throw new InvalidElementException(property.field, "Gson adapter does not support field type "
+                        + type + ".");
+            }
+            String name = type.toString();
+            Integer index = mDelegates.get(name);
+            if (index == null) {
+                index = mDelegates.size();
+                mDelegates.put(name, index);
+            }
+            return "adapter" + index + "()";
+        }
+
+        /**
+         * 不含类型变量和通配符之外的未知类型, 可以写成 TypeToken
+         */
+        private boolean isConcrete(TypeMirror type) {
+            switch (type.getKind()) {
+                case DECLARED:
+                    for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                        if (!isConcrete(argument)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case ARRAY:
+                    return isConcrete(((ArrayType) type).getComponentType());
+                case WILDCARD:
+                    WildcardType wildcard = (WildcardType) type;
+                    TypeMirror bound = wildcard.getExtendsBound() != null
+                            ? wildcard.getExtendsBound() : wildcard.getSuperBound();
+                    return bound == null || isConcrete(bound);
+                default:
+                    return type.getKind().isPrimitive();
+            }
+        }
+
+        private String typeToken(String type) {
+            if (type.indexOf('<') < 0 && !type.endsWith("[]")) {
+                return type + ".class";
+            }
+            return "new com.google.gson.reflect.TypeToken<" + type + ">() {}";
+        }
+
+        private boolean hasReflectiveAnnotation(Element element) {
+            for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+                if (REFLECTIVE_ANNOTATIONS.contains(annotationName(annotation))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String alternatesOf(AnnotationMirror serializedName) {
+            Object value = annotationValue(serializedName, "alternate");
+            if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+                return null;
+            }
+            List<String> alternates = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                alternates.add(quote((String) ((AnnotationValue) item).getValue()));
+            }
+            StringBuilder sb = new StringBuilder("{");
+            for (int i = 0; i < alternates.size(); i++) {
+                sb.append(i == 0 ? "" : ", ").append(alternates.get(i));
+            }
+            return sb.append('}').toString();
+        }
+
+        private TypeKind unboxedKind(TypeMirror type) {
+            try {
+                return processingEnv.getTypeUtils().unboxedType(type).getKind();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private boolean isString(TypeMirror type) {
+            return type.getKind() == TypeKind.DECLARED
+                    && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(STRING);
+        }
+
+        /**
+         * 与 Gson 内置 TypeAdapter 的写法相同: float 按 Number 写出保留原有精度, char 写成字符串
+         */
+        private String writePrimitive(TypeKind kind, String expression) {
+            switch (kind) {
+                case FLOAT:
+                    return "(Number) Float.valueOf(" + expression + ")";
+                case CHAR:
+                    return "String.valueOf(" + expression + ")";
+                default:
+                    return expression;
+            }
+        }
+
+        private String readPrimitive(TypeKind kind) {
+            switch (kind) {
+                case BOOLEAN:
+                    return "in.peek() == JsonToken.STRING ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean()";
+                case LONG:
+                    return "in.nextLong()";
+                case FLOAT:
+                    return "(float) in.nextDouble()";
+                case DOUBLE:
+                    return "in.nextDouble()";
+                case BYTE:
+                    return "(byte) in.nextInt()";
+                case SHORT:
+                    return "(short) in.nextInt()";
+                case CHAR:
+                    return "in.nextString().charAt(0)";
+                default:
+                    return "in.nextInt()";
+            }
+        }
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String name) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotationName(annotation).equals(name)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static Object annotationValue(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
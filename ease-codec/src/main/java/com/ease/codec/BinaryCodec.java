@@ -0,0 +1,14 @@
+package com.ease.codec;
+
+import java.io.IOException;
+
+/**
+ * binary codec
+ * 由 {@link Codec} 生成的实现是无状态的, 可以在多个线程中共用
+ */
+public interface BinaryCodec<T> {
+
+    void write(Sink sink, T value) throws IOException;
+
+    T read(Source source) throws IOException;
+}
@@ -0,0 +1,140 @@
+package com.ease.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * byte buffer sink
+ * 写入可自动扩容的 ByteBuffer, 字符串直接编码进缓冲区, 不产生中间对象. 调用 reset() 后可以复用
+ */
+public class ByteBufferSink implements Sink {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private ByteBuffer mBuffer;
+
+    public ByteBufferSink() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ByteBufferSink(int initialCapacity) {
+        mBuffer = ByteBuffer.allocate(Math.max(16, initialCapacity));
+    }
+
+    /**
+     * 已写入的字节数
+     */
+    public int size() {
+        return mBuffer.position();
+    }
+
+    public void reset() {
+        mBuffer.clear();
+    }
+
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[mBuffer.position()];
+        System.arraycopy(mBuffer.array(), 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * 返回只包含已写入内容的只读视图, 不复制数据
+     */
+    public ByteBuffer toByteBuffer() {
+        ByteBuffer buffer = mBuffer.duplicate();
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        ensureCapacity(1);
+        mBuffer.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        mBuffer.putInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        mBuffer.putLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        ensureCapacity(4);
+        mBuffer.putFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        ensureCapacity(8);
+        mBuffer.putDouble(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        final int length = value.length();
+        int utf8Length = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length += 1;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                utf8Length += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                utf8Length += 1;
+            } else {
+                utf8Length += 3;
+            }
+        }
+
+        ensureCapacity(4 + utf8Length);
+        mBuffer.putInt(utf8Length);
+        final ByteBuffer buffer = mBuffer;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xf0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // 孤立的代理字符按 String.getBytes 的行为写为 '?'
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xe0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                buffer.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (mBuffer.remaining() >= count) {
+            return;
+        }
+        int capacity = Math.max(mBuffer.capacity() * 2, mBuffer.position() + count);
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        mBuffer.flip();
+        buffer.put(mBuffer);
+        mBuffer = buffer;
+    }
+}
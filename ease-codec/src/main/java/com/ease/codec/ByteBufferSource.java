@@ -0,0 +1,84 @@
+package com.ease.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * byte buffer source
+ * 从 ByteBuffer 的当前位置开始读取
+ */
+public class ByteBufferSource implements Source {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer mBuffer;
+
+    public ByteBufferSource(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public ByteBufferSource(ByteBuffer buffer) {
+        mBuffer = buffer;
+    }
+
+    public int remaining() {
+        return mBuffer.remaining();
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        require(1);
+        return mBuffer.get() != 0;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        return mBuffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        return mBuffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(4);
+        return mBuffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(8);
+        return mBuffer.getDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+        String value;
+        if (mBuffer.hasArray()) {
+            value = new String(mBuffer.array(), mBuffer.arrayOffset() + mBuffer.position(), length, UTF_8);
+            mBuffer.position(mBuffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            mBuffer.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+        return value;
+    }
+
+    private void require(int count) throws IOException {
+        if (mBuffer.remaining() < count) {
+            throw new EOFException("Need " + count + " bytes, " + mBuffer.remaining() + " remaining.");
+        }
+    }
+}
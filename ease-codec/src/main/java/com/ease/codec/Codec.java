@@ -0,0 +1,17 @@
+package com.ease.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * codec
+ * 标记需要生成二进制读写代码的 model, 编译时生成 {@code <Model>$$BinaryCodec}.
+ * 写入所有非 static, 非 transient 的字段 (包括父类), private 字段通过 getter/setter 访问,
+ * model 需要可访问的无参构造函数
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Codec {
+}
@@ -0,0 +1,84 @@
+package com.ease.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * codecs
+ * 查找 {@link Codec} 生成的实现, 以及列表的读写
+ */
+public final class Codecs {
+
+    /**
+     * 生成类名的后缀, 生成类与 model 位于同一个包
+     */
+    public static final String SUFFIX = "$$BinaryCodec";
+
+    private static final Map<Class<?>, BinaryCodec<?>> CODECS = new ConcurrentHashMap<>();
+
+    private Codecs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> BinaryCodec<T> get(Class<T> type) {
+        BinaryCodec<T> codec = (BinaryCodec<T>) CODECS.get(type);
+        if (codec != null) {
+            return codec;
+        }
+
+        try {
+            Class<?> codecClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+            codec = (BinaryCodec<T>) codecClass.getField("INSTANCE").get(null);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(type.getName() + " is not annotated with @Codec.", e);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to load codec for " + type.getName(), e);
+        }
+        CODECS.put(type, codec);
+        return codec;
+    }
+
+    /**
+     * 写入列表, null 的长度为 -1
+     */
+    public static <T> void writeList(Sink sink, List<T> list, BinaryCodec<T> codec) throws IOException {
+        if (list == null) {
+            sink.writeInt(-1);
+            return;
+        }
+        final int size = list.size();
+        sink.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            T item = list.get(i);
+            sink.writeBoolean(item != null);
+            if (item != null) {
+                codec.write(sink, item);
+            }
+        }
+    }
+
+    public static <T> List<T> readList(Source source, BinaryCodec<T> codec) throws IOException {
+        final int size = source.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<T> list = new ArrayList<>(Math.min(size, 1024));
+        for (int i = 0; i < size; i++) {
+            list.add(source.readBoolean() ? codec.read(source) : null);
+        }
+        return list;
+    }
+
+    public static <T> byte[] encodeList(List<T> list, BinaryCodec<T> codec) throws IOException {
+        ByteBufferSink sink = new ByteBufferSink();
+        writeList(sink, list, codec);
+        return sink.toByteArray();
+    }
+
+    public static <T> List<T> decodeList(byte[] bytes, BinaryCodec<T> codec) throws IOException {
+        return readList(new ByteBufferSource(bytes), codec);
+    }
+}
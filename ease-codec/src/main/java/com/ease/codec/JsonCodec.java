@@ -0,0 +1,16 @@
+package com.ease.codec;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * json codec
+ * 标记需要生成 Gson TypeAdapter 的 BaseModel 子类, 编译时生成 {@code <Model>$$TypeAdapter},
+ * 由 ModelTypeAdapterFactory 加载; 没有标记的类由 Gson 通过反射解析
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {
+}
@@ -0,0 +1,22 @@
+package com.ease.codec;
+
+import java.io.IOException;
+
+/**
+ * sink
+ * 二进制写入目标. String 写为长度加 UTF-8 字节, null 的长度为 -1
+ */
+public interface Sink {
+
+    void writeBoolean(boolean value) throws IOException;
+
+    void writeInt(int value) throws IOException;
+
+    void writeLong(long value) throws IOException;
+
+    void writeFloat(float value) throws IOException;
+
+    void writeDouble(double value) throws IOException;
+
+    void writeString(String value) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.ease.codec;
+
+import java.io.IOException;
+
+/**
+ * source
+ * 二进制读取来源, 与 {@link Sink} 的格式对应
+ */
+public interface Source {
+
+    boolean readBoolean() throws IOException;
+
+    int readInt() throws IOException;
+
+    long readLong() throws IOException;
+
+    float readFloat() throws IOException;
+
+    double readDouble() throws IOException;
+
+    String readString() throws IOException;
+}
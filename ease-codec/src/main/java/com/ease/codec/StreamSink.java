@@ -0,0 +1,56 @@
+package com.ease.codec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * stream sink
+ * 写入 DataOutput, 例如 DataOutputStream
+ */
+public class StreamSink implements Sink {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DataOutput mOutput;
+
+    public StreamSink(DataOutput output) {
+        mOutput = output;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        mOutput.writeBoolean(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        mOutput.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        mOutput.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException {
+        mOutput.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException {
+        mOutput.writeDouble(value);
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            mOutput.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        mOutput.writeInt(bytes.length);
+        mOutput.write(bytes);
+    }
+}
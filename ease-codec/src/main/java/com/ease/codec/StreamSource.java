@@ -0,0 +1,56 @@
+package com.ease.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * stream source
+ * 从 DataInput 读取, 例如 DataInputStream
+ */
+public class StreamSource implements Source {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DataInput mInput;
+
+    public StreamSource(DataInput input) {
+        mInput = input;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return mInput.readBoolean();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return mInput.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return mInput.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return mInput.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return mInput.readDouble();
+    }
+
+    @Override
+    public String readString() throws IOException {
+        int length = mInput.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        mInput.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
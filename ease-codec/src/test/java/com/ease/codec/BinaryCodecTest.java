@@ -0,0 +1,252 @@
+package com.ease.codec;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * binary codec test
+ * 处理器生成的 codec 编码再解码后与原对象相同: 基本类型, 包装类, null, 嵌套 model, 列表和父类字段
+ */
+public class BinaryCodecTest {
+
+    enum Kind {
+        USER, ORGANIZATION
+    }
+
+    @Codec
+    static class Owner {
+        String login;
+        int id;
+
+        Owner() {
+        }
+
+        Owner(String login, int id) {
+            this.login = login;
+            this.id = id;
+        }
+    }
+
+    static class Base {
+        long baseId;
+    }
+
+    @Codec
+    static class Sample extends Base {
+        boolean flag;
+        byte smallByte;
+        short smallShort;
+        char letter;
+        int count;
+        long size;
+        float ratio;
+        double score;
+
+        Boolean boxedFlag;
+        Integer boxedCount;
+        Long boxedSize;
+        Double boxedScore;
+
+        String name;
+        Kind kind;
+        Date createdAt;
+        Owner owner;
+
+        List<String> tags;
+        ArrayList<Integer> numbers;
+        List<Owner> members;
+        List<List<String>> groups;
+
+        transient String cached;
+        private String mNote;
+
+        public String getNote() {
+            return mNote;
+        }
+
+        public void setNote(String note) {
+            mNote = note;
+        }
+    }
+
+    /**
+     * 所有字段都有值, 列表中包含 null
+     */
+    private static Sample full() {
+        Sample sample = new Sample();
+        sample.baseId = 42L;
+        sample.flag = true;
+        sample.smallByte = -7;
+        sample.smallShort = 1234;
+        sample.letter = '\u4e2d';
+        sample.count = Integer.MIN_VALUE;
+        sample.size = Long.MAX_VALUE;
+        sample.ratio = 0.5f;
+        sample.score = -1.25;
+        sample.boxedFlag = false;
+        sample.boxedCount = 0;
+        sample.boxedSize = -1L;
+        sample.boxedScore = Double.NaN;
+        sample.name = "ease \u4e2d\u6587 \ud83d\ude00";
+        sample.kind = Kind.ORGANIZATION;
+        sample.createdAt = new Date(1445000000000L);
+        sample.owner = new Owner("square", 82592);
+        sample.tags = Arrays.asList("java", null, "");
+        sample.numbers = new ArrayList<>(Arrays.asList(1, null, 3));
+        sample.members = Arrays.asList(new Owner("jake", 1), null, new Owner(null, 2));
+        sample.groups = Arrays.asList(Arrays.asList("a", "b"), null, new ArrayList<String>());
+        sample.cached = "not written";
+        sample.setNote("private");
+        return sample;
+    }
+
+    private static byte[] encode(Sample sample) throws IOException {
+        ByteBufferSink sink = new ByteBufferSink(16);
+        Codecs.get(Sample.class).write(sink, sample);
+        return sink.toByteArray();
+    }
+
+    private static Sample decode(byte[] bytes) throws IOException {
+        ByteBufferSource source = new ByteBufferSource(bytes);
+        Sample sample = Codecs.get(Sample.class).read(source);
+        assertEquals(0, source.remaining());
+        return sample;
+    }
+
+    private static void assertOwner(Owner expected, Owner actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.login, actual.login);
+        assertEquals(expected.id, actual.id);
+    }
+
+    private static void assertOwners(List<Owner> expected, List<Owner> actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertOwner(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static void assertSample(Sample expected, Sample actual) {
+        assertEquals(expected.baseId, actual.baseId);
+        assertEquals(expected.flag, actual.flag);
+        assertEquals(expected.smallByte, actual.smallByte);
+        assertEquals(expected.smallShort, actual.smallShort);
+        assertEquals(expected.letter, actual.letter);
+        assertEquals(expected.count, actual.count);
+        assertEquals(expected.size, actual.size);
+        assertEquals(expected.ratio, actual.ratio, 0f);
+        assertEquals(expected.score, actual.score, 0d);
+        assertEquals(expected.boxedFlag, actual.boxedFlag);
+        assertEquals(expected.boxedCount, actual.boxedCount);
+        assertEquals(expected.boxedSize, actual.boxedSize);
+        assertEquals(expected.boxedScore, actual.boxedScore);
+        assertEquals(expected.name, actual.name);
+        assertEquals(expected.kind, actual.kind);
+        assertEquals(expected.createdAt, actual.createdAt);
+        assertOwner(expected.owner, actual.owner);
+        assertEquals(expected.tags, actual.tags);
+        assertEquals(expected.numbers, actual.numbers);
+        assertOwners(expected.members, actual.members);
+        assertEquals(expected.groups, actual.groups);
+        assertNull(actual.cached);
+        assertEquals(expected.getNote(), actual.getNote());
+    }
+
+    @Test
+    public void roundTripsAllFields() throws IOException {
+        Sample sample = full();
+        assertSample(sample, decode(encode(sample)));
+    }
+
+    @Test
+    public void roundTripsNulls() throws IOException {
+        Sample sample = new Sample();
+        Sample decoded = decode(encode(sample));
+        assertSample(sample, decoded);
+        assertNull(decoded.boxedCount);
+        assertNull(decoded.kind);
+        assertNull(decoded.createdAt);
+        assertNull(decoded.owner);
+        assertNull(decoded.tags);
+        assertNull(decoded.numbers);
+        assertNull(decoded.members);
+        assertNull(decoded.getNote());
+    }
+
+    @Test
+    public void streamAndBufferFormatsMatch() throws IOException {
+        Sample sample = full();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        Codecs.get(Sample.class).write(new StreamSink(output), sample);
+        output.flush();
+        assertArrayEquals(bytes.toByteArray(), encode(sample));
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertSample(sample, Codecs.get(Sample.class).read(new StreamSource(input)));
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    public void roundTripsLists() throws IOException {
+        List<Sample> samples = Arrays.asList(full(), null, new Sample());
+        List<Sample> decoded = Codecs.decodeList(Codecs.encodeList(samples, Codecs.get(Sample.class)),
+                Codecs.get(Sample.class));
+        assertEquals(3, decoded.size());
+        assertSample(samples.get(0), decoded.get(0));
+        assertNull(decoded.get(1));
+        assertSample(samples.get(2), decoded.get(2));
+
+        assertNull(Codecs.decodeList(Codecs.encodeList(null, Codecs.get(Owner.class)), Codecs.get(Owner.class)));
+        assertTrue(Codecs.decodeList(Codecs.encodeList(new ArrayList<Owner>(), Codecs.get(Owner.class)),
+                Codecs.get(Owner.class)).isEmpty());
+    }
+
+    @Test
+    public void findsGeneratedCodec() {
+        BinaryCodec<Sample> codec = Codecs.get(Sample.class);
+        assertEquals(Sample.class.getName() + Codecs.SUFFIX, codec.getClass().getName());
+        assertSame(codec, Codecs.get(Sample.class));
+        try {
+            Codecs.get(Base.class);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Base 没有 @Codec
+        }
+    }
+
+    @Test
+    public void truncatedInputFails() throws IOException {
+        byte[] bytes = encode(full());
+        try {
+            decode(Arrays.copyOf(bytes, bytes.length - 1));
+            fail();
+        } catch (EOFException expected) {
+            // 缺少最后一个字节
+        }
+    }
+}
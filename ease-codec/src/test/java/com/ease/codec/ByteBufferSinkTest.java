@@ -0,0 +1,92 @@
+package com.ease.codec;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * byte buffer sink test
+ * 字符串的编码与 String.getBytes(UTF-8) (StreamSink) 逐字节相同, 包括孤立的代理字符, 扩容后内容不变
+ */
+public class ByteBufferSinkTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String[] STRINGS = {
+            "",
+            "ascii",
+            "\u00e9\u07ff",
+            "\u0800\u4e2d\u6587\uffff",
+            "\ud83d\ude00 pair",
+            // 孤立的代理字符
+            "a\ud800b",
+            "\udc00",
+            "tail \ud83d",
+            "\ude00\ud83d",
+            "\ud83d\ud83d\ude00",
+    };
+
+    private static byte[] streamBytes(String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        new StreamSink(output).writeString(value);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void stringsMatchStringGetBytes() throws IOException {
+        for (String value : STRINGS) {
+            ByteBufferSink sink = new ByteBufferSink(16);
+            sink.writeString(value);
+            byte[] bytes = sink.toByteArray();
+            assertArrayEquals(value, streamBytes(value), bytes);
+            assertEquals(value, 4 + value.getBytes(UTF_8).length, sink.size());
+            assertEquals(value, new String(value.getBytes(UTF_8), UTF_8), new ByteBufferSource(bytes).readString());
+        }
+    }
+
+    @Test
+    public void loneSurrogateIsQuestionMark() throws IOException {
+        ByteBufferSink sink = new ByteBufferSink();
+        sink.writeString("a\ud800b\udc00");
+        // 长度前缀只计一个字节, 后面的字段不会错位
+        sink.writeInt(7);
+        ByteBufferSource source = new ByteBufferSource(sink.toByteArray());
+        assertEquals("a?b?", source.readString());
+        assertEquals(7, source.readInt());
+        assertEquals(0, source.remaining());
+    }
+
+    @Test
+    public void growsAndResets() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            builder.append(STRINGS[i % STRINGS.length]);
+        }
+        String value = builder.toString();
+
+        ByteBufferSink sink = new ByteBufferSink(16);
+        sink.writeLong(1L);
+        sink.writeString(value);
+        sink.writeString(null);
+        ByteBuffer buffer = sink.toByteBuffer();
+        assertEquals(sink.size(), buffer.remaining());
+        ByteBufferSource source = new ByteBufferSource(buffer);
+        assertEquals(1L, source.readLong());
+        assertEquals(new String(value.getBytes(UTF_8), UTF_8), source.readString());
+        assertNull(source.readString());
+
+        sink.reset();
+        sink.writeString("ascii");
+        assertArrayEquals(streamBytes("ascii"), sink.toByteArray());
+    }
+}
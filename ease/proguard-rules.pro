@@ -15,3 +15,10 @@
 #-keepclassmembers class fqcn.of.javascript.interface.for.webview {
 #   public *;
 #}
+
+# ease-codec: generated codecs are looked up by name in Codecs.get()
+# (model.getName() + suffix), so models that have a generated companion keep their names too
+-keep class **$$BinaryCodec { public static ** INSTANCE; }
+-keep class **$$TypeAdapter { public <init>(com.google.gson.Gson, com.google.gson.FieldNamingPolicy); }
+-keepnames @com.ease.codec.Codec class *
+-keepnames @com.ease.codec.JsonCodec class *
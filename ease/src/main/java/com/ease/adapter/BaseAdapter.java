@@ -1,10 +1,12 @@
 package com.ease.adapter;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.v7.widget.RecyclerView;
 import android.view.ViewGroup;
 
+import com.ease.data.DataChange;
 import com.ease.data.DataController;
 import com.ease.data.DataSubscriber;
 import com.ease.model.BaseModel;
@@ -27,10 +29,27 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
      */
     public static final int DEFAULT_RANDOM_TYPE = 88888;
 
+    /**
+     * Header/Random/Footer 的稳定 id 使用负数区间, 避免与 BaseModel.getStableId() 冲突
+     */
+    private static final long HEADER_ID_BASE = Long.MIN_VALUE;
+    private static final long FOOTER_ID_BASE = Long.MIN_VALUE / 2;
+    private static final long RANDOM_ID_BASE = -2;
+
+    /**
+     * 没有稳定 id 的数据条目和分页窗口的占位, 按数据下标分配, 与上面的区间以及非负的稳定 id 都不重叠
+     */
+    private static final long COMMON_FALLBACK_ID_BASE = Long.MIN_VALUE / 4;
+
     private enum HOLDER_TYPE {
         HEADER, RANDOM, COMMON, FOOTER
     }
 
+    /**
+     * 与 SegmentTable 的分段常量顺序一致
+     */
+    private static final HOLDER_TYPE[] HOLDER_TYPES = HOLDER_TYPE.values();
+
     public interface HeaderDelegate {
 
         RecyclerView.ViewHolder onCreateHeader(ViewGroup parent, int viewType);
@@ -44,16 +63,28 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
         boolean isHeaderType(int viewType);
     }
 
+    /**
+     * 插入到数据之间的条目, 例如广告, banner, 分组标题, 可以有任意多个.
+     * 数量或位置变化后需要调用 notifySegmentsChanged()
+     */
     public interface RandomDelegate {
         RecyclerView.ViewHolder onCreateRandom(ViewGroup parent, int viewType);
 
-        void onBindRandom(RecyclerView.ViewHolder holder, int position);
+        /**
+         * @param index 第几个 Random 条目
+         */
+        void onBindRandom(RecyclerView.ViewHolder holder, int index);
 
-        int getRandomType();
+        int getRandomCount();
 
-        boolean isRandomType(int viewType);
+        /**
+         * 第 index 个 Random 条目插在哪个数据下标之前, 必须非递减; 之后没有数据时不显示
+         */
+        int getRandomPosition(int index);
+
+        int getRandomType(int index);
 
-        int getRandomPosition();
+        boolean isRandomType(int viewType);
     }
 
     public interface FooterDelegate {
@@ -79,7 +110,23 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
     private RandomDelegate mRandomDelegate;
     private FooterDelegate mFooterDelegate;
 
-    private int mRandomPosition = -1;
+    private final SegmentTable mSegments = new SegmentTable();
+    private int[] mRandomPositions = new int[0];
+    private boolean mSegmentsDirty = true;
+
+    private PrefetchPolicy mPrefetchPolicy = PrefetchPolicy.adaptive();
+
+    /**
+     * 是否已经加载完所有数据, 之后不再触发加载更多
+     */
+    private boolean mReachedEnd;
+
+    /**
+     * 已经通知给 RecyclerView 的数据个数, 按顺序应用每个变化, 用来判断 Random 条目在变化前后是否存在
+     */
+    private int mNotifiedCommonCount;
+
+    private final HolderLifecycle mHolderLifecycle = new HolderLifecycle(this);
 
     public BaseAdapter(Context context) {
         mContext = context;
@@ -91,6 +138,8 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
         mDataController = createDataController();
         addDataActionListener(this);
         addDataChangeListeners(this);
+        mNotifiedCommonCount = getCommonItemCount();
+        mSegmentsDirty = true;
         mDataController.initialize();
     }
 
@@ -99,7 +148,11 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
         super.onDetachedFromRecyclerView(recyclerView);
         removeDataActionListener(this);
         removeDataChangeListeners(this);
-        mDataController.getData().clear();
+        // 只取消请求, 不清除数据: 派生视图是只读的, parent 也可能同时为其他列表提供数据.
+        // 派生视图 cancelAll 后停止跟随 parent, 下次 attach 时重建
+        mDataController.cancelAll();
+        mNotifiedCommonCount = 0;
+        mSegmentsDirty = true;
     }
 
     public Context getContext() {
@@ -112,18 +165,50 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
 
     public void setHeaderDelegate(HeaderDelegate delegate) {
         mHeaderDelegate = delegate;
-        notifyDataSetChanged();
+        notifySegmentsChanged();
     }
 
     public void setRandomDelegate(RandomDelegate delegate) {
         mRandomDelegate = delegate;
+        notifySegmentsChanged();
     }
 
     public void setFooterDelegate(FooterDelegate delegate) {
         mFooterDelegate = delegate;
+        notifySegmentsChanged();
+    }
+
+    /**
+     * Header/Random/Footer 的数量或位置变化后调用, 重新读取各个 delegate 并刷新整个列表
+     */
+    public void notifySegmentsChanged() {
+        mRandomPositions = SegmentTable.readRandomPositions(mRandomDelegate);
+        mSegmentsDirty = true;
         notifyDataSetChanged();
     }
 
+    /**
+     * 数据或 delegate 变化后才重建分段表, 其余时候直接使用
+     */
+    private SegmentTable getSegments() {
+        if (mSegmentsDirty || mSegments.getCommonCount() != getCommonItemCount()) {
+            mSegments.rebuild(getHeaderCount(), getCommonItemCount(), getFooterCount(), mRandomPositions);
+            mSegmentsDirty = false;
+        }
+        return mSegments;
+    }
+
+    /**
+     * 设置提前加载下一页的策略, 默认根据滚动速度和加载耗时自适应
+     */
+    public void setPrefetchPolicy(@NonNull PrefetchPolicy policy) {
+        mPrefetchPolicy = policy;
+    }
+
+    public PrefetchPolicy getPrefetchPolicy() {
+        return mPrefetchPolicy;
+    }
+
     public void refresh() {
         mDataController.refresh();
     }
@@ -137,22 +222,38 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
      */
     @Override
     public int getItemCount() {
-        return getHeaderCount() + getCommonItemCount() + getFooterCount() + getRandomCount();
+        if (mSegments.getHeaderCount() != getHeaderCount() || mSegments.getFooterCount() != getFooterCount()) {
+            mSegmentsDirty = true;
+        }
+        return getSegments().getItemCount();
     }
 
+    /**
+     * 数据条目返回 BaseModel.getStableId(), 没有稳定 id 的条目退化为按数据下标的负数 id;
+     * Header/Random/Footer 按各自的下标返回固定的负数 id
+     */
     @Override
     public long getItemId(int position) {
-        return position;
+        SegmentTable segments = getSegments();
+        int index = segments.getLocalIndex(position);
+        switch (segments.getSegment(position)) {
+            case SegmentTable.HEADER:
+                return HEADER_ID_BASE + index;
+            case SegmentTable.RANDOM:
+                return RANDOM_ID_BASE - index;
+            case SegmentTable.FOOTER:
+                return FOOTER_ID_BASE + index;
+            default:
+                M item = mDataController.getData().get(index);
+                long id = item == null ? BaseModel.NO_ID : item.getStableId();
+                return id == BaseModel.NO_ID ? COMMON_FALLBACK_ID_BASE + index : id;
+        }
     }
 
     public int getHeaderCount() {
         return mHeaderDelegate == null ? 0 : mHeaderDelegate.getHeaderCount();
     }
 
-    private int getRandomCount() {
-        return mRandomDelegate == null ? 0 : (getDataController() != null && getDataController().getData().size() > mRandomDelegate.getRandomPosition() ? 1 : 0);
-    }
-
     public int getFooterCount() {
         return mFooterDelegate == null ? 0 : mFooterDelegate.getFooterCount();
     }
@@ -177,30 +278,36 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
 
     public abstract RecyclerView.ViewHolder onCreateCommon(ViewGroup parent, int viewType);
 
+    /**
+     * @param item 开启 DataController.setPagedWindow 时, 尚未重新获取的条目为 null, 应显示占位
+     */
     public abstract void onBindCommon(RecyclerView.ViewHolder holder, M item);
 
     @Override
     public final int getItemViewType(int position) {
-        int headerCount = getHeaderCount();
-        if (position < headerCount) {
-            return mHeaderDelegate.getHeaderType(position);
+        SegmentTable segments = getSegments();
+        int index = segments.getLocalIndex(position);
+        switch (segments.getSegment(position)) {
+            case SegmentTable.HEADER:
+                return mHeaderDelegate.getHeaderType(index);
+            case SegmentTable.RANDOM:
+                return mRandomDelegate.getRandomType(index);
+            case SegmentTable.FOOTER:
+                return mFooterDelegate.getFooterType(index);
+            default:
+                return getCommonType(index);
         }
-
-        if (hasRandom() && position >= headerCount && mRandomDelegate.getRandomPosition() == position - headerCount + 1) {
-            mRandomPosition = position;
-            return mRandomDelegate.getRandomType();
-        }
-
-        if (hasFooter() && position >= headerCount + getCommonItemCount() + getRandomCount()) {
-            return mFooterDelegate.getFooterType(position - headerCount - getCommonItemCount() - getRandomCount());
-        }
-
-        int p = position - headerCount - ((hasRandom() && mRandomPosition != -1 && position > mRandomPosition) ? 1 : 0);
-        return getCommonType(p);
     }
 
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        long start = System.nanoTime();
+        RecyclerView.ViewHolder holder = createHolder(parent, viewType);
+        mHolderLifecycle.onCreated(holder, viewType, System.nanoTime() - start);
+        return holder;
+    }
+
+    private RecyclerView.ViewHolder createHolder(ViewGroup parent, int viewType) {
         if (hasHeader() && mHeaderDelegate.isHeaderType(viewType)) {
             return mHeaderDelegate.onCreateHeader(parent, viewType);
         }
@@ -218,47 +325,50 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
 
     @Override
     public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
-        switch (getItemType(position)) {
-            case HEADER:
-                mHeaderDelegate.onBindHeader(holder, position);
+        mHolderLifecycle.beforeBind(holder);
+        SegmentTable segments = getSegments();
+        int index = segments.getLocalIndex(position);
+        switch (segments.getSegment(position)) {
+            case SegmentTable.HEADER:
+                mHeaderDelegate.onBindHeader(holder, index);
                 break;
-            case RANDOM:
-                mRandomDelegate.onBindRandom(holder, position);
+            case SegmentTable.RANDOM:
+                mRandomDelegate.onBindRandom(holder, index);
                 break;
-            case FOOTER:
-                mFooterDelegate.onBindFooter(holder, position - getHeaderCount() - getRandomCount() - getCommonItemCount());
+            case SegmentTable.FOOTER:
+                mFooterDelegate.onBindFooter(holder, index);
                 break;
-            case COMMON:
-                int p = position - getHeaderCount() - ((hasRandom() && mRandomPosition != -1 && position > mRandomPosition) ? 1 : 0);
-                onBindCommon(holder, mDataController.getData().get(p));
+            case SegmentTable.COMMON:
+                mDataController.onItemBound(index);
+                onBindCommon(holder, mDataController.getData().get(index));
                 break;
         }
+        mHolderLifecycle.afterBind(holder);
 
-        if (position == getItemCount() - 1) {
+        mPrefetchPolicy.onBind(position, SystemClock.uptimeMillis());
+        if (!mReachedEnd && mDataController.getData().size() > 0
+                && mPrefetchPolicy.shouldLoadMore(position, getItemCount(), mDataController.getLoadMoreLatency())) {
             loadMore();
         }
     }
 
-    public HOLDER_TYPE getItemType(int position) {
-        int type = getItemViewType(position);
-
-        if (hasHeader() && mHeaderDelegate.isHeaderType(type)) {
-            return HOLDER_TYPE.HEADER;
-        }
-        if (hasRandom() && mRandomDelegate.isRandomType(type)) {
-            return HOLDER_TYPE.RANDOM;
-        }
-
-        if (hasFooter() && mFooterDelegate.isFooterType(type)) {
-            return HOLDER_TYPE.FOOTER;
-        }
+    /**
+     * 取消回收的 holder 在绑定时发起的请求
+     */
+    @Override
+    public void onViewRecycled(RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        mHolderLifecycle.onRecycled(holder);
+    }
 
-        return HOLDER_TYPE.COMMON;
+    public HOLDER_TYPE getItemType(int position) {
+        return HOLDER_TYPES[getSegments().getSegment(position)];
     }
 
     @Override
     public void onInitStart() {
-
+        mReachedEnd = false;
+        mPrefetchPolicy.reset();
     }
 
     @Override
@@ -268,7 +378,7 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
 
     @Override
     public void onRefreshStart() {
-
+        mReachedEnd = false;
     }
 
     @Override
@@ -287,12 +397,95 @@ public abstract class BaseAdapter<M extends BaseModel> extends RecyclerView.Adap
 
     @Override
     public void onEnd() {
-
+        mReachedEnd = true;
     }
 
+    /**
+     * 将数据变化转换为对应的局部刷新, 位置会加上 Header 和之前的 Random 条目的偏移;
+     * 数据跨过 Random 条目的变化无法用局部刷新准确表达, 退化为 notifyDataSetChanged
+     */
     @Override
-    public void onDataChange() {
-        notifyDataSetChanged();
+    public void onDataChange(DataChange change) {
+        int headerCount = getHeaderCount();
+        int position = change.getPosition();
+        int count = change.getCount();
+
+        int sizeBefore = mNotifiedCommonCount;
+        int sizeAfter = sizeBefore;
+        if (change.getType() == DataChange.TYPE.INSERTED) {
+            sizeAfter += count;
+        } else if (change.getType() == DataChange.TYPE.REMOVED) {
+            sizeAfter -= count;
+        }
+        mNotifiedCommonCount = sizeAfter;
+        mSegmentsDirty = true;
+
+        int[] randoms = mRandomPositions;
+        if (randoms.length == 0) {
+            dispatchDataChange(change, headerCount);
+            return;
+        }
+
+        switch (change.getType()) {
+            case CHANGED:
+                // 按 Random 条目切分成若干段
+                int end = position + count;
+                while (position < end) {
+                    int before = SegmentTable.countAtOrBefore(randoms, position);
+                    int runEnd = before < randoms.length ? Math.min(end, randoms[before]) : end;
+                    notifyItemRangeChanged(headerCount + before + position, runEnd - position);
+                    position = runEnd;
+                }
+                break;
+            case MOVED:
+                int low = Math.min(position, change.getToPosition());
+                int high = Math.max(position, change.getToPosition());
+                int randomsBefore = SegmentTable.countAtOrBefore(randoms, low);
+                if (SegmentTable.countAtOrBefore(randoms, high) == randomsBefore) {
+                    dispatchDataChange(change, headerCount + randomsBefore);
+                } else {
+                    notifyDataSetChanged();
+                }
+                break;
+            default:
+                boolean inserted = change.getType() == DataChange.TYPE.INSERTED;
+                if (inserted ? position == sizeBefore : position + count == sizeBefore) {
+                    // 在末尾追加或删除, 之后出现或消失的 Random 条目一并计入
+                    int start = headerCount + position + SegmentTable.countAtOrBefore(randoms, position - 1);
+                    int middleEnd = headerCount + (inserted
+                            ? sizeAfter + SegmentTable.countVisible(randoms, sizeAfter)
+                            : sizeBefore + SegmentTable.countVisible(randoms, sizeBefore));
+                    if (inserted) {
+                        notifyItemRangeInserted(start, middleEnd - start);
+                    } else {
+                        notifyItemRangeRemoved(start, middleEnd - start);
+                    }
+                } else if (SegmentTable.countVisible(randoms, Math.max(sizeBefore, sizeAfter))
+                        == SegmentTable.countAtOrBefore(randoms, position)) {
+                    // 后面没有会被数据跨过的 Random 条目
+                    dispatchDataChange(change, headerCount + SegmentTable.countAtOrBefore(randoms, position));
+                } else {
+                    notifyDataSetChanged();
+                }
+                break;
+        }
+    }
+
+    private void dispatchDataChange(DataChange change, int offset) {
+        switch (change.getType()) {
+            case INSERTED:
+                notifyItemRangeInserted(offset + change.getPosition(), change.getCount());
+                break;
+            case REMOVED:
+                notifyItemRangeRemoved(offset + change.getPosition(), change.getCount());
+                break;
+            case CHANGED:
+                notifyItemRangeChanged(offset + change.getPosition(), change.getCount());
+                break;
+            case MOVED:
+                notifyItemMoved(offset + change.getPosition(), offset + change.getToPosition());
+                break;
+        }
     }
 
 
@@ -0,0 +1,83 @@
+package com.ease.adapter;
+
+import android.support.v7.widget.RecyclerView;
+
+import com.ease.holder.BaseHolder;
+import com.ease.metrics.HolderMetrics;
+import com.ease.metrics.Metrics;
+
+import rx.Subscription;
+
+/**
+ * holder lifecycle
+ * BaseAdapter 和 SectionAdapter 共用的 holder 创建, 绑定和回收: 统计创建耗时 (HolderPoolManager 和 Metrics),
+ * 绑定时先开始新的绑定再取消上一次绑定的请求, 回收时取消请求. 只在主线程使用, beforeBind 和 afterBind 成对调用
+ */
+final class HolderLifecycle {
+
+    private final RecyclerView.Adapter<?> mAdapter;
+
+    /**
+     * 开启 Metrics 后记录每种 view type 的创建和绑定耗时
+     */
+    private HolderMetrics mHolderMetrics;
+
+    private long mBindStart;
+    private Subscription mPreviousBinding;
+
+    HolderLifecycle(RecyclerView.Adapter<?> adapter) {
+        mAdapter = adapter;
+    }
+
+    void onCreated(RecyclerView.ViewHolder holder, int viewType, long durationNanos) {
+        HolderPoolManager.getInstance().onHolderCreated(holder, durationNanos);
+        HolderMetrics metrics = getHolderMetrics();
+        if (metrics != null) {
+            metrics.recordCreate(viewType, durationNanos);
+        }
+    }
+
+    void beforeBind(RecyclerView.ViewHolder holder) {
+        mBindStart = getHolderMetrics() != null ? System.nanoTime() : 0;
+        mPreviousBinding = holder instanceof BaseHolder ? ((BaseHolder<?>) holder).startBinding() : null;
+    }
+
+    /**
+     * 新的绑定发起请求之后才取消上一次的, 相同的请求可以复用
+     */
+    void afterBind(RecyclerView.ViewHolder holder) {
+        if (mPreviousBinding != null) {
+            mPreviousBinding.unsubscribe();
+            mPreviousBinding = null;
+        }
+        HolderMetrics metrics = getHolderMetrics();
+        if (metrics != null && mBindStart != 0) {
+            metrics.recordBind(holder.getItemViewType(), System.nanoTime() - mBindStart);
+        }
+    }
+
+    /**
+     * 取消回收的 holder 在绑定时发起的请求
+     */
+    void onRecycled(RecyclerView.ViewHolder holder) {
+        if (holder instanceof BaseHolder) {
+            ((BaseHolder<?>) holder).unbind();
+        }
+    }
+
+    /**
+     * Metrics 关闭时返回 null
+     */
+    private HolderMetrics getHolderMetrics() {
+        if (!Metrics.isEnabled()) {
+            return null;
+        }
+        if (mHolderMetrics == null) {
+            Class<?> type = mAdapter.getClass();
+            String name = type.getSimpleName();
+            mHolderMetrics = new HolderMetrics(Metrics.getRegistry(),
+                    "adapter." + (name.isEmpty() ? type.getName() : name));
+        }
+        return mHolderMetrics;
+    }
+}
@@ -0,0 +1,341 @@
+package com.ease.adapter;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import com.ease.holder.BaseHolder;
+
+import java.util.HashMap;
+
+/**
+ * holder pool manager
+ * 全局共用的 RecycledViewPool, 切换列表页面时复用已经创建的 holder.
+ * 共用 pool 的 Adapter 必须通过 getViewType() (或共用的 ViewTypeRegistry) 分配 view type, 保证同一个值始终对应同一种 holder.
+ * preInflate 在主线程空闲时于后台线程通过 HolderFactory 预先创建 holder 放入 pool, 后台创建失败时退化为在主线程空闲时逐个创建.
+ * pool 中的 View 持有创建它的 Context, 最后一个使用 pool 的 Activity 在 onDestroy 中调用 clear().
+ * 所有方法除统计外只在主线程调用
+ */
+public class HolderPoolManager {
+
+    private static final String TAG = "HolderPoolManager";
+
+    /**
+     * 预先创建 holder, 可能在后台线程调用: 只创建 View, 不能访问 Adapter 或其它只在主线程使用的状态
+     */
+    public interface HolderFactory {
+        RecyclerView.ViewHolder create(ViewGroup parent);
+    }
+
+    /**
+     * 与 RecycledViewPool 的默认容量一致
+     */
+    public static final int DEFAULT_MAX_RECYCLED_VIEWS = 5;
+
+    private static HolderPoolManager sInstance;
+
+    private final RecyclerView.RecycledViewPool mPool = new RecyclerView.RecycledViewPool();
+    private final ViewTypeRegistry mRegistry = new ViewTypeRegistry();
+    private final SparseIntArray mCapacities = new SparseIntArray();
+    /**
+     * 按 holder 类型统计: 不同 Adapter 的 view type 可能来自不同的分配方式, 同一个值不一定是同一种 holder
+     */
+    private final HashMap<String, InflationStats> mStats = new HashMap<>();
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private Handler mInflateHandler;
+    private boolean mBackgroundInflation = true;
+    /**
+     * clear() 时递增, 之前发起的预创建不再放入 pool
+     */
+    private volatile int mGeneration;
+
+    public static synchronized HolderPoolManager getInstance() {
+        if (sInstance == null) {
+            sInstance = new HolderPoolManager();
+        }
+        return sInstance;
+    }
+
+    public RecyclerView.RecycledViewPool getRecycledViewPool() {
+        return mPool;
+    }
+
+    public ViewTypeRegistry getViewTypeRegistry() {
+        return mRegistry;
+    }
+
+    /**
+     * holder 类型 (BaseHolder.getType()) 对应的全局 view type
+     */
+    public int getViewType(String holderType) {
+        return mRegistry.getViewType(holderType);
+    }
+
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.setRecycledViewPool(mPool);
+    }
+
+    public void setMaxRecycledViews(String holderType, int max) {
+        setMaxRecycledViews(getViewType(holderType), max);
+    }
+
+    public void setMaxRecycledViews(int viewType, int max) {
+        mCapacities.put(viewType, max);
+        mPool.setMaxRecycledViews(viewType, max);
+    }
+
+    public int getMaxRecycledViews(int viewType) {
+        return mCapacities.get(viewType, DEFAULT_MAX_RECYCLED_VIEWS);
+    }
+
+    /**
+     * 是否在后台线程创建 holder, 布局中有必须在主线程创建的 View 时关闭
+     */
+    public void setBackgroundInflation(boolean backgroundInflation) {
+        mBackgroundInflation = backgroundInflation;
+    }
+
+    /**
+     * 在主线程空闲时预先创建 count 个 holderType 的 holder 放入共用的 pool, 容量不足时会扩大到 count.
+     * parent 只用来生成 LayoutParams, holder 不会被添加到 parent 中
+     */
+    public void preInflate(String holderType, HolderFactory factory, final ViewGroup parent, final int count) {
+        if (count <= 0) {
+            return;
+        }
+        final int viewType = getViewType(holderType);
+        if (getMaxRecycledViews(viewType) < count) {
+            setMaxRecycledViews(viewType, count);
+        }
+        final FactoryAdapter adapter = new FactoryAdapter(holderType, factory);
+        final int generation = mGeneration;
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (generation != mGeneration) {
+                    return false;
+                }
+                if (mBackgroundInflation) {
+                    getInflateHandler().post(new InflateTask(adapter, parent, viewType, count, generation));
+                } else {
+                    inflateOnIdle(adapter, parent, viewType, count, generation);
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * 清空 pool 并放弃还没有完成的预创建, 释放 View 持有的 Context
+     */
+    public void clear() {
+        mGeneration++;
+        if (mInflateHandler != null) {
+            mInflateHandler.removeCallbacksAndMessages(null);
+        }
+        mPool.clear();
+    }
+
+    private synchronized Handler getInflateHandler() {
+        if (mInflateHandler == null) {
+            HandlerThread thread = new HandlerThread("ease-inflater", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            mInflateHandler = new Handler(thread.getLooper());
+        }
+        return mInflateHandler;
+    }
+
+    /**
+     * 每次空闲只创建一个 holder, 避免阻塞下一帧
+     */
+    private void inflateOnIdle(final FactoryAdapter adapter, final ViewGroup parent, final int viewType,
+                               final int count, final int generation) {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            private int mRemaining = count;
+
+            @Override
+            public boolean queueIdle() {
+                if (generation != mGeneration) {
+                    return false;
+                }
+                try {
+                    mPool.putRecycledView(createHolder(adapter, parent, viewType));
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Failed to pre-inflate view type " + viewType, e);
+                    return false;
+                }
+                return --mRemaining > 0;
+            }
+        });
+    }
+
+    private RecyclerView.ViewHolder createHolder(FactoryAdapter adapter, ViewGroup parent, int viewType) {
+        RecyclerView.ViewHolder holder = adapter.createViewHolder(parent, viewType);
+        getStats(adapter.mHolderType).onPreInflated();
+        return holder;
+    }
+
+    /**
+     * 只用来通过 createViewHolder 创建 holder, 由 RecyclerView 设置 holder 的 view type; 没有状态, 可以在后台线程使用
+     */
+    private static final class FactoryAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private final String mHolderType;
+        private final HolderFactory mFactory;
+
+        FactoryAdapter(String holderType, HolderFactory factory) {
+            mHolderType = holderType;
+            mFactory = factory;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            RecyclerView.ViewHolder holder = mFactory.create(parent);
+            if (holder instanceof BaseHolder && !mHolderType.equals(((BaseHolder<?>) holder).getType())) {
+                throw new IllegalStateException("Factory created " + ((BaseHolder<?>) holder).getType() + " for " + mHolderType);
+            }
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+
+    private class InflateTask implements Runnable {
+
+        private final FactoryAdapter mAdapter;
+        private final ViewGroup mParent;
+        private final int mViewType;
+        private final int mCount;
+        private final int mGeneration;
+
+        InflateTask(FactoryAdapter adapter, ViewGroup parent, int viewType, int count, int generation) {
+            mAdapter = adapter;
+            mParent = parent;
+            mViewType = viewType;
+            mCount = count;
+            mGeneration = generation;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < mCount; i++) {
+                if (mGeneration != HolderPoolManager.this.mGeneration) {
+                    return;
+                }
+                final RecyclerView.ViewHolder holder;
+                try {
+                    holder = createHolder(mAdapter, mParent, mViewType);
+                } catch (RuntimeException e) {
+                    // 只对这一次预创建退化到主线程, 例如布局中有需要 Looper 的 View
+                    final int remaining = mCount - i;
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            inflateOnIdle(mAdapter, mParent, mViewType, remaining, mGeneration);
+                        }
+                    });
+                    return;
+                }
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (mGeneration == HolderPoolManager.this.mGeneration) {
+                            mPool.putRecycledView(holder);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Adapter 创建 holder 后调用, 记录创建次数和耗时; 只统计 BaseHolder, 其它 holder 没有可以跨 Adapter 区分的类型
+     */
+    public void onHolderCreated(RecyclerView.ViewHolder holder, long durationNanos) {
+        if (holder instanceof BaseHolder) {
+            getStats(((BaseHolder<?>) holder).getType()).onCreated(durationNanos);
+        }
+    }
+
+    public InflationStats getStats(String holderType) {
+        synchronized (mStats) {
+            InflationStats stats = mStats.get(holderType);
+            if (stats == null) {
+                stats = new InflationStats(holderType);
+                mStats.put(holderType, stats);
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * 某种 holder 的创建统计, 创建次数减去预创建次数即为滚动时临时创建的次数
+     */
+    public static final class InflationStats {
+
+        private final String mHolderType;
+        private int mCreatedCount;
+        private int mPreInflatedCount;
+        private long mTotalNanos;
+        private long mMaxNanos;
+
+        InflationStats(String holderType) {
+            mHolderType = holderType;
+        }
+
+        synchronized void onCreated(long nanos) {
+            mCreatedCount++;
+            mTotalNanos += nanos;
+            mMaxNanos = Math.max(mMaxNanos, nanos);
+        }
+
+        synchronized void onPreInflated() {
+            mPreInflatedCount++;
+        }
+
+        public String getHolderType() {
+            return mHolderType;
+        }
+
+        public synchronized int getCreatedCount() {
+            return mCreatedCount;
+        }
+
+        public synchronized int getPreInflatedCount() {
+            return mPreInflatedCount;
+        }
+
+        public synchronized long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        public synchronized long getAverageNanos() {
+            return mCreatedCount == 0 ? 0 : mTotalNanos / mCreatedCount;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "InflationStats{holderType=" + mHolderType + ", created=" + mCreatedCount + ", preInflated="
+                    + mPreInflatedCount + ", avg=" + getAverageNanos() / 1000 + "us, max=" + mMaxNanos / 1000 + "us}";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.ease.adapter;
+
+/**
+ * prefetch policy
+ * 决定距离末尾多少个条目时开始加载下一页. 自适应模式根据绑定位置推进的速度和加载更多的耗时估算
+ * 一次加载期间会滚过的条目数, 让下一页在用户到达末尾之前返回
+ */
+public class PrefetchPolicy {
+
+    public static final int DEFAULT_MIN_DISTANCE = 3;
+    public static final int DEFAULT_MAX_DISTANCE = 40;
+
+    /**
+     * 估算结果的放大系数, 抵消耗时的波动
+     */
+    private static final float SAFETY_FACTOR = 1.5f;
+
+    /**
+     * 单次位置跳跃超过这个值视为 scrollToPosition, 不计入速度
+     */
+    private static final int MAX_POSITION_JUMP = 50;
+
+    private final int mMinDistance;
+    private final int mMaxDistance;
+    private final boolean mAdaptive;
+
+    /**
+     * 每毫秒推进的条目数
+     */
+    private float mVelocity;
+    private int mLastPosition = -1;
+    private long mLastTime;
+
+    private PrefetchPolicy(int minDistance, int maxDistance, boolean adaptive) {
+        if (minDistance < 0 || maxDistance < minDistance) {
+            throw new IllegalArgumentException("Invalid prefetch distance: " + minDistance + ", " + maxDistance);
+        }
+        mMinDistance = minDistance;
+        mMaxDistance = maxDistance;
+        mAdaptive = adaptive;
+    }
+
+    /**
+     * 固定距离, distance 为 0 时等同于只在绑定最后一个条目时加载
+     */
+    public static PrefetchPolicy fixed(int distance) {
+        return new PrefetchPolicy(distance, distance, false);
+    }
+
+    public static PrefetchPolicy adaptive() {
+        return adaptive(DEFAULT_MIN_DISTANCE, DEFAULT_MAX_DISTANCE);
+    }
+
+    public static PrefetchPolicy adaptive(int minDistance, int maxDistance) {
+        return new PrefetchPolicy(minDistance, maxDistance, true);
+    }
+
+    /**
+     * 每次绑定条目时调用, 记录向后滚动的速度
+     */
+    public void onBind(int position, long now) {
+        if (!mAdaptive) {
+            return;
+        }
+        if (mLastPosition >= 0 && position > mLastPosition && now > mLastTime
+                && position - mLastPosition <= MAX_POSITION_JUMP) {
+            float velocity = (float) (position - mLastPosition) / (now - mLastTime);
+            mVelocity = mVelocity == 0 ? velocity : mVelocity * 0.7f + velocity * 0.3f;
+        }
+        if (position > mLastPosition || position - mLastPosition < -MAX_POSITION_JUMP) {
+            mLastPosition = position;
+            mLastTime = now;
+        }
+    }
+
+    /**
+     * @param loadMoreLatency 加载更多的耗时, 单位毫秒, 未知时传 -1
+     */
+    public int getPrefetchDistance(long loadMoreLatency) {
+        if (!mAdaptive || loadMoreLatency < 0) {
+            return mMinDistance;
+        }
+        int distance = (int) Math.ceil(mVelocity * loadMoreLatency * SAFETY_FACTOR);
+        return Math.max(mMinDistance, Math.min(mMaxDistance, distance));
+    }
+
+    public boolean shouldLoadMore(int position, int itemCount, long loadMoreLatency) {
+        return position >= itemCount - 1 - getPrefetchDistance(loadMoreLatency);
+    }
+
+    public void reset() {
+        mVelocity = 0;
+        mLastPosition = -1;
+        mLastTime = 0;
+    }
+}
@@ -0,0 +1,162 @@
+package com.ease.adapter;
+
+import android.os.SystemClock;
+import android.view.ViewGroup;
+
+import com.ease.data.DataChange;
+import com.ease.data.DataController;
+import com.ease.data.DataSubscriber;
+import com.ease.holder.BaseHolder;
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+/**
+ * section
+ * SectionAdapter 中的一段, 由自己的 DataController 提供数据, 例如仓库页面的 README, issues, 贡献者.
+ * getHolderType 返回的值必须与创建出的 BaseHolder.getType() 一致
+ */
+public abstract class Section<M extends BaseModel> implements DataSubscriber.DataChangeListener<M>, DataSubscriber.DataActionListener<M> {
+
+    private final DataController<M> mDataController;
+
+    private SectionAdapter mAdapter;
+
+    /**
+     * 已经通知给 Adapter 的条目个数, 用来计算之后各段的偏移
+     */
+    private int mNotifiedCount;
+
+    /**
+     * 为 null 时不自动加载更多
+     */
+    private PrefetchPolicy mPrefetchPolicy;
+    private boolean mReachedEnd;
+
+    public Section(DataController<M> dataController) {
+        mDataController = dataController;
+    }
+
+    public DataController<M> getDataController() {
+        return mDataController;
+    }
+
+    public SectionAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    public List<M> getData() {
+        return mDataController.getData();
+    }
+
+    /**
+     * 设置后在接近本段末尾时加载下一页
+     */
+    public void setPrefetchPolicy(PrefetchPolicy policy) {
+        mPrefetchPolicy = policy;
+    }
+
+    public PrefetchPolicy getPrefetchPolicy() {
+        return mPrefetchPolicy;
+    }
+
+    public abstract String getHolderType(int position);
+
+    public abstract BaseHolder<M> onCreateHolder(ViewGroup parent, String holderType);
+
+    public void onBindHolder(BaseHolder<M> holder, int position) {
+        holder.binding(getData().get(position));
+    }
+
+    void bind(BaseHolder<M> holder, int position) {
+        mDataController.onItemBound(position);
+        onBindHolder(holder, position);
+
+        if (mPrefetchPolicy == null) {
+            return;
+        }
+        mPrefetchPolicy.onBind(position, SystemClock.uptimeMillis());
+        if (!mReachedEnd && mNotifiedCount > 0
+                && mPrefetchPolicy.shouldLoadMore(position, mNotifiedCount, mDataController.getLoadMoreLatency())) {
+            mDataController.loadMore();
+        }
+    }
+
+    int getNotifiedCount() {
+        return mNotifiedCount;
+    }
+
+    void attach(SectionAdapter adapter) {
+        mAdapter = adapter;
+        mNotifiedCount = getData().size();
+        mDataController.getSubscriberManager().addDataActionListener(this);
+        mDataController.getSubscriberManager().addDataChangeListener(this);
+    }
+
+    void detach() {
+        mDataController.getSubscriberManager().removeDataActionListener(this);
+        mDataController.getSubscriberManager().removeDataChangeListener(this);
+        mDataController.cancelAll();
+        mAdapter = null;
+    }
+
+    /**
+     * 按顺序应用每个变化, 返回变化之前的条目个数
+     */
+    int applyChange(DataChange change) {
+        int before = mNotifiedCount;
+        if (change.getType() == DataChange.TYPE.INSERTED) {
+            mNotifiedCount += change.getCount();
+        } else if (change.getType() == DataChange.TYPE.REMOVED) {
+            mNotifiedCount -= change.getCount();
+        }
+        return before;
+    }
+
+    @Override
+    public void onDataChange(DataChange change) {
+        if (mAdapter == null) {
+            applyChange(change);
+        } else {
+            mAdapter.onSectionChange(this, change);
+        }
+    }
+
+    @Override
+    public void onInitStart() {
+        mReachedEnd = false;
+        if (mPrefetchPolicy != null) {
+            mPrefetchPolicy.reset();
+        }
+    }
+
+    @Override
+    public void onInitDone(Throwable e, List<M> data) {
+
+    }
+
+    @Override
+    public void onRefreshStart() {
+        mReachedEnd = false;
+    }
+
+    @Override
+    public void onRefreshDone(Throwable e, List<M> data) {
+
+    }
+
+    @Override
+    public void onLoadMoreStart() {
+
+    }
+
+    @Override
+    public void onLoadMoreDone(Throwable e, List<M> data) {
+
+    }
+
+    @Override
+    public void onEnd() {
+        mReachedEnd = true;
+    }
+}
@@ -0,0 +1,244 @@
+package com.ease.adapter;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.view.ViewGroup;
+
+import com.ease.data.DataChange;
+import com.ease.holder.BaseHolder;
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * section adapter
+ * 将多个 Section 顺序拼接到同一个 RecyclerView 中, 代替嵌套列表.
+ * 每段的起始位置保存为累加偏移, 通过二分查找定位; view type 由 ViewTypeRegistry 按 holder 类型分配.
+ * 不继承 BaseAdapter: BaseAdapter 围绕单个 DataController 和 Header/Random/Footer 分段, 这里每段有自己的 DataController;
+ * holder 的创建统计, 绑定和回收与 BaseAdapter 共用 HolderLifecycle
+ */
+public class SectionAdapter extends RecyclerView.Adapter<BaseHolder<?>> {
+
+    private final ViewTypeRegistry mRegistry;
+    private final List<Section<?>> mSections = new ArrayList<>();
+
+    /**
+     * mStarts[i] 为第 i 段的起始位置, mStarts[size] 为总条目数
+     */
+    private int[] mStarts = new int[1];
+    private boolean mStartsDirty;
+
+    private boolean mAttached;
+
+    /**
+     * view type -> 第一个使用它的 Section, 用于创建 holder
+     */
+    private final SparseArray<Section<?>> mCreators = new SparseArray<>();
+
+    private final HolderLifecycle mHolderLifecycle = new HolderLifecycle(this);
+
+    public SectionAdapter() {
+        this(new ViewTypeRegistry());
+    }
+
+    /**
+     * @param registry 多个 Adapter 共用同一个 registry 时可以共用 RecycledViewPool
+     */
+    public SectionAdapter(ViewTypeRegistry registry) {
+        mRegistry = registry;
+    }
+
+    public ViewTypeRegistry getViewTypeRegistry() {
+        return mRegistry;
+    }
+
+    public void addSection(Section<?> section) {
+        addSection(mSections.size(), section);
+    }
+
+    public void addSection(int index, Section<?> section) {
+        if (section.getAdapter() != null) {
+            throw new IllegalStateException("The section is already added to an adapter.");
+        }
+        mSections.add(index, section);
+        mStartsDirty = true;
+        if (mAttached) {
+            attachSection(section);
+        }
+        notifyDataSetChanged();
+    }
+
+    public void removeSection(Section<?> section) {
+        if (!mSections.remove(section)) {
+            return;
+        }
+        if (mAttached) {
+            section.detach();
+        }
+        for (int i = mCreators.size() - 1; i >= 0; i--) {
+            if (mCreators.valueAt(i) == section) {
+                mCreators.removeAt(i);
+            }
+        }
+        mStartsDirty = true;
+        notifyDataSetChanged();
+    }
+
+    public int getSectionCount() {
+        return mSections.size();
+    }
+
+    public Section<?> getSection(int index) {
+        return mSections.get(index);
+    }
+
+    /**
+     * 条目所在的段, 二分查找
+     */
+    public int getSectionIndex(int position) {
+        int[] starts = getStarts();
+        int low = 0;
+        int high = mSections.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 段的起始位置, 不在本 Adapter 中时返回 -1
+     */
+    public int getSectionStart(Section<?> section) {
+        int index = mSections.indexOf(section);
+        return index < 0 ? -1 : getStarts()[index];
+    }
+
+    private int[] getStarts() {
+        if (mStartsDirty) {
+            int size = mSections.size();
+            if (mStarts.length < size + 1) {
+                mStarts = new int[size + 1];
+            }
+            int start = 0;
+            for (int i = 0; i < size; i++) {
+                mStarts[i] = start;
+                start += mSections.get(i).getNotifiedCount();
+            }
+            mStarts[size] = start;
+            mStartsDirty = false;
+        }
+        return mStarts;
+    }
+
+    @Override
+    public int getItemCount() {
+        return getStarts()[mSections.size()];
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int index = getSectionIndex(position);
+        Section<?> section = mSections.get(index);
+        int viewType = mRegistry.getViewType(section.getHolderType(position - mStarts[index]));
+        if (mCreators.get(viewType) == null) {
+            mCreators.put(viewType, section);
+        }
+        return viewType;
+    }
+
+    @Override
+    public BaseHolder<?> onCreateViewHolder(ViewGroup parent, int viewType) {
+        Section<?> section = mCreators.get(viewType);
+        String holderType = mRegistry.getHolderType(viewType);
+        if (section == null || holderType == null) {
+            throw new IllegalStateException("Unknown view type " + viewType);
+        }
+        long start = System.nanoTime();
+        BaseHolder<?> holder = section.onCreateHolder(parent, holderType);
+        mHolderLifecycle.onCreated(holder, viewType, System.nanoTime() - start);
+        if (!holderType.equals(holder.getType())) {
+            throw new IllegalStateException("Section created " + holder.getType() + " for " + holderType);
+        }
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(BaseHolder<?> holder, int position) {
+        int index = getSectionIndex(position);
+        mHolderLifecycle.beforeBind(holder);
+        bind(mSections.get(index), holder, position - mStarts[index]);
+        mHolderLifecycle.afterBind(holder);
+    }
+
+    @Override
+    public void onViewRecycled(BaseHolder<?> holder) {
+        super.onViewRecycled(holder);
+        mHolderLifecycle.onRecycled(holder);
+    }
+
+    /**
+     * holder 由 view type 对应的 Section 创建, 数据类型与 section 一致
+     */
+    @SuppressWarnings("unchecked")
+    private static <M extends BaseModel> void bind(Section<M> section, BaseHolder<?> holder, int position) {
+        section.bind((BaseHolder<M>) holder, position);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mAttached = true;
+        for (int i = 0, size = mSections.size(); i < size; i++) {
+            attachSection(mSections.get(i));
+        }
+        mStartsDirty = true;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        mAttached = false;
+        for (int i = 0, size = mSections.size(); i < size; i++) {
+            mSections.get(i).detach();
+        }
+    }
+
+    private void attachSection(Section<?> section) {
+        section.attach(this);
+        section.getDataController().initialize();
+    }
+
+    /**
+     * 将段内的变化加上段的起始位置后转发给 RecyclerView
+     */
+    void onSectionChange(Section<?> section, DataChange change) {
+        int offset = getSectionStart(section);
+        section.applyChange(change);
+        mStartsDirty = true;
+        if (offset < 0) {
+            return;
+        }
+
+        int position = offset + change.getPosition();
+        switch (change.getType()) {
+            case INSERTED:
+                notifyItemRangeInserted(position, change.getCount());
+                break;
+            case REMOVED:
+                notifyItemRangeRemoved(position, change.getCount());
+                break;
+            case CHANGED:
+                notifyItemRangeChanged(position, change.getCount());
+                break;
+            case MOVED:
+                notifyItemMoved(position, offset + change.getToPosition());
+                break;
+        }
+    }
+}
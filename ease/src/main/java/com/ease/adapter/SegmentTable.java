@@ -0,0 +1,164 @@
+package com.ease.adapter;
+
+import java.util.Arrays;
+
+/**
+ * segment table
+ * 预先计算 Adapter 位置到 Header/Random/Common/Footer 分段及段内下标的映射, 查询为常数时间.
+ * 中间区域只为最后一个 Random 条目之前的部分建表, 之后的位置都是数据条目, 偏移固定为 Random 的个数,
+ * 所以重建的开销与数据量无关
+ */
+final class SegmentTable {
+
+    static final int HEADER = 0;
+    static final int RANDOM = 1;
+    static final int COMMON = 2;
+    static final int FOOTER = 3;
+
+    private static final int[] EMPTY = new int[0];
+
+    private int mHeaderCount;
+    private int mCommonCount;
+    private int mFooterCount;
+
+    /**
+     * 所有 Random 条目插入的数据下标, 非递减
+     */
+    private int[] mRandomPositions = EMPTY;
+    private int mVisibleRandomCount;
+
+    /**
+     * 中间区域前缀: 非负数为数据下标, 负数 ~index 为 Random 条目下标
+     */
+    private int[] mPrefix = EMPTY;
+    private int mPrefixLength;
+
+    void rebuild(int headerCount, int commonCount, int footerCount, int[] randomPositions) {
+        mHeaderCount = headerCount;
+        mCommonCount = commonCount;
+        mFooterCount = footerCount;
+        mRandomPositions = randomPositions;
+        mVisibleRandomCount = countVisible(randomPositions, commonCount);
+
+        if (mVisibleRandomCount == 0) {
+            mPrefixLength = 0;
+            return;
+        }
+        mPrefixLength = randomPositions[mVisibleRandomCount - 1] + mVisibleRandomCount;
+        if (mPrefix.length < mPrefixLength) {
+            mPrefix = new int[Math.max(mPrefixLength, mPrefix.length * 2)];
+        }
+        int data = 0;
+        int random = 0;
+        for (int i = 0; i < mPrefixLength; i++) {
+            if (random < mVisibleRandomCount && randomPositions[random] == data) {
+                mPrefix[i] = ~random;
+                random++;
+            } else {
+                mPrefix[i] = data;
+                data++;
+            }
+        }
+    }
+
+    int getItemCount() {
+        return mHeaderCount + mCommonCount + mVisibleRandomCount + mFooterCount;
+    }
+
+    int getHeaderCount() {
+        return mHeaderCount;
+    }
+
+    int getCommonCount() {
+        return mCommonCount;
+    }
+
+    int getFooterCount() {
+        return mFooterCount;
+    }
+
+    int getVisibleRandomCount() {
+        return mVisibleRandomCount;
+    }
+
+    int[] getRandomPositions() {
+        return mRandomPositions;
+    }
+
+    int getSegment(int position) {
+        if (position < mHeaderCount) {
+            return HEADER;
+        }
+        int middle = position - mHeaderCount;
+        if (middle < mPrefixLength) {
+            return mPrefix[middle] < 0 ? RANDOM : COMMON;
+        }
+        return middle < mCommonCount + mVisibleRandomCount ? COMMON : FOOTER;
+    }
+
+    /**
+     * 分段内的下标: Header/Footer 为各自的位置, Random 为第几个 Random 条目, Common 为数据下标
+     */
+    int getLocalIndex(int position) {
+        if (position < mHeaderCount) {
+            return position;
+        }
+        int middle = position - mHeaderCount;
+        if (middle < mPrefixLength) {
+            int value = mPrefix[middle];
+            return value < 0 ? ~value : value;
+        }
+        int middleCount = mCommonCount + mVisibleRandomCount;
+        return middle < middleCount ? middle - mVisibleRandomCount : middle - middleCount;
+    }
+
+    /**
+     * 数据条目之前 (包括插在它前面) 的 Random 条目个数
+     */
+    static int countAtOrBefore(int[] randomPositions, int dataIndex) {
+        return upperBound(randomPositions, dataIndex);
+    }
+
+    /**
+     * commonCount 个数据时显示的 Random 条目个数, 只显示后面还有数据的 Random 条目
+     */
+    static int countVisible(int[] randomPositions, int commonCount) {
+        return upperBound(randomPositions, commonCount - 1);
+    }
+
+    /**
+     * 数组中小于等于 value 的元素个数
+     */
+    private static int upperBound(int[] array, int value) {
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int[] readRandomPositions(BaseAdapter.RandomDelegate delegate) {
+        if (delegate == null) {
+            return EMPTY;
+        }
+        int count = delegate.getRandomCount();
+        if (count <= 0) {
+            return EMPTY;
+        }
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = delegate.getRandomPosition(i);
+            if (positions[i] < 0 || (i > 0 && positions[i] < positions[i - 1])) {
+                throw new IllegalStateException("Random positions must be non-negative and ascending: "
+                        + Arrays.toString(Arrays.copyOf(positions, i + 1)));
+            }
+        }
+        return positions;
+    }
+}
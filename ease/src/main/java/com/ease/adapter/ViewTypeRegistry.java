@@ -0,0 +1,47 @@
+package com.ease.adapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * view type registry
+ * 按 BaseHolder.getType() 分配 view type, 同一种 holder 始终得到同一个值.
+ * 多个 Adapter 共用一个 registry 时, 它们的 view type 一致, 可以共用 RecycledViewPool. 只在主线程使用
+ */
+public class ViewTypeRegistry {
+
+    /**
+     * 从较大的值开始分配, 避免与手写的 view type 冲突
+     */
+    private static final int FIRST_VIEW_TYPE = 1 << 16;
+
+    private final Map<String, Integer> mViewTypes = new HashMap<>();
+    private final List<String> mHolderTypes = new ArrayList<>();
+
+    /**
+     * 获取 holder 对应的 view type, 第一次出现时分配
+     */
+    public int getViewType(String holderType) {
+        Integer viewType = mViewTypes.get(holderType);
+        if (viewType == null) {
+            viewType = FIRST_VIEW_TYPE + mHolderTypes.size();
+            mViewTypes.put(holderType, viewType);
+            mHolderTypes.add(holderType);
+        }
+        return viewType;
+    }
+
+    /**
+     * 获取 view type 对应的 holder 类型, 未分配时返回 null
+     */
+    public String getHolderType(int viewType) {
+        int index = viewType - FIRST_VIEW_TYPE;
+        return index >= 0 && index < mHolderTypes.size() ? mHolderTypes.get(index) : null;
+    }
+
+    public int size() {
+        return mHolderTypes.size();
+    }
+}
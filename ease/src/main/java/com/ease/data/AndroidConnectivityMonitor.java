@@ -0,0 +1,67 @@
+package com.ease.data;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * android connectivity monitor
+ * 通过 CONNECTIVITY_ACTION 广播监听网络变化, 有监听者时才注册广播. 需要 ACCESS_NETWORK_STATE 权限
+ */
+public class AndroidConnectivityMonitor implements ConnectivityMonitor {
+
+    private final Context mContext;
+    private final ConnectivityManager mConnectivityManager;
+    private final List<Listener> mListeners = new ArrayList<>();
+    private boolean mConnected;
+
+    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            boolean connected = isConnected();
+            if (connected == mConnected) {
+                return;
+            }
+            mConnected = connected;
+            for (Listener listener : new ArrayList<>(mListeners)) {
+                listener.onConnectivityChanged(connected);
+            }
+        }
+    };
+
+    public AndroidConnectivityMonitor(Context context) {
+        mContext = context.getApplicationContext();
+        mConnectivityManager = (ConnectivityManager) mContext.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    @Override
+    public boolean isConnected() {
+        NetworkInfo info = mConnectivityManager.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        if (mListeners.contains(listener)) {
+            return;
+        }
+        mListeners.add(listener);
+        if (mListeners.size() == 1) {
+            mConnected = isConnected();
+            mContext.registerReceiver(mReceiver, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+    }
+
+    @Override
+    public void removeListener(Listener listener) {
+        if (mListeners.remove(listener) && mListeners.isEmpty()) {
+            mContext.unregisterReceiver(mReceiver);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.ease.data;
+
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.ByteBufferSink;
+import com.ease.codec.ByteBufferSource;
+import com.ease.codec.Codecs;
+import com.ease.model.BaseModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * cached data controller
+ * 为任意 DataActionInterface 增加磁盘分页缓存: initialize 时先发出缓存的第一页, 再在后台请求网络,
+ * 返回后通过差异计算与已显示的数据合并 (stale-while-revalidate), 缓存命中时 onInitDone 会先后回调两次;
+ * 加载更多失败时回退到缓存. 重试只作用于网络请求, 不会重复发出缓存的第一页.
+ * source 需要分页参数时应该读取本对象的 getOffset() / getLimit().
+ * 每页按 getRequestPage() 和 getLimit() 缓存, 作为 PageLoader 时按同样的参数读取被分页窗口丢弃的页
+ */
+public class CachedDataController<M extends BaseModel> extends DataController<M> implements PageLoader<M> {
+
+    /**
+     * 缓存文件头, 格式变化时修改版本号使旧缓存失效
+     */
+    private static final int MAGIC = 0x45415345;
+    private static final int FORMAT_VERSION = 2;
+
+    private final String mCacheKey;
+    private final DataActionInterface<M> mSource;
+    private final BinaryCodec<M> mCodec;
+    private final PageCache mPageCache;
+
+    /**
+     * 使用 {@link com.ease.codec.Codec} 为 type 生成的 BinaryCodec
+     */
+    public CachedDataController(String cacheKey, DataActionInterface<M> source, Class<M> type,
+                                PageCache pageCache) {
+        this(cacheKey, source, Codecs.get(type), pageCache);
+    }
+
+    /**
+     * @param cacheKey  列表在 PageCache 中的唯一标识, 例如接口地址加用户名
+     * @param source    真正获取数据的实现
+     * @param codec     model 的二进制读写
+     * @param pageCache 多个列表可以共用同一个 PageCache
+     */
+    public CachedDataController(String cacheKey, DataActionInterface<M> source, BinaryCodec<M> codec,
+                                PageCache pageCache) {
+        mCacheKey = cacheKey;
+        mSource = source;
+        mCodec = codec;
+        mPageCache = pageCache;
+        setDiffWhenRefresh(true);
+    }
+
+    public DataActionInterface<M> getSource() {
+        return mSource;
+    }
+
+    public PageCache getPageCache() {
+        return mPageCache;
+    }
+
+    /**
+     * 缓存只读一次, 只重试网络请求
+     */
+    @Override
+    protected boolean isRetryScoped() {
+        return true;
+    }
+
+    @Override
+    public Observable<List<M>> doInitialize() {
+        final int limit = getLimit();
+        // 缓存只是临时结果, 短的缓存页不会被当作最后一页
+        Observable<List<M>> cached = readPage(0, limit).map(new Func1<List<M>, List<M>>() {
+            @Override
+            public List<M> call(List<M> ms) {
+                return provisional(ms);
+            }
+        });
+        return Observable.concat(cached, writePage(mSource.doInitialize(), 0, limit));
+    }
+
+    @Override
+    public Observable<List<M>> doRefresh() {
+        return writePage(mSource.doRefresh(), 0, getLimit());
+    }
+
+    @Override
+    public Observable<List<M>> doLoadMore() {
+        final int page = getRequestPage();
+        final int limit = getLimit();
+        return writePage(mSource.doLoadMore(), page, limit)
+                .onErrorResumeNext(new Func1<Throwable, Observable<? extends List<M>>>() {
+                    @Override
+                    public Observable<? extends List<M>> call(Throwable throwable) {
+                        return readPage(page, limit).switchIfEmpty(Observable.<List<M>>error(throwable));
+                    }
+                });
+    }
+
+    @Override
+    public Observable<List<M>> loadPage(int page, int limit) {
+        return readPage(page, limit);
+    }
+
+    /**
+     * 读取缓存的分页, 不存在或者已损坏时不发出任何数据
+     */
+    private Observable<List<M>> readPage(final int page, final int limit) {
+        return Observable.defer(new Func0<Observable<List<M>>>() {
+            @Override
+            public Observable<List<M>> call() {
+                byte[] bytes = mPageCache.get(mCacheKey, page, limit);
+                if (bytes == null) {
+                    return Observable.empty();
+                }
+                try {
+                    return Observable.just(decode(bytes));
+                } catch (IOException | RuntimeException e) {
+                    mPageCache.remove(mCacheKey, page, limit);
+                    return Observable.empty();
+                }
+            }
+        });
+    }
+
+    /**
+     * 按 RetryPolicy 重试网络请求, 成功后写入缓存; 第一页变化后其余分页已经对不上, 一并删除
+     */
+    private Observable<List<M>> writePage(Observable<List<M>> source, final int page, final int limit) {
+        if (source == null) {
+            return Observable.error(new IllegalArgumentException("The Observable is null."));
+        }
+        return retry(source).doOnNext(new Action1<List<M>>() {
+            @Override
+            public void call(List<M> ms) {
+                if (ms == null) {
+                    return;
+                }
+                if (page == 0) {
+                    mPageCache.removeAll(mCacheKey);
+                }
+                try {
+                    mPageCache.put(mCacheKey, page, limit, encode(ms));
+                } catch (IOException e) {
+                    mPageCache.remove(mCacheKey, page, limit);
+                }
+            }
+        });
+    }
+
+    private byte[] encode(List<M> ms) throws IOException {
+        ByteBufferSink out = new ByteBufferSink();
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(ms.size());
+        for (M m : ms) {
+            mCodec.write(out, m);
+        }
+        return out.toByteArray();
+    }
+
+    private List<M> decode(byte[] bytes) throws IOException {
+        ByteBufferSource in = new ByteBufferSource(bytes);
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unknown page format.");
+        }
+        int count = in.readInt();
+        if (count < 0 || count > bytes.length) {
+            throw new IOException("Corrupted page, count = " + count);
+        }
+        List<M> ms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ms.add(mCodec.read(in));
+        }
+        return ms;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ease.data;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * choreographer frame scheduler
+ * 使用 Choreographer 在下一个 vsync 的动画阶段执行回调, 早于 RecyclerView 的布局;
+ * API 16 以下使用主线程 Handler 对齐到 16ms. 只能在主线程使用
+ */
+public class ChoreographerFrameScheduler implements FrameScheduler {
+
+    private static final long FRAME_INTERVAL = 16;
+
+    private final Map<Runnable, Object> mCallbacks = new HashMap<>();
+    private Handler mHandler;
+
+    @Override
+    public void postFrameCallback(final Runnable callback) {
+        if (mCallbacks.containsKey(callback)) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            mCallbacks.put(callback, postChoreographer(callback));
+        } else {
+            Runnable wrapper = new Runnable() {
+                @Override
+                public void run() {
+                    mCallbacks.remove(callback);
+                    callback.run();
+                }
+            };
+            mCallbacks.put(callback, wrapper);
+            long delay = FRAME_INTERVAL - SystemClock.uptimeMillis() % FRAME_INTERVAL;
+            getHandler().postDelayed(wrapper, delay);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(Runnable callback) {
+        Object wrapper = mCallbacks.remove(callback);
+        if (wrapper == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            removeChoreographer(wrapper);
+        } else {
+            getHandler().removeCallbacks((Runnable) wrapper);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private Object postChoreographer(final Runnable callback) {
+        Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                mCallbacks.remove(callback);
+                callback.run();
+            }
+        };
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+        return frameCallback;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void removeChoreographer(Object frameCallback) {
+        Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) frameCallback);
+    }
+
+    private Handler getHandler() {
+        if (mHandler == null) {
+            mHandler = new Handler(Looper.getMainLooper());
+        }
+        return mHandler;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ease.data;
+
+/**
+ * connectivity monitor
+ * 网络连接状态, DataController 离线时暂存失败的请求, 恢复连接后重新发起
+ */
+public interface ConnectivityMonitor {
+
+    interface Listener {
+        void onConnectivityChanged(boolean connected);
+    }
+
+    boolean isConnected();
+
+    void addListener(Listener listener);
+
+    void removeListener(Listener listener);
+}
@@ -0,0 +1,65 @@
+package com.ease.data;
+
+/**
+ * data change record
+ * 描述一次 DataController 数据变化的类型、位置和数量, 位置均为 getData() 中的下标
+ */
+public final class DataChange {
+
+    public enum TYPE {
+        INSERTED, REMOVED, CHANGED, MOVED
+    }
+
+    private final TYPE mType;
+    private final int mPosition;
+    private final int mCount;
+    /**
+     * 仅 MOVED 时有效
+     */
+    private final int mToPosition;
+
+    private DataChange(TYPE type, int position, int count, int toPosition) {
+        mType = type;
+        mPosition = position;
+        mCount = count;
+        mToPosition = toPosition;
+    }
+
+    public static DataChange inserted(int position, int count) {
+        return new DataChange(TYPE.INSERTED, position, count, -1);
+    }
+
+    public static DataChange removed(int position, int count) {
+        return new DataChange(TYPE.REMOVED, position, count, -1);
+    }
+
+    public static DataChange changed(int position, int count) {
+        return new DataChange(TYPE.CHANGED, position, count, -1);
+    }
+
+    public static DataChange moved(int fromPosition, int toPosition) {
+        return new DataChange(TYPE.MOVED, fromPosition, 1, toPosition);
+    }
+
+    public TYPE getType() {
+        return mType;
+    }
+
+    public int getPosition() {
+        return mPosition;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public int getToPosition() {
+        return mToPosition;
+    }
+
+    @Override
+    public String toString() {
+        return "DataChange{" + mType + ", position=" + mPosition + ", count=" + mCount
+                + (mType == TYPE.MOVED ? ", to=" + mToPosition : "") + "}";
+    }
+}
@@ -0,0 +1,88 @@
+package com.ease.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * data change batch
+ * 将连续的单条变化合并为尽量少的范围变化, 合并规则与变化的应用顺序一致
+ */
+final class DataChangeBatch {
+
+    private final List<DataChange> mChanges = new ArrayList<>();
+
+    private DataChange.TYPE mLastType;
+    private int mLastPosition;
+    private int mLastCount;
+
+    public void add(DataChange change) {
+        final int position = change.getPosition();
+        final int count = change.getCount();
+        switch (change.getType()) {
+            case INSERTED:
+                if (mLastType == DataChange.TYPE.INSERTED
+                        && position >= mLastPosition && position <= mLastPosition + mLastCount) {
+                    mLastCount += count;
+                    return;
+                }
+                break;
+            case REMOVED:
+                if (mLastType == DataChange.TYPE.REMOVED
+                        && mLastPosition >= position && mLastPosition <= position + count) {
+                    mLastCount += count;
+                    mLastPosition = position;
+                    return;
+                }
+                break;
+            case CHANGED:
+                if (mLastType == DataChange.TYPE.CHANGED
+                        && !(position > mLastPosition + mLastCount || position + count < mLastPosition)) {
+                    final int start = Math.min(position, mLastPosition);
+                    mLastCount = Math.max(mLastPosition + mLastCount, position + count) - start;
+                    mLastPosition = start;
+                    return;
+                }
+                break;
+            case MOVED:
+                flushLast();
+                mChanges.add(change);
+                return;
+        }
+        flushLast();
+        mLastType = change.getType();
+        mLastPosition = position;
+        mLastCount = count;
+    }
+
+    public boolean isEmpty() {
+        return mLastType == null && mChanges.isEmpty();
+    }
+
+    /**
+     * 取出合并后的变化并清空
+     */
+    public List<DataChange> drain() {
+        flushLast();
+        final List<DataChange> changes = new ArrayList<>(mChanges);
+        mChanges.clear();
+        return changes;
+    }
+
+    private void flushLast() {
+        if (mLastType == null) {
+            return;
+        }
+        switch (mLastType) {
+            case INSERTED:
+                mChanges.add(DataChange.inserted(mLastPosition, mLastCount));
+                break;
+            case REMOVED:
+                mChanges.add(DataChange.removed(mLastPosition, mLastCount));
+                break;
+            case CHANGED:
+                mChanges.add(DataChange.changed(mLastPosition, mLastCount));
+                break;
+        }
+        mLastType = null;
+    }
+}
@@ -1,13 +1,36 @@
 package com.ease.data;
 
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.Codecs;
+import com.ease.codec.Sink;
+import com.ease.codec.Source;
+import com.ease.metrics.ActionMetrics;
+import com.ease.metrics.DispatchMetrics;
+import com.ease.metrics.Metrics;
 import com.ease.model.BaseModel;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
 import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 
 /**
@@ -22,358 +45,1623 @@ public abstract class DataController<M extends BaseModel> implements DataActionI
 
     public static final int DEFAULT_LIMIT = 20;
 
+    private static final Object[] EMPTY_LISTENERS = new Object[0];
+
     private List<M> mData = new ArrayList<>();
 
     /**
-     * 观察订阅管理器
+     * 观察订阅管理器
+     */
+    private SubscriberManager mSubscriberManager = new SubscriberManager();
+
+    /**
+     * 是否忙碌
+     */
+    private boolean mIsBusy;
+    /**
+     * 是否有正在进行的首页请求 (INITIALIZE / REFRESH)
+     */
+    private boolean mFirstPageInFlight;
+    private ACTION mFirstPageAction;
+    /**
+     * 是否有正在进行的加载更多
+     */
+    private boolean mLoadMoreInFlight;
+
+    private Subscription mFirstPageSubscription;
+    private Subscription mLoadMoreSubscription;
+
+    /**
+     * 每次请求递增的代数, 结果只在仍属于最新一次请求时才会应用
+     */
+    private long mGeneration;
+    private long mFirstPageGeneration;
+    private long mLoadMoreGeneration;
+
+    private int mMaxPage = Integer.MAX_VALUE;
+    private int mDataLimit = DEFAULT_LIMIT;
+
+    /**
+     * 分页: 首页参数, 本次请求的参数及其是第几页, 下一页的参数和已经加载的页数
+     */
+    private PageKey mFirstPageKey = PageKey.offset(0);
+    private PageKey mRequestKey = mFirstPageKey;
+    private int mRequestPage;
+    private PageKey mNextPageKey;
+    private int mLoadedPages;
+
+    /**
+     * 已经到达最后一页, 之后的加载更多不再发起请求, 直到下次首页请求
+     */
+    private boolean mReachedEnd;
+
+    /**
+     * 返回的条目数少于 limit 时视为最后一页
+     */
+    private boolean mStopOnShortPage = true;
+
+    /**
+     * 是否当刷新时清除所有数据
+     */
+    private boolean mClearAllWhenRefresh = true;
+
+    /**
+     * 是否在刷新时计算新旧数据的差异, 只应用变化的部分, 需要 BaseModel 实现 isSameItem / isSameContent
+     */
+    private boolean mDiffWhenRefresh = false;
+
+    /**
+     * 一次请求是否分多批发出同一页的数据, 见 StreamingDataController
+     */
+    private boolean mStreaming;
+
+    /**
+     * 最近一次加载更多的开始时间和平滑后的耗时 (毫秒), 耗时未知时为 -1
+     */
+    private long mLoadMoreStartTime;
+    private long mLoadMoreLatency = -1;
+
+    /**
+     * 开启 Metrics 后记录的指标, 名字以 data.&lt;tag&gt; 开头, 第一次用到时创建
+     */
+    private String mMetricsTag;
+    private ActionMetrics[] mActionMetrics;
+    private DispatchMetrics mDispatchMetrics;
+
+    /**
+     * 数据结构修改次数, 用来判断后台计算差异期间数据是否被修改
+     */
+    private int mModCount;
+
+    /**
+     * 在 computation 线程依次执行的处理步骤, 写时复制, 每次请求使用发起时的快照
+     */
+    private volatile List<TransformStage<M>> mTransformStages = Collections.emptyList();
+
+    /**
+     * 批量修改: 修改作用在 mPendingData 上, 合并后的变化在下一帧与数据一起提交,
+     * 保证订阅者看到的 getData() 始终与已分发的变化一致
+     */
+    private List<M> mPendingData;
+    private DataChangeBatch mPendingChanges;
+    private int mBatchDepth;
+    private FrameScheduler mFrameScheduler;
+    /**
+     * 失败后的重试, 为 null 时不重试; 重试的延迟在 mRetryScheduler 上计时
+     */
+    private RetryPolicy mRetryPolicy;
+    private Scheduler mRetryScheduler;
+
+    /**
+     * 离线时失败的请求, 恢复连接后重新发起
+     */
+    private ConnectivityMonitor mConnectivityMonitor;
+    private final EnumSet<ACTION> mQueuedActions = EnumSet.noneOf(ACTION.class);
+    private final ConnectivityMonitor.Listener mConnectivityListener = new ConnectivityMonitor.Listener() {
+        @Override
+        public void onConnectivityChanged(boolean connected) {
+            if (connected) {
+                replayQueuedActions();
+            }
+        }
+    };
+
+    /**
+     * 分页窗口: 丢弃的页通过 mPageLoader 重新获取
+     */
+    private PageLoader<M> mPageLoader;
+    private final Map<Integer, Subscription> mPageLoads = new HashMap<>();
+    private final PagedList.Callback mPageCallback = new PagedList.Callback() {
+        @Override
+        public void onPageMissing(int page) {
+            loadPage(page);
+        }
+    };
+
+    private final Runnable mFrameCallback = new Runnable() {
+        @Override
+        public void run() {
+            dispatchPendingChanges();
+        }
+    };
+
+    public void initialize() {
+        takeAction(ACTION.INITIALIZE);
+    }
+
+    public void refresh() {
+        takeAction(ACTION.REFRESH);
+    }
+
+    public void loadMore() {
+        takeAction(ACTION.LOAD_MORE);
+    }
+
+    /**
+     * 发起请求. 同一时间每类请求只有一个在进行: 相同的首页请求进行中时被合并, INITIALIZE 和 REFRESH 互相取代,
+     * 被取代的请求以 CancellationException 结束; 首页请求会取消正在进行的加载更多, 首页请求进行中时不允许加载更多
+     */
+    protected void takeAction(final ACTION action) {
+        if (action == ACTION.LOAD_MORE) {
+            if (mFirstPageInFlight || mLoadMoreInFlight || mReachedEnd) {
+                return;
+            }
+        } else {
+            if (mFirstPageInFlight && mFirstPageAction == action) {
+                return;
+            }
+            cancelFirstPage();
+            cancelLoadMore();
+        }
+
+        final ActionMetrics metrics = getActionMetrics(action);
+        final long startTime = metrics != null ? System.nanoTime() : 0;
+        final long generation = ++mGeneration;
+        if (action == ACTION.LOAD_MORE) {
+            mLoadMoreInFlight = true;
+            mLoadMoreGeneration = generation;
+        } else {
+            mFirstPageInFlight = true;
+            mFirstPageAction = action;
+            mFirstPageGeneration = generation;
+        }
+        mIsBusy = true;
+        mSubscriberManager.dispatchStartMessage(action);
+
+        if (action != ACTION.LOAD_MORE) {
+            mRequestKey = mFirstPageKey;
+            mRequestPage = 0;
+        } else {
+            // 数据不是通过首页请求得到时 (例如 readData), 按已有的条目数继续
+            mRequestKey = mNextPageKey != null ? mNextPageKey : PageKey.offset(getOffset());
+            mRequestPage = mLoadedPages > 0 ? mLoadedPages : (getOffset() + mDataLimit - 1) / mDataLimit;
+        }
+        final PageKey requestKey = mRequestKey;
+        // 首页请求保留旧数据时, 旧数据末尾的下一页
+        final PageKey tailKey = mNextPageKey;
+        final boolean tailReachedEnd = mReachedEnd;
+        final int requestPage = mRequestPage;
+        final int requestLimit = mDataLimit;
+        final boolean streaming = mStreaming;
+        Observable<List<M>> todo = null;
+        switch (action) {
+            case INITIALIZE:
+                todo = doInitialize();
+                break;
+            case REFRESH:
+                todo = doRefresh();
+                break;
+            case LOAD_MORE:
+                mLoadMoreStartTime = System.nanoTime();
+                todo = doLoadMore();
+                break;
+        }
+
+        if (todo == null) {
+            onCallFailure(action, new IllegalArgumentException("The Observable is null."));
+            onCallFinished(action);
+            return;
+        }
+
+        if (metrics != null) {
+            todo = trace(todo, metrics, startTime);
+        }
+        Observable<List<M>> request = todo.subscribeOn(Schedulers.io());
+        if (!isRetryScoped()) {
+            request = retry(request, streaming);
+        }
+        Subscription subscription = transform(request, metrics)
+                .observeOn(AndroidSchedulers.mainThread())
+                .concatMap(new Func1<List<M>, Observable<Delivery<M>>>() {
+                    @Override
+                    public Observable<Delivery<M>> call(List<M> ms) {
+                        return prepareDelivery(action, ms, streaming);
+                    }
+                })
+                .subscribe(new Subscriber<Delivery<M>>() {
+
+                    private boolean mDelivered;
+                    /**
+                     * 最近一次应用的临时结果, 之后没有正式结果时用它判断分页
+                     */
+                    private List<M> mProvisional;
+
+                    /**
+                     * 分批请求: 已经应用的条目, 处理之前的条目数和下一批插入的位置
+                     */
+                    private List<M> mStreamed;
+                    private int mStreamedCount;
+                    private int mStreamPosition;
+                    /**
+                     * 首页请求的第一批到达时保留的旧数据个数
+                     */
+                    private int mStreamRetained;
+
+                    @Override
+                    public void onNext(Delivery<M> delivery) {
+                        if (isStale(action, generation)) {
+                            return;
+                        }
+                        long applyStart = metrics != null ? System.nanoTime() : 0;
+                        onDelivery(delivery);
+                        if (metrics != null) {
+                            metrics.recordApply(System.nanoTime() - applyStart);
+                        }
+                    }
+
+                    private void onDelivery(Delivery<M> delivery) {
+                        if (streaming) {
+                            onNextChunk(delivery.data);
+                            return;
+                        }
+                        if (isProvisional(delivery.data)) {
+                            mProvisional = delivery.data;
+                        } else {
+                            mDelivered = true;
+                            onPageReceived(action, requestKey, delivery.data);
+                            int retained = retainedCount(action);
+                            if (retained > 0) {
+                                continueAfterRetained(retained + (delivery.data == null ? 0 : delivery.data.size()),
+                                        tailKey, tailReachedEnd);
+                            }
+                        }
+                        startPage(requestPage, requestLimit, delivery.data);
+                        if (delivery.diff != null) {
+                            onCallDiffed(action, delivery);
+                        } else {
+                            onCallSuccess(action, delivery.data);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        if (isStale(action, generation)) {
+                            return;
+                        }
+                        if (mStreamed != null) {
+                            // 已经应用的部分保留, 下一页从它之后继续
+                            updatePaging(action, requestKey.next(mStreamedCount), false);
+                            if (mStreamRetained > 0) {
+                                continueAfterRetained(getOffset(), tailKey, tailReachedEnd);
+                            }
+                        } else if (shouldQueue(e)) {
+                            queueAction(action);
+                        }
+                        if (metrics != null) {
+                            metrics.recordTotal(System.nanoTime() - startTime, true);
+                        }
+                        onCallFailure(action, e);
+                        onCallFinished(action);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        if (isStale(action, generation)) {
+                            return;
+                        }
+                        if (mStreamed != null) {
+                            onPageCounted(action, requestKey, mStreamedCount);
+                            if (mStreamRetained > 0) {
+                                continueAfterRetained(getOffset(), tailKey, tailReachedEnd);
+                            }
+                            onCallApplied(action, mStreamed);
+                        } else if (!mDelivered && mProvisional != null) {
+                            onPageReceived(action, requestKey, mProvisional);
+                            if (mReachedEnd) {
+                                mSubscriberManager.dispatchEndMessage();
+                            }
+                        } else if (!mDelivered) {
+                            onPageReceived(action, requestKey, Collections.<M>emptyList());
+                            if (retainedCount(action) > 0) {
+                                continueAfterRetained(getOffset(), tailKey, tailReachedEnd);
+                            }
+                            onCallSuccess(action, Collections.<M>emptyList());
+                        }
+                        if (metrics != null) {
+                            metrics.recordTotal(System.nanoTime() - startTime, false);
+                        }
+                        onCallFinished(action);
+                    }
+
+                    private void onNextChunk(List<M> chunk) {
+                        if (chunk == null || chunk.isEmpty()) {
+                            return;
+                        }
+                        boolean first = mStreamed == null;
+                        if (first) {
+                            mStreamed = new ArrayList<>();
+                            mStreamRetained = retainedCount(action);
+                            startPage(requestPage, requestLimit, chunk);
+                        }
+                        mStreamPosition = onChunkReceived(action, chunk, first, mStreamPosition);
+                        mStreamed.addAll(chunk);
+                        mStreamedCount += sourceOf(chunk).size();
+                    }
+                });
+
+        if (action == ACTION.LOAD_MORE) {
+            mLoadMoreSubscription = subscription;
+        } else {
+            mFirstPageSubscription = subscription;
+        }
+    }
+
+    /**
+     * 子类自己用 retry(Observable) 包装请求中访问网络的部分时返回 true, 整个请求不再重试.
+     * 例如先发出缓存再请求网络的实现, 重试整个请求会重复发出缓存
+     */
+    protected boolean isRetryScoped() {
+        return false;
+    }
+
+    /**
+     * 按 RetryPolicy 重试 source, 在 io 线程订阅, 用于 isRetryScoped 返回 true 的子类
+     */
+    protected final <T> Observable<T> retry(Observable<T> source) {
+        return retry(source.subscribeOn(Schedulers.io()), false);
+    }
+
+    /**
+     * 按 RetryPolicy 重试, 每次重新订阅都会重新经过 subscribeOn, 请求仍然在 io 线程发起.
+     * 分批请求已经发出数据之后不再重试, 否则重新订阅会重复发出前面的批次
+     */
+    private <T> Observable<T> retry(Observable<T> source, boolean streaming) {
+        RetryPolicy policy = mRetryPolicy;
+        if (policy == null || policy.getMaxRetries() == 0) {
+            return source;
+        }
+        final Func1<Observable<? extends Throwable>, Observable<?>> retryFunction =
+                policy.toRetryFunction(getRetryScheduler());
+        if (!streaming) {
+            return source.retryWhen(retryFunction);
+        }
+        final AtomicBoolean emitted = new AtomicBoolean();
+        return source
+                .doOnNext(new Action1<T>() {
+                    @Override
+                    public void call(T t) {
+                        emitted.set(true);
+                    }
+                })
+                .retryWhen(new Func1<Observable<? extends Throwable>, Observable<?>>() {
+                    @Override
+                    public Observable<?> call(Observable<? extends Throwable> errors) {
+                        return retryFunction.call(errors.flatMap(new Func1<Throwable, Observable<Throwable>>() {
+                            @Override
+                            public Observable<Throwable> call(Throwable throwable) {
+                                return emitted.get() ? Observable.<Throwable>error(throwable)
+                                        : Observable.just(throwable);
+                            }
+                        }));
+                    }
+                });
+    }
+
+    /**
+     * 记录发起到在 io 线程订阅的耗时, 以及订阅到数据源发出第一个结果的耗时; 重试时按最后一次订阅计算
+     */
+    private static <T> Observable<T> trace(Observable<T> source, final ActionMetrics metrics, final long startTime) {
+        final AtomicLong subscribedAt = new AtomicLong();
+        final AtomicBoolean emitted = new AtomicBoolean();
+        return source
+                .doOnSubscribe(new Action0() {
+                    @Override
+                    public void call() {
+                        long now = System.nanoTime();
+                        if (subscribedAt.getAndSet(now) == 0) {
+                            metrics.recordSubscribe(now - startTime);
+                        }
+                    }
+                })
+                .doOnNext(new Action1<T>() {
+                    @Override
+                    public void call(T t) {
+                        if (emitted.compareAndSet(false, true)) {
+                            metrics.recordFetch(System.nanoTime() - subscribedAt.get());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 离线时因网络错误失败的请求需要在恢复连接后重新发起
+     */
+    private boolean shouldQueue(Throwable e) {
+        if (mConnectivityMonitor == null || mConnectivityMonitor.isConnected()) {
+            return false;
+        }
+        return mRetryPolicy != null ? mRetryPolicy.isRetryable(e) : e instanceof IOException;
+    }
+
+    /**
+     * 首页请求覆盖其它等待中的请求, 每类请求最多等待一个
+     */
+    private void queueAction(ACTION action) {
+        if (action == ACTION.LOAD_MORE) {
+            if (mQueuedActions.contains(ACTION.INITIALIZE) || mQueuedActions.contains(ACTION.REFRESH)) {
+                return;
+            }
+        } else {
+            mQueuedActions.clear();
+        }
+        mQueuedActions.add(action);
+        mConnectivityMonitor.addListener(mConnectivityListener);
+    }
+
+    private void replayQueuedActions() {
+        EnumSet<ACTION> actions = EnumSet.copyOf(mQueuedActions);
+        clearQueuedActions();
+        for (ACTION action : actions) {
+            takeAction(action);
+        }
+    }
+
+    private void clearQueuedActions() {
+        mQueuedActions.clear();
+        if (mConnectivityMonitor != null) {
+            mConnectivityMonitor.removeListener(mConnectivityListener);
+        }
+    }
+
+    /**
+     * 在 computation 线程依次执行处理步骤, 主线程收到的是处理完成的只读列表
+     */
+    private Observable<List<M>> transform(Observable<List<M>> source, final ActionMetrics metrics) {
+        final List<TransformStage<M>> stages = mTransformStages;
+        if (stages.isEmpty()) {
+            return source;
+        }
+        return source.observeOn(Schedulers.computation())
+                .map(new Func1<List<M>, List<M>>() {
+                    @Override
+                    public List<M> call(List<M> ms) {
+                        if (ms == null) {
+                            return null;
+                        }
+                        long start = metrics != null ? System.nanoTime() : 0;
+                        List<M> result = ms;
+                        for (int i = 0, size = stages.size(); i < size; i++) {
+                            result = stages.get(i).run(result);
+                        }
+                        if (metrics != null) {
+                            metrics.recordTransform(System.nanoTime() - start);
+                        }
+                        return new TransformedList<>(result, ms);
+                    }
+                });
+    }
+
+    /**
+     * 根据返回的一页更新下一页的参数, 判断是否已经到达最后一页.
+     * 按处理之前的条目数判断, 处理步骤过滤掉的条目不会被误认为最后一页
+     */
+    private void onPageReceived(ACTION action, PageKey requestKey, List<M> ms) {
+        if (ms == null) {
+            updatePaging(action, null, true);
+            return;
+        }
+        List<M> source = sourceOf(ms);
+        if (source instanceof PageResult) {
+            PageKey nextKey = ((PageResult<M>) source).getNextKey();
+            updatePaging(action, nextKey, nextKey == null);
+        } else {
+            onPageCounted(action, requestKey, source.size());
+        }
+    }
+
+    /**
+     * 按一页返回的条目数判断, 分批请求在结束时按所有批次的总数判断
+     */
+    private void onPageCounted(ACTION action, PageKey requestKey, int count) {
+        updatePaging(action, requestKey.next(count), mStopOnShortPage && count < mDataLimit);
+    }
+
+    private void updatePaging(ACTION action, PageKey nextKey, boolean lastPage) {
+        mLoadedPages = action == ACTION.LOAD_MORE ? mLoadedPages + 1 : 1;
+        mNextPageKey = nextKey;
+        mReachedEnd = lastPage || nextKey == null || mLoadedPages >= mMaxPage;
+    }
+
+    private static <M> List<M> sourceOf(List<M> ms) {
+        return ms instanceof TransformedList ? ((TransformedList<M>) ms).mSource : ms;
+    }
+
+    /**
+     * 标记为临时结果, 例如在网络请求之前先发出的本地缓存: 照常显示并回调 Done, 但不用于判断分页和是否到达最后一页,
+     * 同一请求之后的正式结果才会更新分页; 请求只发出了临时结果就结束时, 以最后一次临时结果判断
+     */
+    protected static <M> List<M> provisional(List<M> ms) {
+        return new ProvisionalList<>(ms);
+    }
+
+    private static boolean isProvisional(List<?> ms) {
+        return ms != null && sourceOf(ms) instanceof ProvisionalList;
+    }
+
+    /**
+     * 结果是否已经过期: 请求已被取消, 或者之后又发起了新的首页请求
+     */
+    private boolean isStale(ACTION action, long generation) {
+        if (action == ACTION.LOAD_MORE) {
+            return !mLoadMoreInFlight || generation != mLoadMoreGeneration || generation < mFirstPageGeneration;
+        }
+        return !mFirstPageInFlight || generation != mFirstPageGeneration;
+    }
+
+    /**
+     * 在主线程决定如何应用结果; 需要计算差异时在 computation 线程计算后再回到主线程
+     */
+    private Observable<Delivery<M>> prepareDelivery(final ACTION action, final List<M> ms, boolean streaming) {
+        if (streaming || action == ACTION.LOAD_MORE || !mClearAllWhenRefresh || !mDiffWhenRefresh
+                || ms == null || getWorkingData().isEmpty() || getWorkingData() instanceof PagedList) {
+            return Observable.just(new Delivery<>(ms, null, mModCount));
+        }
+
+        final List<M> snapshot = new ArrayList<>(getWorkingData());
+        final int modCount = mModCount;
+        return Observable.just(ms)
+                .map(new Func1<List<M>, Delivery<M>>() {
+                    @Override
+                    public Delivery<M> call(List<M> newData) {
+                        return new Delivery<>(newData, ListDiffer.calculate(snapshot, newData, true), modCount);
+                    }
+                })
+                .subscribeOn(Schedulers.computation())
+                .observeOn(AndroidSchedulers.mainThread());
+    }
+
+    /**
+     * 请求成功时的回调
+     */
+    protected void onCallSuccess(final ACTION action, final List<M> ms) {
+        if (action == ACTION.LOAD_MORE) {
+            updateLoadMoreLatency((System.nanoTime() - mLoadMoreStartTime) / 1000000);
+        }
+
+        if (action != ACTION.LOAD_MORE) {
+            if (replacesOnFirstPage()) {
+                clearData();
+            }
+            bulkInsertData(0, ms);
+        } else {
+            bulkAppendData(ms);
+        }
+        onCallApplied(action, ms);
+    }
+
+    /**
+     * 分批请求的一批数据: 首页请求的第一批到达时清除旧数据, 之后的批次接在前一批后面; 返回下一批插入的位置
+     */
+    private int onChunkReceived(final ACTION action, final List<M> chunk, boolean first, int position) {
+        if (action == ACTION.LOAD_MORE) {
+            if (first) {
+                updateLoadMoreLatency((System.nanoTime() - mLoadMoreStartTime) / 1000000);
+            }
+            bulkAppendData(chunk);
+            return position;
+        }
+        if (first && replacesOnFirstPage()) {
+            clearData();
+        }
+        bulkInsertData(position, chunk);
+        return position + chunk.size();
+    }
+
+    /**
+     * 首页请求是否替换全部数据; 分页窗口中的每页与一次请求对应, 保留旧数据会对不上, 总是替换
+     */
+    private boolean replacesOnFirstPage() {
+        return mClearAllWhenRefresh || getWorkingData() instanceof PagedList;
+    }
+
+    /**
+     * 首页请求应用之前, 不会被替换而保留在后面的旧数据个数
+     */
+    private int retainedCount(ACTION action) {
+        return action == ACTION.LOAD_MORE || replacesOnFirstPage() ? 0 : getOffset();
+    }
+
+    /**
+     * 首页请求保留了旧数据时列表末尾仍是旧数据的末尾, 下一页按全部 size 个条目推算, 而不是紧接着首页,
+     * 否则加载更多会重复已有的条目; 游标无法推算, 沿用请求之前的下一页
+     */
+    private void continueAfterRetained(int size, PageKey tailKey, boolean tailReachedEnd) {
+        mLoadedPages = (size + mDataLimit - 1) / mDataLimit;
+        switch (mFirstPageKey.getType()) {
+            case OFFSET:
+                mNextPageKey = PageKey.offset(mFirstPageKey.getOffset() + size);
+                break;
+            case PAGE:
+                mNextPageKey = PageKey.page(mFirstPageKey.getPage() + mLoadedPages);
+                break;
+            default:
+                mNextPageKey = tailKey;
+                break;
+        }
+        mReachedEnd = tailReachedEnd || mNextPageKey == null || mLoadedPages >= mMaxPage;
+    }
+
+    /**
+     * 开启分页窗口时, 一次请求的结果放在新的一页, 记录请求的页码和 limit
+     */
+    private void startPage(int requestPage, int requestLimit, List<M> ms) {
+        List<M> data = getWorkingData();
+        if (data instanceof PagedList && ms != null && !ms.isEmpty()) {
+            ((PagedList<M>) data).startPage(requestPage, requestLimit);
+        }
+    }
+
+    /**
+     * 差异计算完成后的回调, 只应用变化的部分; 如果计算期间数据被修改, 则退化为整体替换
+     */
+    private void onCallDiffed(final ACTION action, final Delivery<M> delivery) {
+        if (delivery.modCount == mModCount) {
+            applyDiff(delivery.diff, delivery.data);
+        } else {
+            clearData();
+            bulkInsertData(0, delivery.data);
+        }
+        onCallApplied(action, delivery.data);
+    }
+
+    /**
+     * 数据应用到列表之后的回调
+     */
+    protected void onCallApplied(final ACTION action, final List<M> ms) {
+        boolean isEnd = !isProvisional(ms) && (ms == null || mReachedEnd);
+        mSubscriberManager.dispatchDoneMessage(action, null, ms);
+        if (isEnd) {
+            mSubscriberManager.dispatchEndMessage();
+        }
+    }
+
+    private void applyDiff(ListDiffer.Result result, final List<M> newData) {
+        final List<M> data = getWorkingData();
+        final DataChangeBatch batch = new DataChangeBatch();
+        result.dispatchUpdatesTo(new ListDiffer.Callback() {
+            @Override
+            public void onInserted(int position, int newIndex) {
+                data.add(position, newData.get(newIndex));
+                batch.add(DataChange.inserted(position, 1));
+            }
+
+            @Override
+            public void onRemoved(int position) {
+                data.remove(position);
+                batch.add(DataChange.removed(position, 1));
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                data.add(toPosition, data.remove(fromPosition));
+                batch.add(DataChange.moved(fromPosition, toPosition));
+            }
+
+            @Override
+            public void onChanged(int position, int newIndex) {
+                data.set(position, newData.get(newIndex));
+                batch.add(DataChange.changed(position, 1));
+            }
+        });
+        for (DataChange change : batch.drain()) {
+            notifyDataChange(change);
+        }
+    }
+
+    private void updateLoadMoreLatency(long latency) {
+        mLoadMoreLatency = mLoadMoreLatency < 0 ? latency : (mLoadMoreLatency * 7 + latency * 3) / 10;
+    }
+
+    /**
+     * 请求失败时的回调
+     */
+    protected void onCallFailure(final ACTION action, final Throwable throwable) {
+        mSubscriberManager.dispatchDoneMessage(action, throwable, null);
+    }
+
+    /**
+     * 请求结束时的回调, 成功, 失败或者被取消后都会调用
+     */
+    protected void onCallFinished(final ACTION action) {
+        if (action == ACTION.LOAD_MORE) {
+            mLoadMoreInFlight = false;
+            mLoadMoreSubscription = null;
+        } else {
+            mFirstPageInFlight = false;
+            mFirstPageAction = null;
+            mFirstPageSubscription = null;
+        }
+
+        mIsBusy = mFirstPageInFlight || mLoadMoreInFlight;
+    }
+
+    /**
+     * 取消正在进行的另一种首页请求, 订阅者会收到带有 CancellationException 的 Done
+     */
+    private void cancelFirstPage() {
+        if (!mFirstPageInFlight) {
+            return;
+        }
+        ACTION action = mFirstPageAction;
+        if (mFirstPageSubscription != null) {
+            mFirstPageSubscription.unsubscribe();
+        }
+        onCallFailure(action, new CancellationException("The request is superseded by a newer first page request."));
+        onCallFinished(action);
+    }
+
+    /**
+     * 取消正在进行的加载更多, 订阅者会收到带有 CancellationException 的 onLoadMoreDone
+     */
+    private void cancelLoadMore() {
+        if (!mLoadMoreInFlight) {
+            return;
+        }
+        if (mLoadMoreSubscription != null) {
+            mLoadMoreSubscription.unsubscribe();
+        }
+        onCallFailure(ACTION.LOAD_MORE, new CancellationException("Load more is cancelled by a newer request."));
+        onCallFinished(ACTION.LOAD_MORE);
+    }
+
+    /**
+     * 取消所有正在进行的请求, 不再分发任何结果, 例如 Adapter 与 RecyclerView 分离时
+     */
+    public void cancelAll() {
+        if (mFirstPageSubscription != null) {
+            mFirstPageSubscription.unsubscribe();
+        }
+        if (mLoadMoreSubscription != null) {
+            mLoadMoreSubscription.unsubscribe();
+        }
+        mFirstPageInFlight = false;
+        mFirstPageAction = null;
+        mLoadMoreInFlight = false;
+        mFirstPageSubscription = null;
+        mLoadMoreSubscription = null;
+        mIsBusy = false;
+        clearQueuedActions();
+        cancelPageLoads();
+        flushPendingChanges();
+    }
+
+    /**
+     * 获取数据
+     */
+    public List<M> getData() {
+        return mData;
+    }
+
+    public SubscriberManager getSubscriberManager() {
+        return mSubscriberManager;
+    }
+
+    public boolean isBusy() {
+        return mIsBusy;
+    }
+
+    /**
+     * 加载更多成功时的平滑耗时, 单位毫秒, 还没有成功加载过时返回 -1
+     */
+    public long getLoadMoreLatency() {
+        return mLoadMoreLatency;
+    }
+
+    /**
+     * 指标名中代表这个 DataController 的部分, 默认为类名; 同一类的多个实例需要分开统计时设置
+     */
+    public void setMetricsTag(String metricsTag) {
+        mMetricsTag = metricsTag;
+        mActionMetrics = null;
+        mDispatchMetrics = null;
+    }
+
+    public String getMetricsTag() {
+        if (mMetricsTag == null) {
+            String name = getClass().getSimpleName();
+            mMetricsTag = name.isEmpty() ? getClass().getName() : name;
+        }
+        return mMetricsTag;
+    }
+
+    /**
+     * Metrics 关闭时返回 null
+     */
+    private ActionMetrics getActionMetrics(ACTION action) {
+        if (!Metrics.isEnabled()) {
+            return null;
+        }
+        if (mActionMetrics == null) {
+            mActionMetrics = new ActionMetrics[ACTION.values().length];
+        }
+        ActionMetrics metrics = mActionMetrics[action.ordinal()];
+        if (metrics == null) {
+            metrics = new ActionMetrics(Metrics.getRegistry(),
+                    "data." + getMetricsTag() + "." + action.name().toLowerCase(Locale.US));
+            mActionMetrics[action.ordinal()] = metrics;
+        }
+        return metrics;
+    }
+
+    private DispatchMetrics getDispatchMetrics() {
+        if (!Metrics.isEnabled()) {
+            return null;
+        }
+        if (mDispatchMetrics == null) {
+            mDispatchMetrics = new DispatchMetrics(Metrics.getRegistry(), "data." + getMetricsTag() + ".dispatch");
+        }
+        return mDispatchMetrics;
+    }
+
+    /**
+     * 失败后的重试策略, 默认不重试, 例如 setRetryPolicy(RetryPolicy.exponential()); 传入 null 不重试
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        mRetryPolicy = retryPolicy;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return mRetryPolicy;
+    }
+
+    /**
+     * 重试延迟计时使用的 Scheduler, 默认为 computation; 测试时传入 TestScheduler
+     */
+    public void setRetryScheduler(Scheduler retryScheduler) {
+        mRetryScheduler = retryScheduler;
+    }
+
+    private Scheduler getRetryScheduler() {
+        return mRetryScheduler != null ? mRetryScheduler : Schedulers.computation();
+    }
+
+    /**
+     * 设置后离线时因网络错误失败的请求会在恢复连接后自动重新发起
+     */
+    public void setConnectivityMonitor(ConnectivityMonitor connectivityMonitor) {
+        clearQueuedActions();
+        mConnectivityMonitor = connectivityMonitor;
+    }
+
+    /**
+     * 是否有等待网络恢复后重新发起的请求
+     */
+    public boolean hasQueuedActions() {
+        return !mQueuedActions.isEmpty();
+    }
+
+    /**
+     * 最多加载的页数, 包括首页, 达到后不再加载更多
+     */
+    public void setMaxPage(int maxPage) {
+        if (maxPage <= 0) {
+            throw new IllegalArgumentException("maxPage <= 0");
+        }
+        mMaxPage = maxPage;
+    }
+
+    /**
+     * 首页的分页参数, 默认为偏移量 0; 按页码分页时通常为 PageKey.page(1)
+     */
+    public void setFirstPageKey(PageKey firstPageKey) {
+        if (firstPageKey == null) {
+            throw new IllegalArgumentException("The first page key is null.");
+        }
+        mFirstPageKey = firstPageKey;
+    }
+
+    /**
+     * 本次请求应使用的分页参数, 在 doInitialize/doRefresh/doLoadMore 中读取
+     */
+    public PageKey getRequestKey() {
+        return mRequestKey;
+    }
+
+    /**
+     * 本次请求是第几页, 首页为 0, 在 doInitialize/doRefresh/doLoadMore 中读取;
+     * 开启 setPagedWindow 后 PageLoader 按它重新获取这次请求得到的页
+     */
+    public int getRequestPage() {
+        return mRequestPage;
+    }
+
+    /**
+     * 下一页的分页参数, 没有更多时返回 null
+     */
+    public PageKey getNextPageKey() {
+        return mReachedEnd ? null : mNextPageKey;
+    }
+
+    public int getLoadedPageCount() {
+        return mLoadedPages;
+    }
+
+    public boolean hasReachedEnd() {
+        return mReachedEnd;
+    }
+
+    public void setStopOnShortPage(boolean stopOnShortPage) {
+        mStopOnShortPage = stopOnShortPage;
+    }
+
+    /**
+     * 当前数据个数, 包含尚未提交的批量修改
      */
-    private SubscriberManager mSubscriberManager = new SubscriberManager();
+    public int getOffset() {
+        return getWorkingData().size();
+    }
+
+    public int getLimit() {
+        return mDataLimit;
+    }
+
+    public void setLimit(int dataLimit) {
+        mDataLimit = dataLimit;
+    }
 
     /**
-     * 是否忙碌
+     * 关闭后刷新的数据插入到已有数据之前, 加载更多从全部条目之后继续; 开启 setPagedWindow 时仍然清除全部数据
      */
-    private boolean mIsBusy;
+    public void setClearAllWhenRefresh(boolean clearAllWhenRefresh) {
+        mClearAllWhenRefresh = clearAllWhenRefresh;
+    }
+
+    public void setDiffWhenRefresh(boolean diffWhenRefresh) {
+        mDiffWhenRefresh = diffWhenRefresh;
+    }
+
     /**
-     * 是否允许刷新
+     * 开启后一次请求的多次 onNext 都属于同一页, 依次追加; 分批请求不计算差异
      */
-    private boolean mAllowRefresh = true;
+    protected void setStreaming(boolean streaming) {
+        mStreaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return mStreaming;
+    }
+
     /**
-     * 是否允许加载
+     * 添加处理步骤, 按添加顺序执行, 对之后发起的请求生效
      */
-    private boolean mAllowLoadMore = true;
+    public synchronized void addTransformer(DataTransformer<M> transformer) {
+        if (transformer == null) {
+            throw new NullPointerException("The transformer is null.");
+        }
+        List<TransformStage<M>> stages = new ArrayList<>(mTransformStages);
+        stages.add(new TransformStage<>(transformer));
+        mTransformStages = Collections.unmodifiableList(stages);
+    }
 
-    private int mMaxPage = Integer.MAX_VALUE;
-    private int mDataLimit = DEFAULT_LIMIT;
+    public synchronized void removeTransformer(DataTransformer<M> transformer) {
+        List<TransformStage<M>> stages = new ArrayList<>(mTransformStages);
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            if (stages.get(i).getTransformer() == transformer) {
+                stages.remove(i);
+            }
+        }
+        mTransformStages = Collections.unmodifiableList(stages);
+    }
 
     /**
-     * 是否当刷新时清除所有数据
+     * 处理步骤及其耗时统计
      */
-    private boolean mClearAllWhenRefresh = true;
+    public List<TransformStage<M>> getTransformStages() {
+        return mTransformStages;
+    }
 
-    public void initialize() {
-        takeAction(ACTION.INITIALIZE);
+    /**
+     * 开启 setPagedWindow 后, position 所在的页是否驻留; 修改丢弃的页中的条目会抛出 IllegalStateException,
+     * 末尾 (position == getOffset()) 总是可以追加
+     */
+    public boolean isResident(int position) {
+        List<M> data = getWorkingData();
+        if (!(data instanceof PagedList) || position == data.size()) {
+            return true;
+        }
+        PagedList<M> paged = (PagedList<M>) data;
+        return paged.isResident(paged.getPageIndex(position));
     }
 
-    public void refresh() {
-        takeAction(ACTION.REFRESH);
+    private void checkResident(int position) {
+        if (!isResident(position)) {
+            throw new IllegalStateException("Position " + position + " is in a dropped page, check isResident() first.");
+        }
     }
 
-    public void loadMore() {
-        takeAction(ACTION.LOAD_MORE);
+    private void checkResidentRange(int position, int count) {
+        List<M> data = getWorkingData();
+        if (!(data instanceof PagedList)) {
+            return;
+        }
+        PagedList<M> paged = (PagedList<M>) data;
+        for (int page = paged.getPageIndex(position), last = paged.getPageIndex(position + count - 1); page <= last; page++) {
+            if (!paged.isResident(page)) {
+                throw new IllegalStateException("Range [" + position + ", " + (position + count)
+                        + ") overlaps a dropped page, check isResident() first.");
+            }
+        }
     }
 
-    protected void takeAction(final ACTION action) {
-        if (action == ACTION.REFRESH && !mAllowRefresh) {
+    public void appendData(M data) {
+        if (data == null) {
             return;
         }
+        List<M> working = getWorkingData();
+        working.add(data);
+        notifyDataChange(DataChange.inserted(working.size() - 1, 1));
+    }
 
-        if (action == ACTION.LOAD_MORE && !mAllowLoadMore) {
+    /**
+     * @throws IllegalStateException 开启 setPagedWindow 后 position 所在的页已经丢弃, 见 isResident
+     */
+    public void insertData(int position, M data) {
+        if (data == null) {
             return;
         }
+        checkResident(position);
+        getWorkingData().add(position, data);
+        notifyDataChange(DataChange.inserted(position, 1));
+    }
 
-        mIsBusy = true;
-        mSubscriberManager.dispatchStartMessage(action);
+    /**
+     * @throws IllegalStateException 开启 setPagedWindow 后 position 所在的页已经丢弃, 见 isResident
+     */
+    public void updateData(int position, M data) {
+        if (data == null || position < 0 || position >= getOffset()) {
+            return;
+        }
+        checkResident(position);
+        getWorkingData().set(position, data);
+        notifyDataChange(DataChange.changed(position, 1));
+    }
 
-        Observable<List<M>> todo = null;
-        switch (action) {
-            case INITIALIZE:
-                todo = doInitialize();
-                mAllowRefresh = false;
-                mAllowLoadMore = false;
-                break;
-            case REFRESH:
-                todo = doRefresh();
-                mAllowRefresh = false;
-                break;
-            case LOAD_MORE:
-                todo = doLoadMore();
-                mAllowLoadMore = false;
-                break;
+    public void moveData(int fromPosition, int toPosition) {
+        if (fromPosition < 0 || fromPosition >= getOffset() || toPosition < 0 || toPosition >= getOffset()
+                || fromPosition == toPosition) {
+            return;
         }
+        checkResident(fromPosition);
+        checkResident(toPosition);
+        List<M> working = getWorkingData();
+        working.add(toPosition, working.remove(fromPosition));
+        notifyDataChange(DataChange.moved(fromPosition, toPosition));
+    }
 
-        Action1<List<M>> successAction = new Action1<List<M>>() {
-            @Override
-            public void call(List<M> ms) {
-                onCallSuccess(action, ms);
-            }
-        };
+    public void removeData(M data) {
+        if (data == null) {
+            return;
+        }
+        removeData(getWorkingData().indexOf(data));
+    }
 
-        Action1<Throwable> failureAction = new Action1<Throwable>() {
-            @Override
-            public void call(Throwable throwable) {
-                onCallFailure(action, throwable);
-            }
-        };
+    /**
+     * @throws IllegalStateException 开启 setPagedWindow 后 position 所在的页已经丢弃, 见 isResident
+     */
+    public void removeData(int position) {
+        if (position < 0 || position >= getOffset()) {
+            return;
+        }
+        checkResident(position);
+        getWorkingData().remove(position);
+        notifyDataChange(DataChange.removed(position, 1));
+    }
 
-        if (todo != null) {
-            todo.subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(successAction, failureAction);
-        } else {
-            failureAction.call(new IllegalArgumentException("The Observable is null."));
+    public void bulkAppendData(List<M> data) {
+        if (data == null || data.isEmpty()) {
+            return;
+        }
+        List<M> working = getWorkingData();
+        int position = working.size();
+        working.addAll(data);
+        notifyDataChange(DataChange.inserted(position, data.size()));
+    }
+
+    public void bulkInsertData(int position, List<M> data) {
+        if (data == null || data.isEmpty()) {
+            return;
         }
+        checkResident(position);
+        getWorkingData().addAll(position, data);
+        notifyDataChange(DataChange.inserted(position, data.size()));
     }
 
     /**
-     * 请求成功时的回调
+     * 删除 [position, position + count) 的条目, 只分发一次变化
+     *
+     * @throws IllegalStateException 开启 setPagedWindow 后范围包含已经丢弃的页, 见 isResident
      */
-    protected void onCallSuccess(final ACTION action, final List<M> ms) {
-        boolean isEnd = (ms == null);
-        if (action != ACTION.LOAD_MORE) {
-            if (mClearAllWhenRefresh) {
-                mData.clear();
-            }
-            bulkInsertData(0, ms);
-        } else {
-            bulkAppendData(ms);
+    public void bulkRemoveData(int position, int count) {
+        if (count <= 0 || position < 0 || position + count > getOffset()) {
+            return;
         }
-        mSubscriberManager.dispatchDoneMessage(action, null, ms);
-        if (isEnd) {
-            mSubscriberManager.dispatchEndMessage();
+        checkResidentRange(position, count);
+        getWorkingData().subList(position, position + count).clear();
+        notifyDataChange(DataChange.removed(position, count));
+    }
+
+    /**
+     * 写出当前数据, 例如保存到 Bundle 或磁盘
+     */
+    public void writeData(Sink sink, BinaryCodec<M> codec) throws IOException {
+        List<M> data = getWorkingData();
+        if (data instanceof PagedList) {
+            List<M> resident = new ArrayList<>();
+            for (int i = 0, size = data.size(); i < size; i++) {
+                M m = data.get(i);
+                if (m != null) {
+                    resident.add(m);
+                }
+            }
+            data = resident;
         }
-        onCallFinished(action);
+        Codecs.writeList(sink, data, codec);
     }
 
     /**
-     * 请求失败时的回调
+     * 读取 writeData 写出的数据, 替换当前数据
      */
-    protected void onCallFailure(final ACTION action, final Throwable throwable) {
-        mSubscriberManager.dispatchDoneMessage(action, throwable, null);
-        onCallFinished(action);
+    public void readData(Source source, BinaryCodec<M> codec) throws IOException {
+        List<M> data = Codecs.readList(source, codec);
+        clearData();
+        bulkAppendData(data);
+    }
+
+    public void clearData() {
+        List<M> working = getWorkingData();
+        int count = working.size();
+        if (count == 0) {
+            return;
+        }
+        working.clear();
+        notifyDataChange(DataChange.removed(0, count));
     }
 
     /**
-     * 请求结束时的回调
+     * 开始批量修改, 可以嵌套. 之后的修改合并为尽量少的范围变化, 在最外层 commitBatch 之后的下一帧统一分发;
+     * 在此之前 getData() 仍然返回修改前的数据
      */
-    protected void onCallFinished(final ACTION action) {
-        switch (action) {
-            case INITIALIZE:
-                mAllowRefresh = true;
-                mAllowLoadMore = true;
-                break;
-            case REFRESH:
-                mAllowRefresh = true;
-                break;
-            case LOAD_MORE:
-                mAllowLoadMore = true;
-                break;
+    public void beginBatch() {
+        if (mBatchDepth++ == 0 && mPendingData == null) {
+            mPendingData = mData instanceof PagedList ? new PagedList<>((PagedList<M>) mData) : new ArrayList<>(mData);
+            mPendingChanges = new DataChangeBatch();
         }
+    }
 
-        mIsBusy = false;
+    public void commitBatch() {
+        if (mBatchDepth == 0) {
+            throw new IllegalStateException("commitBatch() without beginBatch().");
+        }
+        if (--mBatchDepth == 0) {
+            getFrameScheduler().postFrameCallback(mFrameCallback);
+        }
     }
 
     /**
-     * 获取数据
+     * 在一次批量修改中执行 block
      */
-    public List<M> getData() {
-        return mData;
+    public void mutate(Action1<DataController<M>> block) {
+        beginBatch();
+        try {
+            block.call(this);
+        } finally {
+            commitBatch();
+        }
     }
 
-    public SubscriberManager getSubscriberManager() {
-        return mSubscriberManager;
+    /**
+     * 立即提交已经 commit 但还在等待下一帧的批量修改
+     */
+    public void flushPendingChanges() {
+        if (mPendingData != null && mBatchDepth == 0) {
+            getFrameScheduler().removeFrameCallback(mFrameCallback);
+            dispatchPendingChanges();
+        }
     }
 
-    public boolean isBusy() {
-        return mIsBusy;
+    public void setFrameScheduler(FrameScheduler frameScheduler) {
+        flushPendingChanges();
+        mFrameScheduler = frameScheduler;
     }
 
-    public void setMaxPage(int maxPage) {
-        mMaxPage = maxPage;
+    public FrameScheduler getFrameScheduler() {
+        if (mFrameScheduler == null) {
+            mFrameScheduler = new ChoreographerFrameScheduler();
+        }
+        return mFrameScheduler;
     }
 
-    public int getOffset() {
-        return mData.size();
+    /**
+     * 改为按页保存数据, 只保留最近显示的条目附近 windowRadius 页, 其余的页丢弃为占位 (getData().get() 返回 null),
+     * 再次显示时通过 loader 按请求时的 getRequestPage() 和 getLimit() 重新获取; 每次请求的结果为一页.
+     * 开启后 Adapter 需要能够绑定 null 条目, 首页请求总是替换全部数据并且不计算差异, writeData 只写出驻留的条目
+     */
+    public void setPagedWindow(PageLoader<M> loader, int windowRadius) {
+        flushPendingChanges();
+        cancelPageLoads();
+        PagedList<M> paged = new PagedList<>(mDataLimit, windowRadius);
+        paged.addAll(mData);
+        paged.setCallback(mPageCallback);
+        mPageLoader = loader;
+        mData = paged;
     }
 
-    public int getLimit() {
-        return mDataLimit;
+    /**
+     * 条目被显示时调用, 分页窗口随之移动
+     */
+    public void onItemBound(int position) {
+        List<M> data = mData;
+        if (data instanceof PagedList && position >= 0 && position < data.size()) {
+            ((PagedList<M>) data).touch(position);
+        }
     }
 
-    public void setLimit(int dataLimit) {
-        mDataLimit = dataLimit;
+    private void loadPage(final int page) {
+        if (mPageLoader == null || mPageLoads.containsKey(page) || !(mData instanceof PagedList)) {
+            return;
+        }
+        final PagedList<M> list = (PagedList<M>) mData;
+        final int modCount = list.getModCount();
+        Observable<List<M>> todo = mPageLoader.loadPage(list.getPageRequest(page), list.getPageLimit(page));
+        if (todo == null) {
+            list.onPageFailed(page);
+            return;
+        }
+        Subscription subscription = transform(todo.subscribeOn(Schedulers.io()), null)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Subscriber<List<M>>() {
+                    private boolean mFilled;
+
+                    @Override
+                    public void onNext(List<M> ms) {
+                        if (!mFilled && ms != null && !ms.isEmpty()) {
+                            mFilled = onPageLoaded(list, modCount, page, ms);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        onCompleted();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        mPageLoads.remove(page);
+                        if (!mFilled) {
+                            list.onPageFailed(page);
+                        }
+                    }
+                });
+        if (!subscription.isUnsubscribed()) {
+            mPageLoads.put(page, subscription);
+        }
     }
 
-    public void setClearAllWhenRefresh(boolean clearAllWhenRefresh) {
-        mClearAllWhenRefresh = clearAllWhenRefresh;
+    /**
+     * 重新获取的页回到主线程; 请求期间列表结构发生变化或者正在批量修改时丢弃结果, 等待下次窗口移动
+     */
+    private boolean onPageLoaded(PagedList<M> list, int modCount, int page, List<M> ms) {
+        if (list != mData || mPendingData != null || list.getModCount() != modCount) {
+            return false;
+        }
+        int start = list.getPageStart(page);
+        int oldCount = list.fillPage(page, ms);
+        int newCount = ms.size();
+        int common = Math.min(oldCount, newCount);
+        if (common > 0) {
+            notifyDataChange(DataChange.changed(start, common));
+        }
+        if (newCount > oldCount) {
+            notifyDataChange(DataChange.inserted(start + oldCount, newCount - oldCount));
+        } else if (newCount < oldCount) {
+            notifyDataChange(DataChange.removed(start + newCount, oldCount - newCount));
+        }
+        return true;
     }
 
-    public void appendData(M data) {
-        if (data == null) {
+    private void cancelPageLoads() {
+        if (mPageLoads.isEmpty()) {
             return;
         }
-        mData.add(data);
-        mSubscriberManager.dispatchDataChangeMessage();
+        for (Map.Entry<Integer, Subscription> entry : new ArrayList<>(mPageLoads.entrySet())) {
+            entry.getValue().unsubscribe();
+            if (mData instanceof PagedList && entry.getKey() < ((PagedList<M>) mData).getPageCount()) {
+                ((PagedList<M>) mData).onPageFailed(entry.getKey());
+            }
+        }
+        mPageLoads.clear();
     }
 
-    public void insertData(int position, M data) {
-        if (data == null) {
-            return;
+    /**
+     * 修改操作作用的列表: 批量修改期间为待提交的副本, 否则为 mData
+     */
+    private List<M> getWorkingData() {
+        return mPendingData != null ? mPendingData : mData;
+    }
+
+    private void notifyDataChange(DataChange change) {
+        mModCount++;
+        if (mPendingData != null) {
+            mPendingChanges.add(change);
+        } else {
+            mSubscriberManager.dispatchDataChangeMessage(change);
         }
-        mData.add(position, data);
-        mSubscriberManager.dispatchDataChangeMessage();
     }
 
-    public void removeData(M data) {
-        if (data == null) {
+    private void dispatchPendingChanges() {
+        if (mPendingData == null || mBatchDepth > 0) {
             return;
         }
-        mData.remove(data);
-        mSubscriberManager.dispatchDataChangeMessage();
+        mData = mPendingData;
+        List<DataChange> changes = mPendingChanges.drain();
+        mPendingData = null;
+        mPendingChanges = null;
+        for (DataChange change : changes) {
+            mSubscriberManager.dispatchDataChangeMessage(change);
+        }
     }
 
-    public void removeData(int position) {
-        if (position < 0 || position >= getOffset()) {
-            return;
+    /**
+     * 处理步骤的结果, 只读, 保留处理之前的列表用于分页判断
+     */
+    private static final class TransformedList<M> extends AbstractList<M> implements RandomAccess {
+
+        private final List<M> mItems;
+        private final List<M> mSource;
+
+        TransformedList(List<M> items, List<M> source) {
+            mItems = items;
+            mSource = source;
+        }
+
+        @Override
+        public M get(int location) {
+            return mItems.get(location);
+        }
+
+        @Override
+        public int size() {
+            return mItems.size();
         }
-        mData.remove(position);
-        mSubscriberManager.dispatchDataChangeMessage();
     }
 
-    public void bulkAppendData(List<M> data) {
-        if (data == null || data.isEmpty()) {
-            return;
+    /**
+     * provisional() 返回的临时结果, 只读
+     */
+    private static final class ProvisionalList<M> extends AbstractList<M> implements RandomAccess {
+
+        private final List<M> mItems;
+
+        ProvisionalList(List<M> items) {
+            mItems = items;
+        }
+
+        @Override
+        public M get(int location) {
+            return mItems.get(location);
+        }
+
+        @Override
+        public int size() {
+            return mItems.size();
         }
-        mData.addAll(data);
-        mSubscriberManager.dispatchDataChangeMessage();
     }
 
-    public void bulkInsertData(int position, List<M> data) {
-        if (data == null || data.isEmpty()) {
-            return;
+    /**
+     * 回到主线程等待应用的一次结果
+     */
+    private static final class Delivery<M> {
+        final List<M> data;
+        final ListDiffer.Result diff;
+        final int modCount;
+
+        Delivery(List<M> data, ListDiffer.Result diff, int modCount) {
+            this.data = data;
+            this.diff = diff;
+            this.modCount = modCount;
         }
-        mData.addAll(position, data);
-        mSubscriberManager.dispatchDataChangeMessage();
     }
 
     /**
      * 用来管理订阅者的事件分发
+     * 订阅者保存在写时复制的数组中: 注册和注销在锁内替换数组, 分发时读取当前数组按下标遍历,
+     * 不分配迭代器, 回调中注销订阅者也不会影响本次分发, 可以在任意线程注册
      */
     public class SubscriberManager {
 
-        private final List<DataSubscriber.DataActionListener<M>> mDataActionListeners;
-        private final List<DataSubscriber.DataChangeListener<M>> mDataChangeListeners;
+        private final Object mLock = new Object();
+
+        private volatile Object[] mDataActionListeners = EMPTY_LISTENERS;
+        private volatile Object[] mDataChangeListeners = EMPTY_LISTENERS;
 
         public SubscriberManager() {
-            mDataActionListeners = new ArrayList<>();
-            mDataChangeListeners = new ArrayList<>();
         }
 
         public void addDataActionListener(DataSubscriber.DataActionListener<M> listener) {
             checkIfNull(listener);
-            synchronized (mDataActionListeners) {
-                if (!mDataActionListeners.contains(listener)) {
-                    mDataActionListeners.add(listener);
-                }
+            synchronized (mLock) {
+                mDataActionListeners = added(mDataActionListeners, listener);
             }
         }
 
         public void removeDataActionListener(DataSubscriber.DataActionListener<M> listener) {
             checkIfNull(listener);
-            synchronized (mDataActionListeners) {
-                mDataActionListeners.remove(listener);
+            synchronized (mLock) {
+                mDataActionListeners = removed(mDataActionListeners, listener);
             }
         }
 
         public void removeAllDataActionListeners() {
-            synchronized (mDataActionListeners) {
-                mDataActionListeners.clear();
+            synchronized (mLock) {
+                mDataActionListeners = EMPTY_LISTENERS;
             }
         }
 
         public void addDataChangeListener(DataSubscriber.DataChangeListener<M> listener) {
             checkIfNull(listener);
-            synchronized (mDataChangeListeners) {
-                if (!mDataChangeListeners.contains(listener)) {
-                    mDataChangeListeners.add(listener);
-                }
+            synchronized (mLock) {
+                mDataChangeListeners = added(mDataChangeListeners, listener);
             }
         }
 
         public void removeDataChangeListener(DataSubscriber.DataChangeListener<M> listener) {
             checkIfNull(listener);
-            synchronized (mDataChangeListeners) {
-                mDataChangeListeners.remove(listener);
+            synchronized (mLock) {
+                mDataChangeListeners = removed(mDataChangeListeners, listener);
             }
         }
 
         public void removeAllDataChangeListeners() {
-            synchronized (mDataActionListeners) {
-                mDataActionListeners.clear();
+            synchronized (mLock) {
+                mDataChangeListeners = EMPTY_LISTENERS;
             }
         }
 
+        public int getDataActionListenerCount() {
+            return mDataActionListeners.length;
+        }
+
+        public int getDataChangeListenerCount() {
+            return mDataChangeListeners.length;
+        }
+
         public void dispatchStartMessage(final DataController.ACTION action) {
-            if (mDataActionListeners.isEmpty()) {
-                return;
+            final Object[] listeners = mDataActionListeners;
+            final int count = listeners.length;
+            DispatchMetrics metrics = getDispatchMetrics();
+            if (metrics != null) {
+                metrics.onStart(count);
             }
-
             switch (action) {
                 case INITIALIZE:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onInitStart();
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onInitStart();
                     }
                     break;
                 case REFRESH:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onRefreshStart();
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onRefreshStart();
                     }
                     break;
                 case LOAD_MORE:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onLoadMoreStart();
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onLoadMoreStart();
                     }
                     break;
             }
         }
 
         public void dispatchDoneMessage(final DataController.ACTION action, final Throwable e, final List<M> data) {
-            if (mDataActionListeners.isEmpty()) {
-                return;
+            final Object[] listeners = mDataActionListeners;
+            final int count = listeners.length;
+            DispatchMetrics metrics = getDispatchMetrics();
+            if (metrics != null) {
+                metrics.onDone(count);
             }
-
             switch (action) {
                 case INITIALIZE:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onInitDone(e, data);
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onInitDone(e, data);
                     }
                     break;
                 case REFRESH:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onRefreshDone(e, data);
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onRefreshDone(e, data);
                     }
                     break;
                 case LOAD_MORE:
-                    for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                        subscriber.onLoadMoreDone(e, data);
+                    for (int i = 0; i < count; i++) {
+                        actionListener(listeners[i]).onLoadMoreDone(e, data);
                     }
                     break;
             }
         }
 
         public void dispatchEndMessage() {
-            if (mDataActionListeners.isEmpty()) {
-                return;
+            final Object[] listeners = mDataActionListeners;
+            final int count = listeners.length;
+            DispatchMetrics metrics = getDispatchMetrics();
+            if (metrics != null) {
+                metrics.onEnd(count);
             }
-
-            for (DataSubscriber.DataActionListener<M> subscriber : mDataActionListeners) {
-                subscriber.onEnd();
+            for (int i = 0; i < count; i++) {
+                actionListener(listeners[i]).onEnd();
             }
         }
 
-        public void dispatchDataChangeMessage() {
-            if (mDataChangeListeners.isEmpty()) {
-                return;
+        public void dispatchDataChangeMessage(final DataChange change) {
+            final Object[] listeners = mDataChangeListeners;
+            final int count = listeners.length;
+            DispatchMetrics metrics = getDispatchMetrics();
+            if (metrics != null) {
+                metrics.onDataChange(count);
             }
-
-            for (DataSubscriber.DataChangeListener<M> listener : mDataChangeListeners) {
-                listener.onDataChange();
+            for (int i = 0; i < count; i++) {
+                changeListener(listeners[i]).onDataChange(change);
             }
         }
 
+        @SuppressWarnings("unchecked")
+        private DataSubscriber.DataActionListener<M> actionListener(Object listener) {
+            return (DataSubscriber.DataActionListener<M>) listener;
+        }
+
+        @SuppressWarnings("unchecked")
+        private DataSubscriber.DataChangeListener<M> changeListener(Object listener) {
+            return (DataSubscriber.DataChangeListener<M>) listener;
+        }
+
         private void checkIfNull(Object object) {
             if (object == null) {
                 throw new NullPointerException("The Data Subscriber is null.");
             }
         }
     }
+
+    private static Object[] added(Object[] listeners, Object listener) {
+        for (Object l : listeners) {
+            if (l.equals(listener)) {
+                return listeners;
+            }
+        }
+        Object[] copy = new Object[listeners.length + 1];
+        System.arraycopy(listeners, 0, copy, 0, listeners.length);
+        copy[listeners.length] = listener;
+        return copy;
+    }
+
+    private static Object[] removed(Object[] listeners, Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                if (listeners.length == 1) {
+                    return EMPTY_LISTENERS;
+                }
+                Object[] copy = new Object[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, listeners.length - i - 1);
+                return copy;
+            }
+        }
+        return listeners;
+    }
 }
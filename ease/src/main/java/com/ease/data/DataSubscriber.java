@@ -28,6 +28,6 @@ public class DataSubscriber<M extends BaseModel> {
     }
 
     public interface DataChangeListener<M> {
-        void onDataChange();
+        void onDataChange(DataChange change);
     }
 }
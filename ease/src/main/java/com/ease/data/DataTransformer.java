@@ -0,0 +1,15 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+/**
+ * data transformer
+ * DataController 在 computation 线程中, 请求返回之后, 应用到列表之前依次执行的处理步骤,
+ * 例如格式化日期, 解析 markdown, 过滤条目. 返回的列表交给下一个步骤, 不要在其中访问 UI
+ */
+public interface DataTransformer<M extends BaseModel> {
+
+    List<M> transform(List<M> data);
+}
@@ -0,0 +1,290 @@
+package com.ease.data;
+
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.Source;
+import com.ease.model.BaseModel;
+
+import java.io.IOException;
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * derived data controller
+ * 从 parent 派生的只读视图, 例如搜索结果或者排序后的列表, 多个视图可以共用同一个 parent 的数据.
+ * 请求转发给 parent, parent 的请求事件转发给自己的订阅者. initialize 时开始跟随 parent, cancelAll 时停止,
+ * 与 BaseAdapter 的 attach/detach 对应.
+ * parent 分发变化时 getData() 已经是所有变化之后的结果, 所以结构变化 (onParentInserted 等) 只能调整位置,
+ * 新的条目在下一帧 onParentSettled 中读取, 此时已分发的变化与 parent.getData() 一致
+ */
+public abstract class DerivedDataController<M extends BaseModel> extends DataController<M> {
+
+    private final DataController<M> mParent;
+    private boolean mAttached;
+
+    private final DataSubscriber.DataChangeListener<M> mChangeListener = new DataSubscriber.DataChangeListener<M>() {
+        @Override
+        public void onDataChange(DataChange change) {
+            switch (change.getType()) {
+                case INSERTED:
+                    onParentInserted(change.getPosition(), change.getCount());
+                    break;
+                case REMOVED:
+                    onParentRemoved(change.getPosition(), change.getCount());
+                    break;
+                case MOVED:
+                    onParentMoved(change.getPosition(), change.getToPosition());
+                    break;
+                case CHANGED:
+                    onParentChanged(change.getPosition(), change.getCount());
+                    break;
+            }
+            getFrameScheduler().postFrameCallback(mSettleCallback);
+        }
+    };
+
+    private final DataSubscriber.DataActionListener<M> mActionListener = new DataSubscriber.DataActionListener<M>() {
+        @Override
+        public void onInitStart() {
+            getSubscriberManager().dispatchStartMessage(ACTION.INITIALIZE);
+        }
+
+        @Override
+        public void onInitDone(Throwable e, List<M> data) {
+            getSubscriberManager().dispatchDoneMessage(ACTION.INITIALIZE, e, data);
+        }
+
+        @Override
+        public void onRefreshStart() {
+            getSubscriberManager().dispatchStartMessage(ACTION.REFRESH);
+        }
+
+        @Override
+        public void onRefreshDone(Throwable e, List<M> data) {
+            getSubscriberManager().dispatchDoneMessage(ACTION.REFRESH, e, data);
+        }
+
+        @Override
+        public void onLoadMoreStart() {
+            getSubscriberManager().dispatchStartMessage(ACTION.LOAD_MORE);
+        }
+
+        @Override
+        public void onLoadMoreDone(Throwable e, List<M> data) {
+            getSubscriberManager().dispatchDoneMessage(ACTION.LOAD_MORE, e, data);
+        }
+
+        @Override
+        public void onEnd() {
+            getSubscriberManager().dispatchEndMessage();
+        }
+    };
+
+    private final Runnable mSettleCallback = new Runnable() {
+        @Override
+        public void run() {
+            if (mAttached) {
+                onParentSettled();
+            }
+        }
+    };
+
+    public DerivedDataController(DataController<M> parent) {
+        if (parent == null) {
+            throw new IllegalArgumentException("The parent is null.");
+        }
+        mParent = parent;
+    }
+
+    public DataController<M> getParent() {
+        return mParent;
+    }
+
+    public boolean isAttached() {
+        return mAttached;
+    }
+
+    /**
+     * 开始跟随 parent 并按当前数据重建; parent 还没有数据且空闲时发起 parent 的 initialize
+     */
+    @Override
+    public void initialize() {
+        attach();
+        if (mParent.getData().isEmpty() && !mParent.isBusy()) {
+            mParent.initialize();
+        }
+    }
+
+    @Override
+    public void refresh() {
+        attach();
+        mParent.refresh();
+    }
+
+    @Override
+    public void loadMore() {
+        mParent.loadMore();
+    }
+
+    /**
+     * 不再跟随 parent, parent 的请求不受影响
+     */
+    @Override
+    public void cancelAll() {
+        super.cancelAll();
+        detach();
+    }
+
+    public void attach() {
+        if (mAttached) {
+            return;
+        }
+        mAttached = true;
+        mParent.getSubscriberManager().addDataChangeListener(mChangeListener);
+        mParent.getSubscriberManager().addDataActionListener(mActionListener);
+        onParentReset();
+    }
+
+    public void detach() {
+        if (!mAttached) {
+            return;
+        }
+        mAttached = false;
+        mParent.getSubscriberManager().removeDataChangeListener(mChangeListener);
+        mParent.getSubscriberManager().removeDataActionListener(mActionListener);
+        getFrameScheduler().removeFrameCallback(mSettleCallback);
+    }
+
+    @Override
+    public boolean isBusy() {
+        return mParent.isBusy();
+    }
+
+    @Override
+    public long getLoadMoreLatency() {
+        return mParent.getLoadMoreLatency();
+    }
+
+    @Override
+    public boolean hasReachedEnd() {
+        return mParent.hasReachedEnd();
+    }
+
+    /**
+     * 请求都由 parent 发起, 不会调用到这里
+     */
+    @Override
+    public Observable<List<M>> doInitialize() {
+        return Observable.empty();
+    }
+
+    @Override
+    public Observable<List<M>> doRefresh() {
+        return Observable.empty();
+    }
+
+    @Override
+    public Observable<List<M>> doLoadMore() {
+        return Observable.empty();
+    }
+
+    /**
+     * 开始跟随时调用, 此时 parent.getData() 与已分发的变化一致, 子类按它重建全部数据
+     */
+    protected abstract void onParentReset();
+
+    protected abstract void onParentInserted(int position, int count);
+
+    protected abstract void onParentRemoved(int position, int count);
+
+    protected abstract void onParentMoved(int fromPosition, int toPosition);
+
+    protected abstract void onParentChanged(int position, int count);
+
+    /**
+     * 一帧内的变化都已分发, 子类在这里读取新增和修改的条目
+     */
+    protected abstract void onParentSettled();
+
+    /**
+     * 子类修改自己的数据
+     */
+    protected final void insertRows(int position, List<M> data) {
+        super.bulkInsertData(position, data);
+    }
+
+    protected final void removeRows(int position, int count) {
+        super.bulkRemoveData(position, count);
+    }
+
+    protected final void moveRow(int fromPosition, int toPosition) {
+        super.moveData(fromPosition, toPosition);
+    }
+
+    protected final void updateRow(int position, M data) {
+        super.updateData(position, data);
+    }
+
+    protected final void clearRows() {
+        super.clearData();
+    }
+
+    @Override
+    public void appendData(M data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void insertData(int position, M data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateData(int position, M data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveData(int fromPosition, int toPosition) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeData(M data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeData(int position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void bulkAppendData(List<M> data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void bulkInsertData(int position, List<M> data) {
+        throw readOnly();
+    }
+
+    @Override
+    public void bulkRemoveData(int position, int count) {
+        throw readOnly();
+    }
+
+    @Override
+    public void readData(Source source, BinaryCodec<M> codec) throws IOException {
+        throw readOnly();
+    }
+
+    @Override
+    public void clearData() {
+        throw readOnly();
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A derived data controller is read-only, modify the parent instead.");
+    }
+}
@@ -0,0 +1,12 @@
+package com.ease.data;
+
+/**
+ * frame scheduler
+ * 在下一帧开始时执行回调, 同一个回调在执行前重复提交只会执行一次
+ */
+public interface FrameScheduler {
+
+    void postFrameCallback(Runnable callback);
+
+    void removeFrameCallback(Runnable callback);
+}
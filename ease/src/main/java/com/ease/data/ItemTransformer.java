@@ -0,0 +1,27 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * item transformer
+ * 逐个处理条目的 DataTransformer, transformItem 返回 null 的条目会被过滤掉
+ */
+public abstract class ItemTransformer<M extends BaseModel> implements DataTransformer<M> {
+
+    public abstract M transformItem(M item);
+
+    @Override
+    public List<M> transform(List<M> data) {
+        List<M> result = new ArrayList<>(data.size());
+        for (int i = 0, size = data.size(); i < size; i++) {
+            M item = transformItem(data.get(i));
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+}
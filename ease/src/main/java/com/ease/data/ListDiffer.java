@@ -0,0 +1,499 @@
+/*
+ * Copyright (C) 2016 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * list differ
+ * 使用 Myers 差分算法计算新旧两个列表之间的最小编辑脚本, 条目是否相同由 BaseModel 的
+ * isSameItem / isSameContent 决定. 计算过程不访问 UI, 可以在后台线程执行.
+ * 移植自 Android 支持库的 DiffUtil (Apache License 2.0), 见仓库根目录的 NOTICE
+ */
+public final class ListDiffer {
+
+    /**
+     * 接收编辑脚本, 所有位置都是在依次应用之前的操作后, 相对旧列表的当前下标
+     */
+    public interface Callback {
+
+        void onInserted(int position, int newIndex);
+
+        void onRemoved(int position);
+
+        void onMoved(int fromPosition, int toPosition);
+
+        void onChanged(int position, int newIndex);
+    }
+
+    private static final int FLAG_NOT_CHANGED = 1;
+    private static final int FLAG_CHANGED = FLAG_NOT_CHANGED << 1;
+    private static final int FLAG_MOVED_CHANGED = FLAG_CHANGED << 1;
+    private static final int FLAG_MOVED_NOT_CHANGED = FLAG_MOVED_CHANGED << 1;
+    private static final int FLAG_IGNORE = FLAG_MOVED_NOT_CHANGED << 1;
+    private static final int FLAG_OFFSET = 5;
+    private static final int FLAG_MASK = (1 << FLAG_OFFSET) - 1;
+
+    private static final Comparator<Snake> SNAKE_COMPARATOR = new Comparator<Snake>() {
+        @Override
+        public int compare(Snake o1, Snake o2) {
+            int cmpX = o1.x - o2.x;
+            return cmpX == 0 ? o1.y - o2.y : cmpX;
+        }
+    };
+
+    private ListDiffer() {
+    }
+
+    /**
+     * 计算 oldList 到 newList 的差异
+     *
+     * @param detectMoves 是否识别移动, 识别移动需要额外 O(N^2) 的查找
+     */
+    public static <M extends BaseModel> Result calculate(List<M> oldList, List<M> newList, boolean detectMoves) {
+        final int oldSize = oldList.size();
+        final int newSize = newList.size();
+
+        final List<Snake> snakes = new ArrayList<>();
+        final List<Range> stack = new ArrayList<>();
+        stack.add(new Range(0, oldSize, 0, newSize));
+
+        final int max = oldSize + newSize + Math.abs(oldSize - newSize);
+        final int[] forward = new int[max * 2];
+        final int[] backward = new int[max * 2];
+
+        final List<Range> rangePool = new ArrayList<>();
+        while (!stack.isEmpty()) {
+            final Range range = stack.remove(stack.size() - 1);
+            final Snake snake = diffPartial(oldList, newList, range.oldStart, range.oldEnd,
+                    range.newStart, range.newEnd, forward, backward, max);
+            if (snake == null) {
+                rangePool.add(range);
+                continue;
+            }
+            if (snake.size > 0) {
+                snakes.add(snake);
+            }
+            snake.x += range.oldStart;
+            snake.y += range.newStart;
+
+            final Range left = rangePool.isEmpty() ? new Range() : rangePool.remove(rangePool.size() - 1);
+            left.oldStart = range.oldStart;
+            left.newStart = range.newStart;
+            if (snake.reverse) {
+                left.oldEnd = snake.x;
+                left.newEnd = snake.y;
+            } else if (snake.removal) {
+                left.oldEnd = snake.x - 1;
+                left.newEnd = snake.y;
+            } else {
+                left.oldEnd = snake.x;
+                left.newEnd = snake.y - 1;
+            }
+            stack.add(left);
+
+            final Range right = range;
+            if (snake.reverse) {
+                if (snake.removal) {
+                    right.oldStart = snake.x + snake.size + 1;
+                    right.newStart = snake.y + snake.size;
+                } else {
+                    right.oldStart = snake.x + snake.size;
+                    right.newStart = snake.y + snake.size + 1;
+                }
+            } else {
+                right.oldStart = snake.x + snake.size;
+                right.newStart = snake.y + snake.size;
+            }
+            stack.add(right);
+        }
+        Collections.sort(snakes, SNAKE_COMPARATOR);
+        return new Result(oldList, newList, snakes, detectMoves);
+    }
+
+    private static <M extends BaseModel> Snake diffPartial(List<M> oldList, List<M> newList,
+                                                           int startOld, int endOld, int startNew, int endNew,
+                                                           int[] forward, int[] backward, int kOffset) {
+        final int oldSize = endOld - startOld;
+        final int newSize = endNew - startNew;
+        if (oldSize < 1 || newSize < 1) {
+            return null;
+        }
+
+        final int delta = oldSize - newSize;
+        final int dLimit = (oldSize + newSize + 1) / 2;
+        Arrays.fill(forward, kOffset - dLimit - 1, kOffset + dLimit + 1, 0);
+        Arrays.fill(backward, kOffset - dLimit - 1 + delta, kOffset + dLimit + 1 + delta, oldSize);
+        final boolean checkInForward = delta % 2 != 0;
+
+        for (int d = 0; d <= dLimit; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                boolean removal;
+                if (k == -d || (k != d && forward[kOffset + k - 1] < forward[kOffset + k + 1])) {
+                    x = forward[kOffset + k + 1];
+                    removal = false;
+                } else {
+                    x = forward[kOffset + k - 1] + 1;
+                    removal = true;
+                }
+                int y = x - k;
+                while (x < oldSize && y < newSize && isSameItem(oldList.get(startOld + x), newList.get(startNew + y))) {
+                    x++;
+                    y++;
+                }
+                forward[kOffset + k] = x;
+                if (checkInForward && k >= delta - d + 1 && k <= delta + d - 1
+                        && forward[kOffset + k] >= backward[kOffset + k]) {
+                    Snake snake = new Snake();
+                    snake.x = backward[kOffset + k];
+                    snake.y = snake.x - k;
+                    snake.size = forward[kOffset + k] - backward[kOffset + k];
+                    snake.removal = removal;
+                    snake.reverse = false;
+                    return snake;
+                }
+            }
+
+            for (int k = -d; k <= d; k += 2) {
+                final int backwardK = k + delta;
+                int x;
+                boolean removal;
+                if (backwardK == d + delta || (backwardK != -d + delta
+                        && backward[kOffset + backwardK - 1] < backward[kOffset + backwardK + 1])) {
+                    x = backward[kOffset + backwardK - 1];
+                    removal = false;
+                } else {
+                    x = backward[kOffset + backwardK + 1] - 1;
+                    removal = true;
+                }
+                int y = x - backwardK;
+                while (x > 0 && y > 0 && isSameItem(oldList.get(startOld + x - 1), newList.get(startNew + y - 1))) {
+                    x--;
+                    y--;
+                }
+                backward[kOffset + backwardK] = x;
+                if (!checkInForward && k + delta >= -d && k + delta <= d
+                        && forward[kOffset + backwardK] >= backward[kOffset + backwardK]) {
+                    Snake snake = new Snake();
+                    snake.x = backward[kOffset + backwardK];
+                    snake.y = snake.x - backwardK;
+                    snake.size = forward[kOffset + backwardK] - backward[kOffset + backwardK];
+                    snake.removal = removal;
+                    snake.reverse = true;
+                    return snake;
+                }
+            }
+        }
+        throw new IllegalStateException("Inconsistent isSameItem results, the diff can not be computed.");
+    }
+
+    private static boolean isSameItem(BaseModel oldItem, BaseModel newItem) {
+        return oldItem == newItem || (oldItem != null && oldItem.isSameItem(newItem));
+    }
+
+    private static boolean isSameContent(BaseModel oldItem, BaseModel newItem) {
+        return oldItem == newItem || (oldItem != null && oldItem.isSameContent(newItem));
+    }
+
+    /**
+     * 差异计算结果
+     */
+    public static final class Result {
+
+        private final List<? extends BaseModel> mOldList;
+        private final List<? extends BaseModel> mNewList;
+        private final List<Snake> mSnakes;
+        private final int[] mOldItemStatuses;
+        private final int[] mNewItemStatuses;
+        private final boolean mDetectMoves;
+
+        Result(List<? extends BaseModel> oldList, List<? extends BaseModel> newList, List<Snake> snakes,
+               boolean detectMoves) {
+            mOldList = oldList;
+            mNewList = newList;
+            mSnakes = snakes;
+            mOldItemStatuses = new int[oldList.size()];
+            mNewItemStatuses = new int[newList.size()];
+            mDetectMoves = detectMoves;
+            addRootSnake();
+            findMatchingItems();
+        }
+
+        public int getOldSize() {
+            return mOldList.size();
+        }
+
+        public int getNewSize() {
+            return mNewList.size();
+        }
+
+        private void addRootSnake() {
+            Snake first = mSnakes.isEmpty() ? null : mSnakes.get(0);
+            if (first == null || first.x != 0 || first.y != 0) {
+                Snake root = new Snake();
+                mSnakes.add(0, root);
+            }
+        }
+
+        private void findMatchingItems() {
+            int posOld = mOldList.size();
+            int posNew = mNewList.size();
+            for (int i = mSnakes.size() - 1; i >= 0; i--) {
+                final Snake snake = mSnakes.get(i);
+                final int endX = snake.x + snake.size;
+                final int endY = snake.y + snake.size;
+                if (mDetectMoves) {
+                    while (posOld > endX) {
+                        findAddition(posOld, posNew, i);
+                        posOld--;
+                    }
+                    while (posNew > endY) {
+                        findRemoval(posOld, posNew, i);
+                        posNew--;
+                    }
+                }
+                for (int j = 0; j < snake.size; j++) {
+                    final int oldPos = snake.x + j;
+                    final int newPos = snake.y + j;
+                    final int flag = isSameContent(mOldList.get(oldPos), mNewList.get(newPos))
+                            ? FLAG_NOT_CHANGED : FLAG_CHANGED;
+                    mOldItemStatuses[oldPos] = (newPos << FLAG_OFFSET) | flag;
+                    mNewItemStatuses[newPos] = (oldPos << FLAG_OFFSET) | flag;
+                }
+                posOld = snake.x;
+                posNew = snake.y;
+            }
+        }
+
+        private void findAddition(int x, int y, int snakeIndex) {
+            if (mOldItemStatuses[x - 1] != 0) {
+                return;
+            }
+            findMatchingItem(x, y, snakeIndex, false);
+        }
+
+        private void findRemoval(int x, int y, int snakeIndex) {
+            if (mNewItemStatuses[y - 1] != 0) {
+                return;
+            }
+            findMatchingItem(x, y, snakeIndex, true);
+        }
+
+        /**
+         * 在之前的空隙里查找相同的条目. 列表里可能有重复的 id, 已经配对过的条目不能再配对,
+         * 否则两个移动会指向同一个条目, 编辑脚本会漏掉一次删除或插入
+         */
+        private boolean findMatchingItem(int x, int y, int snakeIndex, boolean removal) {
+            final int myItemPos;
+            int curX;
+            int curY;
+            if (removal) {
+                myItemPos = y - 1;
+                curX = x;
+                curY = y - 1;
+            } else {
+                myItemPos = x - 1;
+                curX = x - 1;
+                curY = y;
+            }
+            for (int i = snakeIndex; i >= 0; i--) {
+                final Snake snake = mSnakes.get(i);
+                final int endX = snake.x + snake.size;
+                final int endY = snake.y + snake.size;
+                if (removal) {
+                    for (int pos = curX - 1; pos >= endX; pos--) {
+                        if (mOldItemStatuses[pos] == 0 && isSameItem(mOldList.get(pos), mNewList.get(myItemPos))) {
+                            final int flag = isSameContent(mOldList.get(pos), mNewList.get(myItemPos))
+                                    ? FLAG_MOVED_NOT_CHANGED : FLAG_MOVED_CHANGED;
+                            mNewItemStatuses[myItemPos] = (pos << FLAG_OFFSET) | FLAG_IGNORE;
+                            mOldItemStatuses[pos] = (myItemPos << FLAG_OFFSET) | flag;
+                            return true;
+                        }
+                    }
+                } else {
+                    for (int pos = curY - 1; pos >= endY; pos--) {
+                        if (mNewItemStatuses[pos] == 0 && isSameItem(mOldList.get(myItemPos), mNewList.get(pos))) {
+                            final int flag = isSameContent(mOldList.get(myItemPos), mNewList.get(pos))
+                                    ? FLAG_MOVED_NOT_CHANGED : FLAG_MOVED_CHANGED;
+                            mOldItemStatuses[x - 1] = (pos << FLAG_OFFSET) | FLAG_IGNORE;
+                            mNewItemStatuses[pos] = ((x - 1) << FLAG_OFFSET) | flag;
+                            return true;
+                        }
+                    }
+                }
+                curX = snake.x;
+                curY = snake.y;
+            }
+            return false;
+        }
+
+        /**
+         * 按从后往前的顺序输出编辑脚本, 依次应用到旧列表后得到新列表
+         */
+        public void dispatchUpdatesTo(Callback callback) {
+            final List<PostponedUpdate> postponedUpdates = new ArrayList<>();
+            int posOld = mOldList.size();
+            int posNew = mNewList.size();
+            for (int i = mSnakes.size() - 1; i >= 0; i--) {
+                final Snake snake = mSnakes.get(i);
+                final int endX = snake.x + snake.size;
+                final int endY = snake.y + snake.size;
+                if (endX < posOld) {
+                    dispatchRemovals(postponedUpdates, callback, endX, posOld - endX, endX);
+                }
+                if (endY < posNew) {
+                    dispatchAdditions(postponedUpdates, callback, endX, posNew - endY, endY);
+                }
+                for (int j = snake.size - 1; j >= 0; j--) {
+                    if ((mOldItemStatuses[snake.x + j] & FLAG_MASK) == FLAG_CHANGED) {
+                        callback.onChanged(snake.x + j, snake.y + j);
+                    }
+                }
+                posOld = snake.x;
+                posNew = snake.y;
+            }
+        }
+
+        private void dispatchAdditions(List<PostponedUpdate> postponedUpdates, Callback callback,
+                                       int start, int count, int globalIndex) {
+            if (!mDetectMoves) {
+                for (int i = count - 1; i >= 0; i--) {
+                    callback.onInserted(start, globalIndex + i);
+                }
+                return;
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                final int status = mNewItemStatuses[globalIndex + i] & FLAG_MASK;
+                switch (status) {
+                    case 0:
+                        callback.onInserted(start, globalIndex + i);
+                        for (PostponedUpdate update : postponedUpdates) {
+                            update.currentPos += 1;
+                        }
+                        break;
+                    case FLAG_MOVED_CHANGED:
+                    case FLAG_MOVED_NOT_CHANGED:
+                        final int pos = mNewItemStatuses[globalIndex + i] >> FLAG_OFFSET;
+                        final PostponedUpdate update = removePostponedUpdate(postponedUpdates, pos, true);
+                        callback.onMoved(update.currentPos, start);
+                        if (status == FLAG_MOVED_CHANGED) {
+                            callback.onChanged(start, globalIndex + i);
+                        }
+                        break;
+                    case FLAG_IGNORE:
+                        postponedUpdates.add(new PostponedUpdate(globalIndex + i, start, false));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown flag for pos " + (globalIndex + i) + " " + status);
+                }
+            }
+        }
+
+        private void dispatchRemovals(List<PostponedUpdate> postponedUpdates, Callback callback,
+                                      int start, int count, int globalIndex) {
+            if (!mDetectMoves) {
+                for (int i = count - 1; i >= 0; i--) {
+                    callback.onRemoved(start + i);
+                }
+                return;
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                final int status = mOldItemStatuses[globalIndex + i] & FLAG_MASK;
+                switch (status) {
+                    case 0:
+                        callback.onRemoved(start + i);
+                        for (PostponedUpdate update : postponedUpdates) {
+                            update.currentPos -= 1;
+                        }
+                        break;
+                    case FLAG_MOVED_CHANGED:
+                    case FLAG_MOVED_NOT_CHANGED:
+                        final int pos = mOldItemStatuses[globalIndex + i] >> FLAG_OFFSET;
+                        final PostponedUpdate update = removePostponedUpdate(postponedUpdates, pos, false);
+                        callback.onMoved(start + i, update.currentPos - 1);
+                        if (status == FLAG_MOVED_CHANGED) {
+                            callback.onChanged(update.currentPos - 1, pos);
+                        }
+                        break;
+                    case FLAG_IGNORE:
+                        postponedUpdates.add(new PostponedUpdate(globalIndex + i, start + i, true));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown flag for pos " + (globalIndex + i) + " " + status);
+                }
+            }
+        }
+
+        private static PostponedUpdate removePostponedUpdate(List<PostponedUpdate> updates, int pos, boolean removal) {
+            for (int i = updates.size() - 1; i >= 0; i--) {
+                final PostponedUpdate update = updates.get(i);
+                if (update.posInOwnerList == pos && update.removal == removal) {
+                    updates.remove(i);
+                    for (int j = i; j < updates.size(); j++) {
+                        updates.get(j).currentPos += removal ? 1 : -1;
+                    }
+                    return update;
+                }
+            }
+            throw new IllegalStateException("Can not find postponed update for pos " + pos);
+        }
+    }
+
+    private static final class Snake {
+        int x;
+        int y;
+        int size;
+        boolean removal;
+        boolean reverse;
+    }
+
+    private static final class Range {
+        int oldStart;
+        int oldEnd;
+        int newStart;
+        int newEnd;
+
+        Range() {
+        }
+
+        Range(int oldStart, int oldEnd, int newStart, int newEnd) {
+            this.oldStart = oldStart;
+            this.oldEnd = oldEnd;
+            this.newStart = newStart;
+            this.newEnd = newEnd;
+        }
+    }
+
+    private static final class PostponedUpdate {
+        final int posInOwnerList;
+        int currentPos;
+        final boolean removal;
+
+        PostponedUpdate(int posInOwnerList, int currentPos, boolean removal) {
+            this.posInOwnerList = posInOwnerList;
+            this.currentPos = currentPos;
+            this.removal = removal;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ease.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * manual connectivity monitor
+ * 不依赖 Android 的 ConnectivityMonitor, 调用 setConnected() 模拟网络变化, 用于 JVM 上的测试
+ */
+public class ManualConnectivityMonitor implements ConnectivityMonitor {
+
+    private final List<Listener> mListeners = new ArrayList<>();
+    private boolean mConnected = true;
+
+    public void setConnected(boolean connected) {
+        if (connected == mConnected) {
+            return;
+        }
+        mConnected = connected;
+        for (Listener listener : new ArrayList<>(mListeners)) {
+            listener.onConnectivityChanged(connected);
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return mConnected;
+    }
+
+    @Override
+    public void addListener(Listener listener) {
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    public int getListenerCount() {
+        return mListeners.size();
+    }
+}
@@ -0,0 +1,46 @@
+package com.ease.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * manual frame scheduler
+ * 不依赖 Android 的 FrameScheduler, 调用 doFrame() 时才执行回调, 用于 JVM 上的测试和基准
+ */
+public class ManualFrameScheduler implements FrameScheduler {
+
+    private final List<Runnable> mCallbacks = new ArrayList<>();
+    private int mFrameCount;
+
+    @Override
+    public void postFrameCallback(Runnable callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+    }
+
+    @Override
+    public void removeFrameCallback(Runnable callback) {
+        mCallbacks.remove(callback);
+    }
+
+    /**
+     * 执行当前已提交的回调, 回调中再次提交的回调留到下一帧
+     */
+    public void doFrame() {
+        mFrameCount++;
+        List<Runnable> callbacks = new ArrayList<>(mCallbacks);
+        mCallbacks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    public int getPendingCount() {
+        return mCallbacks.size();
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+}
@@ -0,0 +1,230 @@
+package com.ease.data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * page cache
+ * 以文件形式缓存分页数据, 按列表, 页码和 limit 区分, 多个列表共用一个目录和容量上限, 超出上限时按最近最少使用淘汰.
+ * 文件的最后修改时间记录访问顺序, 重启后可以恢复 LRU 顺序. 所有方法都会访问磁盘, 不要在主线程调用
+ */
+public class PageCache {
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxSize;
+
+    /**
+     * 文件名 -> 文件大小, 按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mSize;
+    private boolean mInitialized;
+
+    public PageCache(File directory, long maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized long getSize() {
+        initializeIfNeeded();
+        return mSize;
+    }
+
+    /**
+     * 读取缓存, 不存在时返回 null
+     */
+    public synchronized byte[] get(String listKey, int page, int limit) {
+        initializeIfNeeded();
+        String name = fileName(listKey, page, limit);
+        if (!mEntries.containsKey(name)) {
+            return null;
+        }
+
+        File file = new File(mDirectory, name);
+        try {
+            byte[] bytes = readFully(file);
+            file.setLastModified(System.currentTimeMillis());
+            return bytes;
+        } catch (IOException e) {
+            removeEntry(name);
+            return null;
+        }
+    }
+
+    public synchronized void put(String listKey, int page, int limit, byte[] bytes) {
+        initializeIfNeeded();
+        if (bytes.length > mMaxSize) {
+            return;
+        }
+        String name = fileName(listKey, page, limit);
+        File tmp = new File(mDirectory, name + TMP_SUFFIX);
+        File file = new File(mDirectory, name);
+        try {
+            writeFully(tmp, bytes);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+
+        removeEntry(name);
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+        mEntries.put(name, (long) bytes.length);
+        mSize += bytes.length;
+        trimToSize();
+    }
+
+    public synchronized void remove(String listKey, int page, int limit) {
+        initializeIfNeeded();
+        removeEntry(fileName(listKey, page, limit));
+    }
+
+    /**
+     * 删除某个列表的所有分页
+     */
+    public synchronized void removeAll(String listKey) {
+        initializeIfNeeded();
+        String prefix = listPrefix(listKey);
+        List<String> names = new ArrayList<>();
+        for (String name : mEntries.keySet()) {
+            if (name.startsWith(prefix)) {
+                names.add(name);
+            }
+        }
+        for (String name : names) {
+            removeEntry(name);
+        }
+    }
+
+    public synchronized void clear() {
+        initializeIfNeeded();
+        List<String> names = new ArrayList<>(mEntries.keySet());
+        for (String name : names) {
+            removeEntry(name);
+        }
+    }
+
+    private void initializeIfNeeded() {
+        if (mInitialized) {
+            return;
+        }
+        mInitialized = true;
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            return;
+        }
+
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                long l = lhs.lastModified();
+                long r = rhs.lastModified();
+                return l < r ? -1 : (l == r ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (file.getName().endsWith(TMP_SUFFIX)) {
+                file.delete();
+                continue;
+            }
+            mEntries.put(file.getName(), file.length());
+            mSize += file.length();
+        }
+        trimToSize();
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(mDirectory, eldest.getKey()).delete();
+            mSize -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void removeEntry(String name) {
+        Long size = mEntries.remove(name);
+        if (size != null) {
+            mSize -= size;
+        }
+        new File(mDirectory, name).delete();
+    }
+
+    private static String fileName(String listKey, int page, int limit) {
+        return listPrefix(listKey) + page + "-" + limit;
+    }
+
+    private static String listPrefix(String listKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] hash = digest.digest(listKey.getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder(hash.length * 2 + 1);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+                builder.append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.append('-').toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of " + file);
+                }
+                read += count;
+            }
+            return bytes;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeFully(File file, byte[] bytes) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+}
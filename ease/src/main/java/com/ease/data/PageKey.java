@@ -0,0 +1,103 @@
+package com.ease.data;
+
+/**
+ * page key
+ * 分页参数: 偏移量, 页码或者服务器返回的不透明游标 (例如 Link header 中的下一页地址).
+ * DataController.getRequestKey() 给出本次请求应使用的值
+ */
+public final class PageKey {
+
+    public enum TYPE {
+        OFFSET, PAGE, CURSOR
+    }
+
+    private final TYPE mType;
+    private final int mValue;
+    private final String mCursor;
+
+    private PageKey(TYPE type, int value, String cursor) {
+        mType = type;
+        mValue = value;
+        mCursor = cursor;
+    }
+
+    public static PageKey offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset < 0");
+        }
+        return new PageKey(TYPE.OFFSET, offset, null);
+    }
+
+    public static PageKey page(int page) {
+        return new PageKey(TYPE.PAGE, page, null);
+    }
+
+    public static PageKey cursor(String cursor) {
+        if (cursor == null) {
+            throw new IllegalArgumentException("cursor is null");
+        }
+        return new PageKey(TYPE.CURSOR, 0, cursor);
+    }
+
+    public TYPE getType() {
+        return mType;
+    }
+
+    public int getOffset() {
+        checkType(TYPE.OFFSET);
+        return mValue;
+    }
+
+    public int getPage() {
+        checkType(TYPE.PAGE);
+        return mValue;
+    }
+
+    public String getCursor() {
+        checkType(TYPE.CURSOR);
+        return mCursor;
+    }
+
+    /**
+     * 服务器没有给出下一页时推算: 偏移量加上本页条目数, 页码加一; 游标无法推算, 返回 null 表示没有更多
+     */
+    public PageKey next(int count) {
+        switch (mType) {
+            case OFFSET:
+                return offset(mValue + count);
+            case PAGE:
+                return page(mValue + 1);
+            default:
+                return null;
+        }
+    }
+
+    private void checkType(TYPE type) {
+        if (mType != type) {
+            throw new IllegalStateException("Not a " + type + " key: " + this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageKey)) {
+            return false;
+        }
+        PageKey other = (PageKey) o;
+        return mType == other.mType && mValue == other.mValue
+                && (mCursor == null ? other.mCursor == null : mCursor.equals(other.mCursor));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * mType.hashCode() + mValue) + (mCursor == null ? 0 : mCursor.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "PageKey{" + mType + "=" + (mType == TYPE.CURSOR ? mCursor : String.valueOf(mValue)) + "}";
+    }
+}
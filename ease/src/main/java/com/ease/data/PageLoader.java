@@ -0,0 +1,22 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * page loader
+ * 重新获取 PagedList 中被丢弃的页, 可以请求网络也可以读取本地缓存
+ */
+public interface PageLoader<M extends BaseModel> {
+
+    /**
+     * 返回的数据会再经过 DataController 的处理步骤
+     *
+     * @param page  这一页是第几次请求得到的, 即请求时的 DataController.getRequestPage(), 首页为 0
+     * @param limit 请求时的 DataController.getLimit()
+     */
+    Observable<List<M>> loadPage(int page, int limit);
+}
@@ -0,0 +1,37 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * page result
+ * do* 方法返回的一页数据, 同时带回下一页的分页参数, 例如从 Link header 解析出的游标.
+ * nextKey 为 null 表示已经是最后一页. 只读
+ */
+public final class PageResult<M extends BaseModel> extends AbstractList<M> implements RandomAccess {
+
+    private final List<M> mItems;
+    private final PageKey mNextKey;
+
+    public PageResult(List<M> items, PageKey nextKey) {
+        mItems = items;
+        mNextKey = nextKey;
+    }
+
+    public PageKey getNextKey() {
+        return mNextKey;
+    }
+
+    @Override
+    public M get(int location) {
+        return mItems.get(location);
+    }
+
+    @Override
+    public int size() {
+        return mItems.size();
+    }
+}
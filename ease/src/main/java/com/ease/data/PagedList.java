@@ -0,0 +1,377 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * paged list
+ * 按页保存数据的 List, 只保留最近显示的页附近 windowRadius 页, 更远的页丢弃为占位, get 返回 null.
+ * touch 的页变化时通过 Callback 请求窗口内缺失的页, 重新获取后调用 fillPage 填回.
+ * 每页记录它来自第几次请求以及请求时的 limit, 重新获取时按原样请求: startPage 之后追加的条目属于同一页,
+ * 不按 pageSize 拆分 (处理步骤可能改变条目数); 其余情况下追加满 pageSize 后新建一页, 视为下一次请求.
+ * 丢弃的页不能修改, 只能在末尾追加或整体清空. 只在主线程使用
+ */
+public class PagedList<M extends BaseModel> extends AbstractList<M> implements RandomAccess {
+
+    public interface Callback {
+
+        /**
+         * 窗口内的页缺失, 同一页在窗口移动之前只请求一次
+         */
+        void onPageMissing(int page);
+    }
+
+    private static final class Page<M> {
+        /**
+         * 丢弃后为 null
+         */
+        ArrayList<M> items;
+        int size;
+        boolean requested;
+        /**
+         * 第几次请求得到的 (首页为 0) 和请求时的 limit; fixed 的页由 startPage 开始, 不按 pageSize 拆分
+         */
+        final int request;
+        final int limit;
+        final boolean fixed;
+
+        Page(ArrayList<M> items, int size, int request, int limit, boolean fixed) {
+            this.items = items;
+            this.size = size;
+            this.request = request;
+            this.limit = limit;
+            this.fixed = fixed;
+        }
+    }
+
+    private final int mPageSize;
+    private final int mWindowRadius;
+    private final ArrayList<Page<M>> mPages = new ArrayList<>();
+    private Callback mCallback;
+
+    private int mSize;
+
+    /**
+     * mStarts[i] 为第 i 页的起始下标
+     */
+    private int[] mStarts = new int[16];
+    private boolean mStartsDirty;
+
+    private int mCenterPage = -1;
+
+    /**
+     * startPage 指定的下一页, 下一次追加时使用; 没有时为 -1
+     */
+    private int mNextRequest = -1;
+    private int mNextLimit;
+
+    /**
+     * @param pageSize     每页的条目数, 通常与 DataController.getLimit() 一致
+     * @param windowRadius 保留访问页前后各多少页
+     */
+    public PagedList(int pageSize, int windowRadius) {
+        if (pageSize <= 0 || windowRadius < 0) {
+            throw new IllegalArgumentException("Invalid page size " + pageSize + " or window radius " + windowRadius);
+        }
+        mPageSize = pageSize;
+        mWindowRadius = windowRadius;
+    }
+
+    /**
+     * 复制页表和驻留的页, 用于批量修改
+     */
+    public PagedList(PagedList<M> other) {
+        this(other.mPageSize, other.mWindowRadius);
+        for (int i = 0, size = other.mPages.size(); i < size; i++) {
+            Page<M> page = other.mPages.get(i);
+            mPages.add(new Page<>(page.items == null ? null : new ArrayList<>(page.items), page.size,
+                    page.request, page.limit, page.fixed));
+        }
+        mSize = other.mSize;
+        mCenterPage = other.mCenterPage;
+        mNextRequest = other.mNextRequest;
+        mNextLimit = other.mNextLimit;
+        mCallback = other.mCallback;
+        mStartsDirty = true;
+    }
+
+    public void setCallback(Callback callback) {
+        mCallback = callback;
+    }
+
+    public int getPageSize() {
+        return mPageSize;
+    }
+
+    public int getWindowRadius() {
+        return mWindowRadius;
+    }
+
+    public int getPageCount() {
+        return mPages.size();
+    }
+
+    public int getPageStart(int page) {
+        return getStarts()[page];
+    }
+
+    public int getPageItemCount(int page) {
+        return mPages.get(page).size;
+    }
+
+    /**
+     * 这一页是第几次请求得到的, 首页为 0
+     */
+    public int getPageRequest(int page) {
+        return mPages.get(page).request;
+    }
+
+    /**
+     * 得到这一页的请求的 limit
+     */
+    public int getPageLimit(int page) {
+        return mPages.get(page).limit;
+    }
+
+    /**
+     * 之后追加的条目放在新的一页, 直到下一次 startPage, 用于一次请求的结果
+     *
+     * @param request 第几次请求, 首页为 0
+     * @param limit   请求时的 limit
+     */
+    public void startPage(int request, int limit) {
+        mNextRequest = request;
+        mNextLimit = limit;
+    }
+
+    public boolean isResident(int page) {
+        return mPages.get(page).items != null;
+    }
+
+    public int getResidentPageCount() {
+        int count = 0;
+        for (int i = 0, size = mPages.size(); i < size; i++) {
+            if (mPages.get(i).items != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 结构修改次数, 请求缺失的页之后如果发生变化, 返回的数据已经对不上位置
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * 下标所在的页, 二分查找
+     */
+    public int getPageIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+        int[] starts = getStarts();
+        int low = 0;
+        int high = mPages.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int[] getStarts() {
+        if (mStartsDirty) {
+            int size = mPages.size();
+            if (mStarts.length < size) {
+                mStarts = new int[Math.max(size, mStarts.length * 2)];
+            }
+            int start = 0;
+            for (int i = 0; i < size; i++) {
+                mStarts[i] = start;
+                start += mPages.get(i).size;
+            }
+            mStartsDirty = false;
+        }
+        return mStarts;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 丢弃的页中的条目返回 null, 不会移动窗口, 遍历整个列表不会触发重新获取
+     */
+    @Override
+    public M get(int index) {
+        int page = getPageIndex(index);
+        ArrayList<M> items = mPages.get(page).items;
+        return items == null ? null : items.get(index - mStarts[page]);
+    }
+
+    /**
+     * 条目被显示时调用, 以它所在的页为中心移动窗口, 丢弃窗口外的页并请求窗口内缺失的页
+     */
+    public void touch(int index) {
+        int page = getPageIndex(index);
+        moveWindow(page);
+        requestPage(page);
+    }
+
+    @Override
+    public M set(int index, M element) {
+        int page = getPageIndex(index);
+        return residentItems(page).set(index - mStarts[page], element);
+    }
+
+    @Override
+    public void add(int index, M element) {
+        if (index == mSize) {
+            append(element);
+            return;
+        }
+        int page = getPageIndex(index);
+        Page<M> p = mPages.get(page);
+        residentItems(page).add(index - mStarts[page], element);
+        p.size++;
+        mSize++;
+        modCount++;
+        mStartsDirty = true;
+    }
+
+    /**
+     * 追加到最后一页; startPage 之后, 最后一页已丢弃或者已满 (startPage 开始的页不会满) 时新建一页
+     */
+    private void append(M element) {
+        int last = mPages.size() - 1;
+        Page<M> p = last < 0 ? null : mPages.get(last);
+        boolean started = mNextRequest >= 0;
+        if (p == null || p.items == null || started || (!p.fixed && p.size >= mPageSize)) {
+            int start = mSize;
+            if (started) {
+                p = new Page<>(new ArrayList<M>(mPageSize), 0, mNextRequest, mNextLimit, true);
+                mNextRequest = -1;
+            } else {
+                p = new Page<>(new ArrayList<M>(mPageSize), 0, p == null ? 0 : p.request + 1, mPageSize, false);
+            }
+            mPages.add(p);
+            if (!mStartsDirty) {
+                if (mStarts.length < mPages.size()) {
+                    int[] starts = new int[mStarts.length * 2];
+                    System.arraycopy(mStarts, 0, starts, 0, mStarts.length);
+                    mStarts = starts;
+                }
+                mStarts[mPages.size() - 1] = start;
+            }
+        }
+        p.items.add(element);
+        p.size++;
+        mSize++;
+        modCount++;
+    }
+
+    @Override
+    public M remove(int index) {
+        int page = getPageIndex(index);
+        Page<M> p = mPages.get(page);
+        M removed = residentItems(page).remove(index - mStarts[page]);
+        if (--p.size == 0) {
+            mPages.remove(page);
+            if (mCenterPage > page) {
+                mCenterPage--;
+            }
+        }
+        mSize--;
+        modCount++;
+        mStartsDirty = true;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (mSize == 0 && mPages.isEmpty()) {
+            return;
+        }
+        mPages.clear();
+        mSize = 0;
+        mCenterPage = -1;
+        modCount++;
+        mStartsDirty = true;
+    }
+
+    private ArrayList<M> residentItems(int page) {
+        ArrayList<M> items = mPages.get(page).items;
+        if (items == null) {
+            throw new IllegalStateException("Page " + page + " is not resident.");
+        }
+        return items;
+    }
+
+    /**
+     * 填回重新获取的页, 返回原来的条目数; 个数不同时页的大小随之变化
+     */
+    public int fillPage(int page, List<M> items) {
+        Page<M> p = mPages.get(page);
+        int oldSize = p.size;
+        p.items = new ArrayList<>(items);
+        p.size = items.size();
+        p.requested = false;
+        if (oldSize != p.size) {
+            mSize += p.size - oldSize;
+            modCount++;
+            mStartsDirty = true;
+            if (p.size == 0) {
+                mPages.remove(page);
+            }
+        }
+        return oldSize;
+    }
+
+    /**
+     * 重新获取失败, 之后窗口移动时再次请求
+     */
+    public void onPageFailed(int page) {
+        if (page < mPages.size()) {
+            mPages.get(page).requested = false;
+        }
+    }
+
+    private void moveWindow(int page) {
+        if (page == mCenterPage) {
+            return;
+        }
+        mCenterPage = page;
+        int from = page - mWindowRadius;
+        int to = page + mWindowRadius;
+        for (int i = 0, size = mPages.size(); i < size; i++) {
+            Page<M> p = mPages.get(i);
+            if (i < from || i > to) {
+                p.items = null;
+                p.requested = false;
+            } else if (p.items == null) {
+                requestPage(i);
+            }
+        }
+    }
+
+    private void requestPage(int page) {
+        Page<M> p = mPages.get(page);
+        if (p.items != null || p.requested || mCallback == null) {
+            return;
+        }
+        p.requested = true;
+        mCallback.onPageMissing(page);
+    }
+}
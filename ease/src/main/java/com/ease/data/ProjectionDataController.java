@@ -0,0 +1,406 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * projection data controller
+ * parent 的只读投影: 只显示 filter 接受的条目, 按 comparator 排序 (为 null 时保持 parent 的顺序),
+ * 多个投影共用 parent 一次请求得到的数据. 每个投影只保存显示的条目在 parent 中的位置, 每个条目一个 int.
+ * parent 的变化增量应用: 删除直接去掉对应的行, 新增和修改的条目在下一帧判断后二分插入, 相邻的行合并为一次变化.
+ * 排序相同的条目按 parent 中的顺序排列. 设置了 filter 或 comparator 时不显示 null 条目 (分页窗口的占位)
+ */
+public class ProjectionDataController<M extends BaseModel> extends DerivedDataController<M> {
+
+    public interface Filter<M> {
+        boolean accept(M model);
+    }
+
+    private Filter<? super M> mFilter;
+    private Comparator<? super M> mComparator;
+
+    /**
+     * 显示的条目在 parent 中的位置, 按显示顺序
+     */
+    private int[] mRows = new int[16];
+    private int mRowCount;
+
+    /**
+     * 需要在下一帧重新判断的 parent 位置, 递增: 新增, 修改以及排序时移动过的条目
+     */
+    private int[] mPending = new int[16];
+    private int mPendingCount;
+
+    public ProjectionDataController(DataController<M> parent, Filter<? super M> filter,
+                                    Comparator<? super M> comparator) {
+        super(parent);
+        mFilter = filter;
+        mComparator = comparator;
+    }
+
+    /**
+     * 修改后重新计算全部条目
+     */
+    public void setFilter(Filter<? super M> filter) {
+        mFilter = filter;
+        if (isAttached()) {
+            onParentReset();
+        }
+    }
+
+    public void setComparator(Comparator<? super M> comparator) {
+        mComparator = comparator;
+        if (isAttached()) {
+            onParentReset();
+        }
+    }
+
+    public Filter<? super M> getFilter() {
+        return mFilter;
+    }
+
+    public Comparator<? super M> getComparator() {
+        return mComparator;
+    }
+
+    /**
+     * 第 row 行在 parent 中的位置, 例如把点击转换为对 parent 的修改
+     */
+    public int getParentPosition(int row) {
+        if (row < 0 || row >= mRowCount) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + mRowCount);
+        }
+        return mRows[row];
+    }
+
+    @Override
+    protected void onParentReset() {
+        clearRows();
+        mRowCount = 0;
+        int size = getParent().getData().size();
+        mPending = new int[Math.max(16, size)];
+        for (int i = 0; i < size; i++) {
+            mPending[i] = i;
+        }
+        mPendingCount = size;
+        onParentSettled();
+    }
+
+    @Override
+    protected void onParentInserted(int position, int count) {
+        for (int i = 0; i < mRowCount; i++) {
+            if (mRows[i] >= position) {
+                mRows[i] += count;
+            }
+        }
+        int start = lowerBound(mPending, mPendingCount, position);
+        for (int i = start; i < mPendingCount; i++) {
+            mPending[i] += count;
+        }
+        mPending = insertGap(mPending, mPendingCount, start, count);
+        for (int i = 0; i < count; i++) {
+            mPending[start + i] = position + i;
+        }
+        mPendingCount += count;
+    }
+
+    @Override
+    protected void onParentRemoved(int position, int count) {
+        int end = position + count;
+        int kept = 0;
+        int removed = 0;
+        int runStart = -1;
+        for (int i = 0; i < mRowCount; i++) {
+            int p = mRows[i];
+            if (p >= position && p < end) {
+                if (runStart < 0) {
+                    runStart = i - removed;
+                }
+                continue;
+            }
+            if (runStart >= 0) {
+                int runCount = i - removed - runStart;
+                removeRows(runStart, runCount);
+                removed += runCount;
+                runStart = -1;
+            }
+            mRows[kept++] = p >= end ? p - count : p;
+        }
+        if (runStart >= 0) {
+            removeRows(runStart, mRowCount - removed - runStart);
+        }
+        mRowCount = kept;
+
+        kept = 0;
+        for (int i = 0; i < mPendingCount; i++) {
+            int p = mPending[i];
+            if (p < position || p >= end) {
+                mPending[kept++] = p >= end ? p - count : p;
+            }
+        }
+        mPendingCount = kept;
+    }
+
+    @Override
+    protected void onParentMoved(int fromPosition, int toPosition) {
+        int row = -1;
+        for (int i = 0; i < mRowCount; i++) {
+            if (mRows[i] == fromPosition) {
+                row = i;
+            }
+            mRows[i] = moved(mRows[i], fromPosition, toPosition);
+        }
+        for (int i = 0; i < mPendingCount; i++) {
+            mPending[i] = moved(mPending[i], fromPosition, toPosition);
+        }
+        Arrays.sort(mPending, 0, mPendingCount);
+        if (row < 0) {
+            return;
+        }
+        if (mComparator != null) {
+            // 排序只在相同的条目之间受 parent 顺序影响, 下一帧与相邻的行比较后决定是否移动
+            addPending(toPosition);
+            return;
+        }
+        // 按 parent 顺序显示时直接移动到对应的行
+        System.arraycopy(mRows, row + 1, mRows, row, mRowCount - row - 1);
+        mRowCount--;
+        int newRow = lowerBound(mRows, mRowCount, toPosition);
+        mRows = insertGap(mRows, mRowCount, newRow, 1);
+        mRows[newRow] = toPosition;
+        mRowCount++;
+        if (newRow != row) {
+            moveRow(row, newRow);
+        }
+    }
+
+    @Override
+    protected void onParentChanged(int position, int count) {
+        for (int i = 0; i < count; i++) {
+            addPending(position + i);
+        }
+    }
+
+    /**
+     * 重新判断等待中的条目: 仍然显示并且与相邻的行顺序不变的原地更新, 其余的删除后与新增的条目一起二分插入
+     */
+    @Override
+    protected void onParentSettled() {
+        if (mPendingCount == 0) {
+            return;
+        }
+        List<M> data = getParent().getData();
+        int[] pending = mPending;
+        int pendingCount = mPendingCount;
+        mPending = new int[16];
+        mPendingCount = 0;
+
+        // 等待中的条目当前所在的行
+        int[] pendingRows = new int[pendingCount];
+        Arrays.fill(pendingRows, -1);
+        for (int i = 0; i < mRowCount; i++) {
+            int k = Arrays.binarySearch(pending, 0, pendingCount, mRows[i]);
+            if (k >= 0) {
+                pendingRows[k] = i;
+            }
+        }
+
+        boolean[] removedRows = null;
+        List<Integer> candidates = new ArrayList<>();
+        for (int k = 0; k < pendingCount; k++) {
+            int p = pending[k];
+            int row = pendingRows[k];
+            boolean accepted = accept(data.get(p));
+            if (row < 0) {
+                if (accepted) {
+                    candidates.add(p);
+                }
+                continue;
+            }
+            if (accepted && isInOrder(data, row, pending, pendingCount)) {
+                updateRow(row, data.get(p));
+                continue;
+            }
+            if (removedRows == null) {
+                removedRows = new boolean[mRowCount];
+            }
+            removedRows[row] = true;
+            if (accepted) {
+                candidates.add(p);
+            }
+        }
+        if (removedRows != null) {
+            removeRows(removedRows);
+        }
+        if (!candidates.isEmpty()) {
+            insertSorted(data, candidates);
+        }
+    }
+
+    private boolean accept(M item) {
+        if (item == null) {
+            return mFilter == null && mComparator == null;
+        }
+        return mFilter == null || mFilter.accept(item);
+    }
+
+    /**
+     * 与不在等待中的相邻行比较, 相邻的行也在等待中时无法判断, 视为顺序改变
+     */
+    private boolean isInOrder(List<M> data, int row, int[] pending, int pendingCount) {
+        if (mComparator == null) {
+            return true;
+        }
+        int p = mRows[row];
+        if (row > 0) {
+            int previous = mRows[row - 1];
+            if (Arrays.binarySearch(pending, 0, pendingCount, previous) >= 0 || compare(data, previous, p) > 0) {
+                return false;
+            }
+        }
+        if (row < mRowCount - 1) {
+            int next = mRows[row + 1];
+            if (Arrays.binarySearch(pending, 0, pendingCount, next) >= 0 || compare(data, p, next) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 删除标记的行, 连续的行合并为一次变化
+     */
+    private void removeRows(boolean[] removedRows) {
+        int kept = 0;
+        int removed = 0;
+        int runStart = -1;
+        for (int i = 0; i < mRowCount; i++) {
+            if (removedRows[i]) {
+                if (runStart < 0) {
+                    runStart = i - removed;
+                }
+                continue;
+            }
+            if (runStart >= 0) {
+                int runCount = i - removed - runStart;
+                removeRows(runStart, runCount);
+                removed += runCount;
+                runStart = -1;
+            }
+            mRows[kept++] = mRows[i];
+        }
+        if (runStart >= 0) {
+            removeRows(runStart, mRowCount - removed - runStart);
+        }
+        mRowCount = kept;
+    }
+
+    /**
+     * 候选条目排序后依次在已有的行中二分查找插入位置, 插入到同一位置的条目合并为一次变化
+     */
+    private void insertSorted(final List<M> data, List<Integer> candidates) {
+        Collections.sort(candidates, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return ProjectionDataController.this.compare(data, lhs, rhs);
+            }
+        });
+        int count = candidates.size();
+        int[] insertAt = new int[count];
+        int low = 0;
+        for (int j = 0; j < count; j++) {
+            int p = candidates.get(j);
+            int high = mRowCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(data, mRows[mid], p) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            insertAt[j] = low;
+        }
+
+        int[] rows = new int[Math.max(16, mRowCount + count)];
+        int i = 0;
+        int out = 0;
+        int j = 0;
+        while (j < count) {
+            int index = insertAt[j];
+            while (i < index) {
+                rows[out++] = mRows[i++];
+            }
+            int runStart = out;
+            List<M> run = new ArrayList<>();
+            while (j < count && insertAt[j] == index) {
+                int p = candidates.get(j++);
+                rows[out++] = p;
+                run.add(data.get(p));
+            }
+            insertRows(runStart, run);
+        }
+        while (i < mRowCount) {
+            rows[out++] = mRows[i++];
+        }
+        mRows = rows;
+        mRowCount = out;
+    }
+
+    /**
+     * 按 comparator 比较, 相同时按 parent 中的位置
+     */
+    private int compare(List<M> data, int lhs, int rhs) {
+        if (mComparator != null) {
+            int result = mComparator.compare(data.get(lhs), data.get(rhs));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return lhs < rhs ? -1 : (lhs == rhs ? 0 : 1);
+    }
+
+    private void addPending(int position) {
+        int index = Arrays.binarySearch(mPending, 0, mPendingCount, position);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        mPending = insertGap(mPending, mPendingCount, index, 1);
+        mPending[index] = position;
+        mPendingCount++;
+    }
+
+    private static int moved(int position, int fromPosition, int toPosition) {
+        if (position == fromPosition) {
+            return toPosition;
+        }
+        if (fromPosition < toPosition && position > fromPosition && position <= toPosition) {
+            return position - 1;
+        }
+        if (toPosition < fromPosition && position >= toPosition && position < fromPosition) {
+            return position + 1;
+        }
+        return position;
+    }
+
+    private static int lowerBound(int[] array, int size, int value) {
+        int index = Arrays.binarySearch(array, 0, size, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int[] insertGap(int[] array, int size, int index, int count) {
+        int[] target = array;
+        if (size + count > array.length) {
+            target = new int[Math.max(size + count, array.length * 2)];
+            System.arraycopy(array, 0, target, 0, index);
+        }
+        System.arraycopy(array, index, target, index + count, size - index);
+        return target;
+    }
+}
@@ -0,0 +1,193 @@
+package com.ease.data;
+
+import com.squareup.okhttp.Headers;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import retrofit.HttpException;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+
+/**
+ * retry policy
+ * 请求失败后按指数退避重试, 延迟加入随机抖动, 避免大量客户端同时重试.
+ * 可以重试的错误: IOException, HTTP 5xx, 429, 以及 GitHub 超出频率限制 (X-RateLimit-Remaining 为 0
+ * 或者带有 Retry-After 的次级限制) 的 403; 服务器给出 Retry-After (秒数或 HTTP 日期) 或 X-RateLimit-Reset
+ * 时等待到指定时间. 时间来自传入的 Scheduler, 测试时可以使用 TestScheduler 控制虚拟时间.
+ * DataController 默认不重试, 通过 setRetryPolicy 开启
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY = 1000;
+    public static final long DEFAULT_MAX_DELAY = 30 * 1000;
+    public static final float DEFAULT_JITTER = 0.5f;
+
+    /**
+     * 服务器要求等待超过这个时间时不再重试; GitHub 的频率限制每小时重置
+     */
+    public static final long DEFAULT_MAX_SERVER_DELAY = 60 * 60 * 1000;
+
+    /**
+     * X-RateLimit-Reset 以秒为单位, 再多等一秒抵消时钟误差
+     */
+    private static final long RATE_LIMIT_MARGIN = 1000;
+
+    private final int mMaxRetries;
+    private final long mBaseDelay;
+    private final long mMaxDelay;
+    private final float mJitter;
+    private long mMaxServerDelay = DEFAULT_MAX_SERVER_DELAY;
+    private Random mRandom = new Random();
+
+    protected RetryPolicy(int maxRetries, long baseDelay, long maxDelay, float jitter) {
+        if (maxRetries < 0 || baseDelay < 0 || maxDelay < baseDelay || jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Invalid retry policy: " + maxRetries + ", " + baseDelay + ", "
+                    + maxDelay + ", " + jitter);
+        }
+        mMaxRetries = maxRetries;
+        mBaseDelay = baseDelay;
+        mMaxDelay = maxDelay;
+        mJitter = jitter;
+    }
+
+    public static RetryPolicy none() {
+        return new RetryPolicy(0, 0, 0, 0);
+    }
+
+    public static RetryPolicy exponential() {
+        return exponential(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, DEFAULT_JITTER);
+    }
+
+    /**
+     * 第 n 次重试 (从 0 开始) 的延迟为 min(maxDelay, baseDelay * 2^n), 其中 jitter 比例的部分随机
+     */
+    public static RetryPolicy exponential(int maxRetries, long baseDelay, long maxDelay, float jitter) {
+        return new RetryPolicy(maxRetries, baseDelay, maxDelay, jitter);
+    }
+
+    public RetryPolicy setMaxServerDelay(long maxServerDelay) {
+        mMaxServerDelay = maxServerDelay;
+        return this;
+    }
+
+    /**
+     * 测试时传入固定种子的 Random
+     */
+    public RetryPolicy setRandom(Random random) {
+        mRandom = random;
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return mMaxRetries;
+    }
+
+    /**
+     * 第 attempt 次重试前的等待时间, 单位毫秒; 不应该重试时返回 -1
+     */
+    public long getRetryDelay(int attempt, Throwable error, long now) {
+        if (attempt >= mMaxRetries || !isRetryable(error)) {
+            return -1;
+        }
+
+        long serverDelay = getServerDelay(error, now);
+        if (serverDelay >= 0) {
+            return serverDelay <= mMaxServerDelay ? serverDelay : -1;
+        }
+
+        long delay = mBaseDelay << Math.min(attempt, 30);
+        if (delay <= 0 || delay > mMaxDelay) {
+            delay = mMaxDelay;
+        }
+        long random = (long) (delay * mJitter);
+        return delay - random + (random > 0 ? (long) (mRandom.nextDouble() * random) : 0);
+    }
+
+    /**
+     * 是否可以重试, 子类可以扩展分类
+     */
+    public boolean isRetryable(Throwable error) {
+        if (error instanceof IOException) {
+            return true;
+        }
+        if (error instanceof HttpException) {
+            int code = ((HttpException) error).code();
+            if (code == 403) {
+                Headers headers = headers(error);
+                return isRateLimited(headers) || (headers != null && headers.get("Retry-After") != null);
+            }
+            return code >= 500 || code == 429;
+        }
+        return false;
+    }
+
+    /**
+     * 服务器要求的等待时间, 没有要求或者无法解析时返回 -1; now 为当前的 epoch 毫秒
+     */
+    protected long getServerDelay(Throwable error, long now) {
+        Headers headers = headers(error);
+        if (headers == null) {
+            return -1;
+        }
+        String retryAfter = headers.get("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                Date date = headers.getDate("Retry-After");
+                if (date != null) {
+                    return Math.max(0, date.getTime() - now);
+                }
+            }
+        }
+        String reset = headers.get("X-RateLimit-Reset");
+        if (reset != null && isRateLimited(headers)) {
+            try {
+                return Math.max(0, Long.parseLong(reset.trim()) * 1000 - now) + RATE_LIMIT_MARGIN;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isRateLimited(Headers headers) {
+        return headers != null && "0".equals(headers.get("X-RateLimit-Remaining"));
+    }
+
+    private static Headers headers(Throwable error) {
+        if (!(error instanceof HttpException)) {
+            return null;
+        }
+        retrofit.Response<?> response = ((HttpException) error).response();
+        return response == null ? null : response.headers();
+    }
+
+    /**
+     * 用于 Observable.retryWhen, 按本策略延迟后重新订阅, 不再重试时发出原来的错误
+     */
+    public Func1<Observable<? extends Throwable>, Observable<?>> toRetryFunction(final Scheduler scheduler) {
+        return new Func1<Observable<? extends Throwable>, Observable<?>>() {
+            @Override
+            public Observable<?> call(Observable<? extends Throwable> errors) {
+                return errors.flatMap(new Func1<Throwable, Observable<?>>() {
+                    private int mAttempt;
+
+                    @Override
+                    public Observable<?> call(Throwable error) {
+                        long delay = getRetryDelay(mAttempt++, error, scheduler.now());
+                        if (delay < 0) {
+                            return Observable.error(error);
+                        }
+                        return Observable.timer(delay, TimeUnit.MILLISECONDS, scheduler);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,200 @@
+package com.ease.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * sqlite sync store
+ * 基于系统 SQLite 的 SyncStore, 所有列表共用两张表. 开启 WAL, 后台同步写入时不阻塞读取.
+ * 一个数据库文件只应该创建一个实例, 在 Application 中保存
+ */
+public class SQLiteSyncStore extends SQLiteOpenHelper implements SyncStore {
+
+    private static final int DATABASE_VERSION = 1;
+
+    static final String TABLE_ITEMS = "sync_items";
+    static final String TABLE_STATE = "sync_state";
+
+    static final String CREATE_ITEMS = "CREATE TABLE " + TABLE_ITEMS + " ("
+            + "list_key TEXT NOT NULL, "
+            + "item_id INTEGER NOT NULL, "
+            + "sort_key INTEGER NOT NULL, "
+            + "data BLOB NOT NULL, "
+            + "PRIMARY KEY (list_key, item_id))";
+
+    static final String CREATE_ITEMS_ORDER = "CREATE INDEX " + TABLE_ITEMS + "_order ON " + TABLE_ITEMS
+            + " (list_key, sort_key DESC, item_id DESC)";
+
+    static final String CREATE_STATE = "CREATE TABLE " + TABLE_STATE + " ("
+            + "list_key TEXT PRIMARY KEY, "
+            + "high_water INTEGER NOT NULL, "
+            + "synced_at INTEGER NOT NULL, "
+            + "backfill_type TEXT, "
+            + "backfill_value INTEGER NOT NULL DEFAULT 0, "
+            + "backfill_cursor TEXT)";
+
+    /**
+     * sort_key &lt;= ? 可以直接使用索引做范围扫描, 再排除相同 sort_key 中 item_id 不小于上一条的条目
+     */
+    static final String QUERY_PAGE = "SELECT data FROM " + TABLE_ITEMS
+            + " WHERE list_key = ? AND sort_key <= ? AND (sort_key < ? OR item_id < ?)"
+            + " ORDER BY sort_key DESC, item_id DESC LIMIT ";
+
+    static final String INSERT_ITEM = "INSERT OR REPLACE INTO " + TABLE_ITEMS
+            + " (list_key, item_id, sort_key, data) VALUES (?, ?, ?, ?)";
+
+    static final String QUERY_STATE = "SELECT high_water, synced_at, backfill_type, backfill_value, backfill_cursor FROM "
+            + TABLE_STATE + " WHERE list_key = ?";
+
+    public SQLiteSyncStore(Context context, String name) {
+        super(context.getApplicationContext(), name, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(CREATE_ITEMS);
+        db.execSQL(CREATE_ITEMS_ORDER);
+        db.execSQL(CREATE_STATE);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // 只是本地副本, 升级时丢弃后重新同步
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_ITEMS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_STATE);
+        onCreate(db);
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!db.isReadOnly()) {
+            db.enableWriteAheadLogging();
+        }
+    }
+
+    @Override
+    public List<byte[]> query(String listKey, long beforeSortKey, long beforeId, int limit) {
+        String sortKey = String.valueOf(beforeSortKey);
+        Cursor cursor = getReadableDatabase().rawQuery(QUERY_PAGE + limit,
+                new String[]{listKey, sortKey, sortKey, String.valueOf(beforeId)});
+        try {
+            List<byte[]> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                rows.add(cursor.getBlob(0));
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public void apply(String listKey, List<Row> rows, long trimBelow, SyncState state) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            if (trimBelow != NO_TRIM) {
+                db.delete(TABLE_ITEMS, "list_key = ? AND sort_key < ?",
+                        new String[]{listKey, String.valueOf(trimBelow)});
+            }
+            if (!rows.isEmpty()) {
+                SQLiteStatement insert = db.compileStatement(INSERT_ITEM);
+                try {
+                    for (Row row : rows) {
+                        insert.bindString(1, listKey);
+                        insert.bindLong(2, row.itemId);
+                        insert.bindLong(3, row.sortKey);
+                        insert.bindBlob(4, row.data);
+                        insert.executeInsert();
+                    }
+                } finally {
+                    insert.close();
+                }
+            }
+            if (state != null) {
+                db.insertWithOnConflict(TABLE_STATE, null, toValues(listKey, state), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @Override
+    public SyncState getState(String listKey) {
+        Cursor cursor = getReadableDatabase().rawQuery(QUERY_STATE, new String[]{listKey});
+        try {
+            if (!cursor.moveToFirst()) {
+                return SyncState.EMPTY;
+            }
+            PageKey backfillKey = cursor.isNull(2) ? null
+                    : toPageKey(cursor.getString(2), cursor.getInt(3), cursor.getString(4));
+            return new SyncState(cursor.getLong(0), cursor.getLong(1), backfillKey);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public void clear(String listKey) {
+        SQLiteDatabase db = getWritableDatabase();
+        String[] args = new String[]{listKey};
+        db.beginTransactionNonExclusive();
+        try {
+            db.delete(TABLE_ITEMS, "list_key = ?", args);
+            db.delete(TABLE_STATE, "list_key = ?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static ContentValues toValues(String listKey, SyncState state) {
+        ContentValues values = new ContentValues();
+        values.put("list_key", listKey);
+        values.put("high_water", state.getHighWater());
+        values.put("synced_at", state.getSyncedAt());
+        PageKey key = state.getBackfillKey();
+        if (key == null) {
+            values.putNull("backfill_type");
+            values.put("backfill_value", 0);
+            values.putNull("backfill_cursor");
+            return values;
+        }
+        values.put("backfill_type", key.getType().name());
+        switch (key.getType()) {
+            case OFFSET:
+                values.put("backfill_value", key.getOffset());
+                values.putNull("backfill_cursor");
+                break;
+            case PAGE:
+                values.put("backfill_value", key.getPage());
+                values.putNull("backfill_cursor");
+                break;
+            default:
+                values.put("backfill_value", 0);
+                values.put("backfill_cursor", key.getCursor());
+                break;
+        }
+        return values;
+    }
+
+    private static PageKey toPageKey(String type, int value, String cursor) {
+        switch (PageKey.TYPE.valueOf(type)) {
+            case OFFSET:
+                return PageKey.offset(value);
+            case PAGE:
+                return PageKey.page(value);
+            default:
+                return PageKey.cursor(cursor);
+        }
+    }
+}
@@ -48,7 +48,7 @@ public class SimpleDataSubscriber<M extends BaseModel>
     }
 
     @Override
-    public void onDataChange() {
+    public void onDataChange(DataChange change) {
 
     }
 }
@@ -0,0 +1,18 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import rx.Observable;
+
+/**
+ * streaming data action interface
+ * 逐条发出一页数据, 例如边下载边解析的响应 (见 JsonStream), 由 StreamingDataController 分批追加到列表
+ */
+public interface StreamingDataActionInterface<M extends BaseModel> {
+
+    Observable<M> streamInitialize();
+
+    Observable<M> streamRefresh();
+
+    Observable<M> streamLoadMore();
+}
@@ -0,0 +1,88 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+/**
+ * streaming data controller
+ * 把逐条发出的数据按 chunkSize 条或 chunkInterval 毫秒分批, 每批一到就追加到列表, 第一批数据不用等整个响应结束.
+ * 一次请求的所有批次算作一页: 首页请求的第一批到达时才清除旧数据, 请求结束时按总条数判断是否还有下一页,
+ * onInitDone / onRefreshDone / onLoadMoreDone 在结束时回调一次. 已经发出数据之后失败不会重试, 避免重复追加
+ */
+public abstract class StreamingDataController<M extends BaseModel> extends DataController<M>
+        implements StreamingDataActionInterface<M> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 10;
+    public static final long DEFAULT_CHUNK_INTERVAL = 100;
+
+    private int mChunkSize = DEFAULT_CHUNK_SIZE;
+    private long mChunkInterval = DEFAULT_CHUNK_INTERVAL;
+
+    public StreamingDataController() {
+        setStreaming(true);
+    }
+
+    /**
+     * 每批最多的条目数, 越小第一批显示得越早, 列表变化的通知也越多
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize <= 0");
+        }
+        mChunkSize = chunkSize;
+    }
+
+    /**
+     * 不满一批时最多等待的时间, 单位毫秒, 网络慢时已经解析出的条目也能及时显示
+     */
+    public void setChunkInterval(long chunkInterval) {
+        if (chunkInterval <= 0) {
+            throw new IllegalArgumentException("chunkInterval <= 0");
+        }
+        mChunkInterval = chunkInterval;
+    }
+
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+
+    public long getChunkInterval() {
+        return mChunkInterval;
+    }
+
+    @Override
+    public Observable<List<M>> doInitialize() {
+        return chunk(streamInitialize());
+    }
+
+    @Override
+    public Observable<List<M>> doRefresh() {
+        return chunk(streamRefresh());
+    }
+
+    @Override
+    public Observable<List<M>> doLoadMore() {
+        return chunk(streamLoadMore());
+    }
+
+    private Observable<List<M>> chunk(Observable<M> items) {
+        if (items == null) {
+            return null;
+        }
+        return items.buffer(mChunkInterval, TimeUnit.MILLISECONDS, mChunkSize, Schedulers.computation())
+                .filter(new Func1<List<M>, Boolean>() {
+                    @Override
+                    public Boolean call(List<M> ms) {
+                        return !ms.isEmpty();
+                    }
+                })
+                // 按时间发出的批次不响应背压, 主线程繁忙时在 observeOn 之前缓存, 避免 MissingBackpressureException
+                .onBackpressureBuffer();
+    }
+}
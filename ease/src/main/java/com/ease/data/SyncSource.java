@@ -0,0 +1,27 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+import rx.Observable;
+
+/**
+ * sync source
+ * SyncedDataController 的远端数据, 按 updated_at 从新到旧返回, 条目必须有 getStableId().
+ * 例如 GitHub 的 notifications / issues 接口, since 对应请求参数 since
+ */
+public interface SyncSource<M extends BaseModel> {
+
+    /**
+     * @param since 只需要返回 updated_at 不早于该时间的条目, 单位毫秒, 0 表示不限制
+     * @param key   远端的分页参数, 返回 PageResult 时使用其中的下一页参数, 否则按 PageKey.next 推算
+     * @param limit 每页条目数
+     */
+    Observable<List<M>> fetch(long since, PageKey key, int limit);
+
+    /**
+     * 条目的更新时间, 单位毫秒, 作为本地排序和同步水位
+     */
+    long getUpdatedAt(M model);
+}
@@ -0,0 +1,50 @@
+package com.ease.data;
+
+/**
+ * sync state
+ * 一个列表的同步进度, 与条目在同一个事务中保存. 只读
+ */
+public final class SyncState {
+
+    public static final SyncState EMPTY = new SyncState(0, 0, null);
+
+    private final long mHighWater;
+    private final long mSyncedAt;
+    private final PageKey mBackfillKey;
+
+    /**
+     * @param highWater   已同步条目中最新的 updated_at, 0 表示还没有同步过
+     * @param syncedAt    上次同步完成的时间
+     * @param backfillKey 远端更早的历史中下一页的分页参数, null 表示已经全部保存到本地
+     */
+    public SyncState(long highWater, long syncedAt, PageKey backfillKey) {
+        mHighWater = highWater;
+        mSyncedAt = syncedAt;
+        mBackfillKey = backfillKey;
+    }
+
+    public long getHighWater() {
+        return mHighWater;
+    }
+
+    public long getSyncedAt() {
+        return mSyncedAt;
+    }
+
+    public PageKey getBackfillKey() {
+        return mBackfillKey;
+    }
+
+    public boolean hasSynced() {
+        return mHighWater > 0 || mSyncedAt > 0;
+    }
+
+    public SyncState withBackfillKey(PageKey backfillKey) {
+        return new SyncState(mHighWater, mSyncedAt, backfillKey);
+    }
+
+    @Override
+    public String toString() {
+        return "SyncState{highWater=" + mHighWater + ", syncedAt=" + mSyncedAt + ", backfill=" + mBackfillKey + "}";
+    }
+}
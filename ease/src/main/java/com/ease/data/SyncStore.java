@@ -0,0 +1,51 @@
+package com.ease.data;
+
+import java.util.List;
+
+/**
+ * sync store
+ * SyncedDataController 的本地存储, 条目按 (sortKey, itemId) 从大到小排列.
+ * 所有方法都在后台线程调用, 实现需要线程安全. 见 SQLiteSyncStore
+ */
+public interface SyncStore {
+
+    /**
+     * 只写入时使用, 表示不删除任何条目
+     */
+    long NO_TRIM = Long.MIN_VALUE;
+
+    final class Row {
+
+        public final long itemId;
+        public final long sortKey;
+        public final byte[] data;
+
+        public Row(long itemId, long sortKey, byte[] data) {
+            this.itemId = itemId;
+            this.sortKey = sortKey;
+            this.data = data;
+        }
+    }
+
+    /**
+     * keyset 分页: 读取排在 (beforeSortKey, beforeId) 之后的 limit 条,
+     * 第一页传 Long.MAX_VALUE, Long.MAX_VALUE
+     */
+    List<byte[]> query(String listKey, long beforeSortKey, long beforeId, int limit);
+
+    /**
+     * 在一个事务中: 删除 sortKey 小于 trimBelow 的条目 (NO_TRIM 时跳过), 按 (listKey, itemId) 插入或替换 rows,
+     * state 不为 null 时一并保存
+     */
+    void apply(String listKey, List<Row> rows, long trimBelow, SyncState state);
+
+    /**
+     * 没有保存过时返回 SyncState.EMPTY
+     */
+    SyncState getState(String listKey);
+
+    /**
+     * 删除列表的全部条目和同步进度
+     */
+    void clear(String listKey);
+}
@@ -0,0 +1,315 @@
+package com.ease.data;
+
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.ByteBufferSink;
+import com.ease.codec.ByteBufferSource;
+import com.ease.codec.Codecs;
+import com.ease.model.BaseModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * synced data controller
+ * 以本地 SyncStore 为准的列表: 分页都从本地按 keyset 读取, initialize 先发出本地第一页, 再做一次增量同步.
+ * refresh 只请求 updated_at 晚于水位的条目, 每页在一个事务中写入, 结束后重新读取第一页并与已显示的数据做差异计算.
+ * 本地读完后加载更多会从远端补齐更早的历史.
+ * 一次增量同步超过 maxSyncPages 页时, 丢弃本地比已同步条目更早的数据, 之后按首次同步的方式补齐.
+ * 本地有无法解析的条目 (例如 model 结构已改变) 时清除本地数据重新同步. since 无法得知远端删除的条目, 需要时调用 resync().
+ * 只重试远端请求, 不会重复发出本地第一页
+ */
+public class SyncedDataController<M extends BaseModel> extends DataController<M> {
+
+    public static final int DEFAULT_MAX_SYNC_PAGES = 10;
+
+    private final String mListKey;
+    private final SyncSource<M> mSource;
+    private final BinaryCodec<M> mCodec;
+    private final SyncStore mStore;
+    private PageKey mRemoteFirstKey = PageKey.page(1);
+    private int mMaxSyncPages = DEFAULT_MAX_SYNC_PAGES;
+    private long mMinSyncInterval;
+    private boolean mResyncRequested;
+
+    /**
+     * 使用 {@link com.ease.codec.Codec} 为 type 生成的 BinaryCodec
+     */
+    public SyncedDataController(String listKey, SyncSource<M> source, Class<M> type, SyncStore store) {
+        this(listKey, source, Codecs.get(type), store);
+    }
+
+    /**
+     * @param listKey 列表在 SyncStore 中的唯一标识, 例如接口地址加用户名
+     * @param source  远端数据
+     * @param codec   model 的二进制读写
+     * @param store   多个列表可以共用同一个 SyncStore
+     */
+    public SyncedDataController(String listKey, SyncSource<M> source, BinaryCodec<M> codec, SyncStore store) {
+        mListKey = listKey;
+        mSource = source;
+        mCodec = codec;
+        mStore = store;
+        setDiffWhenRefresh(true);
+    }
+
+    @Override
+    protected boolean isRetryScoped() {
+        return true;
+    }
+
+    public SyncSource<M> getSource() {
+        return mSource;
+    }
+
+    public SyncStore getStore() {
+        return mStore;
+    }
+
+    /**
+     * 远端第一页的分页参数, 默认 PageKey.page(1), 与 GitHub 一致
+     */
+    public void setRemoteFirstKey(PageKey remoteFirstKey) {
+        mRemoteFirstKey = remoteFirstKey;
+    }
+
+    public void setMaxSyncPages(int maxSyncPages) {
+        if (maxSyncPages < 1) {
+            throw new IllegalArgumentException("maxSyncPages < 1");
+        }
+        mMaxSyncPages = maxSyncPages;
+    }
+
+    /**
+     * initialize 时距上次同步不足该时间则只读取本地, 单位毫秒, 默认 0 每次都同步. 不影响 refresh
+     */
+    public void setMinSyncInterval(long minSyncInterval) {
+        mMinSyncInterval = minSyncInterval;
+    }
+
+    /**
+     * 清除本地数据和同步水位后重新加载, 用于远端删除了条目的情况
+     */
+    public void resync() {
+        mResyncRequested = true;
+        refresh();
+    }
+
+    @Override
+    public Observable<List<M>> doInitialize() {
+        final int limit = getLimit();
+        return Observable.defer(new Func0<Observable<List<M>>>() {
+            @Override
+            public Observable<List<M>> call() {
+                List<M> local;
+                try {
+                    local = query(null, limit);
+                } catch (IOException e) {
+                    mStore.clear(mListKey);
+                    local = Collections.emptyList();
+                }
+                SyncState state = mStore.getState(mListKey);
+                if (state.hasSynced() && System.currentTimeMillis() - state.getSyncedAt() < mMinSyncInterval) {
+                    return Observable.just(local);
+                }
+                Observable<List<M>> synced = sync(state, limit, true);
+                // 本地为空时不发出空列表, 直接等待同步结果; 本地第一页只是临时结果, 不用来判断是否到达最后一页
+                return local.isEmpty() ? synced : Observable.just(provisional(local)).concatWith(synced);
+            }
+        });
+    }
+
+    @Override
+    public Observable<List<M>> doRefresh() {
+        final int limit = getLimit();
+        final boolean resync = mResyncRequested;
+        mResyncRequested = false;
+        return Observable.defer(new Func0<Observable<List<M>>>() {
+            @Override
+            public Observable<List<M>> call() {
+                if (resync) {
+                    mStore.clear(mListKey);
+                }
+                return sync(mStore.getState(mListKey), limit, true);
+            }
+        });
+    }
+
+    @Override
+    public Observable<List<M>> doLoadMore() {
+        final int limit = getLimit();
+        List<M> data = getData();
+        // 在主线程读取最后一条作为 keyset 起点, 不受条目数和变换器的影响
+        final M last = data.isEmpty() ? null : data.get(data.size() - 1);
+        return Observable.defer(new Func0<Observable<List<M>>>() {
+            @Override
+            public Observable<List<M>> call() {
+                List<M> local;
+                try {
+                    local = query(last, limit);
+                } catch (IOException e) {
+                    // 短页会被当作没有更多数据, 清除本地数据, 刷新时重新同步
+                    mStore.clear(mListKey);
+                    return Observable.error(e);
+                }
+                SyncState state = mStore.getState(mListKey);
+                if (local.size() >= limit || !state.hasSynced() || state.getBackfillKey() == null) {
+                    return Observable.just(local);
+                }
+                return backfill(state, limit).concatMap(new Func1<SyncState, Observable<List<M>>>() {
+                    @Override
+                    public Observable<List<M>> call(SyncState syncState) {
+                        try {
+                            return Observable.just(query(last, limit));
+                        } catch (IOException e) {
+                            mStore.clear(mListKey);
+                            return Observable.error(e);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 增量同步后重新读取第一页; 本地有无法解析的旧条目时清除后按首次同步重新获取一次
+     */
+    private Observable<List<M>> sync(SyncState state, final int limit, final boolean resyncOnError) {
+        return retry(syncPage(state, mRemoteFirstKey, limit, 1, state.getHighWater(), Long.MAX_VALUE))
+                .concatMap(new Func1<SyncState, Observable<List<M>>>() {
+                    @Override
+                    public Observable<List<M>> call(SyncState syncState) {
+                        try {
+                            return Observable.just(query(null, limit));
+                        } catch (IOException e) {
+                            mStore.clear(mListKey);
+                            return resyncOnError ? sync(SyncState.EMPTY, limit, false) : Observable.<List<M>>error(e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * 请求一页并写入, 直到遇到水位以前的条目, 短页或者达到 maxSyncPages.
+     * 中间的页不更新水位, 失败后下次从原来的水位重新同步, 按 itemId 覆盖不会重复
+     *
+     * @param newest 已请求的条目中最新的 updated_at
+     * @param oldest 已请求的条目中最早的 updated_at
+     */
+    private Observable<SyncState> syncPage(final SyncState state, final PageKey key, final int limit,
+                                           final int pages, final long newest, final long oldest) {
+        final long since = state.getHighWater();
+        Observable<List<M>> page = mSource.fetch(since, key, limit);
+        if (page == null) {
+            return Observable.error(new IllegalArgumentException("The Observable is null."));
+        }
+        return page.concatMap(new Func1<List<M>, Observable<SyncState>>() {
+            @Override
+            public Observable<SyncState> call(List<M> ms) {
+                if (ms == null) {
+                    ms = new ArrayList<>();
+                }
+                long pageNewest = newest;
+                long pageOldest = oldest;
+                List<SyncStore.Row> rows = toRows(ms);
+                for (SyncStore.Row row : rows) {
+                    pageNewest = Math.max(pageNewest, row.sortKey);
+                    pageOldest = Math.min(pageOldest, row.sortKey);
+                }
+                PageKey next = nextKey(key, ms, limit);
+                boolean initial = !state.hasSynced();
+                boolean caughtUp = next == null || (!initial && pageOldest <= since);
+                if (!initial && !caughtUp && pages < mMaxSyncPages) {
+                    mStore.apply(mListKey, rows, SyncStore.NO_TRIM, null);
+                    return syncPage(state, next, limit, pages + 1, pageNewest, pageOldest);
+                }
+
+                long now = System.currentTimeMillis();
+                if (caughtUp && !initial) {
+                    mStore.apply(mListKey, rows, SyncStore.NO_TRIM,
+                            new SyncState(pageNewest, now, state.getBackfillKey()));
+                } else {
+                    // 首次同步只请求一页; 更新太多时中间缺失的条目无法补齐, 丢弃更早的本地数据
+                    long trimBelow = pageOldest == Long.MAX_VALUE ? SyncStore.NO_TRIM : pageOldest;
+                    mStore.apply(mListKey, rows, trimBelow, new SyncState(pageNewest, now, next));
+                }
+                return Observable.just(state);
+            }
+        });
+    }
+
+    /**
+     * 从远端补齐一页更早的历史
+     */
+    private Observable<SyncState> backfill(final SyncState state, final int limit) {
+        final PageKey key = state.getBackfillKey();
+        Observable<List<M>> page = mSource.fetch(0, key, limit);
+        if (page == null) {
+            return Observable.error(new IllegalArgumentException("The Observable is null."));
+        }
+        return retry(page).map(new Func1<List<M>, SyncState>() {
+            @Override
+            public SyncState call(List<M> ms) {
+                if (ms == null) {
+                    ms = new ArrayList<>();
+                }
+                SyncState next = state.withBackfillKey(nextKey(key, ms, limit));
+                mStore.apply(mListKey, toRows(ms), SyncStore.NO_TRIM, next);
+                return next;
+            }
+        });
+    }
+
+    private PageKey nextKey(PageKey key, List<M> ms, int limit) {
+        if (ms instanceof PageResult) {
+            return ((PageResult<M>) ms).getNextKey();
+        }
+        return ms.size() < limit ? null : key.next(ms.size());
+    }
+
+    /**
+     * @throws IOException 有无法解析的条目 (例如 model 结构已改变), 跳过会让短页被当作没有更多数据
+     */
+    private List<M> query(M after, int limit) throws IOException {
+        long sortKey = Long.MAX_VALUE;
+        long id = Long.MAX_VALUE;
+        if (after != null) {
+            sortKey = mSource.getUpdatedAt(after);
+            id = after.getStableId();
+        }
+        List<byte[]> rows = mStore.query(mListKey, sortKey, id, limit);
+        List<M> ms = new ArrayList<>(rows.size());
+        for (byte[] row : rows) {
+            try {
+                ms.add(mCodec.read(new ByteBufferSource(row)));
+            } catch (IOException | RuntimeException e) {
+                throw new IOException("Unable to decode a local row of " + mListKey + ".", e);
+            }
+        }
+        return ms;
+    }
+
+    private List<SyncStore.Row> toRows(List<M> ms) {
+        List<SyncStore.Row> rows = new ArrayList<>(ms.size());
+        ByteBufferSink out = new ByteBufferSink();
+        for (M m : ms) {
+            long id = m.getStableId();
+            if (id == BaseModel.NO_ID) {
+                throw new IllegalArgumentException(m.getClass().getName() + " has no stable id.");
+            }
+            out.reset();
+            try {
+                mCodec.write(out, m);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to encode " + m, e);
+            }
+            rows.add(new SyncStore.Row(id, mSource.getUpdatedAt(m), out.toByteArray()));
+        }
+        return rows;
+    }
+}
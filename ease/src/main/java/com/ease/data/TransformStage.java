@@ -0,0 +1,67 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.List;
+
+/**
+ * transform stage
+ * 包装一个 DataTransformer 并记录它的耗时, 统计值可以在任意线程读取
+ */
+public final class TransformStage<M extends BaseModel> {
+
+    private final DataTransformer<M> mTransformer;
+
+    private volatile long mLastNanos;
+    private volatile long mMaxNanos;
+    private volatile long mTotalNanos;
+    private volatile int mRunCount;
+
+    TransformStage(DataTransformer<M> transformer) {
+        mTransformer = transformer;
+    }
+
+    List<M> run(List<M> data) {
+        long start = System.nanoTime();
+        List<M> result = mTransformer.transform(data);
+        long duration = System.nanoTime() - start;
+        synchronized (this) {
+            mLastNanos = duration;
+            mMaxNanos = Math.max(mMaxNanos, duration);
+            mTotalNanos += duration;
+            mRunCount++;
+        }
+        return result;
+    }
+
+    public DataTransformer<M> getTransformer() {
+        return mTransformer;
+    }
+
+    public long getLastNanos() {
+        return mLastNanos;
+    }
+
+    public long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    public long getTotalNanos() {
+        return mTotalNanos;
+    }
+
+    public int getRunCount() {
+        return mRunCount;
+    }
+
+    public long getAverageNanos() {
+        int count = mRunCount;
+        return count == 0 ? 0 : mTotalNanos / count;
+    }
+
+    @Override
+    public String toString() {
+        return mTransformer.getClass().getSimpleName() + "{runs=" + mRunCount + ", last=" + mLastNanos / 1000
+                + "us, avg=" + getAverageNanos() / 1000 + "us, max=" + mMaxNanos / 1000 + "us}";
+    }
+}
@@ -8,6 +8,7 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import com.ease.R;
+import com.ease.adapter.HolderPoolManager;
 
 
 public abstract class EasyRecyclerFragment extends EasyFragment {
@@ -23,7 +24,16 @@ public abstract class EasyRecyclerFragment extends EasyFragment {
     @Override
     public void onViewCreated(View view, Bundle savedInstanceState) {
         mRecyclerView = (RecyclerView) view.findViewById(R.id.recycler_view);
+        if (isHolderPoolShared()) {
+            HolderPoolManager.getInstance().attach(mRecyclerView);
+        }
         super.onViewCreated(view, savedInstanceState);
     }
 
+    /**
+     * 是否使用全局共用的 RecycledViewPool, Adapter 需要通过 HolderPoolManager 分配 view type
+     */
+    protected boolean isHolderPoolShared() {
+        return false;
+    }
 }
@@ -10,6 +10,7 @@ import android.view.ViewGroup;
 
 import com.ease.R;
 import com.ease.adapter.BaseAdapter;
+import com.ease.adapter.HolderPoolManager;
 import com.ease.model.BaseModel;
 
 /**
@@ -28,6 +29,9 @@ public abstract class SimpleRecyclerFragment<T extends BaseModel> extends Recycl
         mRecyclerView = (RecyclerView) view.findViewById(R.id.recycler_view);
         mLayoutManger = createLayoutManager();
         mRecyclerView.setLayoutManager(mLayoutManger);
+        if (isHolderPoolShared()) {
+            HolderPoolManager.getInstance().attach(mRecyclerView);
+        }
         mRecyclerView.setAdapter(getAdapter());
         return view;
     }
@@ -39,4 +43,10 @@ public abstract class SimpleRecyclerFragment<T extends BaseModel> extends Recycl
     @NonNull
     public abstract RecyclerView.LayoutManager createLayoutManager();
 
+    /**
+     * 是否使用全局共用的 RecycledViewPool, Adapter 需要通过 HolderPoolManager 分配 view type
+     */
+    protected boolean isHolderPoolShared() {
+        return false;
+    }
 }
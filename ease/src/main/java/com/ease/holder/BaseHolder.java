@@ -7,12 +7,21 @@ import android.view.View;
 
 import com.ease.model.BaseModel;
 
+import rx.Subscription;
+import rx.subscriptions.CompositeSubscription;
+import rx.subscriptions.Subscriptions;
+
 /**
  * item base holder
  * Created by Spencer on 15/11/26.
  */
 public abstract class BaseHolder<M extends BaseModel> extends RecyclerView.ViewHolder {
 
+    /**
+     * 与当前绑定的数据关联的请求, 例如图片加载
+     */
+    private CompositeSubscription mBindSubscriptions;
+
     public BaseHolder(View itemView) {
         super(itemView);
     }
@@ -23,4 +32,34 @@ public abstract class BaseHolder<M extends BaseModel> extends RecyclerView.ViewH
     public String getType() {
         return this.getClass().getName();
     }
+
+    /**
+     * 在 binding 中发起的请求, 重新绑定或者回收时由 adapter 取消, 例如
+     * bindSubscription(ImageLoader.getDefault().load(url).into(mAvatarView))
+     */
+    public void bindSubscription(Subscription subscription) {
+        if (mBindSubscriptions == null) {
+            mBindSubscriptions = new CompositeSubscription();
+        }
+        mBindSubscriptions.add(subscription);
+    }
+
+    /**
+     * adapter 在绑定之前调用, 返回上一次绑定的请求, 由 adapter 在 binding 之后取消.
+     * 重新绑定同一条数据时新的请求可以接上还没有完成的请求, 不会先取消再重新下载
+     */
+    public Subscription startBinding() {
+        Subscription previous = mBindSubscriptions;
+        mBindSubscriptions = null;
+        return previous != null ? previous : Subscriptions.empty();
+    }
+
+    /**
+     * 取消 bindSubscription 添加的请求, adapter 在 onViewRecycled 时调用. ImageLoader 的加载同时释放 view 显示的 bitmap
+     */
+    public void unbind() {
+        if (mBindSubscriptions != null) {
+            mBindSubscriptions.clear();
+        }
+    }
 }
@@ -0,0 +1,187 @@
+package com.ease.http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.squareup.okhttp.Cache;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.OkHttpClient;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import retrofit.GsonConverterFactory;
+import retrofit.Response;
+import retrofit.Retrofit;
+import retrofit.RxJavaCallAdapterFactory;
+import rx.Observable;
+
+/**
+ * api client
+ * 全局共用的 OkHttpClient 和 Retrofit: 有上限的磁盘缓存, 连接池参数, 可插拔的拦截器,
+ * 以及基于 ETag 的条件请求 (见 ConditionalCache). 在 Application 中构建后通过 setDefault 安装
+ */
+public class ApiClient {
+
+    public static final long DEFAULT_CACHE_SIZE = 10 * 1024 * 1024;
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE = 5 * 60 * 1000;
+    public static final long DEFAULT_CONNECT_TIMEOUT = 15 * 1000;
+    public static final long DEFAULT_READ_TIMEOUT = 20 * 1000;
+
+    private static ApiClient sDefault;
+
+    private final OkHttpClient mOkHttpClient;
+    private final Retrofit mRetrofit;
+    private final ConditionalCache mConditionalCache;
+    private final Gson mGson;
+
+    private ApiClient(Builder builder) {
+        mConditionalCache = builder.mConditionalCache;
+        mGson = builder.mGson != null ? builder.mGson : createGson();
+
+        mOkHttpClient = new OkHttpClient();
+        if (builder.mCacheDirectory != null) {
+            mOkHttpClient.setCache(new Cache(builder.mCacheDirectory, builder.mCacheSize));
+        }
+        mOkHttpClient.setConnectionPool(new ConnectionPool(builder.mMaxIdleConnections, builder.mKeepAlive));
+        mOkHttpClient.setConnectTimeout(builder.mConnectTimeout, TimeUnit.MILLISECONDS);
+        mOkHttpClient.setReadTimeout(builder.mReadTimeout, TimeUnit.MILLISECONDS);
+        mOkHttpClient.interceptors().addAll(builder.mInterceptors);
+        // 放在最后, 条件请求的 key 包含前面的拦截器加上的认证信息
+        mOkHttpClient.interceptors().add(mConditionalCache.getInterceptor());
+        mOkHttpClient.networkInterceptors().addAll(builder.mNetworkInterceptors);
+
+        mRetrofit = new Retrofit.Builder()
+                .baseUrl(builder.mBaseUrl)
+                .client(mOkHttpClient)
+                .addConverterFactory(GsonConverterFactory.create(mGson))
+                .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+                .build();
+    }
+
+    /**
+     * 默认的 Gson, 标记了 @JsonCodec 的 BaseModel 子类使用编译时生成的 TypeAdapter
+     */
+    public static Gson createGson() {
+        return new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory()).create();
+    }
+
+    public static synchronized void setDefault(ApiClient client) {
+        sDefault = client;
+    }
+
+    public static synchronized ApiClient getDefault() {
+        if (sDefault == null) {
+            throw new IllegalStateException("ApiClient.setDefault() has not been called.");
+        }
+        return sDefault;
+    }
+
+    public <T> T create(Class<T> service) {
+        return mRetrofit.create(service);
+    }
+
+    /**
+     * 接口返回 Observable&lt;Response&lt;T&gt;&gt; 并标记了 @Headers(ConditionalCache.REVALIDATE) 时使用,
+     * 304 时由上次解析的结果得到 T; type 为 T 的完整类型
+     */
+    public <T> Observable.Transformer<Response<T>, T> revalidate(Type type) {
+        return mConditionalCache.revalidate(mGson, type);
+    }
+
+    public OkHttpClient getOkHttpClient() {
+        return mOkHttpClient;
+    }
+
+    public Retrofit getRetrofit() {
+        return mRetrofit;
+    }
+
+    public ConditionalCache getConditionalCache() {
+        return mConditionalCache;
+    }
+
+    /**
+     * 与 Retrofit 共用的 Gson, 例如传给 JsonStream
+     */
+    public Gson getGson() {
+        return mGson;
+    }
+
+    public static class Builder {
+
+        private final String mBaseUrl;
+        private File mCacheDirectory;
+        private long mCacheSize = DEFAULT_CACHE_SIZE;
+        private int mMaxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        private long mKeepAlive = DEFAULT_KEEP_ALIVE;
+        private long mConnectTimeout = DEFAULT_CONNECT_TIMEOUT;
+        private long mReadTimeout = DEFAULT_READ_TIMEOUT;
+        private final List<Interceptor> mInterceptors = new ArrayList<>();
+        private final List<Interceptor> mNetworkInterceptors = new ArrayList<>();
+        private ConditionalCache mConditionalCache = new ConditionalCache();
+        private Gson mGson;
+
+        public Builder(String baseUrl) {
+            mBaseUrl = baseUrl;
+        }
+
+        /**
+         * 磁盘缓存, 例如 new File(context.getCacheDir(), "http")
+         */
+        public Builder cache(File directory, long maxSize) {
+            mCacheDirectory = directory;
+            mCacheSize = maxSize;
+            return this;
+        }
+
+        public Builder connectionPool(int maxIdleConnections, long keepAliveMillis) {
+            mMaxIdleConnections = maxIdleConnections;
+            mKeepAlive = keepAliveMillis;
+            return this;
+        }
+
+        public Builder timeouts(long connectTimeoutMillis, long readTimeoutMillis) {
+            mConnectTimeout = connectTimeoutMillis;
+            mReadTimeout = readTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * 应用拦截器, 按添加顺序执行, 例如 AuthInterceptor
+         */
+        public Builder addInterceptor(Interceptor interceptor) {
+            mInterceptors.add(interceptor);
+            return this;
+        }
+
+        /**
+         * 网络拦截器, 只对真正发出的请求执行, 例如统计耗时
+         */
+        public Builder addNetworkInterceptor(Interceptor interceptor) {
+            mNetworkInterceptors.add(interceptor);
+            return this;
+        }
+
+        public Builder conditionalCache(ConditionalCache conditionalCache) {
+            mConditionalCache = conditionalCache;
+            return this;
+        }
+
+        /**
+         * 自定义的 Gson 需要自己注册 ModelTypeAdapterFactory, 否则 BaseModel 子类通过反射解析
+         */
+        public Builder gson(Gson gson) {
+            mGson = gson;
+            return this;
+        }
+
+        public ApiClient build() {
+            return new ApiClient(this);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ease.http;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+
+/**
+ * auth interceptor
+ * 为每个请求加上 Authorization: token xxx, token 每次请求时读取, 登录状态变化后立即生效
+ */
+public class AuthInterceptor implements Interceptor {
+
+    public interface TokenProvider {
+
+        /**
+         * 未登录时返回 null
+         */
+        String getToken();
+    }
+
+    private final TokenProvider mTokenProvider;
+
+    public AuthInterceptor(TokenProvider tokenProvider) {
+        mTokenProvider = tokenProvider;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String token = mTokenProvider.getToken();
+        if (token == null || request.header("Authorization") != null) {
+            return chain.proceed(request);
+        }
+        return chain.proceed(request.newBuilder().header("Authorization", "token " + token).build());
+    }
+}
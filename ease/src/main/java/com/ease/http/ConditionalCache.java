@@ -0,0 +1,190 @@
+package com.ease.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okio.ByteString;
+import retrofit.HttpException;
+import retrofit.Response;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * conditional cache
+ * 在内存中保存最近解析过的响应 (JSON 树) 及其 ETag/Last-Modified. 再次请求同一地址时 getInterceptor() 加上
+ * If-None-Match/If-Modified-Since, 服务器返回 304 时 revalidate() 由 JSON 树重新生成结果,
+ * 既不下载也不解析响应体, 也不计入 GitHub 的频率限制. 每次发出的都是新的对象, 调用方可以修改.
+ * 只有标记了 @Headers(ConditionalCache.REVALIDATE) 的接口才会发出条件请求, 其它接口无法处理 304
+ */
+public class ConditionalCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+
+    /**
+     * 标记使用 revalidate() 的接口, 由拦截器移除, 不会发给服务器
+     */
+    public static final String HEADER = "Ease-Revalidate";
+    public static final String REVALIDATE = HEADER + ": true";
+
+    private static final class CachedResponse {
+        final String etag;
+        final String lastModified;
+        final JsonElement body;
+
+        CachedResponse(String etag, String lastModified, JsonElement body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    private final LinkedHashMap<String, CachedResponse> mEntries;
+
+    private int mHitCount;
+    private int mMissCount;
+
+    public ConditionalCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public ConditionalCache(final int maxEntries) {
+        mEntries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 应用拦截器, 需要放在添加认证信息的拦截器之后
+     */
+    public Interceptor getInterceptor() {
+        return new Interceptor() {
+            @Override
+            public com.squareup.okhttp.Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                if (request.header(HEADER) == null) {
+                    return chain.proceed(request);
+                }
+                request = request.newBuilder().removeHeader(HEADER).build();
+                if (!"GET".equals(request.method()) || request.header("If-None-Match") != null
+                        || request.header("If-Modified-Since") != null) {
+                    return chain.proceed(request);
+                }
+                CachedResponse entry = get(key(request));
+                if (entry == null) {
+                    return chain.proceed(request);
+                }
+
+                Request.Builder builder = request.newBuilder();
+                if (entry.etag != null) {
+                    builder.header("If-None-Match", entry.etag);
+                }
+                if (entry.lastModified != null) {
+                    builder.header("If-Modified-Since", entry.lastModified);
+                }
+                return chain.proceed(builder.build());
+            }
+        };
+    }
+
+    /**
+     * 用于返回 Observable&lt;Response&lt;T&gt;&gt; 并标记了 REVALIDATE 的接口: 304 时发出缓存的结果, 其它失败的响应转换为 HttpException.
+     * gson 与 Retrofit 使用的相同, type 为 T 的完整类型, 例如 new TypeToken&lt;List&lt;Repo&gt;&gt;() {}.getType()
+     */
+    public <T> Observable.Transformer<Response<T>, T> revalidate(final Gson gson, final Type type) {
+        return new Observable.Transformer<Response<T>, T>() {
+            @Override
+            public Observable<T> call(Observable<Response<T>> responses) {
+                return responses.flatMap(new Func1<Response<T>, Observable<T>>() {
+                    @Override
+                    public Observable<T> call(Response<T> response) {
+                        Request request = response.raw().request();
+                        String key = key(request);
+                        if (response.code() == 304) {
+                            CachedResponse entry = get(key);
+                            if (entry == null) {
+                                return Observable.error(new HttpException(response));
+                            }
+                            onHit();
+                            return Observable.just(gson.<T>fromJson(entry.body, type));
+                        }
+                        if (!response.isSuccess()) {
+                            return Observable.error(new HttpException(response));
+                        }
+
+                        onMiss();
+                        String etag = response.headers().get("ETag");
+                        String lastModified = response.headers().get("Last-Modified");
+                        if ("GET".equals(request.method()) && response.body() != null
+                                && (etag != null || lastModified != null)) {
+                            put(key, new CachedResponse(etag, lastModified, gson.toJsonTree(response.body(), type)));
+                        } else {
+                            remove(key);
+                        }
+                        return Observable.just(response.body());
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * 不同账号请求同一地址得到的结果不同, 认证信息的 SHA-256 也作为 key 的一部分, 内存中不保留 token
+     */
+    private static String key(Request request) {
+        String authorization = request.header("Authorization");
+        return request.method() + ' ' + request.urlString()
+                + (authorization == null ? "" : " #" + ByteString.encodeUtf8(authorization).sha256().hex());
+    }
+
+    private synchronized CachedResponse get(String key) {
+        return mEntries.get(key);
+    }
+
+    private synchronized void put(String key, CachedResponse entry) {
+        mEntries.put(key, entry);
+    }
+
+    private synchronized void remove(String key) {
+        mEntries.remove(key);
+    }
+
+    private synchronized void onHit() {
+        mHitCount++;
+    }
+
+    private synchronized void onMiss() {
+        mMissCount++;
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * 304 命中次数
+     */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * 下载并解析了响应体的次数
+     */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ease.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.squareup.okhttp.ResponseBody;
+
+import java.io.IOException;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Func1;
+
+/**
+ * json stream
+ * 用 JsonReader 直接读取 OkHttp 的响应流, 每解析出一个元素就发出, 不需要等整个响应下载完,
+ * 内存中只有正在解析的元素. 接口需要加上 @Streaming 并返回 Observable&lt;ResponseBody&gt;, 否则响应体会先被完整读入内存.
+ * 取消订阅后停止解析并关闭响应体, 剩下的数据不再下载
+ */
+public final class JsonStream {
+
+    private JsonStream() {
+    }
+
+    /**
+     * 解析顶层数组, 例如 api.events().compose(JsonStream.items(gson, Event.class))
+     */
+    public static <M> Observable.Transformer<ResponseBody, M> items(Gson gson, Class<M> type) {
+        return items(gson.getAdapter(type), null);
+    }
+
+    /**
+     * 解析顶层对象中名为 arrayName 的数组, 例如搜索接口的 "items"; 数组之前的其它字段被跳过
+     */
+    public static <M> Observable.Transformer<ResponseBody, M> items(Gson gson, Class<M> type, String arrayName) {
+        return items(gson.getAdapter(type), arrayName);
+    }
+
+    public static <M> Observable.Transformer<ResponseBody, M> items(final TypeAdapter<M> adapter,
+                                                                     final String arrayName) {
+        return new Observable.Transformer<ResponseBody, M>() {
+            @Override
+            public Observable<M> call(Observable<ResponseBody> bodies) {
+                return bodies.concatMap(new Func1<ResponseBody, Observable<M>>() {
+                    @Override
+                    public Observable<M> call(ResponseBody body) {
+                        return parse(body, adapter, arrayName);
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * 在订阅的线程上解析, 调用方负责 subscribeOn
+     */
+    public static <M> Observable<M> parse(final ResponseBody body, final TypeAdapter<M> adapter,
+                                          final String arrayName) {
+        return Observable.create(new Observable.OnSubscribe<M>() {
+            @Override
+            public void call(Subscriber<? super M> subscriber) {
+                JsonReader reader = null;
+                try {
+                    reader = new JsonReader(body.charStream());
+                    if (arrayName != null) {
+                        seekArray(reader, arrayName);
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (subscriber.isUnsubscribed()) {
+                            return;
+                        }
+                        M item = adapter.read(reader);
+                        if (item != null) {
+                            subscriber.onNext(item);
+                        }
+                    }
+                    reader.endArray();
+                    if (!subscriber.isUnsubscribed()) {
+                        subscriber.onCompleted();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (!subscriber.isUnsubscribed()) {
+                        subscriber.onError(e);
+                    }
+                } finally {
+                    close(reader, body);
+                }
+            }
+        });
+    }
+
+    private static void seekArray(JsonReader reader, String arrayName) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (arrayName.equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                return;
+            }
+            reader.skipValue();
+        }
+        throw new JsonParseException("No array named " + arrayName + " in the response.");
+    }
+
+    private static void close(JsonReader reader, ResponseBody body) {
+        try {
+            if (reader != null) {
+                reader.close();
+            } else {
+                body.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ease.http;
+
+import com.ease.model.BaseModel;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * model type adapter factory
+ * 为标记了 @JsonCodec 的 BaseModel 子类返回编译时生成的 {@code <Model>$$TypeAdapter}, 按字段直接读写, 不经过反射.
+ * 没有生成的类 (例如不满足生成条件) 返回 null, 由 Gson 退回到反射实现.
+ * namingPolicy 需要与 Gson 的 FieldNamingPolicy 一致, 有 @SerializedName 的字段不受影响
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    /**
+     * 生成类名的后缀, 生成类与 model 位于同一个包
+     */
+    public static final String SUFFIX = "$$TypeAdapter";
+
+    private static final Object MISSING = new Object();
+
+    private final FieldNamingPolicy mNamingPolicy;
+    private final Map<Class<?>, Object> mConstructors = new ConcurrentHashMap<>();
+
+    public ModelTypeAdapterFactory() {
+        this(FieldNamingPolicy.IDENTITY);
+    }
+
+    public ModelTypeAdapterFactory(FieldNamingPolicy namingPolicy) {
+        mNamingPolicy = namingPolicy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType != type.getType() || !BaseModel.class.isAssignableFrom(rawType)) {
+            return null;
+        }
+        Constructor<?> constructor = getConstructor(rawType);
+        if (constructor == null) {
+            return null;
+        }
+        // 分开捕获, 合并后的类型 ReflectiveOperationException 在 API 19 以下不存在
+        try {
+            return (TypeAdapter<T>) constructor.newInstance(gson, mNamingPolicy);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Unable to create type adapter for " + rawType.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create type adapter for " + rawType.getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Unable to create type adapter for " + rawType.getName(), e);
+        }
+    }
+
+    private Constructor<?> getConstructor(Class<?> type) {
+        Object constructor = mConstructors.get(type);
+        if (constructor == null) {
+            try {
+                Class<?> adapterClass = Class.forName(type.getName() + SUFFIX, true, type.getClassLoader());
+                constructor = adapterClass.getConstructor(Gson.class, FieldNamingPolicy.class);
+            } catch (ClassNotFoundException e) {
+                constructor = MISSING;
+            } catch (NoSuchMethodException e) {
+                constructor = MISSING;
+            }
+            mConstructors.put(type, constructor);
+        }
+        return constructor == MISSING ? null : (Constructor<?>) constructor;
+    }
+
+    /**
+     * 生成的代码调用: 按命名规则转换字段名, 与 FieldNamingPolicy 的规则相同
+     */
+    public static String translateName(FieldNamingPolicy policy, String name) {
+        switch (policy) {
+            case UPPER_CAMEL_CASE:
+                return upperCaseFirstLetter(name);
+            case UPPER_CAMEL_CASE_WITH_SPACES:
+                return upperCaseFirstLetter(separateCamelCase(name, " "));
+            case LOWER_CASE_WITH_UNDERSCORES:
+                return separateCamelCase(name, "_").toLowerCase(Locale.ENGLISH);
+            case LOWER_CASE_WITH_DASHES:
+                return separateCamelCase(name, "-").toLowerCase(Locale.ENGLISH);
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * 生成的代码调用: JSON 字段名到字段序号的映射, alternates[i] 为第 i 个字段的备用名, 可以为 null
+     */
+    public static Map<String, Integer> indexNames(String[] names, String[][] alternates) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            putName(index, names[i], i);
+            if (alternates[i] != null) {
+                for (String alternate : alternates[i]) {
+                    putName(index, alternate, i);
+                }
+            }
+        }
+        return index;
+    }
+
+    private static void putName(Map<String, Integer> index, String name, int i) {
+        Integer previous = index.put(name, i);
+        if (previous != null && previous != i) {
+            throw new IllegalArgumentException("Multiple fields are named " + name + ".");
+        }
+    }
+
+    private static String separateCamelCase(String name, String separator) {
+        StringBuilder translation = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char character = name.charAt(i);
+            if (Character.isUpperCase(character) && translation.length() != 0) {
+                translation.append(separator);
+            }
+            translation.append(character);
+        }
+        return translation.toString();
+    }
+
+    private static String upperCaseFirstLetter(String name) {
+        int index = 0;
+        while (index < name.length() - 1 && !Character.isLetter(name.charAt(index))) {
+            index++;
+        }
+        if (Character.isUpperCase(name.charAt(index))) {
+            return name;
+        }
+        return name.substring(0, index) + Character.toUpperCase(name.charAt(index)) + name.substring(index + 1);
+    }
+}
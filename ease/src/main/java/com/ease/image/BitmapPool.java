@@ -0,0 +1,114 @@
+package com.ease.image;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * bitmap pool
+ * 从内存缓存中淘汰并且没有在显示的 bitmap, 解码新图片时通过 BitmapFactory.Options.inBitmap 复用它的内存,
+ * 列表滚动时头像不断换入换出, 复用可以避免频繁分配大块内存引起的 GC. 按字节数限制大小, 超出时丢弃最早放入的.
+ * 4.4 以下只能复用尺寸和格式完全相同的 bitmap, 4.4 及以上只要内存足够即可
+ */
+public class BitmapPool {
+
+    private final LinkedList<Bitmap> mBitmaps = new LinkedList<>();
+    private final long mMaxSize;
+    private long mSize;
+
+    private int mHitCount;
+    private int mMissCount;
+
+    public BitmapPool(long maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * 放入不再使用的 bitmap, 之后不能再显示它; 不可复用的直接丢弃
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        long size = bitmap.getByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+        mBitmaps.addLast(bitmap);
+        mSize += size;
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * 取出可以用来解码 width x height 图片的 bitmap, 内容未清空; 没有时返回 null
+     */
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        if (config == null) {
+            return null;
+        }
+        long required = (long) width * height * bytesPerPixel(config);
+        Iterator<Bitmap> iterator = mBitmaps.iterator();
+        while (iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if (canReuse(bitmap, width, height, config, required)) {
+                iterator.remove();
+                mSize -= bitmap.getByteCount();
+                mHitCount++;
+                return bitmap;
+            }
+        }
+        mMissCount++;
+        return null;
+    }
+
+    /**
+     * 4.4 以下 inBitmap 要求尺寸和格式相同. getByteCount 不大于实际分配的内存, 按它判断是保守的
+     */
+    private static boolean canReuse(Bitmap bitmap, int width, int height, Bitmap.Config config, long required) {
+        if (Build.VERSION.SDK_INT >= 19) {
+            return bitmap.getByteCount() >= required;
+        }
+        return bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+
+    public synchronized void trimToSize(long maxSize) {
+        while (mSize > maxSize && !mBitmaps.isEmpty()) {
+            Bitmap bitmap = mBitmaps.removeFirst();
+            mSize -= bitmap.getByteCount();
+        }
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+}
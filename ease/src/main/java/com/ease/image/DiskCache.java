@@ -0,0 +1,184 @@
+package com.ease.image;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.Okio;
+
+/**
+ * disk cache
+ * 下载的原始图片数据, 每个地址一个文件, 按字节数限制大小, 超出时删除最久没有使用的.
+ * 与 HTTP 缓存不同, 不理会响应的 Cache-Control, 头像地址变化时内容才会变化.
+ * 第一次使用时扫描目录, 按文件的修改时间恢复使用顺序; 读写文件不持有锁, 只在调整索引时加锁. 需要在后台线程调用
+ */
+public class DiskCache {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File mDirectory;
+    private final long mMaxSize;
+
+    /**
+     * 文件名及其大小, 按使用顺序
+     */
+    private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mSize;
+    private boolean mInitialized;
+    private int mTempCounter;
+
+    public DiskCache(File directory, long maxSize) {
+        mDirectory = directory;
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * 没有缓存时返回 null
+     */
+    public byte[] get(String key) throws IOException {
+        String name = fileName(key);
+        synchronized (this) {
+            initialize();
+            if (mEntries.get(name) == null) {
+                return null;
+            }
+        }
+        File file = new File(mDirectory, name);
+        BufferedSource source;
+        try {
+            source = Okio.buffer(Okio.source(file));
+        } catch (FileNotFoundException e) {
+            // 读之前被淘汰, 或者被清理缓存的工具删除. put 在锁内重命名,
+            // 文件又存在说明期间已经重新写入, 这时的索引属于新文件, 不能删除
+            synchronized (this) {
+                if (!file.exists()) {
+                    Long size = mEntries.remove(name);
+                    if (size != null) {
+                        mSize -= size;
+                    }
+                }
+            }
+            return null;
+        }
+        try {
+            byte[] data = source.readByteArray();
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } finally {
+            source.close();
+        }
+    }
+
+    public void put(String key, byte[] data) throws IOException {
+        String name = fileName(key);
+        File temp;
+        synchronized (this) {
+            initialize();
+            temp = new File(mDirectory, name + '.' + (mTempCounter++) + TEMP_SUFFIX);
+        }
+        BufferedSink sink = Okio.buffer(Okio.sink(temp));
+        try {
+            sink.write(data);
+        } finally {
+            sink.close();
+        }
+
+        synchronized (this) {
+            File file = new File(mDirectory, name);
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Failed to rename " + temp + " to " + file);
+            }
+            Long previous = mEntries.put(name, (long) data.length);
+            mSize += data.length - (previous == null ? 0 : previous);
+            trimToSize(mMaxSize);
+        }
+    }
+
+    public synchronized void remove(String key) {
+        initialize();
+        String name = fileName(key);
+        Long size = mEntries.remove(name);
+        if (size != null) {
+            mSize -= size;
+            new File(mDirectory, name).delete();
+        }
+    }
+
+    public synchronized void clear() {
+        initialize();
+        trimToSize(0);
+    }
+
+    public synchronized long getSize() {
+        initialize();
+        return mSize;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public File getDirectory() {
+        return mDirectory;
+    }
+
+    private void trimToSize(long maxSize) {
+        Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            mSize -= entry.getValue();
+            new File(mDirectory, entry.getKey()).delete();
+        }
+    }
+
+    /**
+     * 扫描目录, 删除上次没有写完的临时文件
+     */
+    private void initialize() {
+        if (mInitialized) {
+            return;
+        }
+        mInitialized = true;
+        mDirectory.mkdirs();
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        final long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return modified[lhs] < modified[rhs] ? -1 : (modified[lhs] == modified[rhs] ? 0 : 1);
+            }
+        });
+        for (Integer i : order) {
+            File file = files[i];
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                file.delete();
+            } else if (file.isFile()) {
+                mEntries.put(file.getName(), file.length());
+                mSize += file.length();
+            }
+        }
+        trimToSize(mMaxSize);
+    }
+
+    private static String fileName(String key) {
+        return ByteString.encodeUtf8(key).md5().hex();
+    }
+}
@@ -0,0 +1,75 @@
+package com.ease.image;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+
+import java.io.IOException;
+
+/**
+ * image decoder
+ * 按显示的尺寸缩小解码: 先只读取图片尺寸, 取不小于目标尺寸的最大的 2 的幂作为 inSampleSize,
+ * 例如 460x460 的头像显示为 40dp 时只解码 115x115, 内存是原图的 1/16. 解码时尽量复用 BitmapPool 中的 bitmap
+ */
+public final class ImageDecoder {
+
+    private ImageDecoder() {
+    }
+
+    /**
+     * 缩小后的宽高都不小于目标尺寸, 目标尺寸不大于 0 时不缩小
+     */
+    public static int calculateInSampleSize(int width, int height, int targetWidth, int targetHeight) {
+        if (targetWidth <= 0 || targetHeight <= 0) {
+            return 1;
+        }
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= targetWidth && height / (sampleSize * 2) >= targetHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @param pool 为 null 时不复用
+     * @throws IOException 数据不是可以解码的图片
+     */
+    public static Bitmap decode(byte[] data, int targetWidth, int targetHeight, Bitmap.Config config,
+                                BitmapPool pool) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Failed to decode image bounds.");
+        }
+
+        int sampleSize = calculateInSampleSize(options.outWidth, options.outHeight, targetWidth, targetHeight);
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = config;
+        options.inMutable = true;
+        // 4.4 以下 inBitmap 要求 inSampleSize 为 1
+        if (pool != null && (Build.VERSION.SDK_INT >= 19 || sampleSize == 1)) {
+            int width = (options.outWidth + sampleSize - 1) / sampleSize;
+            int height = (options.outHeight + sampleSize - 1) / sampleSize;
+            options.inBitmap = pool.get(width, height, config);
+        }
+
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        } catch (IllegalArgumentException e) {
+            if (options.inBitmap == null) {
+                throw new IOException("Failed to decode image.", e);
+            }
+            // 格式不支持复用, 放回后重新分配
+            pool.put(options.inBitmap);
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("Failed to decode image.");
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,456 @@
+package com.ease.image;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.widget.ImageView;
+
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
+
+/**
+ * image loader
+ * 列表中头像等图片的加载: 内存缓存 -> 磁盘缓存 -> OkHttp 下载, 按显示的尺寸缩小解码.
+ * 同一地址同时只下载一次, 同一地址和尺寸同时只解码一次, 所有订阅者都取消后才取消请求.
+ * 同一个 ImageView 发起新的加载时取消之前的, 在 BaseHolder.binding 中通过 bindSubscription 关联后,
+ * 重新绑定或回收时也会取消, 回收时还会释放显示的 bitmap. 内存缓存只在主线程修改, 保证放入 BitmapPool 的
+ * bitmap 已经没有在显示.
+ * 在 Application 中构建后通过 setDefault 安装
+ */
+public class ImageLoader {
+
+    public static final long DEFAULT_DISK_CACHE_SIZE = 50 * 1024 * 1024;
+
+    private static ImageLoader sDefault;
+
+    private final OkHttpClient mClient;
+    private final BitmapPool mBitmapPool;
+    private final MemoryCache mMemoryCache;
+    private final DiskCache mDiskCache;
+    private final Bitmap.Config mConfig;
+    private final Scheduler mMainScheduler;
+
+    private final InFlight<byte[]> mDownloads = new InFlight<>();
+    private final InFlight<Bitmap> mDecodes = new InFlight<>();
+
+    /**
+     * 每个 ImageView 正在进行的加载, 显示的 bitmap 和最近一次 into 的标记, 只在主线程访问.
+     * 标记不引用 ImageView, 否则 WeakHashMap 的 key 不会被回收
+     */
+    private final WeakHashMap<ImageView, Subscription> mViewRequests = new WeakHashMap<>();
+    private final WeakHashMap<ImageView, Bitmap> mViewBitmaps = new WeakHashMap<>();
+    private final WeakHashMap<ImageView, Object> mViewBindings = new WeakHashMap<>();
+
+    private ImageLoader(Builder builder) {
+        mClient = builder.mClient != null ? builder.mClient : new OkHttpClient();
+        long maxMemory = Runtime.getRuntime().maxMemory();
+        mBitmapPool = new BitmapPool(builder.mBitmapPoolSize >= 0 ? builder.mBitmapPoolSize : maxMemory / 16);
+        mMemoryCache = new MemoryCache(builder.mMemoryCacheSize >= 0 ? builder.mMemoryCacheSize : maxMemory / 8,
+                mBitmapPool);
+        mDiskCache = builder.mDiskCacheDirectory == null ? null
+                : new DiskCache(builder.mDiskCacheDirectory, builder.mDiskCacheSize);
+        mConfig = builder.mConfig;
+        mMainScheduler = builder.mMainScheduler != null ? builder.mMainScheduler : AndroidSchedulers.mainThread();
+    }
+
+    public static synchronized void setDefault(ImageLoader loader) {
+        sDefault = loader;
+    }
+
+    public static synchronized ImageLoader getDefault() {
+        if (sDefault == null) {
+            throw new IllegalStateException("ImageLoader.setDefault() has not been called.");
+        }
+        return sDefault;
+    }
+
+    public ImageRequest load(String url) {
+        return new ImageRequest(this, url);
+    }
+
+    /**
+     * 按不小于 width x height 的尺寸解码, 尺寸不大于 0 时解码原图; 在主线程发出结果.
+     * 发出的 bitmap 之后可能被复用, 需要长期持有时先调用 getMemoryCache().acquire()
+     */
+    public Observable<Bitmap> fetch(String url, int width, int height) {
+        String key = key(url, width, height);
+        Bitmap cached = mMemoryCache.get(key);
+        if (cached != null) {
+            return Observable.just(cached);
+        }
+        return decode(key, url, width, height);
+    }
+
+    private Observable<Bitmap> decode(final String key, String url, int width, int height) {
+        return mDecodes.share(key, download(url)
+                .flatMap(decoder(width, height))
+                .observeOn(mMainScheduler)
+                .doOnNext(new Action1<Bitmap>() {
+                    @Override
+                    public void call(Bitmap bitmap) {
+                        mMemoryCache.put(key, bitmap);
+                    }
+                }));
+    }
+
+    /**
+     * 已经在内存缓存中的图片, 没有时返回 null
+     */
+    public Bitmap getCached(String url, int width, int height) {
+        return mMemoryCache.get(key(url, width, height));
+    }
+
+    /**
+     * 原始数据, 先读磁盘缓存, 没有时下载后写入; 在 io 线程发出
+     */
+    public Observable<byte[]> download(final String url) {
+        return mDownloads.share(url, Observable.create(new Observable.OnSubscribe<byte[]>() {
+            @Override
+            public void call(Subscriber<? super byte[]> subscriber) {
+                try {
+                    byte[] data = mDiskCache != null ? mDiskCache.get(url) : null;
+                    if (data == null) {
+                        data = execute(url, subscriber);
+                        if (mDiskCache != null) {
+                            putDiskCache(url, data);
+                        }
+                    }
+                    if (!subscriber.isUnsubscribed()) {
+                        subscriber.onNext(data);
+                        subscriber.onCompleted();
+                    }
+                } catch (IOException e) {
+                    if (!subscriber.isUnsubscribed()) {
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }).subscribeOn(Schedulers.io()));
+    }
+
+    /**
+     * 取消订阅时取消正在进行的请求
+     */
+    private byte[] execute(String url, Subscriber<?> subscriber) throws IOException {
+        final Call call = mClient.newCall(new Request.Builder().url(url).build());
+        subscriber.add(Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                call.cancel();
+            }
+        }));
+        Response response = call.execute();
+        if (!response.isSuccessful()) {
+            response.body().close();
+            throw new IOException("Unexpected response " + response.code() + " for " + url);
+        }
+        return response.body().bytes();
+    }
+
+    /**
+     * 写入失败时只是下次重新下载, 不影响这次的结果
+     */
+    private void putDiskCache(String url, byte[] data) {
+        try {
+            mDiskCache.put(url, data);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Func1<byte[], Observable<Bitmap>> decoder(final int width, final int height) {
+        return new Func1<byte[], Observable<Bitmap>>() {
+            @Override
+            public Observable<Bitmap> call(byte[] data) {
+                try {
+                    return Observable.just(ImageDecoder.decode(data, width, height, mConfig, mBitmapPool));
+                } catch (IOException e) {
+                    return Observable.error(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * 在主线程调用, 之前的加载被取消, 显示的 bitmap 被替换后才可以复用.
+     * 先订阅新的请求再取消之前的, 重新加载同一张图片时接上还没有完成的请求.
+     * 返回的 Subscription 取消时取消加载; 之后 view 没有再次 into 时 (例如 holder 被回收) 同时 clear
+     */
+    Subscription into(final ImageView view, String url, int width, int height,
+                      final ImageRequest.Placeholder placeholder, final ImageRequest.Placeholder error) {
+        Subscription previous = mViewRequests.remove(view);
+        final Subscription request = start(view, url, width, height, placeholder, error);
+        if (previous != null) {
+            previous.unsubscribe();
+        }
+        final Object binding = new Object();
+        mViewBindings.put(view, binding);
+        return Subscriptions.create(new Action0() {
+            @Override
+            public void call() {
+                request.unsubscribe();
+                if (mViewBindings.get(view) == binding) {
+                    clear(view);
+                }
+            }
+        });
+    }
+
+    private Subscription start(final ImageView view, String url, int width, int height,
+                               ImageRequest.Placeholder placeholder, final ImageRequest.Placeholder error) {
+        String key = url == null ? null : key(url, width, height);
+        Bitmap cached = key == null ? null : mMemoryCache.get(key);
+        if (cached != null) {
+            show(view, cached);
+            return Subscriptions.empty();
+        }
+        show(view, placeholder);
+        if (url == null) {
+            return Subscriptions.empty();
+        }
+
+        final AtomicReference<Subscription> request = new AtomicReference<>();
+        Subscription subscription = decode(key, url, width, height).subscribe(new Subscriber<Bitmap>() {
+            @Override
+            public void onNext(Bitmap bitmap) {
+                show(view, bitmap);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                remove(view, request.get());
+                show(view, error);
+            }
+
+            @Override
+            public void onCompleted() {
+                remove(view, request.get());
+            }
+        });
+        if (subscription.isUnsubscribed()) {
+            return subscription;
+        }
+        request.set(subscription);
+        mViewRequests.put(view, subscription);
+        return subscription;
+    }
+
+    /**
+     * 取消 view 正在进行的加载, 已经显示的图片不变
+     */
+    public void cancel(ImageView view) {
+        Subscription subscription = mViewRequests.remove(view);
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+    }
+
+    /**
+     * 取消 view 正在进行的加载, 清除显示的图片并释放 bitmap, 之后 bitmap 可以被移出内存缓存并复用.
+     * 在主线程调用, 例如 view 不再显示图片时
+     */
+    public void clear(ImageView view) {
+        cancel(view);
+        mViewBindings.remove(view);
+        if (mViewBitmaps.containsKey(view)) {
+            view.setImageDrawable(null);
+            release(view, null);
+        }
+    }
+
+    private void remove(ImageView view, Subscription subscription) {
+        if (subscription != null && mViewRequests.get(view) == subscription) {
+            mViewRequests.remove(view);
+        }
+    }
+
+    private void show(ImageView view, Bitmap bitmap) {
+        mMemoryCache.acquire(bitmap);
+        view.setImageBitmap(bitmap);
+        release(view, bitmap);
+    }
+
+    private void show(ImageView view, ImageRequest.Placeholder placeholder) {
+        if (placeholder != null) {
+            placeholder.apply(view);
+        } else {
+            view.setImageDrawable(null);
+        }
+        release(view, null);
+    }
+
+    /**
+     * 记录 view 新显示的 bitmap, 释放之前显示的
+     */
+    private void release(ImageView view, Bitmap bitmap) {
+        Bitmap previous = bitmap == null ? mViewBitmaps.remove(view) : mViewBitmaps.put(view, bitmap);
+        if (previous != null) {
+            mMemoryCache.release(previous);
+        }
+    }
+
+    /**
+     * 在 Application.onTrimMemory 中调用, 后台时缩小内存缓存, 内存紧张时全部清空
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            clearMemory();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            mMemoryCache.trimToSize(mMemoryCache.getMaxSize() / 2);
+            mBitmapPool.trimToSize(mBitmapPool.getMaxSize() / 2);
+        }
+    }
+
+    public void clearMemory() {
+        mMemoryCache.clear();
+        mBitmapPool.clear();
+    }
+
+    public OkHttpClient getOkHttpClient() {
+        return mClient;
+    }
+
+    public MemoryCache getMemoryCache() {
+        return mMemoryCache;
+    }
+
+    public BitmapPool getBitmapPool() {
+        return mBitmapPool;
+    }
+
+    /**
+     * 没有设置磁盘缓存时返回 null
+     */
+    public DiskCache getDiskCache() {
+        return mDiskCache;
+    }
+
+    /**
+     * 正在下载的地址个数
+     */
+    public int getDownloadCount() {
+        return mDownloads.size();
+    }
+
+    private static String key(String url, int width, int height) {
+        return url + '#' + width + 'x' + height;
+    }
+
+    /**
+     * 相同 key 的请求共用一次执行, 结束或者所有订阅者都取消后移除
+     */
+    private static final class InFlight<T> {
+
+        private final Map<String, Observable<T>> mRequests = new HashMap<>();
+
+        synchronized Observable<T> share(final String key, Observable<T> source) {
+            Observable<T> shared = mRequests.get(key);
+            if (shared != null) {
+                return shared;
+            }
+            final AtomicReference<Observable<T>> reference = new AtomicReference<>();
+            Action0 remove = new Action0() {
+                @Override
+                public void call() {
+                    remove(key, reference.get());
+                }
+            };
+            shared = source.doOnTerminate(remove).doOnUnsubscribe(remove).share();
+            reference.set(shared);
+            mRequests.put(key, shared);
+            return shared;
+        }
+
+        synchronized void remove(String key, Observable<T> shared) {
+            if (mRequests.get(key) == shared) {
+                mRequests.remove(key);
+            }
+        }
+
+        synchronized int size() {
+            return mRequests.size();
+        }
+    }
+
+    public static class Builder {
+
+        private OkHttpClient mClient;
+        private long mMemoryCacheSize = -1;
+        private long mBitmapPoolSize = -1;
+        private File mDiskCacheDirectory;
+        private long mDiskCacheSize = DEFAULT_DISK_CACHE_SIZE;
+        private Bitmap.Config mConfig = Bitmap.Config.ARGB_8888;
+        private Scheduler mMainScheduler;
+
+        /**
+         * 默认使用单独的 OkHttpClient, 不经过 ApiClient 的认证和条件请求
+         */
+        public Builder client(OkHttpClient client) {
+            mClient = client;
+            return this;
+        }
+
+        /**
+         * 默认为最大内存的 1/8
+         */
+        public Builder memoryCacheSize(long maxSize) {
+            mMemoryCacheSize = maxSize;
+            return this;
+        }
+
+        /**
+         * 默认为最大内存的 1/16, 为 0 时不复用
+         */
+        public Builder bitmapPoolSize(long maxSize) {
+            mBitmapPoolSize = maxSize;
+            return this;
+        }
+
+        /**
+         * 例如 new File(context.getCacheDir(), "images"), 不设置时不使用磁盘缓存
+         */
+        public Builder diskCache(File directory, long maxSize) {
+            mDiskCacheDirectory = directory;
+            mDiskCacheSize = maxSize;
+            return this;
+        }
+
+        /**
+         * 没有透明的图片可以使用 RGB_565, 内存减半
+         */
+        public Builder config(Bitmap.Config config) {
+            mConfig = config;
+            return this;
+        }
+
+        /**
+         * 发出结果和修改内存缓存的线程, 默认为主线程
+         */
+        public Builder mainScheduler(Scheduler scheduler) {
+            mMainScheduler = scheduler;
+            return this;
+        }
+
+        public ImageLoader build() {
+            return new ImageLoader(this);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ease.image;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import rx.Observable;
+import rx.Subscription;
+
+/**
+ * image request
+ * ImageLoader.load(url) 返回的一次加载的参数, 例如
+ * bindSubscription(loader.load(user.getAvatarUrl()).placeholder(R.drawable.avatar).into(mAvatarView))
+ */
+public class ImageRequest {
+
+    /**
+     * 加载中或者失败时显示的图片
+     */
+    static final class Placeholder {
+        private final int mResId;
+        private final Drawable mDrawable;
+
+        Placeholder(int resId, Drawable drawable) {
+            mResId = resId;
+            mDrawable = drawable;
+        }
+
+        void apply(ImageView view) {
+            if (mDrawable != null) {
+                view.setImageDrawable(mDrawable);
+            } else {
+                view.setImageResource(mResId);
+            }
+        }
+    }
+
+    private final ImageLoader mLoader;
+    private final String mUrl;
+    private int mWidth;
+    private int mHeight;
+    private Placeholder mPlaceholder;
+    private Placeholder mError;
+
+    ImageRequest(ImageLoader loader, String url) {
+        mLoader = loader;
+        mUrl = url;
+    }
+
+    /**
+     * 解码的最小尺寸, 不设置时按 ImageView 的尺寸
+     */
+    public ImageRequest resize(int width, int height) {
+        mWidth = width;
+        mHeight = height;
+        return this;
+    }
+
+    public ImageRequest placeholder(int resId) {
+        mPlaceholder = new Placeholder(resId, null);
+        return this;
+    }
+
+    public ImageRequest placeholder(Drawable drawable) {
+        mPlaceholder = new Placeholder(0, drawable);
+        return this;
+    }
+
+    /**
+     * 失败时显示, 不设置时保持 placeholder
+     */
+    public ImageRequest error(int resId) {
+        mError = new Placeholder(resId, null);
+        return this;
+    }
+
+    public ImageRequest error(Drawable drawable) {
+        mError = new Placeholder(0, drawable);
+        return this;
+    }
+
+    /**
+     * 在主线程调用, 取消 view 之前的加载; 地址为 null 时只显示 placeholder.
+     * 返回的 Subscription 交给 BaseHolder.bindSubscription, 重新绑定或回收时取消, 回收时还会释放显示的 bitmap
+     */
+    public Subscription into(ImageView view) {
+        int width = mWidth > 0 ? mWidth : getTargetSize(view, true);
+        int height = mHeight > 0 ? mHeight : getTargetSize(view, false);
+        return mLoader.into(view, mUrl, width, height, mPlaceholder, mError == null ? mPlaceholder : mError);
+    }
+
+    /**
+     * 不显示到 ImageView, 按 resize 的尺寸解码
+     */
+    public Observable<Bitmap> fetch() {
+        if (mUrl == null) {
+            return Observable.error(new IllegalArgumentException("The url is null."));
+        }
+        return mLoader.fetch(mUrl, mWidth, mHeight);
+    }
+
+    /**
+     * 已经布局时使用实际尺寸, 否则使用 LayoutParams 中的固定尺寸, 都没有时不超过屏幕尺寸
+     */
+    private static int getTargetSize(ImageView view, boolean horizontal) {
+        int size = horizontal ? view.getWidth() : view.getHeight();
+        if (size > 0) {
+            return size;
+        }
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params != null) {
+            size = horizontal ? params.width : params.height;
+            if (size > 0) {
+                return size;
+            }
+        }
+        DisplayMetrics metrics = view.getResources().getDisplayMetrics();
+        return horizontal ? metrics.widthPixels : metrics.heightPixels;
+    }
+}
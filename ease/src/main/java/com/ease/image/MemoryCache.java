@@ -0,0 +1,146 @@
+package com.ease.image;
+
+import android.graphics.Bitmap;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * memory cache
+ * 解码后的 bitmap 的 LRU 缓存, 按字节数限制大小. 正在显示的 bitmap 由 acquire/release 计数,
+ * 淘汰时没有在显示的放入 BitmapPool 复用, 还在显示的等到最后一次 release 时再放入, 避免复用正在显示的内存.
+ * 同一个 bitmap 只能以一个 key 放入
+ */
+public class MemoryCache {
+
+    private final LinkedHashMap<String, Bitmap> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long mMaxSize;
+    private final BitmapPool mPool;
+    private long mSize;
+
+    /**
+     * 正在显示的 bitmap 及其引用次数
+     */
+    private final IdentityHashMap<Bitmap, Integer> mReferences = new IdentityHashMap<>();
+
+    /**
+     * mEntries 中的 bitmap, 按引用判断是否仍在缓存中
+     */
+    private final Set<Bitmap> mCached = Collections.newSetFromMap(new IdentityHashMap<Bitmap, Boolean>());
+
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @param pool 为 null 时不复用淘汰的 bitmap
+     */
+    public MemoryCache(long maxSize, BitmapPool pool) {
+        mMaxSize = maxSize;
+        mPool = pool;
+    }
+
+    public synchronized Bitmap get(String key) {
+        Bitmap bitmap = mEntries.get(key);
+        if (bitmap != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return bitmap;
+    }
+
+    public synchronized void put(String key, Bitmap bitmap) {
+        long size = bitmap.getByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+        Bitmap previous = mEntries.put(key, bitmap);
+        mCached.add(bitmap);
+        mSize += size;
+        if (previous != null) {
+            mSize -= previous.getByteCount();
+            if (previous != bitmap) {
+                mCached.remove(previous);
+                recycle(previous);
+            }
+        }
+        trimToSize(mMaxSize);
+    }
+
+    /**
+     * 开始显示 bitmap
+     */
+    public synchronized void acquire(Bitmap bitmap) {
+        Integer count = mReferences.get(bitmap);
+        mReferences.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    /**
+     * 不再显示 bitmap, 已经被淘汰的在最后一次 release 时放入 BitmapPool
+     */
+    public synchronized void release(Bitmap bitmap) {
+        Integer count = mReferences.get(bitmap);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            mReferences.put(bitmap, count - 1);
+            return;
+        }
+        mReferences.remove(bitmap);
+        recycle(bitmap);
+    }
+
+    public synchronized void remove(String key) {
+        Bitmap bitmap = mEntries.remove(key);
+        if (bitmap != null) {
+            mSize -= bitmap.getByteCount();
+            mCached.remove(bitmap);
+            recycle(bitmap);
+        }
+    }
+
+    public synchronized void trimToSize(long maxSize) {
+        Iterator<Map.Entry<String, Bitmap>> iterator = mEntries.entrySet().iterator();
+        while (mSize > maxSize && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next().getValue();
+            iterator.remove();
+            mSize -= bitmap.getByteCount();
+            mCached.remove(bitmap);
+            recycle(bitmap);
+        }
+    }
+
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * 既不在缓存中也没有在显示时才放入 BitmapPool
+     */
+    private void recycle(Bitmap bitmap) {
+        if (mPool != null && !mReferences.containsKey(bitmap) && !mCached.contains(bitmap)) {
+            mPool.put(bitmap);
+        }
+    }
+
+    public synchronized long getSize() {
+        return mSize;
+    }
+
+    public long getMaxSize() {
+        return mMaxSize;
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ease.metrics;
+
+/**
+ * action metrics
+ * 一类请求各阶段的耗时: 发起到在 io 线程订阅, 订阅到数据源发出第一个结果, 处理步骤, 主线程应用结果, 以及发起到结束的总耗时
+ */
+public final class ActionMetrics {
+
+    private final Histogram mSubscribe;
+    private final Histogram mFetch;
+    private final Histogram mTransform;
+    private final Histogram mApply;
+    private final Histogram mTotal;
+    private final Counter mFailures;
+
+    /**
+     * @param prefix 指标名前缀, 例如 data.RepoController.refresh
+     */
+    public ActionMetrics(MetricsRegistry registry, String prefix) {
+        mSubscribe = registry.histogram(prefix + ".subscribe");
+        mFetch = registry.histogram(prefix + ".fetch");
+        mTransform = registry.histogram(prefix + ".transform");
+        mApply = registry.histogram(prefix + ".apply");
+        mTotal = registry.histogram(prefix + ".total");
+        mFailures = registry.counter(prefix + ".failures");
+    }
+
+    public void recordSubscribe(long nanos) {
+        mSubscribe.record(nanos);
+    }
+
+    public void recordFetch(long nanos) {
+        mFetch.record(nanos);
+    }
+
+    public void recordTransform(long nanos) {
+        mTransform.record(nanos);
+    }
+
+    public void recordApply(long nanos) {
+        mApply.record(nanos);
+    }
+
+    public void recordTotal(long nanos, boolean failed) {
+        mTotal.record(nanos);
+        if (failed) {
+            mFailures.increment(1);
+        }
+    }
+}
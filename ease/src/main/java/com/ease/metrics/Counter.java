@@ -0,0 +1,33 @@
+package com.ease.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * counter
+ * 只增的计数, 可以在任意线程调用
+ */
+public final class Counter {
+
+    private final String mName;
+    private final AtomicLong mCount = new AtomicLong();
+
+    public Counter(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public void increment(long delta) {
+        mCount.addAndGet(delta);
+    }
+
+    public long getCount() {
+        return mCount.get();
+    }
+
+    public void reset() {
+        mCount.set(0);
+    }
+}
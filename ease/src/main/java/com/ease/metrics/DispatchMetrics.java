@@ -0,0 +1,39 @@
+package com.ease.metrics;
+
+/**
+ * dispatch metrics
+ * 订阅者事件分发的次数, 每个收到事件的订阅者计一次
+ */
+public final class DispatchMetrics {
+
+    private final Counter mStart;
+    private final Counter mDone;
+    private final Counter mEnd;
+    private final Counter mDataChange;
+
+    /**
+     * @param prefix 指标名前缀, 例如 data.RepoController.dispatch
+     */
+    public DispatchMetrics(MetricsRegistry registry, String prefix) {
+        mStart = registry.counter(prefix + ".start");
+        mDone = registry.counter(prefix + ".done");
+        mEnd = registry.counter(prefix + ".end");
+        mDataChange = registry.counter(prefix + ".change");
+    }
+
+    public void onStart(int listeners) {
+        mStart.increment(listeners);
+    }
+
+    public void onDone(int listeners) {
+        mDone.increment(listeners);
+    }
+
+    public void onEnd(int listeners) {
+        mEnd.increment(listeners);
+    }
+
+    public void onDataChange(int listeners) {
+        mDataChange.increment(listeners);
+    }
+}
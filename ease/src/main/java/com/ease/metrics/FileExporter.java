@@ -0,0 +1,43 @@
+package com.ease.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * file exporter
+ * 把报告追加到文件, 每次导出以时间开头, 文件超过 maxBytes 后先清空
+ */
+public class FileExporter implements MetricsExporter {
+
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    private final File mFile;
+    private final long mMaxBytes;
+
+    public FileExporter(File file) {
+        this(file, DEFAULT_MAX_BYTES);
+    }
+
+    public FileExporter(File file, long maxBytes) {
+        mFile = file;
+        mMaxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized void export(MetricsRegistry registry) throws IOException {
+        boolean append = mFile.length() < mMaxBytes;
+        Writer writer = new OutputStreamWriter(new FileOutputStream(mFile, append), "UTF-8");
+        try {
+            writer.write("# " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US).format(new Date()) + "\n");
+            registry.writeReport(writer);
+        } finally {
+            writer.close();
+        }
+    }
+}
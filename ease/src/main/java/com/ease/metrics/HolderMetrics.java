@@ -0,0 +1,88 @@
+package com.ease.metrics;
+
+/**
+ * holder metrics
+ * 每种 view type 创建和绑定 ViewHolder 的耗时. view type 通常只有几种, 按数组线性查找,
+ * 新的 view type 第一次出现时才分配. 查找不加锁, 新增时加锁复制数组后整体替换, 可以在任意线程记录,
+ * 例如在后台线程创建 holder
+ */
+public final class HolderMetrics {
+
+    /**
+     * 发布后不再修改
+     */
+    private static final class Entries {
+        final int[] viewTypes;
+        final Histogram[] create;
+        final Histogram[] bind;
+
+        Entries(int[] viewTypes, Histogram[] create, Histogram[] bind) {
+            this.viewTypes = viewTypes;
+            this.create = create;
+            this.bind = bind;
+        }
+    }
+
+    private final MetricsRegistry mRegistry;
+    private final String mPrefix;
+
+    private volatile Entries mEntries = new Entries(new int[0], new Histogram[0], new Histogram[0]);
+
+    /**
+     * @param prefix 指标名前缀, 例如 adapter.RepoAdapter
+     */
+    public HolderMetrics(MetricsRegistry registry, String prefix) {
+        mRegistry = registry;
+        mPrefix = prefix;
+    }
+
+    public void recordCreate(int viewType, long nanos) {
+        Entries entries = mEntries;
+        int index = indexOf(entries, viewType);
+        if (index < 0) {
+            entries = add(viewType);
+            index = indexOf(entries, viewType);
+        }
+        entries.create[index].record(nanos);
+    }
+
+    public void recordBind(int viewType, long nanos) {
+        Entries entries = mEntries;
+        int index = indexOf(entries, viewType);
+        if (index < 0) {
+            entries = add(viewType);
+            index = indexOf(entries, viewType);
+        }
+        entries.bind[index].record(nanos);
+    }
+
+    private static int indexOf(Entries entries, int viewType) {
+        int[] viewTypes = entries.viewTypes;
+        for (int i = 0; i < viewTypes.length; i++) {
+            if (viewTypes[i] == viewType) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private synchronized Entries add(int viewType) {
+        Entries entries = mEntries;
+        if (indexOf(entries, viewType) >= 0) {
+            return entries;
+        }
+        int size = entries.viewTypes.length;
+        int[] viewTypes = new int[size + 1];
+        Histogram[] create = new Histogram[size + 1];
+        Histogram[] bind = new Histogram[size + 1];
+        System.arraycopy(entries.viewTypes, 0, viewTypes, 0, size);
+        System.arraycopy(entries.create, 0, create, 0, size);
+        System.arraycopy(entries.bind, 0, bind, 0, size);
+        viewTypes[size] = viewType;
+        create[size] = mRegistry.histogram(mPrefix + "." + viewType + ".create");
+        bind[size] = mRegistry.histogram(mPrefix + "." + viewType + ".bind");
+        entries = new Entries(viewTypes, create, bind);
+        mEntries = entries;
+        return entries;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ease.metrics;
+
+import android.util.Log;
+
+import java.io.IOException;
+
+/**
+ * logcat exporter
+ * 每个指标输出一行 info 日志
+ */
+public class LogcatExporter implements MetricsExporter {
+
+    public static final String DEFAULT_TAG = "EaseMetrics";
+
+    private final String mTag;
+
+    public LogcatExporter() {
+        this(DEFAULT_TAG);
+    }
+
+    public LogcatExporter(String tag) {
+        mTag = tag;
+    }
+
+    @Override
+    public void export(MetricsRegistry registry) throws IOException {
+        StringBuilder report = new StringBuilder();
+        registry.writeReport(report);
+        // logcat 单条有长度限制, 按行输出
+        int start = 0;
+        for (int end = report.indexOf("\n"); end >= 0; end = report.indexOf("\n", start)) {
+            Log.i(mTag, report.substring(start, end));
+            start = end + 1;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.ease.metrics;
+
+import java.io.IOException;
+
+/**
+ * metrics
+ * 全局开关和默认的 MetricsRegistry. 默认关闭, 关闭时各处不读取时间也不记录;
+ * 开启后 DataController 记录每类请求各阶段的耗时, BaseAdapter 记录每种 view type 的创建和绑定耗时,
+ * SubscriberManager 记录分发次数. 通过 export 输出, 例如在 Activity.onStop 时写到 logcat 或文件
+ */
+public final class Metrics {
+
+    private static final MetricsRegistry sRegistry = new MetricsRegistry();
+    private static volatile boolean sEnabled;
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static MetricsRegistry getRegistry() {
+        return sRegistry;
+    }
+
+    public static void export(MetricsExporter exporter) throws IOException {
+        exporter.export(sRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ease.metrics;
+
+import java.io.IOException;
+
+/**
+ * metrics exporter
+ * 输出当前的指标, 例如写到 logcat, 文件或者上报到服务器
+ */
+public interface MetricsExporter {
+
+    void export(MetricsRegistry registry) throws IOException;
+}
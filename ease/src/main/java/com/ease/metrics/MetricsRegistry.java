@@ -0,0 +1,111 @@
+package com.ease.metrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * metrics registry
+ * 按名字管理 Histogram 和 Counter. 名字按 "模块.对象.指标" 组织, 例如 data.RepoController.refresh.fetch;
+ * 查找会拼接字符串, 热路径应该保存返回的对象
+ */
+public class MetricsRegistry {
+
+    private static final Comparator<Histogram> HISTOGRAM_ORDER = new Comparator<Histogram>() {
+        @Override
+        public int compare(Histogram lhs, Histogram rhs) {
+            return lhs.getName().compareTo(rhs.getName());
+        }
+    };
+
+    private static final Comparator<Counter> COUNTER_ORDER = new Comparator<Counter>() {
+        @Override
+        public int compare(Counter lhs, Counter rhs) {
+            return lhs.getName().compareTo(rhs.getName());
+        }
+    };
+
+    private final ConcurrentMap<String, Histogram> mHistograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> mCounters = new ConcurrentHashMap<>();
+
+    public Histogram histogram(String name) {
+        Histogram histogram = mHistograms.get(name);
+        if (histogram == null) {
+            Histogram created = new Histogram(name);
+            histogram = mHistograms.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    public Counter counter(String name) {
+        Counter counter = mCounters.get(name);
+        if (counter == null) {
+            Counter created = new Counter(name);
+            counter = mCounters.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * 按名字排序
+     */
+    public List<Histogram> getHistograms() {
+        List<Histogram> histograms = new ArrayList<>(mHistograms.values());
+        Collections.sort(histograms, HISTOGRAM_ORDER);
+        return histograms;
+    }
+
+    public List<Counter> getCounters() {
+        List<Counter> counters = new ArrayList<>(mCounters.values());
+        Collections.sort(counters, COUNTER_ORDER);
+        return counters;
+    }
+
+    /**
+     * 清零所有指标, 已经保存的对象仍然有效
+     */
+    public void reset() {
+        for (Histogram histogram : mHistograms.values()) {
+            histogram.reset();
+        }
+        for (Counter counter : mCounters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * 每个指标一行的文本报告, 耗时单位为微秒, 没有记录过的指标不输出
+     */
+    public void writeReport(Appendable out) throws IOException {
+        for (Histogram histogram : getHistograms()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.append(String.format(Locale.US, "%s count=%d mean=%.1f p50=%.1f p90=%.1f p99=%.1f max=%.1f\n",
+                    histogram.getName(), histogram.getCount(), micros(histogram.getMean()),
+                    micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(90)),
+                    micros(histogram.getValueAtPercentile(99)), micros(histogram.getMax())));
+        }
+        for (Counter counter : getCounters()) {
+            if (counter.getCount() == 0) {
+                continue;
+            }
+            out.append(counter.getName()).append(" count=").append(String.valueOf(counter.getCount())).append('\n');
+        }
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
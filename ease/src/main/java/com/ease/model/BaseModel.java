@@ -1,11 +1,44 @@
 package com.ease.model;
 
-import java.io.Serializable;
-
 /**
  * base model
+ * 需要持久化或放入 Bundle 的子类使用 {@link com.ease.codec.Codec} 生成二进制读写代码
  * Created by Spencer on 15/10/28.
  */
-public class BaseModel implements Serializable {
+public class BaseModel {
+
+    /**
+     * 没有稳定 id
+     */
+    public static final long NO_ID = -1;
+
+    /**
+     * 条目的稳定 id, 例如 GitHub 返回的数字 id, 必须为非负数 (负数保留给 Header/Random/Footer),
+     * 配合 BaseAdapter.setHasStableIds(true) 使用. 默认没有稳定 id
+     */
+    public long getStableId() {
+        return NO_ID;
+    }
+
+    /**
+     * 是否表示同一个条目, 刷新时用来计算新旧列表的差异; 默认在双方都有稳定 id 时比较 id, 否则使用 equals
+     */
+    public boolean isSameItem(BaseModel other) {
+        if (other == null) {
+            return false;
+        }
+        long id = getStableId();
+        if (id != NO_ID && other.getStableId() != NO_ID) {
+            return id == other.getStableId() && getClass() == other.getClass();
+        }
+        return equals(other);
+    }
+
+    /**
+     * 同一个条目的内容是否相同, 仅在 isSameItem 返回 true 时调用, 默认使用 equals
+     */
+    public boolean isSameContent(BaseModel other) {
+        return equals(other);
+    }
 
 }
@@ -0,0 +1,48 @@
+package com.ease.model;
+
+import android.os.Parcel;
+
+import com.ease.codec.Sink;
+
+/**
+ * parcel sink
+ * 将 {@link com.ease.codec.Codec} 生成的读写代码用于 Parcel, 例如实现 Parcelable
+ */
+public class ParcelSink implements Sink {
+
+    private final Parcel mParcel;
+
+    public ParcelSink(Parcel parcel) {
+        mParcel = parcel;
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        mParcel.writeInt(value ? 1 : 0);
+    }
+
+    @Override
+    public void writeInt(int value) {
+        mParcel.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) {
+        mParcel.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) {
+        mParcel.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        mParcel.writeDouble(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        mParcel.writeString(value);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ease.model;
+
+import android.os.Parcel;
+
+import com.ease.codec.Source;
+
+/**
+ * parcel source
+ * 读取 ParcelSink 写入的数据
+ */
+public class ParcelSource implements Source {
+
+    private final Parcel mParcel;
+
+    public ParcelSource(Parcel parcel) {
+        mParcel = parcel;
+    }
+
+    @Override
+    public boolean readBoolean() {
+        return mParcel.readInt() != 0;
+    }
+
+    @Override
+    public int readInt() {
+        return mParcel.readInt();
+    }
+
+    @Override
+    public long readLong() {
+        return mParcel.readLong();
+    }
+
+    @Override
+    public float readFloat() {
+        return mParcel.readFloat();
+    }
+
+    @Override
+    public double readDouble() {
+        return mParcel.readDouble();
+    }
+
+    @Override
+    public String readString() {
+        return mParcel.readString();
+    }
+}
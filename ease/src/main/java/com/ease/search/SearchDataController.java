@@ -0,0 +1,406 @@
+package com.ease.search;
+
+import com.ease.data.DataController;
+import com.ease.data.DerivedDataController;
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import rx.Observable;
+import rx.Subscriber;
+import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Func0;
+import rx.schedulers.Schedulers;
+
+/**
+ * search data controller
+ * parent 中匹配搜索词的条目, 顺序与 parent 相同, 可以直接作为 BaseAdapter 的 DataController.
+ * parent 的每个条目对应 SearchIndex 中的一个文档, 新增和修改的条目在下一帧加入索引, 不会重建整个索引;
+ * setQuery 在 computation 线程查询, 回到主线程后只分发显示结果中变化的区间. 没有搜索词时显示 parent 的全部条目
+ */
+public class SearchDataController<M extends BaseModel> extends DerivedDataController<M> {
+
+    /**
+     * 条目中参与搜索的文本, 例如仓库的名字和描述
+     */
+    public interface TextExtractor<M> {
+        CharSequence getText(M model);
+    }
+
+    /**
+     * mDocs 中尚未加入索引的新条目; 小于它的值表示已修改的条目, 旧文档 id 为 -value - 2
+     */
+    private static final int PENDING = -1;
+
+    private final TextExtractor<M> mExtractor;
+    private final SearchIndex mIndex = new SearchIndex();
+
+    /**
+     * parent 中每个位置的文档 id
+     */
+    private int[] mDocs = new int[16];
+    private int mDocCount;
+    private int mPendingCount;
+
+    /**
+     * 显示的条目在 parent 中的位置, 递增
+     */
+    private int[] mRows = new int[16];
+    private int mRowCount;
+
+    /**
+     * 已经应用的搜索词和匹配的文档, 没有搜索词时都为 null
+     */
+    private String[] mAppliedTerms;
+    private BitSet mMatches;
+
+    private String mQuery = "";
+    private long mQueryGeneration;
+    private Subscription mSearchSubscription;
+
+    public SearchDataController(DataController<M> parent, TextExtractor<M> extractor) {
+        super(parent);
+        if (extractor == null) {
+            throw new IllegalArgumentException("The extractor is null.");
+        }
+        mExtractor = extractor;
+    }
+
+    public SearchIndex getIndex() {
+        return mIndex;
+    }
+
+    public String getQuery() {
+        return mQuery;
+    }
+
+    /**
+     * 是否有还没有返回的查询, 例如用于显示进度
+     */
+    public boolean isSearching() {
+        return mSearchSubscription != null;
+    }
+
+    /**
+     * 在后台查询, 结果返回前仍然显示上一次的结果; 之前未完成的查询被丢弃
+     */
+    public void setQuery(String query) {
+        query = query == null ? "" : query;
+        if (query.equals(mQuery)) {
+            return;
+        }
+        mQuery = query;
+        mQueryGeneration++;
+        cancelSearch();
+        if (!isAttached()) {
+            // attach 时按新的搜索词重建
+            return;
+        }
+        String[] terms = SearchIndex.tokenize(query);
+        if (terms.length == 0) {
+            mAppliedTerms = null;
+            mMatches = null;
+            applyMatches();
+            return;
+        }
+        search(query, terms, mQueryGeneration);
+    }
+
+    private void search(final String query, final String[] terms, final long generation) {
+        final int version = mIndex.getVersion();
+        mSearchSubscription = Observable.defer(new Func0<Observable<BitSet>>() {
+            @Override
+            public Observable<BitSet> call() {
+                return Observable.just(mIndex.search(query));
+            }
+        })
+                .subscribeOn(Schedulers.computation())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Subscriber<BitSet>() {
+                    @Override
+                    public void onNext(BitSet matches) {
+                        if (generation != mQueryGeneration || !isAttached()) {
+                            return;
+                        }
+                        if (version != mIndex.getVersion()) {
+                            // 查询期间索引被修改, 按新的索引重新查询
+                            search(query, terms, generation);
+                            return;
+                        }
+                        mSearchSubscription = null;
+                        mAppliedTerms = terms;
+                        mMatches = matches;
+                        applyMatches();
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+    }
+
+    private void cancelSearch() {
+        if (mSearchSubscription != null) {
+            mSearchSubscription.unsubscribe();
+            mSearchSubscription = null;
+        }
+    }
+
+    @Override
+    public void detach() {
+        cancelSearch();
+        super.detach();
+    }
+
+    /**
+     * 重建索引时逐个判断是否匹配, 不需要再查询
+     */
+    @Override
+    protected void onParentReset() {
+        clearRows();
+        mRowCount = 0;
+        mIndex.clear();
+        mDocCount = 0;
+        mDocs = new int[Math.max(16, getParent().getData().size())];
+        mPendingCount = 0;
+        String[] terms = SearchIndex.tokenize(mQuery);
+        mAppliedTerms = terms.length == 0 ? null : terms;
+        mMatches = terms.length == 0 ? null : new BitSet();
+        onParentInserted(0, getParent().getData().size());
+        onParentSettled();
+    }
+
+    @Override
+    protected void onParentInserted(int position, int count) {
+        mDocs = insertGap(mDocs, mDocCount, position, count);
+        Arrays.fill(mDocs, position, position + count, PENDING);
+        mDocCount += count;
+        mPendingCount += count;
+        shiftRows(position, count);
+    }
+
+    @Override
+    protected void onParentRemoved(int position, int count) {
+        for (int i = position; i < position + count; i++) {
+            int doc = mDocs[i];
+            if (doc < PENDING) {
+                mIndex.remove(-doc - 2);
+            } else if (doc >= 0) {
+                mIndex.remove(doc);
+            }
+            if (doc < 0) {
+                mPendingCount--;
+            }
+        }
+        System.arraycopy(mDocs, position + count, mDocs, position, mDocCount - position - count);
+        mDocCount -= count;
+
+        int start = lowerBound(position);
+        int end = lowerBound(position + count);
+        if (end > start) {
+            System.arraycopy(mRows, end, mRows, start, mRowCount - end);
+            mRowCount -= end - start;
+            removeRows(start, end - start);
+        }
+        shiftRows(position, -count);
+    }
+
+    @Override
+    protected void onParentMoved(int fromPosition, int toPosition) {
+        int doc = mDocs[fromPosition];
+        if (fromPosition < toPosition) {
+            System.arraycopy(mDocs, fromPosition + 1, mDocs, fromPosition, toPosition - fromPosition);
+        } else {
+            System.arraycopy(mDocs, toPosition, mDocs, toPosition + 1, fromPosition - toPosition);
+        }
+        mDocs[toPosition] = doc;
+
+        int row = rowOf(fromPosition);
+        // 其余条目的相对顺序不变, 只调整位置
+        for (int i = 0; i < mRowCount; i++) {
+            int p = mRows[i];
+            if (fromPosition < toPosition && p > fromPosition && p <= toPosition) {
+                mRows[i] = p - 1;
+            } else if (toPosition < fromPosition && p >= toPosition && p < fromPosition) {
+                mRows[i] = p + 1;
+            }
+        }
+        if (row < 0) {
+            return;
+        }
+        System.arraycopy(mRows, row + 1, mRows, row, mRowCount - row - 1);
+        mRowCount--;
+        int newRow = lowerBound(toPosition);
+        mRows = insertGap(mRows, mRowCount, newRow, 1);
+        mRows[newRow] = toPosition;
+        mRowCount++;
+        if (newRow != row) {
+            moveRow(row, newRow);
+        }
+    }
+
+    @Override
+    protected void onParentChanged(int position, int count) {
+        for (int i = position; i < position + count; i++) {
+            int doc = mDocs[i];
+            if (doc >= 0) {
+                mDocs[i] = -doc - 2;
+                mPendingCount++;
+            }
+        }
+    }
+
+    /**
+     * 把新增和修改的条目加入索引, 按当前搜索词决定是否显示; 连续插入的条目合并为一次变化
+     */
+    @Override
+    protected void onParentSettled() {
+        if (mPendingCount == 0) {
+            return;
+        }
+        List<M> data = getParent().getData();
+        int runStart = -1;
+        List<M> run = new ArrayList<>();
+        for (int p = 0; p < mDocCount && mPendingCount > 0; p++) {
+            int doc = mDocs[p];
+            if (doc >= 0) {
+                continue;
+            }
+            mPendingCount--;
+            if (doc < PENDING) {
+                mIndex.remove(-doc - 2);
+            }
+            M item = data.get(p);
+            String[] terms = SearchIndex.tokenize(item == null ? null : mExtractor.getText(item));
+            int id = mIndex.add(terms);
+            mDocs[p] = id;
+            boolean visible = mAppliedTerms == null || (item != null && SearchIndex.matches(mAppliedTerms, terms));
+            if (visible && mMatches != null) {
+                mMatches.set(id);
+            }
+
+            int row = rowOf(p);
+            if (row < 0 && !visible) {
+                continue;
+            }
+            if (row >= 0) {
+                if (runStart >= 0) {
+                    insertRows(runStart, run);
+                    runStart = -1;
+                    run = new ArrayList<>();
+                }
+                if (visible) {
+                    updateRow(row, item);
+                } else {
+                    System.arraycopy(mRows, row + 1, mRows, row, mRowCount - row - 1);
+                    mRowCount--;
+                    removeRows(row, 1);
+                }
+                continue;
+            }
+            int newRow = lowerBound(p);
+            mRows = insertGap(mRows, mRowCount, newRow, 1);
+            mRows[newRow] = p;
+            mRowCount++;
+            if (runStart >= 0 && newRow != runStart + run.size()) {
+                insertRows(runStart, run);
+                runStart = -1;
+                run = new ArrayList<>();
+            }
+            if (runStart < 0) {
+                runStart = newRow;
+            }
+            run.add(item);
+        }
+        if (runStart >= 0) {
+            insertRows(runStart, run);
+        }
+        mPendingCount = 0;
+    }
+
+    /**
+     * 按 mMatches 重新计算显示的条目, 与之前的结果比较后分发删除和插入的区间.
+     * 还没有加入索引的条目保持原来的状态, 等待 onParentSettled
+     */
+    private void applyMatches() {
+        int[] rows = new int[Math.max(16, mDocCount)];
+        int count = 0;
+        for (int p = 0; p < mDocCount; p++) {
+            int doc = mDocs[p];
+            boolean visible = doc >= 0 ? mMatches == null || mMatches.get(doc) : rowOf(p) >= 0;
+            if (visible) {
+                rows[count++] = p;
+            }
+        }
+
+        int[] old = mRows;
+        int oldCount = mRowCount;
+        mRows = rows;
+        mRowCount = count;
+
+        List<M> data = getParent().getData();
+        int i = 0;
+        int j = 0;
+        int position = 0;
+        while (i < oldCount || j < count) {
+            if (j >= count || (i < oldCount && old[i] < rows[j])) {
+                int start = i;
+                while (i < oldCount && (j >= count || old[i] < rows[j])) {
+                    i++;
+                }
+                removeRows(position, i - start);
+            } else if (i >= oldCount || rows[j] < old[i]) {
+                List<M> inserted = new ArrayList<>();
+                while (j < count && (i >= oldCount || rows[j] < old[i])) {
+                    inserted.add(data.get(rows[j++]));
+                }
+                insertRows(position, inserted);
+                position += inserted.size();
+            } else {
+                i++;
+                j++;
+                position++;
+            }
+        }
+    }
+
+    /**
+     * 第一个位置不小于 position 的行
+     */
+    private int lowerBound(int position) {
+        int index = Arrays.binarySearch(mRows, 0, mRowCount, position);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int rowOf(int position) {
+        int index = Arrays.binarySearch(mRows, 0, mRowCount, position);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * 位置不小于 position 的行加上 delta
+     */
+    private void shiftRows(int position, int delta) {
+        for (int i = lowerBound(position); i < mRowCount; i++) {
+            mRows[i] += delta;
+        }
+    }
+
+    private static int[] insertGap(int[] array, int size, int index, int count) {
+        int[] target = array;
+        if (size + count > array.length) {
+            target = new int[Math.max(size + count, array.length * 2)];
+            System.arraycopy(array, 0, target, 0, index);
+        }
+        System.arraycopy(array, index, target, index + count, size - index);
+        return target;
+    }
+}
@@ -0,0 +1,231 @@
+package com.ease.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * search index
+ * 增量维护的倒排索引: 词典按字典序保存, 前缀查询是词典上的一次范围扫描, 每个词对应递增的文档 id 数组.
+ * 文档 id 由 add 分配并且单调递增, 新增只需要在数组末尾追加; 删除先记下, 失效的 id 超过一半时再压缩.
+ * 所有方法加锁, 可以在主线程修改的同时在后台线程查询
+ */
+public class SearchIndex {
+
+    /**
+     * 失效的 id 少于该值时不压缩
+     */
+    private static final int MIN_COMPACT_COUNT = 64;
+
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private final TreeMap<String, Postings> mPostings = new TreeMap<>();
+    private BitSet mDeleted = new BitSet();
+    private int mNextId;
+    private int mLiveCount;
+    /**
+     * 已删除但还留在 mPostings 中的文档数
+     */
+    private int mStaleCount;
+    private int mVersion;
+
+    /**
+     * 加入一个文档, 返回它的 id
+     */
+    public synchronized int add(CharSequence text) {
+        return add(tokenize(text));
+    }
+
+    /**
+     * 加入已经切分好的文档, terms 需要来自 tokenize
+     */
+    public synchronized int add(String[] terms) {
+        int id = mNextId++;
+        mLiveCount++;
+        mVersion++;
+        for (String term : terms) {
+            Postings postings = mPostings.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                mPostings.put(term, postings);
+            }
+            postings.add(id);
+        }
+        return id;
+    }
+
+    public synchronized void remove(int id) {
+        if (id < 0 || id >= mNextId || mDeleted.get(id)) {
+            return;
+        }
+        mDeleted.set(id);
+        mLiveCount--;
+        mStaleCount++;
+        mVersion++;
+        if (mStaleCount > MIN_COMPACT_COUNT && mStaleCount > mLiveCount) {
+            compact();
+        }
+    }
+
+    /**
+     * 删除全部文档, id 重新从 0 分配, 之前返回的 id 不再有效
+     */
+    public synchronized void clear() {
+        mPostings.clear();
+        // 重新分配, BitSet.clear 不会释放按原来的 id 范围分配的空间
+        mDeleted = new BitSet();
+        mNextId = 0;
+        mLiveCount = 0;
+        mStaleCount = 0;
+        mVersion++;
+    }
+
+    /**
+     * 每个查询词都是文档中某个词的前缀时匹配, 例如 "rx sam" 匹配 "RxAndroid sample".
+     * 查询中没有任何词时返回 null, 表示全部匹配
+     */
+    public synchronized BitSet search(CharSequence query) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return null;
+        }
+        BitSet result = null;
+        for (String term : terms) {
+            BitSet matches = new BitSet(mNextId);
+            for (Postings postings : mPostings.subMap(term, true, term + Character.MAX_VALUE, true).values()) {
+                for (int i = 0; i < postings.size; i++) {
+                    matches.set(postings.ids[i]);
+                }
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        result.andNot(mDeleted);
+        return result;
+    }
+
+    /**
+     * 每次修改后递增, 用来判断后台查询期间索引是否被修改
+     */
+    public synchronized int getVersion() {
+        return mVersion;
+    }
+
+    public synchronized int getDocumentCount() {
+        return mLiveCount;
+    }
+
+    public synchronized int getTermCount() {
+        return mPostings.size();
+    }
+
+    /**
+     * 不经过索引判断一个文档是否匹配, 用于还没有查询结果的新文档
+     */
+    public static boolean matches(String[] queryTerms, String[] documentTerms) {
+        for (String query : queryTerms) {
+            boolean found = false;
+            for (String term : documentTerms) {
+                if (term.startsWith(query)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 切分为去重的小写词: 连续的字母和数字为一个词, 中日韩文字每个字为一个词
+     */
+    public static String[] tokenize(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return new String[0];
+        }
+        List<String> terms = new ArrayList<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (isIdeograph(c)) {
+                addTerm(terms, term);
+                addTerm(terms, String.valueOf(c));
+            } else if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else {
+                addTerm(terms, term);
+            }
+        }
+        addTerm(terms, term);
+        return terms.toArray(new String[terms.size()]);
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder term) {
+        if (term.length() > 0) {
+            addTerm(terms, term.toString());
+            term.setLength(0);
+        }
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        if (!terms.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    private static boolean isIdeograph(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
+                || block == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_A
+                || block == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA
+                || block == Character.UnicodeBlock.HANGUL_SYLLABLES;
+    }
+
+    /**
+     * 从每个数组中去掉已删除的文档, 空的词一并删除
+     */
+    private void compact() {
+        Iterator<Postings> iterator = mPostings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings postings = iterator.next();
+            int kept = 0;
+            for (int i = 0; i < postings.size; i++) {
+                if (!mDeleted.get(postings.ids[i])) {
+                    postings.ids[kept++] = postings.ids[i];
+                }
+            }
+            if (kept == 0) {
+                iterator.remove();
+                continue;
+            }
+            postings.size = kept;
+            if (kept * 4 < postings.ids.length) {
+                postings.ids = Arrays.copyOf(postings.ids, Math.max(4, kept));
+            }
+        }
+        mStaleCount = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.ease.adapter;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.ease.data.DataController;
+import com.ease.data.ManualFrameScheduler;
+import com.ease.data.ProjectionDataController;
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * base adapter test
+ * detach 只取消请求, 不修改只读的派生视图, 也不清除其他列表共用的 parent
+ */
+public class BaseAdapterTest {
+
+    static final class Item extends BaseModel {
+        final int mValue;
+
+        Item(int value) {
+            mValue = value;
+        }
+    }
+
+    static final class ItemAdapter extends BaseAdapter<Item> {
+
+        private final DataController<Item> mController;
+
+        ItemAdapter(DataController<Item> controller) {
+            super(null);
+            mController = controller;
+        }
+
+        @Override
+        public DataController<Item> createDataController() {
+            return mController;
+        }
+
+        @Override
+        public int getCommonType(int position) {
+            return DEFAULT_COMMON_TYPE;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateCommon(ViewGroup parent, int viewType) {
+            return null;
+        }
+
+        @Override
+        public void onBindCommon(RecyclerView.ViewHolder holder, Item item) {
+        }
+    }
+
+    private static final ProjectionDataController.Filter<Item> EVEN = new ProjectionDataController.Filter<Item>() {
+        @Override
+        public boolean accept(Item model) {
+            return model.mValue % 2 == 0;
+        }
+    };
+
+    private static final ProjectionDataController.Filter<Item> ODD = new ProjectionDataController.Filter<Item>() {
+        @Override
+        public boolean accept(Item model) {
+            return model.mValue % 2 != 0;
+        }
+    };
+
+    private ManualFrameScheduler mScheduler;
+    private DataController<Item> mParent;
+
+    @Before
+    public void setUp() {
+        mScheduler = new ManualFrameScheduler();
+        mParent = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.empty();
+            }
+        };
+        mParent.setFrameScheduler(mScheduler);
+        mParent.bulkAppendData(Arrays.asList(new Item(0), new Item(1), new Item(2), new Item(3), new Item(4)));
+    }
+
+    private ProjectionDataController<Item> projection(ProjectionDataController.Filter<Item> filter) {
+        ProjectionDataController<Item> projection = new ProjectionDataController<>(mParent, filter, null);
+        projection.setFrameScheduler(mScheduler);
+        return projection;
+    }
+
+    @Test
+    public void detachKeepsSharedParent() {
+        ProjectionDataController<Item> even = projection(EVEN);
+        ProjectionDataController<Item> odd = projection(ODD);
+        ItemAdapter evenAdapter = new ItemAdapter(even);
+        ItemAdapter oddAdapter = new ItemAdapter(odd);
+        evenAdapter.onAttachedToRecyclerView(null);
+        oddAdapter.onAttachedToRecyclerView(null);
+        assertEquals(3, evenAdapter.getItemCount());
+        assertEquals(2, oddAdapter.getItemCount());
+
+        evenAdapter.onDetachedFromRecyclerView(null);
+        assertEquals(5, mParent.getData().size());
+        assertEquals(2, odd.getData().size());
+
+        // 已 detach 的投影不再跟随 parent, 其他投影不受影响
+        mParent.appendData(new Item(5));
+        mParent.appendData(new Item(6));
+        mScheduler.doFrame();
+        assertEquals(3, even.getData().size());
+        assertEquals(3, oddAdapter.getItemCount());
+
+        evenAdapter.onAttachedToRecyclerView(null);
+        assertEquals(4, evenAdapter.getItemCount());
+    }
+}
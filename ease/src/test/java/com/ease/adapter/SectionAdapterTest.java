@@ -0,0 +1,153 @@
+package com.ease.adapter;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import com.ease.data.DataController;
+import com.ease.data.TestMainThread;
+import com.ease.holder.BaseHolder;
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * section adapter test
+ * 二分查找条目所在的段 (跳过空段), 段内的变化加上段的起始位置后转发
+ */
+public class SectionAdapterTest {
+
+    static final class Item extends BaseModel {
+    }
+
+    static final class ItemSection extends Section<Item> {
+
+        ItemSection(DataController<Item> dataController) {
+            super(dataController);
+        }
+
+        @Override
+        public String getHolderType(int position) {
+            return "item";
+        }
+
+        @Override
+        public BaseHolder<Item> onCreateHolder(ViewGroup parent, String holderType) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Rule
+    public TestMainThread mMainThread = new TestMainThread();
+
+    private final List<String> mNotified = new ArrayList<>();
+    private SectionAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        mAdapter = new SectionAdapter();
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mNotified.add("inserted " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mNotified.add("removed " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                mNotified.add("changed " + positionStart + " " + itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                mNotified.add("moved " + fromPosition + " " + toPosition);
+            }
+        });
+    }
+
+    private static DataController<Item> controller(int count) {
+        DataController<Item> controller = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.empty();
+            }
+        };
+        for (int i = 0; i < count; i++) {
+            controller.appendData(new Item());
+        }
+        return controller;
+    }
+
+    private ItemSection add(int count) {
+        ItemSection section = new ItemSection(controller(count));
+        mAdapter.addSection(section);
+        return section;
+    }
+
+    @Test
+    public void sectionIndexSkipsEmptySections() {
+        add(0);
+        add(3);
+        add(0);
+        add(0);
+        add(2);
+        mAdapter.onAttachedToRecyclerView(null);
+
+        assertEquals(5, mAdapter.getItemCount());
+        assertEquals(1, mAdapter.getSectionIndex(0));
+        assertEquals(1, mAdapter.getSectionIndex(2));
+        assertEquals(4, mAdapter.getSectionIndex(3));
+        assertEquals(4, mAdapter.getSectionIndex(4));
+        assertEquals(0, mAdapter.getSectionStart(mAdapter.getSection(0)));
+        assertEquals(3, mAdapter.getSectionStart(mAdapter.getSection(2)));
+        assertEquals(3, mAdapter.getSectionStart(mAdapter.getSection(4)));
+    }
+
+    @Test
+    public void sectionChangesAreOffset() {
+        ItemSection first = add(3);
+        ItemSection empty = add(0);
+        ItemSection last = add(2);
+        mAdapter.onAttachedToRecyclerView(null);
+
+        List<Item> items = new ArrayList<>();
+        items.add(new Item());
+        items.add(new Item());
+        empty.getDataController().bulkAppendData(items);
+        assertEquals(1, mAdapter.getSectionIndex(3));
+        assertEquals(2, mAdapter.getSectionIndex(5));
+
+        last.getDataController().removeData(0);
+        first.getDataController().moveData(0, 2);
+        last.getDataController().updateData(0, new Item());
+        first.getDataController().bulkRemoveData(0, 3);
+
+        assertEquals("[inserted 3 2, removed 5 1, moved 0 2, changed 5 1, removed 0 3]", mNotified.toString());
+        assertEquals(3, mAdapter.getItemCount());
+        assertEquals(1, mAdapter.getSectionIndex(0));
+        assertEquals(2, mAdapter.getSectionIndex(2));
+        assertEquals(2, mAdapter.getSectionStart(last));
+    }
+}
@@ -0,0 +1,119 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * action recorder
+ * 按顺序记录请求的 Start, Done 回调和 onEnd 次数; next() 在测试线程上执行主线程任务, 直到收到下一个 Done
+ */
+public class ActionRecorder<M extends BaseModel> extends SimpleDataSubscriber<M> {
+
+    public static final class Done<M> {
+        public final DataController.ACTION action;
+        public final Throwable error;
+        public final List<M> data;
+
+        Done(DataController.ACTION action, Throwable error, List<M> data) {
+            this.action = action;
+            this.error = error;
+            this.data = data;
+        }
+    }
+
+    private final DataController<M> mController;
+    private final TestMainThread mMainThread;
+    private final List<DataController.ACTION> mStarted = new ArrayList<>();
+    private final ArrayDeque<Done<M>> mDone = new ArrayDeque<>();
+    private int mEndCount;
+
+    public ActionRecorder(DataController<M> controller, TestMainThread mainThread) {
+        mController = controller;
+        mMainThread = mainThread;
+    }
+
+    public static <M extends BaseModel> ActionRecorder<M> attach(DataController<M> controller,
+                                                                 TestMainThread mainThread) {
+        ActionRecorder<M> recorder = new ActionRecorder<>(controller, mainThread);
+        controller.getSubscriberManager().addDataActionListener(recorder);
+        return recorder;
+    }
+
+    /**
+     * 等待下一个 Done, 5 秒内没有主线程任务时测试失败
+     */
+    public Done<M> next() throws InterruptedException {
+        while (mDone.isEmpty()) {
+            mMainThread.runNext();
+        }
+        return mDone.poll();
+    }
+
+    /**
+     * 等待下一个 Done 以及请求结束: Done 在收到数据时回调, 请求在 onCompleted 之后才结束,
+     * 之前发起的同类请求会被忽略
+     */
+    public Done<M> await() throws InterruptedException {
+        Done<M> done = next();
+        while (mController.isBusy()) {
+            mMainThread.runNext();
+        }
+        return done;
+    }
+
+    /**
+     * 已经收到但还没有取出的 Done 个数
+     */
+    public int pending() {
+        return mDone.size();
+    }
+
+    public int getEndCount() {
+        return mEndCount;
+    }
+
+    /**
+     * 按顺序收到的 Start
+     */
+    public List<DataController.ACTION> getStarted() {
+        return mStarted;
+    }
+
+    @Override
+    public void onInitStart() {
+        mStarted.add(DataController.ACTION.INITIALIZE);
+    }
+
+    @Override
+    public void onRefreshStart() {
+        mStarted.add(DataController.ACTION.REFRESH);
+    }
+
+    @Override
+    public void onLoadMoreStart() {
+        mStarted.add(DataController.ACTION.LOAD_MORE);
+    }
+
+    @Override
+    public void onInitDone(Throwable e, List<M> data) {
+        mDone.add(new Done<>(DataController.ACTION.INITIALIZE, e, data));
+    }
+
+    @Override
+    public void onRefreshDone(Throwable e, List<M> data) {
+        mDone.add(new Done<>(DataController.ACTION.REFRESH, e, data));
+    }
+
+    @Override
+    public void onLoadMoreDone(Throwable e, List<M> data) {
+        mDone.add(new Done<>(DataController.ACTION.LOAD_MORE, e, data));
+    }
+
+    @Override
+    public void onEnd() {
+        mEndCount++;
+    }
+}
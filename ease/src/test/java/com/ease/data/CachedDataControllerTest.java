@@ -0,0 +1,146 @@
+package com.ease.data;
+
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.Sink;
+import com.ease.codec.Source;
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * cached data controller test
+ * 每次请求的结果在分页窗口中为一页, 丢弃后按请求时的页码和 limit 从缓存读回, 短页和处理步骤改变条目数时也一样
+ */
+public class CachedDataControllerTest {
+
+    static final class Item extends BaseModel {
+        final int mValue;
+
+        Item(int value) {
+            mValue = value;
+        }
+    }
+
+    private static final BinaryCodec<Item> CODEC = new BinaryCodec<Item>() {
+        @Override
+        public void write(Sink sink, Item value) throws IOException {
+            sink.writeInt(value.mValue);
+        }
+
+        @Override
+        public Item read(Source source) throws IOException {
+            return new Item(source.readInt());
+        }
+    };
+
+    private static final int LIMIT = 3;
+    private static final int TOTAL = 8;
+
+    @Rule
+    public TestMainThread mMainThread = new TestMainThread();
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private CachedDataController<Item> mController;
+    private final List<String> mLoads = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        DataActionInterface<Item> source = new DataActionInterface<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.just(page(0));
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return Observable.just(page(0));
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.just(page(mController.getRequestPage()));
+            }
+        };
+        mController = new CachedDataController<>("items", source, CODEC,
+                new PageCache(mFolder.getRoot(), 1 << 20));
+        mController.setLimit(LIMIT);
+        // 去掉 3 的倍数, 每页的条目数与请求的 limit 不同
+        mController.addTransformer(new DataTransformer<Item>() {
+            @Override
+            public List<Item> transform(List<Item> data) {
+                List<Item> result = new ArrayList<>();
+                for (Item item : data) {
+                    if (item.mValue % 3 != 0) {
+                        result.add(item);
+                    }
+                }
+                return result;
+            }
+        });
+        mController.setPagedWindow(new PageLoader<Item>() {
+            @Override
+            public Observable<List<Item>> loadPage(int page, int limit) {
+                mLoads.add(page + "/" + limit);
+                return mController.loadPage(page, limit);
+            }
+        }, 0);
+    }
+
+    private static List<Item> page(int page) {
+        List<Item> items = new ArrayList<>();
+        for (int i = page * LIMIT; i < Math.min(TOTAL, (page + 1) * LIMIT); i++) {
+            items.add(new Item(i));
+        }
+        return items;
+    }
+
+    @Test
+    public void reloadsDroppedPagesFromCache() throws InterruptedException {
+        ActionRecorder<Item> recorder = ActionRecorder.attach(mController, mMainThread);
+        mController.initialize();
+        assertEquals(null, recorder.await().error);
+        mController.loadMore();
+        assertEquals(null, recorder.await().error);
+        mController.loadMore();
+        assertEquals(null, recorder.await().error);
+        assertTrue(mController.hasReachedEnd());
+
+        // 1 2 | 4 5 | 7, 最后一页是短页
+        PagedList<Item> list = (PagedList<Item>) mController.getData();
+        assertEquals(3, list.getPageCount());
+        assertEquals(1, list.getPageItemCount(2));
+        assertEquals(2, list.getPageRequest(2));
+
+        mController.onItemBound(4);
+        assertNull(list.get(0));
+        mController.onItemBound(0);
+        while (list.get(0) == null) {
+            mMainThread.runNext();
+        }
+        assertEquals(1, list.get(0).mValue);
+        assertEquals(2, list.get(1).mValue);
+
+        mController.onItemBound(4);
+        while (list.get(4) == null) {
+            mMainThread.runNext();
+        }
+        assertEquals(7, list.get(4).mValue);
+        assertEquals(5, list.size());
+        assertEquals("[0/3, 2/3]", mLoads.toString());
+    }
+}
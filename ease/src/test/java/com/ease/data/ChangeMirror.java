@@ -0,0 +1,49 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * change mirror
+ * 像 Adapter 一样只根据分发的 DataChange 维护一份副本: 分发时 getData() 已经是这次变化之后的结果,
+ * 新增和修改的条目从中读取. 副本与 getData() 不一致说明分发的变化与数据对不上
+ */
+public class ChangeMirror<M extends BaseModel> implements DataSubscriber.DataChangeListener<M> {
+
+    private final DataController<M> mController;
+    private final List<M> mItems = new ArrayList<>();
+
+    public ChangeMirror(DataController<M> controller) {
+        mController = controller;
+        mItems.addAll(controller.getData());
+        controller.getSubscriberManager().addDataChangeListener(this);
+    }
+
+    public List<M> getItems() {
+        return mItems;
+    }
+
+    @Override
+    public void onDataChange(DataChange change) {
+        List<M> data = mController.getData();
+        int position = change.getPosition();
+        switch (change.getType()) {
+            case INSERTED:
+                mItems.addAll(position, data.subList(position, position + change.getCount()));
+                break;
+            case REMOVED:
+                mItems.subList(position, position + change.getCount()).clear();
+                break;
+            case MOVED:
+                mItems.add(change.getToPosition(), mItems.remove(position));
+                break;
+            case CHANGED:
+                for (int i = position; i < position + change.getCount(); i++) {
+                    mItems.set(i, data.get(i));
+                }
+                break;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ease.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * data change batch test
+ */
+public class DataChangeBatchTest {
+
+    @Test
+    public void mergesAdjacentInserts() {
+        DataChangeBatch batch = new DataChangeBatch();
+        batch.add(DataChange.inserted(3, 1));
+        batch.add(DataChange.inserted(4, 2));
+        batch.add(DataChange.inserted(3, 1));
+        assertChanges(batch.drain(), DataChange.inserted(3, 4));
+    }
+
+    @Test
+    public void mergesRemovesFromTheSamePosition() {
+        DataChangeBatch batch = new DataChangeBatch();
+        batch.add(DataChange.removed(5, 1));
+        batch.add(DataChange.removed(5, 1));
+        batch.add(DataChange.removed(4, 1));
+        assertChanges(batch.drain(), DataChange.removed(4, 3));
+    }
+
+    @Test
+    public void mergesOverlappingChanges() {
+        DataChangeBatch batch = new DataChangeBatch();
+        batch.add(DataChange.changed(2, 2));
+        batch.add(DataChange.changed(4, 1));
+        batch.add(DataChange.changed(0, 3));
+        assertChanges(batch.drain(), DataChange.changed(0, 5));
+    }
+
+    @Test
+    public void keepsOrderOfDifferentTypes() {
+        DataChangeBatch batch = new DataChangeBatch();
+        batch.add(DataChange.inserted(0, 1));
+        batch.add(DataChange.changed(3, 1));
+        batch.add(DataChange.moved(1, 4));
+        batch.add(DataChange.inserted(10, 1));
+        batch.add(DataChange.inserted(0, 1));
+        assertChanges(batch.drain(), DataChange.inserted(0, 1), DataChange.changed(3, 1), DataChange.moved(1, 4),
+                DataChange.inserted(10, 1), DataChange.inserted(0, 1));
+    }
+
+    @Test
+    public void drainClears() {
+        DataChangeBatch batch = new DataChangeBatch();
+        batch.add(DataChange.inserted(0, 1));
+        batch.drain();
+        assertTrue(batch.isEmpty());
+        assertTrue(batch.drain().isEmpty());
+    }
+
+    static void assertChanges(List<DataChange> actual, DataChange... expected) {
+        assertEquals(Arrays.toString(expected), actual.toString());
+    }
+}
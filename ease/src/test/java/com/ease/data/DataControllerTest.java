@@ -0,0 +1,203 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * data controller test
+ */
+public class DataControllerTest {
+
+    static final class Item extends BaseModel {
+        final int mValue;
+
+        Item(int value) {
+            mValue = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(mValue);
+        }
+    }
+
+    private static final int LIMIT = 3;
+
+    @Rule
+    public TestMainThread mMainThread = new TestMainThread();
+
+    /**
+     * 远端的全部条目, 按偏移量或页码分页; 刷新时返回 mRefreshItems. mRequests 记录每次请求的 PageKey
+     */
+    private final List<Item> mRemote = new ArrayList<>();
+    private volatile List<Item> mRefreshItems;
+    private final List<PageKey> mRequests = new ArrayList<>();
+
+    private DataController<Item> mController;
+    private ActionRecorder<Item> mRecorder;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 10; i++) {
+            mRemote.add(new Item(i));
+        }
+        mController = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.just(page(getRequestKey()));
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                mRequests.add(getRequestKey());
+                return Observable.just(mRefreshItems);
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.just(page(getRequestKey()));
+            }
+        };
+        mController.setLimit(LIMIT);
+        mRecorder = ActionRecorder.attach(mController, mMainThread);
+    }
+
+    private List<Item> page(PageKey key) {
+        mRequests.add(key);
+        int from = key.getType() == PageKey.TYPE.PAGE ? (key.getPage() - 1) * LIMIT : key.getOffset();
+        from = Math.min(from, mRemote.size());
+        return new ArrayList<>(mRemote.subList(from, Math.min(mRemote.size(), from + LIMIT)));
+    }
+
+    private static List<Item> items(int... values) {
+        List<Item> items = new ArrayList<>();
+        for (int value : values) {
+            items.add(new Item(value));
+        }
+        return items;
+    }
+
+    private void start(DataController.ACTION action) {
+        switch (action) {
+            case INITIALIZE:
+                mController.initialize();
+                break;
+            case REFRESH:
+                mController.refresh();
+                break;
+            default:
+                mController.loadMore();
+                break;
+        }
+    }
+
+    private void run(DataController.ACTION action) throws InterruptedException {
+        start(action);
+        assertNull(mRecorder.await().error);
+    }
+
+    private void refreshKeepsOldData(PageKey firstPageKey, PageKey afterRefresh) throws InterruptedException {
+        mController.setFirstPageKey(firstPageKey);
+        mController.setClearAllWhenRefresh(false);
+        run(DataController.ACTION.INITIALIZE);
+        run(DataController.ACTION.LOAD_MORE);
+        assertEquals("[0, 1, 2, 3, 4, 5]", mController.getData().toString());
+
+        // 只有一条新数据的短页, 旧数据之后还有更多
+        mRefreshItems = items(100);
+        run(DataController.ACTION.REFRESH);
+        assertEquals("[100, 0, 1, 2, 3, 4, 5]", mController.getData().toString());
+        assertFalse(mController.hasReachedEnd());
+        assertEquals(afterRefresh, mController.getNextPageKey());
+    }
+
+    @Test
+    public void refreshKeepingOldDataContinuesAfterAllItems() throws InterruptedException {
+        refreshKeepsOldData(PageKey.offset(0), PageKey.offset(7));
+
+        // 远端也在最前面插入了新数据, 偏移量 7 之后是 6 7 8
+        mRemote.add(0, new Item(100));
+        run(DataController.ACTION.LOAD_MORE);
+        assertEquals("[100, 0, 1, 2, 3, 4, 5, 6, 7, 8]", mController.getData().toString());
+        assertEquals(PageKey.offset(7), mRequests.get(mRequests.size() - 1));
+    }
+
+    @Test
+    public void refreshKeepingOldDataContinuesPageNumbers() throws InterruptedException {
+        refreshKeepsOldData(PageKey.page(1), PageKey.page(4));
+    }
+
+    private void coalesces(DataController.ACTION action) throws InterruptedException {
+        mRefreshItems = items(100, 101);
+        start(action);
+        start(action);
+        assertEquals(Arrays.asList(action), mRecorder.getStarted());
+        assertEquals(1, mRequests.size());
+
+        ActionRecorder.Done<Item> done = mRecorder.await();
+        assertEquals(action, done.action);
+        assertNull(done.error);
+        mMainThread.runPending();
+        assertEquals(0, mRecorder.pending());
+    }
+
+    @Test
+    public void duplicateInitializeIsCoalesced() throws InterruptedException {
+        coalesces(DataController.ACTION.INITIALIZE);
+        assertEquals("[0, 1, 2]", mController.getData().toString());
+    }
+
+    @Test
+    public void duplicateRefreshIsCoalesced() throws InterruptedException {
+        coalesces(DataController.ACTION.REFRESH);
+        assertEquals("[100, 101]", mController.getData().toString());
+    }
+
+    /**
+     * 后发起的另一种首页请求取代进行中的请求: 旧请求立即以 CancellationException 结束, 它的结果被丢弃
+     */
+    private void supersedes(DataController.ACTION first, DataController.ACTION second, String data)
+            throws InterruptedException {
+        mRefreshItems = items(100, 101);
+        start(first);
+        start(second);
+        assertEquals(Arrays.asList(first, second), mRecorder.getStarted());
+        assertEquals(1, mRecorder.pending());
+
+        ActionRecorder.Done<Item> cancelled = mRecorder.next();
+        assertEquals(first, cancelled.action);
+        assertTrue(cancelled.error instanceof CancellationException);
+
+        ActionRecorder.Done<Item> done = mRecorder.await();
+        assertEquals(second, done.action);
+        assertNull(done.error);
+        mMainThread.runPending();
+        assertEquals(0, mRecorder.pending());
+        assertEquals(data, mController.getData().toString());
+    }
+
+    @Test
+    public void refreshSupersedesInitialize() throws InterruptedException {
+        supersedes(DataController.ACTION.INITIALIZE, DataController.ACTION.REFRESH, "[100, 101]");
+    }
+
+    @Test
+    public void initializeSupersedesRefresh() throws InterruptedException {
+        supersedes(DataController.ACTION.REFRESH, DataController.ACTION.INITIALIZE, "[0, 1, 2]");
+    }
+}
@@ -0,0 +1,145 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * list differ test
+ * 把分发的编辑脚本依次应用到旧列表, 结果与新列表相同, 包括移动和重复的 id
+ */
+public class ListDifferTest {
+
+    static final class Item extends BaseModel {
+        final long mId;
+        final int mContent;
+
+        Item(long id, int content) {
+            mId = id;
+            mContent = content;
+        }
+
+        @Override
+        public long getStableId() {
+            return mId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item)) {
+                return false;
+            }
+            Item other = (Item) o;
+            return mId == other.mId && mContent == other.mContent;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) mId * 31 + mContent;
+        }
+
+        @Override
+        public String toString() {
+            return mId + ":" + mContent;
+        }
+    }
+
+    /**
+     * 像 DataController.applyDiff 一样修改旧列表的副本, 同时记录每一步
+     */
+    private static List<Item> apply(List<Item> oldList, final List<Item> newList, boolean detectMoves,
+                                    final List<String> steps) {
+        final List<Item> data = new ArrayList<>(oldList);
+        ListDiffer.calculate(oldList, newList, detectMoves).dispatchUpdatesTo(new ListDiffer.Callback() {
+            @Override
+            public void onInserted(int position, int newIndex) {
+                data.add(position, newList.get(newIndex));
+                steps.add("insert " + position);
+            }
+
+            @Override
+            public void onRemoved(int position) {
+                data.remove(position);
+                steps.add("remove " + position);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                data.add(toPosition, data.remove(fromPosition));
+                steps.add("move " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int newIndex) {
+                data.set(position, newList.get(newIndex));
+                steps.add("change " + position);
+            }
+        });
+        return data;
+    }
+
+    private static void check(List<Item> oldList, List<Item> newList) {
+        for (boolean detectMoves : new boolean[]{true, false}) {
+            List<String> steps = new ArrayList<>();
+            List<Item> result = apply(oldList, newList, detectMoves, steps);
+            assertEquals(oldList + " -> " + newList + " moves " + detectMoves + " " + steps, newList, result);
+        }
+    }
+
+    private static Item item(long id) {
+        return new Item(id, 0);
+    }
+
+    @Test
+    public void movesAndChanges() {
+        check(Arrays.asList(item(1), item(2), item(3), item(4), item(5)),
+                Arrays.asList(item(5), item(2), new Item(3, 1), item(1), item(6)));
+        check(Arrays.asList(item(1), item(2), item(3)), Arrays.asList(item(3), item(2), item(1)));
+        check(new ArrayList<Item>(), Arrays.asList(item(1), item(2)));
+        check(Arrays.asList(item(1), item(2)), new ArrayList<Item>());
+    }
+
+    @Test
+    public void moveEmitsMoveAndChange() {
+        List<Item> oldList = Arrays.asList(item(1), item(2), item(3));
+        List<Item> newList = Arrays.asList(new Item(3, 1), item(1), item(2));
+        List<String> steps = new ArrayList<>();
+        assertEquals(newList, apply(oldList, newList, true, steps));
+        assertEquals(2, steps.size());
+        assertEquals("move", steps.get(0).substring(0, 4));
+        assertEquals("change 0", steps.get(1));
+    }
+
+    @Test
+    public void duplicateIds() {
+        check(Arrays.asList(item(1), item(1), item(2)), Arrays.asList(item(2), item(1), item(1), item(1)));
+        check(Arrays.asList(item(1), new Item(1, 1), item(1)), Arrays.asList(new Item(1, 1), item(1)));
+        check(Arrays.asList(item(2), item(2), item(2)), Arrays.asList(item(2)));
+    }
+
+    @Test
+    public void randomLists() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            // id 取值范围很小, 经常出现重复的 id
+            int ids = 1 + random.nextInt(8);
+            check(randomList(random, ids), randomList(random, ids));
+        }
+    }
+
+    private static List<Item> randomList(Random random, int ids) {
+        int size = random.nextInt(12);
+        List<Item> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(random.nextInt(ids), random.nextInt(2)));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,161 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rx.Observable;
+
+import static com.ease.data.DataChangeBatchTest.assertChanges;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * manual frame scheduler test
+ * 批量修改在最外层 commitBatch 之后的下一帧合并分发
+ */
+public class ManualFrameSchedulerTest {
+
+    static final class Item extends BaseModel {
+        final int mId;
+
+        Item(int id) {
+            mId = id;
+        }
+    }
+
+    private ManualFrameScheduler mScheduler;
+    private DataController<Item> mController;
+    private List<List<DataChange>> mFrames;
+    private List<DataChange> mChanges;
+
+    @Before
+    public void setUp() {
+        mScheduler = new ManualFrameScheduler();
+        mController = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return null;
+            }
+        };
+        mController.setFrameScheduler(mScheduler);
+        mController.bulkAppendData(Arrays.asList(new Item(0), new Item(1), new Item(2)));
+        mFrames = new ArrayList<>();
+        mController.getSubscriberManager().addDataChangeListener(new DataSubscriber.DataChangeListener<Item>() {
+            @Override
+            public void onDataChange(DataChange change) {
+                mChanges.add(change);
+            }
+        });
+    }
+
+    @Test
+    public void callbackPostedOnce() {
+        Runnable callback = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        mScheduler.postFrameCallback(callback);
+        mScheduler.postFrameCallback(callback);
+        assertEquals(1, mScheduler.getPendingCount());
+        mScheduler.removeFrameCallback(callback);
+        assertEquals(0, mScheduler.getPendingCount());
+    }
+
+    @Test
+    public void callbackPostedDuringFrameRunsNextFrame() {
+        final List<Integer> runs = new ArrayList<>();
+        mScheduler.postFrameCallback(new Runnable() {
+            @Override
+            public void run() {
+                runs.add(mScheduler.getFrameCount());
+                if (runs.size() == 1) {
+                    mScheduler.postFrameCallback(this);
+                }
+            }
+        });
+        mScheduler.doFrame();
+        assertEquals(Arrays.asList(1), runs);
+        mScheduler.doFrame();
+        assertEquals(Arrays.asList(1, 2), runs);
+    }
+
+    @Test
+    public void nestedBatchDispatchesAfterOutermostCommit() {
+        mController.beginBatch();
+        mController.appendData(new Item(3));
+        mController.beginBatch();
+        mController.appendData(new Item(4));
+        mController.commitBatch();
+        assertEquals(0, mScheduler.getPendingCount());
+        mController.commitBatch();
+        assertEquals(1, mScheduler.getPendingCount());
+
+        assertEquals(3, mController.getData().size());
+        frame();
+        assertEquals(5, mController.getData().size());
+        assertEquals(1, mFrames.size());
+        assertChanges(mFrames.get(0), DataChange.inserted(3, 2));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void commitWithoutBeginThrows() {
+        mController.commitBatch();
+    }
+
+    @Test
+    public void batchesCommittedInOneFrameDispatchOnce() {
+        mController.beginBatch();
+        mController.removeData(0);
+        mController.commitBatch();
+        mController.beginBatch();
+        mController.removeData(0);
+        mController.updateData(0, new Item(5));
+        mController.commitBatch();
+
+        frame();
+        assertEquals(1, mFrames.size());
+        assertChanges(mFrames.get(0), DataChange.removed(0, 2), DataChange.changed(0, 1));
+        assertEquals(5, mController.getData().get(0).mId);
+
+        frame();
+        assertTrue(mFrames.get(1).isEmpty());
+    }
+
+    @Test
+    public void flushDispatchesWithoutFrame() {
+        mController.beginBatch();
+        mController.insertData(0, new Item(3));
+        mController.commitBatch();
+        mChanges = new ArrayList<>();
+        mController.flushPendingChanges();
+        assertChanges(mChanges, DataChange.inserted(0, 1));
+        assertEquals(0, mScheduler.getPendingCount());
+        assertEquals(4, mController.getData().size());
+    }
+
+    /**
+     * 执行一帧, 记录这一帧分发的变化
+     */
+    private void frame() {
+        mChanges = new ArrayList<>();
+        mScheduler.doFrame();
+        mFrames.add(mChanges);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * paged window test
+ * 丢弃的页不能修改, 刷新时第一页已经丢弃则清除全部数据
+ */
+public class PagedWindowTest {
+
+    static final class Item extends BaseModel {
+    }
+
+    private DataController<Item> mController;
+
+    @Before
+    public void setUp() {
+        mController = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return null;
+            }
+        };
+        mController.setLimit(2);
+        mController.bulkAppendData(items(10));
+        mController.setPagedWindow(null, 0);
+        // 窗口移到最后一页, 之前的页全部丢弃
+        mController.onItemBound(9);
+    }
+
+    @Test
+    public void residency() {
+        assertFalse(mController.isResident(0));
+        assertTrue(mController.isResident(8));
+        assertTrue(mController.isResident(10));
+        assertNull(mController.getData().get(0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void updateDroppedPageThrows() {
+        mController.updateData(0, new Item());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removeDroppedPageThrows() {
+        mController.removeData(3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void bulkRemoveOverlappingDroppedPageThrows() {
+        mController.bulkRemoveData(7, 2);
+    }
+
+    @Test
+    public void residentEditsAllowed() {
+        Item item = new Item();
+        mController.updateData(9, item);
+        mController.removeData(8);
+        mController.appendData(new Item());
+        assertSame(item, mController.getData().get(8));
+        assertEquals(10, mController.getOffset());
+    }
+
+    @Test
+    public void refreshWithoutClearAllReplacesDroppedFirstPage() {
+        mController.setClearAllWhenRefresh(false);
+        List<Item> page = items(2);
+        mController.onCallSuccess(DataController.ACTION.REFRESH, page);
+        assertEquals(page, new ArrayList<>(mController.getData()));
+    }
+
+    private static List<Item> items(int count) {
+        Item[] items = new Item[count];
+        for (int i = 0; i < count; i++) {
+            items[i] = new Item();
+        }
+        return Arrays.asList(items);
+    }
+}
@@ -0,0 +1,145 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * projection data controller test
+ * 随机修改 parent, 每帧之后增量维护的结果与重新过滤排序的结果一致, 分发的变化与数据一致
+ */
+public class ProjectionDataControllerTest {
+
+    static final class Item extends BaseModel {
+        final int mValue;
+
+        Item(int value) {
+            mValue = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(mValue);
+        }
+    }
+
+    private static final RandomEdits.Factory<Item> FACTORY = new RandomEdits.Factory<Item>() {
+        @Override
+        public Item create(Random random) {
+            return new Item(random.nextInt(100));
+        }
+    };
+
+    private static final ProjectionDataController.Filter<Item> NOT_THREE = new ProjectionDataController.Filter<Item>() {
+        @Override
+        public boolean accept(Item model) {
+            return model.mValue % 3 != 0;
+        }
+    };
+
+    /**
+     * 只按十位排序, 相同的条目很多, 检查按 parent 中的顺序排列
+     */
+    private static final Comparator<Item> TENS = new Comparator<Item>() {
+        @Override
+        public int compare(Item lhs, Item rhs) {
+            return lhs.mValue / 10 - rhs.mValue / 10;
+        }
+    };
+
+    private ManualFrameScheduler mScheduler;
+    private DataController<Item> mParent;
+
+    @Before
+    public void setUp() {
+        mScheduler = new ManualFrameScheduler();
+        mParent = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.empty();
+            }
+        };
+        mParent.setFrameScheduler(mScheduler);
+    }
+
+    private void settle() {
+        while (mScheduler.getPendingCount() > 0) {
+            mScheduler.doFrame();
+        }
+    }
+
+    private List<Item> expected(ProjectionDataController.Filter<Item> filter, Comparator<Item> comparator) {
+        List<Item> items = new ArrayList<>();
+        for (Item item : mParent.getData()) {
+            if (filter == null || filter.accept(item)) {
+                items.add(item);
+            }
+        }
+        if (comparator != null) {
+            Collections.sort(items, comparator);
+        }
+        return items;
+    }
+
+    private void check(ProjectionDataController.Filter<Item> filter, Comparator<Item> comparator) {
+        for (long seed = 0; seed < 30; seed++) {
+            Random random = new Random(seed);
+            RandomEdits<Item> edits = new RandomEdits<>(mParent, FACTORY, random);
+            mParent.clearData();
+            mParent.bulkAppendData(edits.create(10));
+
+            ProjectionDataController<Item> projection = new ProjectionDataController<>(mParent, filter, comparator);
+            projection.setFrameScheduler(mScheduler);
+            ChangeMirror<Item> mirror = new ChangeMirror<>(projection);
+            projection.attach();
+            assertEquals(expected(filter, comparator), projection.getData());
+
+            for (int round = 0; round < 100; round++) {
+                for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                    edits.apply();
+                }
+                settle();
+                List<Item> expected = expected(filter, comparator);
+                assertEquals("seed " + seed + " round " + round, expected, projection.getData());
+                assertEquals("seed " + seed + " round " + round, expected, mirror.getItems());
+            }
+            projection.detach();
+        }
+    }
+
+    @Test
+    public void filterKeepsParentOrder() {
+        check(NOT_THREE, null);
+    }
+
+    @Test
+    public void sortIsStable() {
+        check(null, TENS);
+    }
+
+    @Test
+    public void filterAndSort() {
+        check(NOT_THREE, TENS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ease.data;
+
+import com.ease.model.BaseModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * random edits
+ * 对 parent 做随机的新增, 删除, 移动和修改, 用于检查派生视图的增量维护
+ */
+public class RandomEdits<M extends BaseModel> {
+
+    public interface Factory<M> {
+        M create(Random random);
+    }
+
+    private static final int MAX_SIZE = 40;
+
+    private final DataController<M> mParent;
+    private final Factory<M> mFactory;
+    private final Random mRandom;
+
+    public RandomEdits(DataController<M> parent, Factory<M> factory, Random random) {
+        mParent = parent;
+        mFactory = factory;
+        mRandom = random;
+    }
+
+    public List<M> create(int count) {
+        List<M> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(mFactory.create(mRandom));
+        }
+        return items;
+    }
+
+    /**
+     * 执行一次随机修改
+     */
+    public void apply() {
+        int size = mParent.getData().size();
+        int op = mRandom.nextInt(size >= MAX_SIZE ? 4 : 5);
+        if (size == 0) {
+            op = 4;
+        }
+        switch (op) {
+            case 0:
+                int position = mRandom.nextInt(size);
+                mParent.bulkRemoveData(position, 1 + mRandom.nextInt(Math.min(3, size - position)));
+                break;
+            case 1:
+                mParent.moveData(mRandom.nextInt(size), mRandom.nextInt(size));
+                break;
+            case 2:
+                mParent.updateData(mRandom.nextInt(size), mFactory.create(mRandom));
+                break;
+            case 3:
+                mParent.removeData(mRandom.nextInt(size));
+                break;
+            default:
+                mParent.bulkInsertData(mRandom.nextInt(size + 1), create(1 + mRandom.nextInt(3)));
+                break;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ease.data;
+
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.ResponseBody;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit.HttpException;
+import retrofit.Response;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.observers.TestSubscriber;
+import rx.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * retry policy test
+ * 重试延迟在 TestScheduler 的虚拟时间上计时
+ */
+public class RetryPolicyTest {
+
+    private final TestScheduler mScheduler = new TestScheduler();
+    private final RetryPolicy mPolicy = RetryPolicy.exponential(3, 1000, 30 * 1000, 0f);
+
+    @Test
+    public void retriesWithExponentialBackoff() {
+        AtomicInteger calls = new AtomicInteger();
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        failingSource(calls, 2).retryWhen(mPolicy.toRetryFunction(mScheduler)).subscribe(subscriber);
+        assertEquals(1, calls.get());
+
+        mScheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        mScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+        mScheduler.advanceTimeBy(1999, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+        mScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(3, calls.get());
+
+        subscriber.assertValue("ok");
+        subscriber.assertCompleted();
+    }
+
+    @Test
+    public void givesUpAfterMaxRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        failingSource(calls, 10).retryWhen(mPolicy.toRetryFunction(mScheduler)).subscribe(subscriber);
+        mScheduler.advanceTimeBy(1, TimeUnit.HOURS);
+        assertEquals(4, calls.get());
+        subscriber.assertError(IOException.class);
+    }
+
+    @Test
+    public void doesNotRetryClientErrors() {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Observable.<String>error(httpError(404, null)).retryWhen(mPolicy.toRetryFunction(mScheduler)).subscribe(subscriber);
+        subscriber.assertError(HttpException.class);
+        assertFalse(mPolicy.isRetryable(new IllegalStateException()));
+    }
+
+    @Test
+    public void waitsForRateLimitReset() {
+        // 30 分钟后重置, 超过旧的 60 秒上限也要等待
+        mScheduler.advanceTimeTo(100 * 1000, TimeUnit.MILLISECONDS);
+        HttpException error = httpError(403, new String[]{"X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "1900"});
+        AtomicInteger calls = new AtomicInteger();
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        failingSource(calls, 1, error).retryWhen(mPolicy.toRetryFunction(mScheduler)).subscribe(subscriber);
+
+        mScheduler.advanceTimeBy(1800 * 1000, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        mScheduler.advanceTimeBy(1000, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+        subscriber.assertValue("ok");
+    }
+
+    @Test
+    public void rejectsServerDelayOverLimit() {
+        HttpException error = httpError(429, new String[]{"Retry-After", "120"});
+        assertEquals(120 * 1000, mPolicy.getRetryDelay(0, error, 0));
+        RetryPolicy policy = RetryPolicy.exponential(3, 1000, 30 * 1000, 0f).setMaxServerDelay(60 * 1000);
+        assertEquals(-1, policy.getRetryDelay(0, error, 0));
+    }
+
+    @Test
+    public void parsesHttpDateRetryAfter() {
+        long now = 1445000000000L;
+        HttpException error = httpError(503, new String[]{"Retry-After", httpDate(now + 90 * 1000)});
+        assertEquals(90 * 1000, mPolicy.getRetryDelay(0, error, now));
+    }
+
+    @Test
+    public void fallsBackToRateLimitResetWhenRetryAfterIsInvalid() {
+        HttpException error = httpError(403, new String[]{"Retry-After", "soon", "X-RateLimit-Remaining", "0",
+                "X-RateLimit-Reset", "10"});
+        assertEquals(11 * 1000, mPolicy.getRetryDelay(0, error, 0));
+    }
+
+    @Test
+    public void retriesSecondaryRateLimit() {
+        HttpException secondary = httpError(403, new String[]{"X-RateLimit-Remaining", "4000", "Retry-After", "30"});
+        assertTrue(mPolicy.isRetryable(secondary));
+        assertEquals(30 * 1000, mPolicy.getRetryDelay(0, secondary, 0));
+        assertFalse(mPolicy.isRetryable(httpError(403, new String[]{"X-RateLimit-Remaining", "4000"})));
+    }
+
+    @Test
+    public void jitterStaysInRange() {
+        RetryPolicy policy = RetryPolicy.exponential(5, 1000, 30 * 1000, 0.5f).setRandom(new Random(1));
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.getRetryDelay(2, new IOException(), 0);
+            assertTrue(String.valueOf(delay), delay >= 2000 && delay <= 4000);
+        }
+        assertEquals(-1, policy.getRetryDelay(5, new IOException(), 0));
+    }
+
+    @Test
+    public void dataControllerDoesNotRetryByDefault() {
+        DataController<ManualFrameSchedulerTest.Item> controller = new DataController<ManualFrameSchedulerTest.Item>() {
+            @Override
+            public Observable<List<ManualFrameSchedulerTest.Item>> doInitialize() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<ManualFrameSchedulerTest.Item>> doRefresh() {
+                return null;
+            }
+
+            @Override
+            public Observable<List<ManualFrameSchedulerTest.Item>> doLoadMore() {
+                return null;
+            }
+        };
+        assertNull(controller.getRetryPolicy());
+    }
+
+    private static Observable<String> failingSource(AtomicInteger calls, int failures) {
+        return failingSource(calls, failures, new IOException("Connection reset"));
+    }
+
+    /**
+     * 前 failures 次订阅失败, 之后发出 "ok"
+     */
+    private static Observable<String> failingSource(final AtomicInteger calls, final int failures, final Throwable error) {
+        return Observable.defer(new Func0<Observable<String>>() {
+            @Override
+            public Observable<String> call() {
+                return calls.incrementAndGet() <= failures ? Observable.<String>error(error) : Observable.just("ok");
+            }
+        });
+    }
+
+    private static HttpException httpError(int code, String[] headers) {
+        com.squareup.okhttp.Response.Builder builder = new com.squareup.okhttp.Response.Builder()
+                .request(new Request.Builder().url("https://api.github.com/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code);
+        if (headers != null) {
+            for (int i = 0; i < headers.length; i += 2) {
+                builder.addHeader(headers[i], headers[i + 1]);
+            }
+        }
+        return new HttpException(Response.error(ResponseBody.create(null, ""), builder.build()));
+    }
+
+    private static String httpDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(millis));
+    }
+}
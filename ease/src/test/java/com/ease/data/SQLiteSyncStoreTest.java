@@ -0,0 +1,125 @@
+package com.ease.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * sqlite sync store test
+ * 通过 sqlite-jdbc 执行 SQLiteSyncStore 的建表语句和 keyset 分页查询
+ */
+public class SQLiteSyncStoreTest {
+
+    private static final String LIST = "notifications";
+
+    private Connection mConnection;
+
+    @Before
+    public void setUp() throws SQLException {
+        mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        Statement statement = mConnection.createStatement();
+        try {
+            statement.execute(SQLiteSyncStore.CREATE_ITEMS);
+            statement.execute(SQLiteSyncStore.CREATE_ITEMS_ORDER);
+            statement.execute(SQLiteSyncStore.CREATE_STATE);
+        } finally {
+            statement.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mConnection.close();
+    }
+
+    private void insert(String listKey, long itemId, long sortKey) throws SQLException {
+        PreparedStatement insert = mConnection.prepareStatement(SQLiteSyncStore.INSERT_ITEM);
+        try {
+            insert.setString(1, listKey);
+            insert.setLong(2, itemId);
+            insert.setLong(3, sortKey);
+            insert.setBytes(4, new byte[]{(byte) itemId});
+            insert.executeUpdate();
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * 与 SQLiteSyncStore.query 相同的参数绑定, 返回 data 中保存的 itemId
+     */
+    private List<Long> query(long beforeSortKey, long beforeId, int limit) throws SQLException {
+        PreparedStatement query = mConnection.prepareStatement(SQLiteSyncStore.QUERY_PAGE + limit);
+        try {
+            String sortKey = String.valueOf(beforeSortKey);
+            query.setString(1, LIST);
+            query.setString(2, sortKey);
+            query.setString(3, sortKey);
+            query.setString(4, String.valueOf(beforeId));
+            ResultSet rows = query.executeQuery();
+            List<Long> ids = new ArrayList<>();
+            while (rows.next()) {
+                ids.add((long) rows.getBytes(1)[0]);
+            }
+            return ids;
+        } finally {
+            query.close();
+        }
+    }
+
+    @Test
+    public void keysetPagesSplitEqualSortKeys() throws SQLException {
+        insert(LIST, 1, 10);
+        insert(LIST, 2, 20);
+        insert(LIST, 3, 20);
+        insert(LIST, 4, 20);
+        insert(LIST, 5, 30);
+        insert("other", 6, 25);
+
+        assertEquals("[5, 4]", query(Long.MAX_VALUE, Long.MAX_VALUE, 2).toString());
+        // 上一页最后一条是 (20, 4), 相同 sortKey 中只读取 itemId 更小的
+        assertEquals("[3, 2]", query(20, 4, 2).toString());
+        assertEquals("[1]", query(20, 2, 2).toString());
+        assertEquals("[]", query(10, 1, 2).toString());
+    }
+
+    @Test
+    public void insertReplacesItemInList() throws SQLException {
+        insert(LIST, 1, 10);
+        insert(LIST, 2, 20);
+        insert(LIST, 1, 30);
+        insert("other", 1, 40);
+
+        assertEquals("[1, 2]", query(Long.MAX_VALUE, Long.MAX_VALUE, 10).toString());
+    }
+
+    @Test
+    public void queryUsesOrderIndex() throws SQLException {
+        Statement statement = mConnection.createStatement();
+        try {
+            ResultSet plan = statement.executeQuery("EXPLAIN QUERY PLAN "
+                    + SQLiteSyncStore.QUERY_PAGE.replace("?", "'0'") + 10);
+            StringBuilder detail = new StringBuilder();
+            while (plan.next()) {
+                detail.append(plan.getString("detail")).append('\n');
+            }
+            String text = detail.toString();
+            assertTrue(text, text.contains(SQLiteSyncStore.TABLE_ITEMS + "_order"));
+            assertTrue(text, !text.contains("TEMP B-TREE"));
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.ease.data;
+
+import com.ease.codec.BinaryCodec;
+import com.ease.codec.Sink;
+import com.ease.codec.Source;
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.functions.Func0;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * synced data controller test
+ * 内存中的 SyncStore 和远端, 覆盖增量同步, 水位, 超过 maxSyncPages 时的裁剪, 补齐历史和本地条目无法解析时的重新同步
+ */
+public class SyncedDataControllerTest {
+
+    static final class Item extends BaseModel {
+        final long mId;
+        final long mUpdatedAt;
+
+        Item(long id, long updatedAt) {
+            mId = id;
+            mUpdatedAt = updatedAt;
+        }
+
+        @Override
+        public long getStableId() {
+            return mId;
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(mId);
+        }
+    }
+
+    private static final BinaryCodec<Item> CODEC = new BinaryCodec<Item>() {
+        @Override
+        public void write(Sink sink, Item value) throws IOException {
+            sink.writeLong(value.mId);
+            sink.writeLong(value.mUpdatedAt);
+        }
+
+        @Override
+        public Item read(Source source) throws IOException {
+            return new Item(source.readLong(), source.readLong());
+        }
+    };
+
+    /**
+     * 按 (sortKey, itemId) 从大到小读取, 与 SQLiteSyncStore 的语义一致
+     */
+    static final class MemorySyncStore implements SyncStore {
+
+        private static final Comparator<Row> ORDER = new Comparator<Row>() {
+            @Override
+            public int compare(Row lhs, Row rhs) {
+                if (lhs.sortKey != rhs.sortKey) {
+                    return lhs.sortKey > rhs.sortKey ? -1 : 1;
+                }
+                return lhs.itemId > rhs.itemId ? -1 : lhs.itemId == rhs.itemId ? 0 : 1;
+            }
+        };
+
+        private final Map<String, List<Row>> mRows = new HashMap<>();
+        private final Map<String, SyncState> mStates = new HashMap<>();
+
+        @Override
+        public synchronized List<byte[]> query(String listKey, long beforeSortKey, long beforeId, int limit) {
+            List<byte[]> result = new ArrayList<>();
+            for (Row row : rows(listKey)) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if (row.sortKey < beforeSortKey || (row.sortKey == beforeSortKey && row.itemId < beforeId)) {
+                    result.add(row.data);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void apply(String listKey, List<Row> rows, long trimBelow, SyncState state) {
+            List<Row> stored = rows(listKey);
+            for (Iterator<Row> it = stored.iterator(); it.hasNext(); ) {
+                Row row = it.next();
+                if (trimBelow != NO_TRIM && row.sortKey < trimBelow || contains(rows, row.itemId)) {
+                    it.remove();
+                }
+            }
+            stored.addAll(rows);
+            Collections.sort(stored, ORDER);
+            if (state != null) {
+                mStates.put(listKey, state);
+            }
+        }
+
+        @Override
+        public synchronized SyncState getState(String listKey) {
+            SyncState state = mStates.get(listKey);
+            return state == null ? SyncState.EMPTY : state;
+        }
+
+        @Override
+        public synchronized void clear(String listKey) {
+            mRows.remove(listKey);
+            mStates.remove(listKey);
+        }
+
+        synchronized int size(String listKey) {
+            return rows(listKey).size();
+        }
+
+        private List<Row> rows(String listKey) {
+            List<Row> rows = mRows.get(listKey);
+            if (rows == null) {
+                rows = new ArrayList<>();
+                mRows.put(listKey, rows);
+            }
+            return rows;
+        }
+
+        private static boolean contains(List<Row> rows, long itemId) {
+            for (Row row : rows) {
+                if (row.itemId == itemId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 按 updated_at 从新到旧返回, PageKey.page 从 1 开始; 记录每次请求的 "since/page"
+     */
+    static final class RemoteSource implements SyncSource<Item> {
+
+        private final List<Item> mItems = new ArrayList<>();
+        private final List<String> mFetches = new ArrayList<>();
+
+        synchronized void put(long id, long updatedAt) {
+            for (Iterator<Item> it = mItems.iterator(); it.hasNext(); ) {
+                if (it.next().mId == id) {
+                    it.remove();
+                }
+            }
+            mItems.add(new Item(id, updatedAt));
+            Collections.sort(mItems, new Comparator<Item>() {
+                @Override
+                public int compare(Item lhs, Item rhs) {
+                    return lhs.mUpdatedAt > rhs.mUpdatedAt ? -1 : lhs.mUpdatedAt == rhs.mUpdatedAt ? 0 : 1;
+                }
+            });
+        }
+
+        synchronized List<String> getFetches() {
+            return new ArrayList<>(mFetches);
+        }
+
+        synchronized void clearFetches() {
+            mFetches.clear();
+        }
+
+        @Override
+        public Observable<List<Item>> fetch(final long since, final PageKey key, final int limit) {
+            return Observable.defer(new Func0<Observable<List<Item>>>() {
+                @Override
+                public Observable<List<Item>> call() {
+                    return Observable.just(page(since, key.getPage(), limit));
+                }
+            });
+        }
+
+        private synchronized List<Item> page(long since, int page, int limit) {
+            mFetches.add(since + "/" + page);
+            List<Item> matched = new ArrayList<>();
+            for (Item item : mItems) {
+                if (item.mUpdatedAt >= since) {
+                    matched.add(item);
+                }
+            }
+            int from = Math.min(matched.size(), (page - 1) * limit);
+            return new ArrayList<>(matched.subList(from, Math.min(matched.size(), from + limit)));
+        }
+
+        @Override
+        public long getUpdatedAt(Item model) {
+            return model.mUpdatedAt;
+        }
+    }
+
+    private static final String LIST = "notifications";
+    private static final int LIMIT = 2;
+
+    @Rule
+    public TestMainThread mMainThread = new TestMainThread();
+
+    private MemorySyncStore mStore;
+    private RemoteSource mRemote;
+    private SyncedDataController<Item> mController;
+    private ActionRecorder<Item> mRecorder;
+
+    @Before
+    public void setUp() {
+        mStore = new MemorySyncStore();
+        mRemote = new RemoteSource();
+        for (int id = 1; id <= 5; id++) {
+            mRemote.put(id, id * 10);
+        }
+        mController = new SyncedDataController<>(LIST, mRemote, CODEC, mStore);
+        mController.setLimit(LIMIT);
+        mRecorder = ActionRecorder.attach(mController, mMainThread);
+    }
+
+    private void initialize() throws InterruptedException {
+        mController.initialize();
+        assertNull(mRecorder.await().error);
+        mRemote.clearFetches();
+    }
+
+    private void refresh() throws InterruptedException {
+        mController.refresh();
+        assertNull(mRecorder.await().error);
+    }
+
+    private void loadMore() throws InterruptedException {
+        mController.loadMore();
+        assertNull(mRecorder.await().error);
+    }
+
+    private String data() {
+        return mController.getData().toString();
+    }
+
+    @Test
+    public void initialSyncFetchesOnePage() throws InterruptedException {
+        mController.initialize();
+        assertNull(mRecorder.await().error);
+
+        assertEquals("[5, 4]", data());
+        assertEquals("[0/1]", mRemote.getFetches().toString());
+        SyncState state = mStore.getState(LIST);
+        assertEquals(50, state.getHighWater());
+        assertEquals(PageKey.page(2), state.getBackfillKey());
+    }
+
+    @Test
+    public void incrementalSyncFollowsPagesUntilHighWater() throws InterruptedException {
+        initialize();
+        mRemote.put(6, 60);
+        mRemote.put(3, 70);
+
+        refresh();
+        // 70 60 | 50: 第二页是短页, 同步结束
+        assertEquals("[50/1, 50/2]", mRemote.getFetches().toString());
+        assertEquals("[3, 6]", data());
+        assertEquals(70, mStore.getState(LIST).getHighWater());
+        assertEquals(PageKey.page(2), mStore.getState(LIST).getBackfillKey());
+        assertEquals(4, mStore.size(LIST));
+    }
+
+    @Test
+    public void pageReachingHighWaterIsCaughtUp() throws InterruptedException {
+        initialize();
+        mRemote.put(6, 60);
+
+        refresh();
+        // 第一页 60 50 已经到达水位, 不再请求下一页
+        assertEquals("[50/1]", mRemote.getFetches().toString());
+        assertEquals("[6, 5]", data());
+        assertEquals(60, mStore.getState(LIST).getHighWater());
+        assertEquals(3, mStore.size(LIST));
+    }
+
+    @Test
+    public void syncOverMaxPagesTrimsOlderLocalItems() throws InterruptedException {
+        initialize();
+        mController.setMaxSyncPages(1);
+        mRemote.put(6, 60);
+        mRemote.put(7, 70);
+        mRemote.put(8, 80);
+
+        refresh();
+        // 只同步了 80 70, 与本地 50 40 之间缺少 60, 丢弃更早的本地数据
+        assertEquals("[50/1]", mRemote.getFetches().toString());
+        assertEquals("[8, 7]", data());
+        assertEquals(2, mStore.size(LIST));
+        SyncState state = mStore.getState(LIST);
+        assertEquals(80, state.getHighWater());
+        assertEquals(PageKey.page(2), state.getBackfillKey());
+
+        mRemote.clearFetches();
+        loadMore();
+        assertEquals("[0/2]", mRemote.getFetches().toString());
+        assertEquals("[8, 7, 6, 5]", data());
+    }
+
+    @Test
+    public void loadMoreBackfillsAfterLocalRows() throws InterruptedException {
+        initialize();
+
+        loadMore();
+        assertEquals("[0/2]", mRemote.getFetches().toString());
+        assertEquals("[5, 4, 3, 2]", data());
+        assertEquals(PageKey.page(3), mStore.getState(LIST).getBackfillKey());
+
+        loadMore();
+        assertEquals("[0/2, 0/3]", mRemote.getFetches().toString());
+        assertEquals("[5, 4, 3, 2, 1]", data());
+        assertNull(mStore.getState(LIST).getBackfillKey());
+        assertTrue(mController.hasReachedEnd());
+
+        // 历史已经全部在本地, 重新打开时只从本地分页
+        SyncedDataController<Item> reopened = new SyncedDataController<>(LIST, mRemote, CODEC, mStore);
+        reopened.setLimit(LIMIT);
+        reopened.setMinSyncInterval(Long.MAX_VALUE);
+        ActionRecorder<Item> recorder = ActionRecorder.attach(reopened, mMainThread);
+        mRemote.clearFetches();
+        reopened.initialize();
+        assertNull(recorder.await().error);
+        reopened.loadMore();
+        assertNull(recorder.await().error);
+        reopened.loadMore();
+        assertNull(recorder.await().error);
+        assertEquals("[5, 4, 3, 2, 1]", reopened.getData().toString());
+        assertEquals("[]", mRemote.getFetches().toString());
+    }
+
+    @Test
+    public void corruptLocalRowResyncsFromScratch() throws InterruptedException {
+        initialize();
+        mStore.apply(LIST, Collections.singletonList(new SyncStore.Row(9, 90, new byte[]{1})),
+                SyncStore.NO_TRIM, null);
+
+        refresh();
+        // 增量同步后重新读取第一页失败, 清除本地数据后按首次同步重新获取
+        assertEquals("[50/1, 0/1]", mRemote.getFetches().toString());
+        assertEquals("[5, 4]", data());
+        assertEquals(2, mStore.size(LIST));
+        assertEquals(50, mStore.getState(LIST).getHighWater());
+    }
+
+    @Test
+    public void corruptLocalRowOnInitializeIsDropped() throws InterruptedException {
+        mStore.apply(LIST, Collections.singletonList(new SyncStore.Row(9, 90, new byte[]{1})),
+                SyncStore.NO_TRIM, new SyncState(90, 1, null));
+
+        mController.initialize();
+        assertNull(mRecorder.await().error);
+        assertEquals("[0/1]", mRemote.getFetches().toString());
+        assertEquals("[5, 4]", data());
+    }
+}
@@ -0,0 +1,66 @@
+package com.ease.data;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import rx.Scheduler;
+import rx.android.plugins.RxAndroidPlugins;
+import rx.android.plugins.RxAndroidSchedulersHook;
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * test main thread
+ * 把 AndroidSchedulers.mainThread() 替换为由测试线程执行的队列: 请求仍然在 io 线程进行,
+ * 结果排队等待测试线程 runNext, 与真实的主线程一样所有状态只在一个线程上修改
+ */
+public class TestMainThread extends ExternalResource {
+
+    private final LinkedBlockingQueue<Runnable> mQueue = new LinkedBlockingQueue<>();
+    private final Scheduler mScheduler = Schedulers.from(new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mQueue.add(command);
+        }
+    });
+
+    @Override
+    protected void before() {
+        RxAndroidPlugins.getInstance().reset();
+        RxAndroidPlugins.getInstance().registerSchedulersHook(new RxAndroidSchedulersHook() {
+            @Override
+            public Scheduler getMainThreadScheduler() {
+                return mScheduler;
+            }
+        });
+    }
+
+    @Override
+    protected void after() {
+        RxAndroidPlugins.getInstance().reset();
+        mQueue.clear();
+    }
+
+    /**
+     * 执行下一个任务, 5 秒内没有任务时测试失败
+     */
+    public void runNext() throws InterruptedException {
+        Runnable task = mQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull("No main thread task within 5s", task);
+        task.run();
+    }
+
+    /**
+     * 执行已经排队的任务, 不等待
+     */
+    public void runPending() {
+        Runnable task;
+        while ((task = mQueue.poll()) != null) {
+            task.run();
+        }
+    }
+}
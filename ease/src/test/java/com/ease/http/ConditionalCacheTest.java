@@ -0,0 +1,143 @@
+package com.ease.http;
+
+import com.google.gson.reflect.TypeToken;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import retrofit.HttpException;
+import retrofit.Response;
+import retrofit.http.GET;
+import retrofit.http.Headers;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * conditional cache test
+ */
+public class ConditionalCacheTest {
+
+    static final class Repo {
+        String name;
+    }
+
+    interface Api {
+        @GET("repos")
+        @Headers(ConditionalCache.REVALIDATE)
+        Observable<Response<List<Repo>>> repos();
+
+        @GET("repos")
+        Observable<List<Repo>> plainRepos();
+    }
+
+    private static final Type REPOS = new TypeToken<List<Repo>>() {
+    }.getType();
+
+    private final MockWebServer mServer = new MockWebServer();
+    private String mToken = "first";
+    private ApiClient mClient;
+    private Api mApi;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer.start();
+        mClient = new ApiClient.Builder(mServer.url("/").toString())
+                .addInterceptor(new AuthInterceptor(new AuthInterceptor.TokenProvider() {
+                    @Override
+                    public String getToken() {
+                        return mToken;
+                    }
+                }))
+                .build();
+        mApi = mClient.create(Api.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void notModifiedEmitsCopyOfCachedBody() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("[{\"name\":\"ease\"}]").setHeader("ETag", "\"abc\""));
+        mServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"abc\""));
+        mServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"abc\""));
+
+        List<Repo> first = repos();
+        first.get(0).name = "changed";
+        first.clear();
+        List<Repo> second = repos();
+        second.get(0).name = "changed again";
+        List<Repo> third = repos();
+
+        assertEquals(1, second.size());
+        assertEquals("ease", third.get(0).name);
+        assertNotSame(second, third);
+
+        assertNull(mServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"abc\"", mServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"abc\"", mServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals(2, mClient.getConditionalCache().getHitCount());
+        assertEquals(1, mClient.getConditionalCache().getMissCount());
+    }
+
+    @Test
+    public void cacheIsPartitionedByAuthorization() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("[{\"name\":\"first\"}]").setHeader("ETag", "\"1\""));
+        mServer.enqueue(new MockResponse().setBody("[{\"name\":\"second\"}]").setHeader("ETag", "\"2\""));
+        mServer.enqueue(new MockResponse().setResponseCode(304));
+
+        repos();
+        mToken = "second";
+        repos();
+        mToken = "first";
+        assertEquals("first", repos().get(0).name);
+
+        RecordedRequest request = mServer.takeRequest();
+        assertEquals("token first", request.getHeader("Authorization"));
+        assertNull(request.getHeader("If-None-Match"));
+        request = mServer.takeRequest();
+        assertEquals("token second", request.getHeader("Authorization"));
+        assertNull(request.getHeader("If-None-Match"));
+        assertEquals("\"1\"", mServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals(2, mClient.getConditionalCache().size());
+    }
+
+    @Test
+    public void unmarkedRequestIsNotConditional() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("[{\"name\":\"ease\"}]").setHeader("ETag", "\"abc\""));
+        mServer.enqueue(new MockResponse().setBody("[{\"name\":\"plain\"}]").setHeader("ETag", "\"abc\""));
+
+        repos();
+        assertEquals("plain", mApi.plainRepos().toBlocking().single().get(0).name);
+
+        assertNull(mServer.takeRequest().getHeader(ConditionalCache.HEADER));
+        RecordedRequest request = mServer.takeRequest();
+        assertNull(request.getHeader("If-None-Match"));
+        assertNull(request.getHeader(ConditionalCache.HEADER));
+    }
+
+    @Test
+    public void notModifiedWithoutEntryFails() {
+        mServer.enqueue(new MockResponse().setResponseCode(304));
+        TestSubscriber<List<Repo>> subscriber = new TestSubscriber<>();
+        mApi.repos().compose(mClient.<List<Repo>>revalidate(REPOS)).subscribe(subscriber);
+        subscriber.awaitTerminalEvent();
+        subscriber.assertError(HttpException.class);
+    }
+
+    private List<Repo> repos() {
+        return mApi.repos().compose(mClient.<List<Repo>>revalidate(REPOS)).toBlocking().single();
+    }
+}
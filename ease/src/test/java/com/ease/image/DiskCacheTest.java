@@ -0,0 +1,81 @@
+package com.ease.image;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import okio.ByteString;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * disk cache test
+ * 超出大小时删除最久没有使用的, 重新打开时按文件的修改时间恢复使用顺序
+ */
+public class DiskCacheTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws IOException {
+        DiskCache cache = new DiskCache(mFolder.getRoot(), 100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        assertNotNull(cache.get("a"));
+        cache.put("c", new byte[40]);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(80, cache.getSize());
+    }
+
+    @Test
+    public void restoresOrderWhenReopened() throws IOException {
+        File directory = mFolder.getRoot();
+        DiskCache cache = new DiskCache(directory, 100);
+        cache.put("a", new byte[] {1});
+        cache.put("b", new byte[] {2});
+        // a 比 b 更近使用
+        assertTrue(file(directory, "a").setLastModified(2000000L));
+        assertTrue(file(directory, "b").setLastModified(1000000L));
+        File temp = new File(directory, "junk.0.tmp");
+        assertTrue(temp.createNewFile());
+
+        DiskCache reopened = new DiskCache(directory, 100);
+        assertEquals(2, reopened.getSize());
+        assertFalse(temp.exists());
+        reopened.put("c", new byte[99]);
+
+        assertNull(reopened.get("b"));
+        assertArrayEquals(new byte[] {1}, reopened.get("a"));
+        assertEquals(100, reopened.getSize());
+    }
+
+    @Test
+    public void dropsEntryWhenFileDeleted() throws IOException {
+        File directory = mFolder.getRoot();
+        DiskCache cache = new DiskCache(directory, 100);
+        cache.put("a", new byte[40]);
+        assertTrue(file(directory, "a").delete());
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.getSize());
+        cache.put("a", new byte[30]);
+        assertEquals(30, cache.get("a").length);
+        assertEquals(30, cache.getSize());
+    }
+
+    private static File file(File directory, String key) {
+        return new File(directory, ByteString.encodeUtf8(key).md5().hex());
+    }
+}
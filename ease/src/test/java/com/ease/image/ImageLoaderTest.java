@@ -0,0 +1,200 @@
+package com.ease.image;
+
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import rx.Observable;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * image loader test
+ * 相同地址的下载共用一次请求, 下载后写入磁盘缓存; 所有订阅者都取消后取消请求, 不写入缓存
+ */
+public class ImageLoaderTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private MockWebServer mServer;
+    private ImageLoader mLoader;
+
+    @Before
+    public void setUp() throws IOException {
+        mServer = new MockWebServer();
+        mServer.start();
+        mLoader = builder().build();
+    }
+
+    private ImageLoader.Builder builder() {
+        return new ImageLoader.Builder()
+                .diskCache(mFolder.getRoot(), 1 << 20)
+                .memoryCacheSize(1 << 20)
+                .bitmapPoolSize(1 << 20)
+                .mainScheduler(Schedulers.immediate());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void sharesDownloadAndReadsDisk() {
+        mServer.enqueue(new MockResponse().setBody("avatar").setBodyDelay(300, TimeUnit.MILLISECONDS));
+        String url = mServer.url("/u/1").toString();
+
+        List<String> bodies = Observable.merge(mLoader.download(url), mLoader.download(url))
+                .map(new Func1<byte[], String>() {
+                    @Override
+                    public String call(byte[] data) {
+                        return new String(data);
+                    }
+                })
+                .toList().toBlocking().single();
+
+        assertEquals(2, bodies.size());
+        assertEquals("avatar", bodies.get(0));
+        assertEquals("avatar", bodies.get(1));
+        assertEquals(1, mServer.getRequestCount());
+        assertEquals(0, mLoader.getDownloadCount());
+
+        byte[] cached = mLoader.download(url).toBlocking().single();
+        assertEquals("avatar", new String(cached));
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    /**
+     * 记录请求在 io 线程上的结束: 请求失败或者响应体关闭, 以及响应体是否读完
+     */
+    private static final class BodyWatcher implements Interceptor {
+
+        final CountDownLatch finished = new CountDownLatch(1);
+        final AtomicBoolean exhausted = new AtomicBoolean();
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            final Response response;
+            try {
+                response = chain.proceed(chain.request());
+            } catch (IOException e) {
+                finished.countDown();
+                throw e;
+            }
+            final BufferedSource source = Okio.buffer(new ForwardingSource(response.body().source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read == -1) {
+                        exhausted.set(true);
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    finished.countDown();
+                }
+            });
+            return response.newBuilder().body(new ResponseBody() {
+                @Override
+                public MediaType contentType() {
+                    return response.body().contentType();
+                }
+
+                @Override
+                public long contentLength() throws IOException {
+                    return response.body().contentLength();
+                }
+
+                @Override
+                public BufferedSource source() {
+                    return source;
+                }
+            }).build();
+        }
+    }
+
+    @Test
+    public void cancelsWhenLastSubscriberLeaves() throws Exception {
+        BodyWatcher watcher = new BodyWatcher();
+        OkHttpClient client = new OkHttpClient();
+        client.interceptors().add(watcher);
+        ImageLoader loader = builder().client(client).build();
+
+        mServer.enqueue(new MockResponse().setBody("avatar").setBodyDelay(500, TimeUnit.MILLISECONDS));
+        String url = mServer.url("/u/2").toString();
+        final List<byte[]> received = Collections.synchronizedList(new ArrayList<byte[]>());
+        Action1<byte[]> collect = new Action1<byte[]>() {
+            @Override
+            public void call(byte[] data) {
+                received.add(data);
+            }
+        };
+
+        Subscription first = loader.download(url).subscribe(collect);
+        Subscription second = loader.download(url).subscribe(collect);
+        mServer.takeRequest();
+        first.unsubscribe();
+        assertEquals(1, loader.getDownloadCount());
+        second.unsubscribe();
+        assertEquals(0, loader.getDownloadCount());
+
+        // 等待 io 线程上的请求结束; 没有取消时响应体在 500ms 后读完并写入磁盘缓存
+        assertTrue(watcher.finished.await(5, TimeUnit.SECONDS));
+        assertFalse(watcher.exhausted.get());
+        assertTrue(received.isEmpty());
+        assertNull(loader.getDiskCache().get(url));
+    }
+
+    @Test
+    public void failsOnHttpError() throws IOException {
+        mServer.enqueue(new MockResponse().setResponseCode(404));
+        mServer.enqueue(new MockResponse().setBody("avatar"));
+        String url = mServer.url("/u/3").toString();
+
+        try {
+            mLoader.download(url).toBlocking().single();
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(0, mLoader.getDownloadCount());
+        assertNull(mLoader.getDiskCache().get(url));
+
+        assertEquals("avatar", new String(mLoader.download(url).toBlocking().single()));
+        assertEquals(2, mServer.getRequestCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.ease.metrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * holder metrics test
+ */
+public class HolderMetricsTest {
+
+    private static final int THREADS = 4;
+    private static final int VIEW_TYPES = 16;
+    private static final int ROUNDS = 1600;
+
+    @Test
+    public void recordsFromSeveralThreads() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        final HolderMetrics metrics = new HolderMetrics(registry, "adapter.Test");
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < ROUNDS; i++) {
+                        metrics.recordCreate(i % VIEW_TYPES, 1000);
+                        metrics.recordBind(i % VIEW_TYPES, 100);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long created = 0;
+        for (int viewType = 0; viewType < VIEW_TYPES; viewType++) {
+            created += registry.histogram("adapter.Test." + viewType + ".create").getCount();
+            assertEquals(THREADS * ROUNDS / VIEW_TYPES, registry.histogram("adapter.Test." + viewType + ".bind").getCount());
+        }
+        assertEquals(THREADS * ROUNDS, created);
+        assertEquals(VIEW_TYPES * 2, registry.getHistograms().size());
+    }
+}
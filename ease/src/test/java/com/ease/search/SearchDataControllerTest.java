@@ -0,0 +1,136 @@
+package com.ease.search;
+
+import com.ease.data.ChangeMirror;
+import com.ease.data.DataController;
+import com.ease.data.ManualFrameScheduler;
+import com.ease.data.RandomEdits;
+import com.ease.data.TestMainThread;
+import com.ease.model.BaseModel;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import rx.Observable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * search data controller test
+ * 随机修改 parent 和搜索词, 增量维护的结果与逐个匹配的结果一致, 分发的变化与数据一致
+ */
+public class SearchDataControllerTest {
+
+    static final class Item extends BaseModel {
+        final String mText;
+
+        Item(String text) {
+            mText = text;
+        }
+
+        @Override
+        public String toString() {
+            return mText;
+        }
+    }
+
+    private static final String[] WORDS = {"red", "green", "blue", "rust", "go", "ruby"};
+    private static final String[] QUERIES = {"", "r", "gr", "blue", "ru go", "re"};
+
+    private static final RandomEdits.Factory<Item> FACTORY = new RandomEdits.Factory<Item>() {
+        @Override
+        public Item create(Random random) {
+            return new Item(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+        }
+    };
+
+    private static final SearchDataController.TextExtractor<Item> TEXT = new SearchDataController.TextExtractor<Item>() {
+        @Override
+        public CharSequence getText(Item model) {
+            return model.mText;
+        }
+    };
+
+    @Rule
+    public TestMainThread mMainThread = new TestMainThread();
+
+    private ManualFrameScheduler mScheduler;
+    private DataController<Item> mParent;
+
+    @Before
+    public void setUp() {
+        mScheduler = new ManualFrameScheduler();
+        mParent = new DataController<Item>() {
+            @Override
+            public Observable<List<Item>> doInitialize() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doRefresh() {
+                return Observable.empty();
+            }
+
+            @Override
+            public Observable<List<Item>> doLoadMore() {
+                return Observable.empty();
+            }
+        };
+        mParent.setFrameScheduler(mScheduler);
+    }
+
+    private void settle() {
+        while (mScheduler.getPendingCount() > 0) {
+            mScheduler.doFrame();
+        }
+    }
+
+    private List<Item> expected(String query) {
+        String[] terms = SearchIndex.tokenize(query);
+        List<Item> items = new ArrayList<>();
+        for (Item item : mParent.getData()) {
+            if (SearchIndex.matches(terms, SearchIndex.tokenize(item.mText))) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    @Test
+    public void incrementalResultMatchesFullSearch() throws InterruptedException {
+        for (long seed = 0; seed < 30; seed++) {
+            Random random = new Random(seed);
+            RandomEdits<Item> edits = new RandomEdits<>(mParent, FACTORY, random);
+            mParent.clearData();
+            mParent.bulkAppendData(edits.create(10));
+
+            SearchDataController<Item> search = new SearchDataController<>(mParent, TEXT);
+            search.setFrameScheduler(mScheduler);
+            search.setQuery("r");
+            ChangeMirror<Item> mirror = new ChangeMirror<>(search);
+            search.attach();
+            assertEquals(expected("r"), search.getData());
+
+            for (int round = 0; round < 100; round++) {
+                if (random.nextInt(10) == 0) {
+                    search.setQuery(QUERIES[random.nextInt(QUERIES.length)]);
+                    while (search.isSearching()) {
+                        mMainThread.runNext();
+                    }
+                }
+                for (int i = 1 + random.nextInt(4); i > 0; i--) {
+                    edits.apply();
+                }
+                settle();
+                List<Item> expected = expected(search.getQuery());
+                assertEquals("seed " + seed + " round " + round, expected, search.getData());
+                assertEquals("seed " + seed + " round " + round, expected, mirror.getItems());
+            }
+            search.detach();
+        }
+    }
+}
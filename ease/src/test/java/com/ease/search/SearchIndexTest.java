@@ -0,0 +1,38 @@
+package com.ease.search;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * search index test
+ * clear 后 id 重新从 0 分配, 新文档不会被当作已删除
+ */
+public class SearchIndexTest {
+
+    @Test
+    public void clearResetsIds() {
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < 100; i++) {
+            index.add("repo " + i);
+        }
+        index.remove(3);
+        index.clear();
+
+        assertEquals(0, index.getDocumentCount());
+        assertEquals(0, index.add("RxAndroid sample"));
+        assertEquals(1, index.add("RxJava"));
+        assertEquals(2, index.add("RxJava sample"));
+        assertEquals(3, index.add("sample"));
+
+        BitSet matches = index.search("sam");
+        assertEquals(3, matches.cardinality());
+        assertTrue(matches.get(0));
+        assertTrue(matches.get(2));
+        assertTrue(matches.get(3));
+        assertEquals(2, index.search("rx sam").cardinality());
+    }
+}